@@ -0,0 +1,48 @@
+package com.sstt.dinory.common.ai;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * AiServerClient 설정 (ai.client.*)
+ * 항목이 많아 @Value 대신 한 번에 바인딩한다. 값이 없으면 기본값 사용.
+ */
+@ConfigurationProperties(prefix = "ai.client")
+public record AiClientProperties(
+        @DefaultValue("200") int maxConnections,
+        @DefaultValue("5s") Duration pendingAcquireTimeout,   // 풀이 가득 찼을 때 연결을 기다리는 최대 시간
+        @DefaultValue("30s") Duration maxIdleTime,
+        @DefaultValue("3s") Duration connectTimeout,
+        @DefaultValue Timeout timeout,
+        @DefaultValue Limiter limiter,
+        @DefaultValue Breaker circuitBreaker) {
+
+    /** 엔드포인트별 deadline (풀 대기 포함 전체 호출 기준) */
+    public record Timeout(
+            @DefaultValue("60s") Duration generateScene,
+            @DefaultValue("20s") Duration streamIdle,         // 스트리밍 중 토큰 사이 최대 간격
+            @DefaultValue("10s") Duration recommend,
+            @DefaultValue("15s") Duration analyzeChoice,
+            @DefaultValue("30s") Duration chat) {
+    }
+
+    /** 엔드포인트별 적응형 동시 실행 제한 (AIMD) */
+    public record Limiter(
+            @DefaultValue("20") int initialLimit,
+            @DefaultValue("2") int minLimit,
+            @DefaultValue("200") int maxLimit,
+            @DefaultValue("2.0") double tolerance,            // 기준 RTT의 몇 배까지 정상으로 볼지
+            @DefaultValue("0.9") double backoffRatio,
+            @DefaultValue("0.5") double backgroundShare) {   // 선행 생성 등 배경 호출이 차지할 수 있는 limit 비율
+    }
+
+    /** 엔드포인트별 서킷 브레이커 */
+    public record Breaker(
+            @DefaultValue("20") int windowSize,
+            @DefaultValue("10") int minimumCalls,
+            @DefaultValue("0.5") double failureRateThreshold,
+            @DefaultValue("10s") Duration openDuration) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.sstt.dinory.common.ai;
+
+import java.time.Duration;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * AI 서버 보호를 위해 호출을 거절했을 때 (동시 실행 한도 초과 / 서킷 OPEN)
+ * Spring MVC가 503 + Retry-After 헤더로 응답한다.
+ */
+public class AiServerBusyException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public AiServerBusyException(String endpoint, String reason, Duration retryAfter) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "AI 서버가 바쁩니다. 잠시 후 다시 시도해주세요. (" + endpoint + ", " + reason + ")");
+        this.retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
@@ -0,0 +1,361 @@
+package com.sstt.dinory.common.ai;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.sstt.dinory.common.ai.dto.ChatReply;
+import com.sstt.dinory.common.ai.dto.ChatRequest;
+import com.sstt.dinory.common.ai.dto.CustomChoiceAnalysisRequest;
+import com.sstt.dinory.common.ai.dto.RecommendedStoryItem;
+import com.sstt.dinory.common.ai.dto.SceneGenerationRequest;
+import com.sstt.dinory.common.ai.dto.StoryChatInitRequest;
+import com.sstt.dinory.common.ai.dto.StoryRecommendationRequest;
+import com.sstt.dinory.common.concurrent.AdaptiveConcurrencyLimiter;
+import com.sstt.dinory.common.concurrent.CircuitBreaker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * FastAPI AI 서버 공용 클라이언트
+ *
+ * 호출마다 WebClient를 새로 만들거나 RestTemplate(풀/타임아웃 없음)을 쓰던 것을 하나로 모은다.
+ * - 전용 Reactor Netty 커넥션 풀 (keep-alive 재사용, 최대 연결 수/대기 타임아웃/유휴 정리)
+ * - 엔드포인트별 deadline (풀 대기 시간 포함 전체 호출 기준)
+ * - 엔드포인트별 적응형 동시 실행 제한(AIMD) + 서킷 브레이커
+ *   AI 서버가 느려지면 limit이 줄어들고, 초과 호출은 기다리지 않고 AiServerBusyException(503 + Retry-After)으로 거절된다.
+ *   Tomcat 스레드가 전부 block()에 묶여 AI와 무관한 API까지 멈추는 것을 막는다.
+ *
+ * 메트릭
+ * - ai.client.requests{endpoint, outcome=success|error|timeout|cancelled} (타이머)
+ * - ai.client.rejected{endpoint, reason=limit|circuit_open|background} (background: 여유가 없어 선행 생성을 생략)
+ * - ai.client.limit / ai.client.inflight / ai.client.circuit.state(0=CLOSED, 1=HALF_OPEN, 2=OPEN) {endpoint}
+ *
+ * 모든 메서드는 Mono/Flux를 돌려준다. 동기 호출부는 block(), 선행 생성은 구독 후 dispose로 취소한다.
+ * 씬/분석 응답은 프론트와 분기 캐시로 그대로 전달되므로 Map으로 둔다.
+ */
+@Component
+@Slf4j
+public class AiServerClient {
+
+    private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+    private final MeterRegistry meterRegistry;
+    private final AiClientProperties.Timeout timeout;
+
+    private final Guard sceneGuard;
+    private final Guard sceneStreamGuard;
+    private final Guard recommendGuard;
+    private final Guard analyzeGuard;
+    private final Guard chatGuard;
+    private final Guard chatStreamGuard;
+
+    public AiServerClient(
+            WebClient.Builder webClientBuilder,
+            MeterRegistry meterRegistry,
+            AiClientProperties properties,
+            @Value("${ai.server.url:http://localhost:8000}") String baseUrl) {
+        this.meterRegistry = meterRegistry;
+        this.timeout = properties.timeout();
+
+        this.connectionProvider = ConnectionProvider.builder("ai-server")
+            .maxConnections(properties.maxConnections())
+            .pendingAcquireTimeout(properties.pendingAcquireTimeout())
+            .maxIdleTime(properties.maxIdleTime())    // FastAPI(uvicorn) keep-alive보다 짧게 - 끊긴 연결 재사용 방지
+            .evictInBackground(Duration.ofSeconds(30))
+            .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.connectTimeout().toMillis())
+            .option(ChannelOption.SO_KEEPALIVE, true)
+            .keepAlive(true);
+
+        // 공용 Builder 빈을 변경하지 않도록 clone 후 커넥터 교체
+        this.webClient = webClientBuilder.clone()
+            .baseUrl(baseUrl)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .build();
+
+        // 스트리밍은 응답 시간 분포가 달라 기준 RTT를 섞지 않도록 따로 둠
+        this.sceneGuard = new Guard("generate-next-scene", properties);
+        this.sceneStreamGuard = new Guard("generate-next-scene-stream", properties);
+        this.recommendGuard = new Guard("recommend-stories", properties);
+        this.analyzeGuard = new Guard("analyze-custom-choice", properties);
+        this.chatGuard = new Guard("chat", properties);
+        this.chatStreamGuard = new Guard("chat-stream", properties);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionProvider.dispose();
+    }
+
+    /** 씬 생성 (첫 씬 포함) */
+    public Mono<Map<String, Object>> generateScene(SceneGenerationRequest request) {
+        return guarded(sceneGuard, "generate-next-scene", timeout.generateScene(), webClient.post()
+            .uri("/ai/generate-next-scene")
+            .bodyValue(request)
+            .retrieve()
+            .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {}));
+    }
+
+    /**
+     * 선행(speculative) 씬 생성 - 사용자 요청과 같은 limiter/breaker를 쓰되 우선순위를 낮춤
+     * 서킷이 CLOSED이고 씬 생성(일반/스트리밍) in-flight가 각각 limit x background-share 미만일 때만 호출한다.
+     * 여유가 없으면 503으로 거절하지 않고 호출 없이 empty로 끝난다.
+     */
+    public Mono<Map<String, Object>> generateSceneInBackground(SceneGenerationRequest request) {
+        return Mono.defer(() -> {
+            if (!sceneStreamGuard.hasBackgroundRoom()) {
+                sceneGuard.backgroundSkipped.increment();
+                return Mono.empty();
+            }
+            Permit permit = sceneGuard.tryAcquireBackground();
+            if (permit == null) {
+                return Mono.empty();
+            }
+            return withPermit(permit, "generate-next-scene-background", timeout.generateScene(), webClient.post()
+                .uri("/ai/generate-next-scene")
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {}));
+        });
+    }
+
+    /**
+     * 씬 생성 SSE 스트림 (token / done / error 이벤트)
+     * 첫 이벤트는 generate-scene 시간 안에, 이후 이벤트는 stream-idle 간격 안에 와야 한다.
+     */
+    public Flux<ServerSentEvent<String>> streamScene(SceneGenerationRequest request) {
+        return guardedStream(sceneStreamGuard, "generate-next-scene-stream", timeout.generateScene(), webClient.post()
+            .uri("/ai/generate-next-scene/stream")
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .bodyValue(request)
+            .retrieve()
+            .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {}));
+    }
+
+    /** 감정/관심사 기반 동화 추천 */
+    public Mono<List<RecommendedStoryItem>> recommendStories(StoryRecommendationRequest request) {
+        return guarded(recommendGuard, "recommend-stories", timeout.recommend(), webClient.post()
+            .uri("/ai/recommend-stories")
+            .bodyValue(request)
+            .retrieve()
+            .bodyToMono(new ParameterizedTypeReference<List<RecommendedStoryItem>>() {}));
+    }
+
+    /** 커스텀 선택지 분석 */
+    public Mono<Map<String, Object>> analyzeCustomChoice(CustomChoiceAnalysisRequest request) {
+        return guarded(analyzeGuard, "analyze-custom-choice", timeout.analyzeChoice(), webClient.post()
+            .uri("/ai/analyze-custom-choice")
+            .bodyValue(request)
+            .retrieve()
+            .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {}));
+    }
+
+    /** 챗봇 대화 */
+    public Mono<ChatReply> chat(ChatRequest request) {
+        return guarded(chatGuard, "chat", timeout.chat(), webClient.post()
+            .uri("/api/chat")
+            .bodyValue(request)
+            .retrieve()
+            .bodyToMono(ChatReply.class));
+    }
+
+    /** 동화 기반 챗봇 첫 인사 (챗봇과 같은 한도를 공유) */
+    public Mono<ChatReply> chatInitFromStory(StoryChatInitRequest request) {
+        return guarded(chatGuard, "chat-init-from-story", timeout.chat(), webClient.post()
+            .uri("/api/chat/init-from-story")
+            .bodyValue(request)
+            .retrieve()
+            .bodyToMono(ChatReply.class));
+    }
+
+    /**
+     * 챗봇 대화 SSE 스트림 (token / done / error 이벤트)
+     * 첫 이벤트는 chat 시간 안에, 이후 이벤트는 stream-idle 간격 안에 와야 한다.
+     */
+    public Flux<ServerSentEvent<String>> streamChat(ChatRequest request) {
+        return guardedStream(chatStreamGuard, "chat-stream", timeout.chat(), webClient.post()
+            .uri("/api/chat/stream")
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .bodyValue(request)
+            .retrieve()
+            .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {}));
+    }
+
+    /** 허용 여부 확인 → deadline 적용 → 결과를 limiter/breaker/타이머에 반영 */
+    private <T> Mono<T> guarded(Guard guard, String endpoint, Duration deadline, Mono<T> call) {
+        return Mono.defer(() -> withPermit(guard.acquire(), endpoint, deadline, call));
+    }
+
+    private <T> Mono<T> withPermit(Permit permit, String endpoint, Duration deadline, Mono<T> call) {
+        return call
+            .timeout(deadline)
+            .doOnSuccess(value -> permit.succeeded(endpoint))
+            .doOnError(e -> permit.failed(endpoint, e))
+            .doOnCancel(() -> permit.cancelled(endpoint));
+    }
+
+    /** 스트림용 guarded - 첫 이벤트는 firstEventDeadline, 이후 이벤트 사이는 stream-idle 적용 */
+    private <T> Flux<T> guardedStream(Guard guard, String endpoint, Duration firstEventDeadline, Flux<T> call) {
+        Flux<T> events = call.timeout(Mono.delay(firstEventDeadline), event -> Mono.delay(timeout.streamIdle()));
+
+        return Flux.defer(() -> {
+            Permit permit = guard.acquire();
+            return events
+                .doOnComplete(() -> permit.succeeded(endpoint))
+                .doOnError(e -> permit.failed(endpoint, e))
+                .doOnCancel(() -> permit.cancelled(endpoint));
+        });
+    }
+
+    private void record(String endpoint, String outcome, long elapsedNanos) {
+        Timer.builder("ai.client.requests")
+            .tag("endpoint", endpoint)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** AI 서버 상태를 나타내는 실패인지 (4xx는 요청 문제이므로 제외) */
+    private static boolean isServerFailure(Throwable e) {
+        if (e instanceof WebClientResponseException we) {
+            return we.getStatusCode().is5xxServerError();
+        }
+        return e instanceof TimeoutException
+            || e instanceof WebClientRequestException
+            || e.getCause() instanceof TimeoutException;
+    }
+
+    /** 엔드포인트별 limiter + breaker + 거절 카운터 */
+    private class Guard {
+
+        private final String name;
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final CircuitBreaker breaker;
+        private final Counter limitRejected;
+        private final Counter circuitRejected;
+        private final Counter backgroundSkipped;
+        private final double backgroundShare;
+
+        private Guard(String name, AiClientProperties properties) {
+            AiClientProperties.Limiter l = properties.limiter();
+            AiClientProperties.Breaker b = properties.circuitBreaker();
+            this.name = name;
+            this.backgroundShare = l.backgroundShare();
+            this.limiter = new AdaptiveConcurrencyLimiter(
+                l.initialLimit(), l.minLimit(), l.maxLimit(), l.tolerance(), l.backoffRatio());
+            this.breaker = new CircuitBreaker(
+                b.windowSize(), b.minimumCalls(), b.failureRateThreshold(), b.openDuration());
+
+            this.limitRejected = Counter.builder("ai.client.rejected")
+                .tag("endpoint", name).tag("reason", "limit").register(meterRegistry);
+            this.circuitRejected = Counter.builder("ai.client.rejected")
+                .tag("endpoint", name).tag("reason", "circuit_open").register(meterRegistry);
+            this.backgroundSkipped = Counter.builder("ai.client.rejected")
+                .tag("endpoint", name).tag("reason", "background").register(meterRegistry);
+            Gauge.builder("ai.client.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("endpoint", name).register(meterRegistry);
+            Gauge.builder("ai.client.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("endpoint", name).register(meterRegistry);
+            Gauge.builder("ai.client.circuit.state", breaker, cb -> cb.getState().ordinal())
+                .tag("endpoint", name).register(meterRegistry);
+        }
+
+        /** @throws AiServerBusyException 서킷 OPEN 또는 동시 실행 한도 초과 */
+        private Permit acquire() {
+            if (!breaker.tryAcquire()) {
+                circuitRejected.increment();
+                throw new AiServerBusyException(name, "circuit_open", breaker.remainingOpen());
+            }
+            if (!limiter.tryAcquire()) {
+                breaker.onIgnored();
+                limitRejected.increment();
+                log.warn("AI 서버 호출 거절 (동시 실행 한도 {}): endpoint={}", limiter.getLimit(), name);
+                throw new AiServerBusyException(name, "limit", Duration.ofSeconds(1));
+            }
+            return new Permit(this, System.nanoTime());
+        }
+
+        /** 배경 호출용 - 서킷이 CLOSED가 아니거나 limit x background-share만큼 쓰고 있으면 null (예외 없음) */
+        private Permit tryAcquireBackground() {
+            if (breaker.getState() != CircuitBreaker.State.CLOSED || !limiter.tryAcquire(backgroundShare)) {
+                backgroundSkipped.increment();
+                return null;
+            }
+            return new Permit(this, System.nanoTime());
+        }
+
+        private boolean hasBackgroundRoom() {
+            return breaker.getState() == CircuitBreaker.State.CLOSED && limiter.hasRoom(backgroundShare);
+        }
+    }
+
+    /** 허용된 호출 1건 - 결과는 정확히 한 번만 반영 */
+    private class Permit {
+
+        private final Guard guard;
+        private final long startedAt;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Guard guard, long startedAt) {
+            this.guard = guard;
+            this.startedAt = startedAt;
+        }
+
+        private void succeeded(String endpoint) {
+            if (!released.compareAndSet(false, true)) return;
+            long elapsed = System.nanoTime() - startedAt;
+            guard.limiter.onSuccess(elapsed);
+            guard.breaker.onSuccess();
+            record(endpoint, "success", elapsed);
+        }
+
+        private void failed(String endpoint, Throwable e) {
+            if (!released.compareAndSet(false, true)) return;
+            long elapsed = System.nanoTime() - startedAt;
+            if (isServerFailure(e)) {
+                guard.limiter.onDropped();
+                guard.breaker.onFailure();
+            } else {
+                guard.limiter.onIgnored();
+                guard.breaker.onIgnored();
+            }
+            if (e instanceof WebClientResponseException we) {
+                log.warn("AI 서버 오류 응답: endpoint={}, status={}", endpoint, we.getStatusCode());
+            }
+            record(endpoint, e instanceof TimeoutException ? "timeout" : "error", elapsed);
+        }
+
+        private void cancelled(String endpoint) {
+            if (!released.compareAndSet(false, true)) return;
+            guard.limiter.onIgnored();
+            guard.breaker.onIgnored();
+            record(endpoint, "cancelled", System.nanoTime() - startedAt);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.sstt.dinory.common.ai.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/** /api/chat, /api/chat/init-from-story 응답 */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ChatReply(
+        @JsonProperty("ai_response") String aiResponse) {
+}
@@ -0,0 +1,12 @@
+package com.sstt.dinory.common.ai.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/** /api/chat 요청 바디 (FastAPI 쪽은 snake_case) */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChatRequest(
+        @JsonProperty("session_id") Long sessionId,
+        String message,
+        @JsonProperty("child_id") Long childId) {
+}
@@ -0,0 +1,8 @@
+package com.sstt.dinory.common.ai.dto;
+
+/** /ai/analyze-custom-choice 요청 바디 */
+public record CustomChoiceAnalysisRequest(
+        Long completionId,
+        Integer sceneNumber,
+        String text) {
+}
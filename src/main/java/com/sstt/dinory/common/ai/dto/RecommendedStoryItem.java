@@ -0,0 +1,14 @@
+package com.sstt.dinory.common.ai.dto;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/** /ai/recommend-stories 응답 항목 (metadata는 Pinecone 메타데이터 원문) */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record RecommendedStoryItem(
+        String storyId,
+        String title,
+        Integer matchingScore,
+        Map<String, Object> metadata) {
+}
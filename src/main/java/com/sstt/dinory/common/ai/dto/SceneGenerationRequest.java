@@ -0,0 +1,26 @@
+package com.sstt.dinory.common.ai.dto;
+
+import java.util.List;
+
+/**
+ * /ai/generate-next-scene (및 /stream) 요청 바디
+ * 첫 씬도 sceneNumber=1, previousChoices=[] 로 같은 엔드포인트를 사용한다.
+ */
+public record SceneGenerationRequest(
+        String storyId,             // Pinecone ID
+        String storyTitle,
+        String storyDescription,
+        Long childId,
+        String emotion,
+        List<String> interests,
+        int sceneNumber,
+        List<PreviousChoice> previousChoices) {
+
+    public record PreviousChoice(
+            Integer sceneNumber,
+            String choiceId,
+            String choiceText,
+            String abilityType,
+            Integer abilityScore) {
+    }
+}
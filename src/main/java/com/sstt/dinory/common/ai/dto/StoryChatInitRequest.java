@@ -0,0 +1,23 @@
+package com.sstt.dinory.common.ai.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * /api/chat/init-from-story 요청 바디 - 방금 끝낸 동화 요약으로 첫 인사 생성
+ * firstMessage가 있으면 새로 생성하지 않고 이미 보여준 첫 인사로 세션 문맥만 만든다 (미리 생성한 인사 사용 시).
+ */
+public record StoryChatInitRequest(
+        @JsonProperty("session_id") Long sessionId,
+        @JsonProperty("child_id") Long childId,
+        @JsonProperty("child_name") String childName,
+        @JsonProperty("story_id") Long storyId,
+        @JsonProperty("story_title") String storyTitle,
+        @JsonProperty("total_time") Integer totalTime,
+        Map<String, Integer> abilities,   // courage, empathy, creativity, responsibility, friendship
+        List<?> choices,
+        @JsonInclude(JsonInclude.Include.NON_NULL) @JsonProperty("first_message") String firstMessage) {
+}
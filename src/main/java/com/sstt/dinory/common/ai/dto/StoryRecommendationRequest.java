@@ -0,0 +1,11 @@
+package com.sstt.dinory.common.ai.dto;
+
+import java.util.List;
+
+/** /ai/recommend-stories 요청 바디 */
+public record StoryRecommendationRequest(
+        String emotion,
+        List<String> interests,
+        Long childId,
+        int limit) {
+}
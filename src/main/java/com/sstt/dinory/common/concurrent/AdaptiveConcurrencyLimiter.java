@@ -0,0 +1,123 @@
+package com.sstt.dinory.common.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * gradient 기반 적응형 동시 실행 제한
+ *
+ * 고정 세마포어 대신 응답 시간을 보고 허용 동시 실행 수(limit)를 스스로 조정한다.
+ * 장면/채팅 응답은 출력 길이에 따라 RTT가 몇 배씩 차이 나므로 한 번의 빠른 응답을 기준으로 삼지 않고,
+ * 최근 RTT의 단기 EWMA(short)와 장기 EWMA(long)를 비교한다.
+ * - gradient = clamp(long x tolerance / short, 0.5, 1.0) - 최근 응답이 평소의 tolerance배 안이면 1
+ * - gradient가 1이고 limit 가까이 쓰고 있으면 limit을 조금씩 늘림 (limit당 +1, 즉 RTT 한 바퀴에 +1 정도)
+ * - gradient가 1보다 작으면(지속적으로 느려짐) limit을 gradient 쪽으로 SMOOTHING만큼 줄임
+ * - 타임아웃/5xx면 limit을 backoffRatio 배로 줄임
+ * 각 EWMA는 처음 1/alpha개 샘플까지는 누적 평균으로 시작해 초기 몇 건의 편차에 흔들리지 않는다.
+ * 과부하가 길어져 long이 따라 올라간 뒤 회복되면(long이 short의 tolerance배를 넘으면) long을 빠르게 내린다.
+ * limit을 넘는 호출은 대기하지 않고 바로 거절한다. (호출자가 빨리 실패시킴)
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_ALPHA = 0.1;      // 최근 ~10건
+    private static final double LONG_ALPHA = 0.005;     // 최근 ~200건
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /** @return 허용되면 true (반드시 onSuccess/onDropped/onIgnored 중 하나로 반납) */
+    public boolean tryAcquire() {
+        return tryAcquire(1.0);
+    }
+
+    /**
+     * 우선순위가 낮은 호출용 - in-flight가 limit x share 미만일 때만 허용해 나머지를 사용자 요청 몫으로 남긴다.
+     * @return 허용되면 true (반드시 onSuccess/onDropped/onIgnored 중 하나로 반납)
+     */
+    public boolean tryAcquire(double share) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) (limit * share)) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** 정상 응답 - 응답 시간으로 limit 조정 */
+    public void onSuccess(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            samples++;
+            shortRttNanos = ewma(shortRttNanos, rttNanos, Math.max(SHORT_ALPHA, 1.0 / samples));
+            longRttNanos = ewma(longRttNanos, rttNanos, Math.max(LONG_ALPHA, 1.0 / samples));
+            if (longRttNanos > shortRttNanos * tolerance) {
+                // 과부하가 끝났는데 long이 높게 남아 있음 - 다음 과부하를 놓치지 않도록 빠르게 내림
+                longRttNanos = longRttNanos * 0.95;
+            }
+
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, longRttNanos * tolerance / shortRttNanos));
+            if (gradient < 1.0) {
+                double target = Math.max(minLimit, limit * gradient);
+                limit = limit * (1 - SMOOTHING) + target * SMOOTHING;
+            } else if (current * 2 >= limit) {
+                // 실제로 limit 가까이 쓰고 있을 때만 늘림 (한가할 때 limit이 무한정 커지는 것 방지)
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+    }
+
+    /** 타임아웃/서버 오류 - limit 감소 */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            decrease();
+        }
+    }
+
+    /** 취소/클라이언트 오류 등 서버 상태와 무관한 종료 - limit 유지 */
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /** in-flight가 limit x share 미만인지 (다른 limiter의 여유를 보고 낮은 우선순위 호출을 미룰 때) */
+    public boolean hasRoom(double share) {
+        return inFlight.get() < (int) (limit * share);
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private static double ewma(double current, long sample, double alpha) {
+        return current == 0 ? sample : current + (sample - current) * alpha;
+    }
+
+    private void decrease() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+}
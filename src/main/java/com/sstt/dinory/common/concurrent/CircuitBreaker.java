@@ -0,0 +1,118 @@
+package com.sstt.dinory.common.concurrent;
+
+import java.time.Duration;
+
+/**
+ * 최근 N건 실패율 기반 서킷 브레이커
+ *
+ * CLOSED  : 정상. 최근 windowSize건 중 실패율이 failureRateThreshold 이상이면 OPEN
+ * OPEN    : openDuration 동안 모든 호출을 즉시 거절
+ * HALF_OPEN: 시험 호출 1건만 허용. 성공하면 CLOSED, 실패하면 다시 OPEN
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationMillis;
+
+    // 최근 결과 링 버퍼 (true = 실패)
+    private final boolean[] outcomes;
+    private int position;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration) {
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMillis = openDuration.toMillis();
+        this.outcomes = new boolean[windowSize];
+    }
+
+    /** @return 호출 허용 여부 (허용된 호출은 onSuccess/onFailure/onIgnored 중 하나로 결과 보고) */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openDurationMillis) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return false;
+            }
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            close();
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (recorded >= minimumCalls && (double) failures / recorded >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    /** 결과에 반영하지 않는 종료 (취소, 4xx 등) */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /** OPEN 상태가 풀리기까지 남은 시간 (OPEN이 아니면 0) */
+    public synchronized Duration remainingOpen() {
+        if (state != State.OPEN) return Duration.ZERO;
+        long remaining = openDurationMillis - (System.currentTimeMillis() - openedAt);
+        return Duration.ofMillis(Math.max(0, remaining));
+    }
+
+    private void record(boolean failed) {
+        if (recorded == windowSize) {
+            if (outcomes[position]) failures--;
+        } else {
+            recorded++;
+        }
+        outcomes[position] = failed;
+        if (failed) failures++;
+        position = (position + 1) % windowSize;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        probeInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        probeInFlight = false;
+        position = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,164 @@
+package com.sstt.dinory.common.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 블로킹 외부 호출(Stability, Pollinations, TTS, Gemini 등) 병렬 실행기
+ *
+ * 호출마다 가상 스레드 하나를 쓰므로 Tomcat 스레드를 늘리지 않고 서로 독립적인 호출을 동시에 보낼 수 있다.
+ * 모든 헬퍼는 구조적으로 동작한다. 메서드가 반환(또는 예외)하는 시점에 남은 작업은 모두 취소(interrupt)된다.
+ * (가상 스레드의 소켓 I/O는 interrupt 시 바로 중단됨)
+ *
+ * - allOf: 모두 성공해야 하는 fan-out. 하나라도 실패하면 나머지를 취소하고 예외
+ * - firstSuccess: 가장 먼저 성공한 결과만 사용. 전부 실패하면 예외(각 실패는 suppressed)
+ * - primaryOrFallback: 둘을 동시에 시작하고, primary가 제한 시간 안에 성공하면 primary, 아니면 fallback 결과
+ * - withDeadline: 단일 호출에 deadline 적용
+ */
+@Component
+@Slf4j
+public class ExternalCallExecutor {
+
+    private final ExecutorService executor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("external-call-", 0).factory());
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** 단일 호출 + deadline */
+    public <T> T withDeadline(Duration deadline, Callable<T> task) {
+        Future<T> future = executor.submit(task);
+        try {
+            return future.get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("외부 호출 시간 초과 (" + deadline.toMillis() + "ms)", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("외부 호출 대기 중 인터럽트", e);
+        } finally {
+            future.cancel(true);
+        }
+    }
+
+    /** 모두 실행해 입력 순서대로 결과 반환 */
+    public <T> List<T> allOf(Duration deadline, List<Callable<T>> tasks) {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        try {
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : futures) {
+                results.add(future.get(remaining(deadlineNanos), TimeUnit.NANOSECONDS));
+            }
+            return results;
+        } catch (TimeoutException e) {
+            throw new RuntimeException("외부 호출 시간 초과 (" + deadline.toMillis() + "ms)", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("외부 호출 대기 중 인터럽트", e);
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+    }
+
+    /** 가장 먼저 성공한 결과 반환 */
+    public <T> T firstSuccess(Duration deadline, List<Callable<T>> tasks) {
+        ExecutorCompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        RuntimeException failure = new RuntimeException("모든 외부 호출 실패");
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        try {
+            for (Callable<T> task : tasks) {
+                futures.add(completion.submit(task));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Future<T> done = completion.poll(remaining(deadlineNanos), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    failure.addSuppressed(new TimeoutException("외부 호출 시간 초과 (" + deadline.toMillis() + "ms)"));
+                    break;
+                }
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+            throw failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("외부 호출 대기 중 인터럽트", e);
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+    }
+
+    /**
+     * primary와 fallback을 동시에 시작한다.
+     * primary가 primaryDeadline 안에 성공하면 그 결과를, 실패/시간 초과면 fallback 결과를 반환한다.
+     * (순차 폴백과 달리 primary 실패 후 fallback을 새로 기다리지 않음)
+     * 둘 다 실패하면 예외 - suppressed[0]=primary 오류, suppressed[1]=fallback 오류
+     */
+    public <T> T primaryOrFallback(Callable<T> primary, Duration primaryDeadline,
+                                   Callable<T> fallback, Duration fallbackDeadline) {
+        Future<T> primaryFuture = executor.submit(primary);
+        Future<T> fallbackFuture = executor.submit(fallback);
+        try {
+            Throwable primaryError;
+            try {
+                return primaryFuture.get(primaryDeadline.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                primaryError = e.getCause();
+            } catch (TimeoutException e) {
+                primaryError = new TimeoutException("시간 초과 (" + primaryDeadline.toMillis() + "ms)");
+            }
+            log.debug("primary 외부 호출 실패, fallback 결과 사용: {}", primaryError.getMessage());
+
+            try {
+                return fallbackFuture.get(fallbackDeadline.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                RuntimeException failure = new RuntimeException("primary/fallback 외부 호출 모두 실패");
+                failure.addSuppressed(primaryError);
+                failure.addSuppressed(e instanceof ExecutionException ? e.getCause() : e);
+                throw failure;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("외부 호출 대기 중 인터럽트", e);
+        } finally {
+            primaryFuture.cancel(true);
+            fallbackFuture.cancel(true);
+        }
+    }
+
+    private long remaining(long deadlineNanos) {
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    private RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException re) return re;
+        return new RuntimeException(cause != null ? cause.getMessage() : e.getMessage(), cause);
+    }
+}
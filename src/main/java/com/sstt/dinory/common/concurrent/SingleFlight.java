@@ -0,0 +1,61 @@
+package com.sstt.dinory.common.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 키별 single-flight 실행기
+ *
+ * 같은 키로 동시에 들어온 호출 중 첫 번째 호출만 loader를 실행하고,
+ * 나머지 호출은 그 결과(또는 예외)를 그대로 공유한다. 실행이 끝나면 키는 바로 해제된다.
+ *
+ * <p>ConcurrentHashMap의 bin 단위 잠금으로 키마다 경합이 분산되며(striped),
+ * 진행 중인 호출이 없는 키는 putIfAbsent 한 번으로 끝난다. sleep/재시도 없음.</p>
+ *
+ * @param <K> 키 타입
+ * @param <V> 결과 타입
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * @return loader 결과 (다른 스레드가 이미 실행 중이면 그 결과)
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = calls.putIfAbsent(key, mine);
+
+        if (existing != null) {
+            return join(existing);
+        }
+
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, mine);
+        }
+    }
+
+    /** 현재 진행 중인 키 수 */
+    public int size() {
+        return calls.size();
+    }
+
+    private V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+}
@@ -4,10 +4,12 @@ import com.sstt.dinory.common.security.filter.JwtAuthenticationFilter;
 import com.sstt.dinory.common.security.handler.OAuth2AuthenticationFailureHandler;
 import com.sstt.dinory.common.security.handler.OAuth2AuthenticationSuccessHandler;
 import com.sstt.dinory.common.security.service.CustomOAuth2UserService;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -42,9 +44,16 @@ public class SecurityConfig {
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authorizeHttpRequests(auth -> auth
+                        // SSE 스트리밍 응답의 async dispatch (최초 요청에서 이미 인증됨)
+                        // error dispatch도 허용해야 503(AI 서버 과부하) 같은 상태 코드가 401로 바뀌지 않음
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+
                         // 공개 엔드포인트 (인증 불필요)
                         .requestMatchers(PUBLIC_ENDPOINTS).permitAll()
 
+                        // 이미지 바이트 - <img>가 헤더 없이 부르므로 서명 URL 확인은 컨트롤러가 함 (JWT 필터는 그대로 거침)
+                        .requestMatchers(HttpMethod.GET, IMAGE_CONTENT).permitAll()
+
                         // 나머지는 모두 인증 필요 (이미지, TTS, 감정 분석 등 비즈니스 로직)
                         .anyRequest().authenticated()
                 )
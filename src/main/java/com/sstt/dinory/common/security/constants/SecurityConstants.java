@@ -113,6 +113,22 @@ public final class SecurityConstants {
      */
     public static final String IMAGE_API = "/api/image/**";
 
+    /**
+     * 이미지 생성 API (작업 큐 기반)
+     * <p>POST는 202로 접수만 하고 GET /api/images/{id}로 상태 조회 - 인증 필수</p>
+     */
+    public static final String IMAGES_API = "/api/images/**";
+
+    /**
+     * 이미지 바이트 API (&lt;img src&gt;용)
+     * <p>헤더 없이 불러오도록 permitAll이지만 PUBLIC_ENDPOINTS가 아니라 JWT 필터는 거친다.
+     * 컨트롤러가 서명 URL(expires, signature)을 확인하고, 없으면 Bearer 인증 + 소유 확인</p>
+     */
+    public static final String[] IMAGE_CONTENT = {
+        "/api/image/*/content",
+        "/api/images/*/content"
+    };
+
     /**
      * TTS (Text-to-Speech) 변환 API
      * <p>텍스트를 음성으로 변환 - 인증 필수</p>
@@ -167,6 +183,7 @@ public final class SecurityConstants {
         AUTH_WITHDRAW,
         // 비즈니스 로직
         IMAGE_API,
+        IMAGES_API,
         TTS_API,
         EMOTION_API,
         CHILD_API,
@@ -2,12 +2,21 @@ package com.sstt.dinory.domain.chat.controller;
 
 import com.sstt.dinory.domain.chat.dto.ChatInitFromStoryRequest;
 import com.sstt.dinory.domain.chat.dto.ChatInitRequest;
+import com.sstt.dinory.domain.chat.dto.ChatMessagePageDto;
 import com.sstt.dinory.domain.chat.dto.ChatMessageRequest;
 import com.sstt.dinory.domain.chat.dto.ChatResponseDto;
+import com.sstt.dinory.domain.chat.dto.ChatSessionPageDto;
 import com.sstt.dinory.domain.chat.service.ChatService;
+import com.sstt.dinory.domain.chat.service.ChatStreamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -18,6 +27,7 @@ import java.util.List;
 public class ChatController {
 
     private final ChatService chatService;
+    private final ChatStreamService chatStreamService;
 
     @PostMapping("/init")
     public ResponseEntity<ChatResponseDto> initChatSession(@RequestBody ChatInitRequest request) {
@@ -25,16 +35,25 @@ public class ChatController {
         return ResponseEntity.ok(response);
     }
 
+    // 미리 생성 중인 첫 인사/AI 첫 인사를 기다리는 동안 Tomcat 스레드를 반환 (async 응답)
     @PostMapping("/init-from-story")
-    public ResponseEntity<ChatResponseDto> initChatSessionFromStory(@RequestBody ChatInitFromStoryRequest request) {
-        ChatResponseDto response = chatService.initChatSessionFromStory(request);
-        return ResponseEntity.ok(response);
+    public Mono<ResponseEntity<ChatResponseDto>> initChatSessionFromStory(@RequestBody ChatInitFromStoryRequest request) {
+        return chatService.initChatSessionFromStory(request).map(ResponseEntity::ok);
     }
 
+    // AI 응답을 기다리는 동안 Tomcat 스레드를 반환 (async 응답)
     @PostMapping("/message")
-    public ResponseEntity<ChatResponseDto> sendMessage(@RequestBody ChatMessageRequest request) {
-        ChatResponseDto response = chatService.sendMessage(request);
-        return ResponseEntity.ok(response);
+    public Mono<ResponseEntity<ChatResponseDto>> sendMessage(@RequestBody ChatMessageRequest request) {
+        return chatService.sendMessage(request).map(ResponseEntity::ok);
+    }
+
+    /**
+     * 메시지 전송 (SSE 스트리밍)
+     * AI 응답 토큰을 도착하는 대로 token 이벤트로 보내고, 저장이 끝나면 message 이벤트로 전체 응답을 보낸다.
+     */
+    @PostMapping(value = "/message/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamMessage(@RequestBody ChatMessageRequest request) {
+        return chatStreamService.streamMessage(request);
     }
 
     @PostMapping("/{sessionId}/end")
@@ -49,9 +68,31 @@ public class ChatController {
         return ResponseEntity.ok(response);
     }
 
+    /** 대화 기록 keyset 페이지네이션 (afterId/beforeId 중 하나, 없으면 최근 메시지) */
+    @GetMapping("/{sessionId}/messages")
+    public ResponseEntity<ChatMessagePageDto> getMessages(
+            @PathVariable Long sessionId,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "30") int limit) {
+        ChatMessagePageDto response = chatService.getMessages(sessionId, afterId, beforeId, limit);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/child/{childId}")
     public ResponseEntity<List<ChatResponseDto>> getChatSessionsByChild(@PathVariable Long childId) {
         List<ChatResponseDto> responses = chatService.getChatSessionsByChild(childId);
         return ResponseEntity.ok(responses);
     }
+
+    /** 세션 요약 목록 (메시지 수/마지막 메시지 미리보기, 전체 메시지는 /{sessionId}/messages) */
+    @GetMapping("/child/{childId}/sessions")
+    public ResponseEntity<ChatSessionPageDto> getChatSessionSummaries(
+            @PathVariable Long childId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        ChatSessionPageDto response = chatService.getChatSessionSummaries(childId, pageable);
+        return ResponseEntity.ok(response);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.sstt.dinory.domain.chat.dto;
+
+import java.time.LocalDateTime;
+
+/** 보관된 세션의 목록용 요약 (payload 없이 읽음) */
+public record ChatArchiveSummary(Long sessionId, Integer messageCount, LocalDateTime lastMessageAt,
+                                 String lastSender, String lastMessagePreview) {
+}
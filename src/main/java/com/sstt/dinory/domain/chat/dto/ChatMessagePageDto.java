@@ -0,0 +1,23 @@
+package com.sstt.dinory.domain.chat.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 채팅 메시지 keyset 페이지
+ *
+ * messages는 항상 오래된 순. 더 이전 메시지는 beforeId=oldestId, 새 메시지는 afterId=newestId 로 이어서 조회한다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatMessagePageDto {
+    private Long sessionId;
+    private List<ChatResponseDto.ChatMessageDto> messages;
+    private boolean hasMore;    // 조회 방향(afterId면 이후, 아니면 이전)으로 메시지가 더 있는지
+    private Long oldestId;
+    private Long newestId;
+}
@@ -0,0 +1,5 @@
+package com.sstt.dinory.domain.chat.dto;
+
+/** 세션 목록의 마지막 메시지 미리보기 (본문 앞부분만 읽음) */
+public record ChatMessagePreview(Long id, String sender, String preview) {
+}
@@ -1,5 +1,6 @@
 package com.sstt.dinory.domain.chat.dto;
 
+import com.sstt.dinory.domain.chat.entity.ChatMessage;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -14,7 +15,8 @@ public class ChatResponseDto {
     private Long sessionId;
     private Long childId;
     private String aiResponse;
-    private List<ChatMessageDto> messages;
+    private List<ChatMessageDto> messages;  // 이번 요청으로 새로 생긴 메시지만 (전체 대화는 /{sessionId}/messages)
+    private Long cursor;                    // 마지막 메시지 id - 이후 메시지는 afterId=cursor 로 조회
     private LocalDateTime startedAt;
     private LocalDateTime endedAt;
 
@@ -28,5 +30,14 @@ public class ChatResponseDto {
         private String sender;
         private String message;
         private LocalDateTime createdAt;
+
+        public static ChatMessageDto from(ChatMessage message) {
+            return ChatMessageDto.builder()
+                    .id(message.getId())
+                    .sender(message.getSender())
+                    .message(message.getMessage())
+                    .createdAt(message.getCreatedAt())
+                    .build();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.sstt.dinory.domain.chat.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatSessionPageDto {
+    private List<ChatSessionSummaryDto> sessions;
+    private int currentPage;
+    private int totalPages;
+    private long totalElements;
+}
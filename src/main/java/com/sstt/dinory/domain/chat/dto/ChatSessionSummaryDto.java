@@ -0,0 +1,43 @@
+package com.sstt.dinory.domain.chat.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 채팅 세션 목록용 요약 (메시지 본문 없음)
+ *
+ * 세션 + 메시지 수/마지막 메시지 시각은 하나의 GROUP BY 쿼리로 채우고,
+ * 마지막 메시지 미리보기는 페이지 단위로 한 번에 채운다. 전체 메시지는 /{sessionId}/messages 에서 필요할 때 조회.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ChatSessionSummaryDto {
+    private Long sessionId;
+    private Long childId;
+    private Long storyCompletionId;
+    private LocalDateTime startedAt;
+    private LocalDateTime endedAt;
+    private LocalDateTime archivedAt;   // 보관된 세션이면 메시지 수/마지막 메시지는 보관 세그먼트에서 채움
+    private long messageCount;
+    private LocalDateTime lastMessageAt;
+    private Long lastMessageId;
+    private String lastSender;
+    private String lastMessagePreview;
+
+    // ChatSessionRepository.findSummariesByChildId (JPQL 생성자 표현식)
+    public ChatSessionSummaryDto(Long sessionId, Long childId, Long storyCompletionId,
+                                 LocalDateTime startedAt, LocalDateTime endedAt, LocalDateTime archivedAt,
+                                 Long messageCount, LocalDateTime lastMessageAt, Long lastMessageId) {
+        this.sessionId = sessionId;
+        this.childId = childId;
+        this.storyCompletionId = storyCompletionId;
+        this.startedAt = startedAt;
+        this.endedAt = endedAt;
+        this.archivedAt = archivedAt;
+        this.messageCount = messageCount != null ? messageCount : 0L;
+        this.lastMessageAt = lastMessageAt;
+        this.lastMessageId = lastMessageId;
+    }
+}
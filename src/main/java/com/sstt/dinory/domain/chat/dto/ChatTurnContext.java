@@ -0,0 +1,27 @@
+package com.sstt.dinory.domain.chat.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 채팅 한 턴 처리에 필요한 값만 담은 스냅샷
+ *
+ * 사용자 메시지를 짧은 트랜잭션으로 저장한 뒤 이 객체만 들고 AI 응답을 기다린다.
+ * (AI 대기 중에는 DB 커넥션/영속성 컨텍스트를 잡지 않음)
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class ChatTurnContext {
+
+    private Long sessionId;
+    private Long childId;
+    private Long storyCompletionId;
+    private Long userMessageId;     // 동화 기반 첫 인사처럼 사용자 메시지가 없으면 null
+    private ChatResponseDto.ChatMessageDto userMessage;   // 응답에 그대로 실어 보냄 (전체 대화 재조회 없음)
+    private LocalDateTime startedAt;
+    private LocalDateTime endedAt;
+}
@@ -0,0 +1,62 @@
+package com.sstt.dinory.domain.chat.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 종료된 채팅 세션의 보관 세그먼트 (세션 하나의 전체 대화를 gzip 압축한 JSON)
+ *
+ * 보관 후 chat_message 행은 삭제되고 chat_session은 stub으로 남는다.
+ * 목록 화면에 필요한 값(메시지 수, 마지막 메시지)은 압축을 풀지 않고 읽을 수 있도록 컬럼으로 따로 둔다.
+ */
+@Entity
+@Table(name = "chat_archive_segment",
+        uniqueConstraints = @UniqueConstraint(name = "uk_chat_archive_session", columnNames = "session_id"),
+        indexes = @Index(name = "idx_chat_archive_child", columnList = "child_id, session_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatArchiveSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    @Column(name = "child_id")
+    private Long childId;
+
+    @Column(name = "message_count", nullable = false)
+    private Integer messageCount;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "last_sender", length = 50)
+    private String lastSender;
+
+    @Column(name = "last_message_preview", length = 100)
+    private String lastMessagePreview;
+
+    @Column(nullable = false, length = 20)
+    private String codec;               // "gzip+json"
+
+    @Column(name = "raw_bytes", nullable = false)
+    private Integer rawBytes;           // 압축 전 크기
+
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] payload;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,41 @@
+package com.sstt.dinory.domain.chat.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 동화 완료 직후 미리 생성해 둔 챗봇 첫 인사
+ *
+ * completeStory 커밋 후 백그라운드에서 AI 서버로 생성해 저장하고,
+ * 아이가 챗봇을 열면 AI 호출 없이 이 메시지로 세션을 시작한다.
+ */
+@Entity
+@Table(name = "chat_greeting",
+        uniqueConstraints = @UniqueConstraint(name = "uk_chat_greeting_completion", columnNames = "story_completion_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatGreeting {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "story_completion_id", nullable = false)
+    private Long storyCompletionId;
+
+    @Column(name = "child_id")
+    private Long childId;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String message;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
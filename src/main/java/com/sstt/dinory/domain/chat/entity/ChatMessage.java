@@ -7,7 +7,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_message")
+@Table(name = "chat_message",
+        // 세션별 대화 keyset 페이지네이션 (session_id, created_at, id)
+        indexes = @Index(name = "idx_chat_message_session_created", columnList = "session_id, created_at, id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -15,8 +17,9 @@ import java.time.LocalDateTime;
 @Builder
 public class ChatMessage {
 
+    // id는 앱이 발급 (ChatMessageIdGenerator, 시간 순) - 새 메시지는 ChatMessageWriteBehind가 JDBC batch로 INSERT
+    // @GeneratedValue 없음: id 없이 save()하면 실패하므로 AUTO_INCREMENT 값이 섞여 시간 순이 깨지지 않는다
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,25 @@
+package com.sstt.dinory.domain.chat.repository;
+
+import com.sstt.dinory.domain.chat.dto.ChatArchiveSummary;
+import com.sstt.dinory.domain.chat.entity.ChatArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChatArchiveSegmentRepository extends JpaRepository<ChatArchiveSegment, Long> {
+
+    Optional<ChatArchiveSegment> findBySessionId(Long sessionId);
+
+    List<ChatArchiveSegment> findBySessionIdIn(Collection<Long> sessionIds);
+
+    @Query("SELECT new com.sstt.dinory.domain.chat.dto.ChatArchiveSummary(" +
+           "a.sessionId, a.messageCount, a.lastMessageAt, a.lastSender, a.lastMessagePreview) " +
+           "FROM ChatArchiveSegment a WHERE a.sessionId IN :sessionIds")
+    List<ChatArchiveSummary> findSummaries(@Param("sessionIds") Collection<Long> sessionIds);
+}
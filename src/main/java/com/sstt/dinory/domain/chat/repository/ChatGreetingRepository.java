@@ -0,0 +1,23 @@
+package com.sstt.dinory.domain.chat.repository;
+
+import com.sstt.dinory.domain.chat.entity.ChatGreeting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface ChatGreetingRepository extends JpaRepository<ChatGreeting, Long> {
+
+    Optional<ChatGreeting> findByStoryCompletionId(Long storyCompletionId);
+
+    /** 미리 생성한 인사를 한 세션에만 쓰도록 삭제 - 1이면 이 호출이 가져감 (동시에 연 다른 요청은 0) */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChatGreeting g WHERE g.id = :id")
+    int deleteUsed(@Param("id") Long id);
+}
@@ -1,10 +1,18 @@
 package com.sstt.dinory.domain.chat.repository;
 
+import com.sstt.dinory.domain.chat.dto.ChatMessagePreview;
 import com.sstt.dinory.domain.chat.entity.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
@@ -12,4 +20,46 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
     List<ChatMessage> findByChatSessionIdOrderByCreatedAtAsc(Long sessionId);
 
     List<ChatMessage> findByChatSessionIdAndSenderOrderByCreatedAtAsc(Long sessionId, String sender);
+
+    /** 여러 세션의 메시지를 한 번에 조회 (세션별 N+1 방지) */
+    @Query("SELECT m FROM ChatMessage m WHERE m.chatSession.id IN :sessionIds ORDER BY m.createdAt ASC, m.id ASC")
+    List<ChatMessage> findBySessionIds(@Param("sessionIds") Collection<Long> sessionIds);
+
+    /** 메시지 미리보기 일괄 조회 (본문은 앞 100자만) */
+    @Query("SELECT new com.sstt.dinory.domain.chat.dto.ChatMessagePreview(m.id, m.sender, SUBSTRING(m.message, 1, 100)) " +
+           "FROM ChatMessage m WHERE m.id IN :ids")
+    List<ChatMessagePreview> findPreviews(@Param("ids") Collection<Long> ids);
+
+    /** 세션의 메시지 일괄 삭제 (보관 후) */
+    @Modifying
+    @Query("DELETE FROM ChatMessage m WHERE m.chatSession.id = :sessionId")
+    int deleteBySessionId(@Param("sessionId") Long sessionId);
+
+    // ===== keyset 페이지네이션 (idx_chat_message_session_created) =====
+
+    /** 커서 메시지의 작성 시각 (다른 세션의 id면 empty) */
+    @Query("SELECT m.createdAt FROM ChatMessage m WHERE m.id = :id AND m.chatSession.id = :sessionId")
+    Optional<LocalDateTime> findCreatedAt(@Param("sessionId") Long sessionId, @Param("id") Long id);
+
+    /** 가장 최근 메시지부터 (최신순) */
+    @Query("SELECT m FROM ChatMessage m WHERE m.chatSession.id = :sessionId ORDER BY m.createdAt DESC, m.id DESC")
+    List<ChatMessage> findLatest(@Param("sessionId") Long sessionId, Pageable pageable);
+
+    /** 커서 이후 메시지 (오래된 순) */
+    @Query("SELECT m FROM ChatMessage m WHERE m.chatSession.id = :sessionId " +
+           "AND (m.createdAt > :createdAt OR (m.createdAt = :createdAt AND m.id > :id)) " +
+           "ORDER BY m.createdAt ASC, m.id ASC")
+    List<ChatMessage> findAfter(@Param("sessionId") Long sessionId,
+                                @Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") Long id,
+                                Pageable pageable);
+
+    /** 커서 이전 메시지 (최신순) */
+    @Query("SELECT m FROM ChatMessage m WHERE m.chatSession.id = :sessionId " +
+           "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<ChatMessage> findBefore(@Param("sessionId") Long sessionId,
+                                 @Param("createdAt") LocalDateTime createdAt,
+                                 @Param("id") Long id,
+                                 Pageable pageable);
 }
\ No newline at end of file
@@ -1,9 +1,15 @@
 package com.sstt.dinory.domain.chat.repository;
 
+import com.sstt.dinory.domain.chat.dto.ChatSessionSummaryDto;
 import com.sstt.dinory.domain.chat.entity.ChatSession;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +21,22 @@ public interface ChatSessionRepository extends JpaRepository<ChatSession, Long>
     Optional<ChatSession> findTopByChildIdAndEndedAtIsNullOrderByStartedAtDesc(Long childId);
 
     List<ChatSession> findByChildIdAndEndedAtIsNull(Long childId);
+
+    /**
+     * 자녀의 세션 요약 페이지 (메시지 수, 마지막 메시지 시각/id를 한 번의 GROUP BY로 계산)
+     * 메시지 id는 시간 순 snowflake id(ChatMessageIdGenerator)라 작성 순서와 같으므로 MAX(id)가 마지막 메시지다.
+     */
+    @Query(value = "SELECT new com.sstt.dinory.domain.chat.dto.ChatSessionSummaryDto(" +
+                   "s.id, s.childId, s.storyCompletionId, s.startedAt, s.endedAt, s.archivedAt, " +
+                   "COUNT(m.id), MAX(m.createdAt), MAX(m.id)) " +
+                   "FROM ChatSession s LEFT JOIN s.messages m " +
+                   "WHERE s.childId = :childId " +
+                   "GROUP BY s.id, s.childId, s.storyCompletionId, s.startedAt, s.endedAt, s.archivedAt " +
+                   "ORDER BY s.startedAt DESC, s.id DESC",
+           countQuery = "SELECT COUNT(s) FROM ChatSession s WHERE s.childId = :childId")
+    Page<ChatSessionSummaryDto> findSummariesByChildId(@Param("childId") Long childId, Pageable pageable);
+
+    /** 보관 대상: before 이전에 종료됐고 아직 보관되지 않은 세션 (오래된 순) */
+    @Query("SELECT s.id FROM ChatSession s WHERE s.endedAt < :before AND s.archivedAt IS NULL ORDER BY s.endedAt ASC")
+    List<Long> findArchivableIds(@Param("before") LocalDateTime before, Pageable pageable);
 }
\ No newline at end of file
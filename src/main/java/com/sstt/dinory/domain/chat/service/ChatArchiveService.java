@@ -0,0 +1,199 @@
+package com.sstt.dinory.domain.chat.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sstt.dinory.domain.chat.dto.ChatArchiveSummary;
+import com.sstt.dinory.domain.chat.dto.ChatMessagePageDto;
+import com.sstt.dinory.domain.chat.dto.ChatResponseDto;
+import com.sstt.dinory.domain.chat.entity.ChatArchiveSegment;
+import com.sstt.dinory.domain.chat.entity.ChatMessage;
+import com.sstt.dinory.domain.chat.entity.ChatSession;
+import com.sstt.dinory.domain.chat.repository.ChatArchiveSegmentRepository;
+import com.sstt.dinory.domain.chat.repository.ChatMessageRepository;
+import com.sstt.dinory.domain.chat.repository.ChatSessionRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 종료된 채팅 세션 보관 / 복원
+ *
+ * 세션 하나의 전체 대화를 JSON 배열로 직렬화해 gzip으로 압축한 뒤 chat_archive_segment 한 행에 저장하고,
+ * chat_message 행은 삭제한다. chat_session 행은 stub으로 남아 목록/요약 조회와 FK를 그대로 유지한다.
+ * 조회 쪽(ChatService)은 archivedAt이 있으면 세그먼트를 풀어서 기존과 같은 DTO로 돌려준다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChatArchiveService {
+
+    static final String CODEC = "gzip+json";
+    private static final int PREVIEW_LENGTH = 100;
+    private static final TypeReference<List<ChatResponseDto.ChatMessageDto>> MESSAGE_LIST = new TypeReference<>() {};
+
+    private final ChatSessionRepository chatSessionRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatArchiveSegmentRepository chatArchiveSegmentRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 세션 하나 보관 (세그먼트 저장 + 메시지 삭제 + archivedAt 기록을 한 트랜잭션으로)
+     * 진행 중이거나 이미 보관된 세션이면 아무것도 하지 않고 false.
+     * 저장 대기 중인 메시지는 호출 전에 ChatMessageWriteBehind.flush()로 내려 둬야 한다.
+     */
+    @Transactional
+    public boolean archiveSession(Long sessionId) {
+        ChatSession session = chatSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Chat session not found: " + sessionId));
+        if (session.getEndedAt() == null || session.getArchivedAt() != null) {
+            return false;
+        }
+
+        List<ChatResponseDto.ChatMessageDto> messages = chatMessageRepository.findByChatSessionIdOrderByCreatedAtAsc(sessionId)
+                .stream()
+                .map(ChatResponseDto.ChatMessageDto::from)
+                .toList();
+        byte[] json = toJson(messages);
+        ChatResponseDto.ChatMessageDto last = messages.isEmpty() ? null : messages.get(messages.size() - 1);
+
+        chatArchiveSegmentRepository.save(ChatArchiveSegment.builder()
+                .sessionId(sessionId)
+                .childId(session.getChildId())
+                .messageCount(messages.size())
+                .lastMessageAt(last != null ? last.getCreatedAt() : null)
+                .lastSender(last != null ? last.getSender() : null)
+                .lastMessagePreview(last != null ? preview(last.getMessage()) : null)
+                .codec(CODEC)
+                .rawBytes(json.length)
+                .payload(gzip(json))
+                .build());
+
+        int deleted = chatMessageRepository.deleteBySessionId(sessionId);
+        session.setArchivedAt(LocalDateTime.now());
+
+        log.debug("Chat session archived: sessionId={}, messages={}, rawBytes={}", sessionId, deleted, json.length);
+        return true;
+    }
+
+    /** 보관된 세션의 전체 대화 (오래된 순) */
+    @Transactional(readOnly = true)
+    public List<ChatResponseDto.ChatMessageDto> rehydrate(Long sessionId) {
+        return chatArchiveSegmentRepository.findBySessionId(sessionId)
+                .map(this::decode)
+                .orElseThrow(() -> new RuntimeException("Chat archive not found: " + sessionId));
+    }
+
+    /** 보관된 여러 세션의 전체 대화 (세그먼트 일괄 조회) */
+    @Transactional(readOnly = true)
+    public Map<Long, List<ChatResponseDto.ChatMessageDto>> rehydrateAll(Collection<Long> sessionIds) {
+        return chatArchiveSegmentRepository.findBySessionIdIn(sessionIds).stream()
+                .collect(Collectors.toMap(ChatArchiveSegment::getSessionId, this::decode));
+    }
+
+    /** 목록 화면용 요약 (payload는 읽지 않음) */
+    public Map<Long, ChatArchiveSummary> summaries(Collection<Long> sessionIds) {
+        return chatArchiveSegmentRepository.findSummaries(sessionIds).stream()
+                .collect(Collectors.toMap(ChatArchiveSummary::sessionId, Function.identity()));
+    }
+
+    /**
+     * 보관된 세션의 keyset 페이지 - 세그먼트를 풀어 메모리에서 자른다 (세션 하나의 대화는 작음)
+     * 의미는 ChatService.getMessages와 같다.
+     */
+    public ChatMessagePageDto page(Long sessionId, Long afterId, Long beforeId, int size) {
+        List<ChatResponseDto.ChatMessageDto> all = rehydrate(sessionId);
+
+        int from;
+        int to;
+        boolean hasMore;
+        if (afterId == null && beforeId == null) {
+            from = Math.max(0, all.size() - size);
+            to = all.size();
+            hasMore = from > 0;
+        } else {
+            Long cursorId = afterId != null ? afterId : beforeId;
+            int cursor = indexOf(all, cursorId);
+            if (cursor < 0) {
+                throw new IllegalArgumentException("잘못된 커서입니다: " + cursorId);
+            }
+            if (afterId != null) {
+                from = cursor + 1;
+                to = Math.min(all.size(), from + size);
+                hasMore = to < all.size();
+            } else {
+                to = cursor;
+                from = Math.max(0, to - size);
+                hasMore = from > 0;
+            }
+        }
+
+        List<ChatResponseDto.ChatMessageDto> messages = List.copyOf(all.subList(from, to));
+        return ChatMessagePageDto.builder()
+                .sessionId(sessionId)
+                .messages(messages)
+                .hasMore(hasMore)
+                .oldestId(messages.isEmpty() ? null : messages.get(0).getId())
+                .newestId(messages.isEmpty() ? null : messages.get(messages.size() - 1).getId())
+                .build();
+    }
+
+    private List<ChatResponseDto.ChatMessageDto> decode(ChatArchiveSegment segment) {
+        if (!CODEC.equals(segment.getCodec())) {
+            throw new IllegalStateException("지원하지 않는 보관 형식입니다: " + segment.getCodec());
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(segment.getPayload()))) {
+            return objectMapper.readValue(in, MESSAGE_LIST);
+        } catch (IOException e) {
+            throw new UncheckedIOException("채팅 보관 데이터 복원 실패: sessionId=" + segment.getSessionId(), e);
+        }
+    }
+
+    private byte[] toJson(List<ChatResponseDto.ChatMessageDto> messages) {
+        try {
+            return objectMapper.writeValueAsBytes(messages);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        try (OutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static String preview(String message) {
+        return message != null && message.length() > PREVIEW_LENGTH ? message.substring(0, PREVIEW_LENGTH) : message;
+    }
+
+    private static int indexOf(List<ChatResponseDto.ChatMessageDto> messages, Long id) {
+        for (int i = 0; i < messages.size(); i++) {
+            if (messages.get(i).getId().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
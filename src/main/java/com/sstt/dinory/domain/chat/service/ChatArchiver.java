@@ -0,0 +1,107 @@
+package com.sstt.dinory.domain.chat.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sstt.dinory.domain.chat.repository.ChatSessionRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 종료 후 retention이 지난 채팅 세션을 주기적으로 보관 세그먼트로 옮긴다.
+ *
+ * 세션마다 별도 트랜잭션(ChatArchiveService.archiveSession)이라 중간에 실패해도 이미 옮긴 세션은 유지되고,
+ * 노드 여러 대가 같은 세션을 동시에 옮기려 하면 session_id unique 제약으로 한쪽만 성공한다.
+ *
+ * 메트릭: chat.archive.sessions{result=archived|skipped|failed}
+ */
+@Component
+@Slf4j
+public class ChatArchiver {
+
+    private final ChatSessionRepository chatSessionRepository;
+    private final ChatArchiveService chatArchiveService;
+    private final ChatMessageWriteBehind chatMessageWriteBehind;
+    private final boolean enabled;
+    private final Duration retention;
+    private final int batchSize;
+
+    private final Counter archivedCounter;
+    private final Counter skippedCounter;
+    private final Counter failedCounter;
+
+    public ChatArchiver(
+            ChatSessionRepository chatSessionRepository,
+            ChatArchiveService chatArchiveService,
+            ChatMessageWriteBehind chatMessageWriteBehind,
+            MeterRegistry meterRegistry,
+            @Value("${chat.archive.enabled:true}") boolean enabled,
+            @Value("${chat.archive.retention:7d}") Duration retention,
+            @Value("${chat.archive.batch-size:200}") int batchSize) {
+        this.chatSessionRepository = chatSessionRepository;
+        this.chatArchiveService = chatArchiveService;
+        this.chatMessageWriteBehind = chatMessageWriteBehind;
+        this.enabled = enabled;
+        this.retention = retention;
+        this.batchSize = batchSize;
+
+        this.archivedCounter = Counter.builder("chat.archive.sessions").tag("result", "archived").register(meterRegistry);
+        this.skippedCounter = Counter.builder("chat.archive.sessions").tag("result", "skipped").register(meterRegistry);
+        this.failedCounter = Counter.builder("chat.archive.sessions").tag("result", "failed").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${chat.archive.cron:0 30 4 * * *}")
+    public void archiveExpired() {
+        if (!enabled) {
+            return;
+        }
+        int archived = archiveEndedBefore(LocalDateTime.now().minus(retention));
+        log.info("채팅 세션 보관 완료: {}건 (retention={})", archived, retention);
+    }
+
+    /** before 이전에 종료된 세션을 모두 보관하고 보관한 세션 수를 반환 */
+    public int archiveEndedBefore(LocalDateTime before) {
+        chatMessageWriteBehind.flush();     // 종료 직전 턴의 메시지가 아직 큐에 있을 수 있음
+
+        int archived = 0;
+        while (true) {
+            List<Long> sessionIds = chatSessionRepository.findArchivableIds(before, PageRequest.of(0, batchSize));
+            if (sessionIds.isEmpty()) {
+                return archived;
+            }
+
+            int progressed = 0;
+            for (Long sessionId : sessionIds) {
+                try {
+                    if (chatArchiveService.archiveSession(sessionId)) {
+                        archived++;
+                        archivedCounter.increment();
+                    } else {
+                        skippedCounter.increment();
+                    }
+                    progressed++;
+                } catch (DataIntegrityViolationException e) {
+                    // 다른 노드가 먼저 보관함
+                    skippedCounter.increment();
+                    progressed++;
+                } catch (RuntimeException e) {
+                    failedCounter.increment();
+                    log.warn("채팅 세션 보관 실패: sessionId={}, error={}", sessionId, e.getMessage());
+                }
+            }
+            if (progressed == 0) {
+                // 이번 배치가 모두 실패 - 같은 세션을 계속 다시 읽지 않도록 다음 주기로 미룸
+                return archived;
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.sstt.dinory.domain.chat.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.sstt.dinory.common.ai.AiServerClient;
+import com.sstt.dinory.common.ai.dto.ChatReply;
+import com.sstt.dinory.common.ai.dto.StoryChatInitRequest;
+import com.sstt.dinory.domain.chat.entity.ChatGreeting;
+import com.sstt.dinory.domain.chat.repository.ChatGreetingRepository;
+import com.sstt.dinory.domain.story.dto.StoryCompletionSummaryDto;
+import com.sstt.dinory.domain.story.event.StoryCompletedEvent;
+import com.sstt.dinory.domain.story.service.StoryService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 동화 기반 챗봇 첫 인사
+ *
+ * 동화가 완료(커밋)되면 백그라운드에서 /api/chat/init-from-story 를 호출해 첫 인사를 chat_greeting에 저장해 둔다.
+ * 아이가 챗봇을 열면
+ * - 저장된 인사가 있으면 DB 조회만으로 바로 시작 (precomputed)
+ * - 아직 생성 중이면 그 결과를 await-timeout까지 기다림 (awaited, AI 중복 호출 없음)
+ * - 둘 다 아니면 기존처럼 AI 서버를 직접 호출 (live)
+ *
+ * 선행 생성은 아직 채팅 세션이 없으므로 session_id 없이 요청한다. 그래서 미리 생성한 인사로 세션을 시작하면
+ * 새 session_id로 init-from-story를 다시 보내(first_message = 보여준 인사, 새로 생성하지 않음) AI 서버의 세션 문맥을 만든다.
+ * 세션 생성 응답은 기다리지 않고, 그 세션의 첫 대화 턴이 await-timeout까지 기다린다 (awaitSeeded).
+ * 미리 생성한 인사는 한 세션에만 쓰고 지운다 - 같은 동화로 챗봇을 다시 열면 매번 같은 인사가 나오지 않도록 live로 생성.
+ * AI 호출과 생성 중인 인사 대기는 Mono로 돌려주므로 완료 요청/챗봇 시작 요청 스레드를 잡지 않는다.
+ *
+ * 메트릭: chat.greeting.requests{result=precomputed|awaited|live}, chat.greeting.precompute{outcome=success|failed}
+ */
+@Service
+@Slf4j
+public class ChatGreetingService {
+
+    private final StoryService storyService;
+    private final ChatGreetingRepository chatGreetingRepository;
+    private final AiServerClient aiServerClient;
+
+    private final boolean enabled;
+    private final Duration awaitTimeout;
+
+    // completionId -> 생성 중인 첫 인사
+    private final Map<Long, CompletableFuture<ChatGreeting>> pending = new ConcurrentHashMap<>();
+    // sessionId -> AI 서버 세션 문맥 만드는 중 (미리 생성한 인사로 시작한 세션)
+    private final Map<Long, CompletableFuture<Void>> seeding = new ConcurrentHashMap<>();
+
+    private final Counter precomputedCounter;
+    private final Counter awaitedCounter;
+    private final Counter liveCounter;
+    private final Counter precomputeSuccessCounter;
+    private final Counter precomputeFailedCounter;
+    private final Counter seedFailedCounter;
+
+    public ChatGreetingService(
+            StoryService storyService,
+            ChatGreetingRepository chatGreetingRepository,
+            AiServerClient aiServerClient,
+            MeterRegistry meterRegistry,
+            @Value("${chat.greeting.precompute:true}") boolean enabled,
+            @Value("${chat.greeting.await-timeout:10s}") Duration awaitTimeout) {
+        this.storyService = storyService;
+        this.chatGreetingRepository = chatGreetingRepository;
+        this.aiServerClient = aiServerClient;
+        this.enabled = enabled;
+        this.awaitTimeout = awaitTimeout;
+
+        this.precomputedCounter = Counter.builder("chat.greeting.requests").tag("result", "precomputed").register(meterRegistry);
+        this.awaitedCounter = Counter.builder("chat.greeting.requests").tag("result", "awaited").register(meterRegistry);
+        this.liveCounter = Counter.builder("chat.greeting.requests").tag("result", "live").register(meterRegistry);
+        this.precomputeSuccessCounter = Counter.builder("chat.greeting.precompute").tag("outcome", "success").register(meterRegistry);
+        this.precomputeFailedCounter = Counter.builder("chat.greeting.precompute").tag("outcome", "failed").register(meterRegistry);
+        this.seedFailedCounter = Counter.builder("chat.greeting.seed").tag("outcome", "failed").register(meterRegistry);
+        meterRegistry.gauge("chat.greeting.pending", pending, Map::size);
+    }
+
+    /** completeStory 커밋 후 첫 인사 선행 생성 시작 (커밋 전이면 요약의 totalTime 등이 보이지 않음) */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStoryCompleted(StoryCompletedEvent event) {
+        if (!enabled) return;
+
+        Long completionId = event.completionId();
+        CompletableFuture<ChatGreeting> future = new CompletableFuture<>();
+        if (pending.putIfAbsent(completionId, future) != null) return;
+
+        Mono.fromCallable(() -> storyService.getStoryCompletionSummary(completionId))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(summary -> aiServerClient.chatInitFromStory(buildRequest(null, summary, null))
+                .mapNotNull(ChatReply::aiResponse)
+                .publishOn(Schedulers.boundedElastic())
+                .map(message -> save(completionId, summary.getChildId(), message)))
+            .doFinally(signal -> pending.remove(completionId, future))
+            .subscribe(
+                greeting -> {
+                    precomputeSuccessCounter.increment();
+                    future.complete(greeting);
+                },
+                e -> {
+                    precomputeFailedCounter.increment();
+                    log.warn("챗봇 첫 인사 선행 생성 실패: completionId={}, error={}", completionId, e.getMessage());
+                    future.complete(null);
+                },
+                () -> future.complete(null));
+
+        log.info("챗봇 첫 인사 선행 생성 시작: completionId={}", completionId);
+    }
+
+    /**
+     * 미리 생성된 첫 인사 (저장됨 → 생성 중이면 await-timeout까지 대기 → 없으면 empty)
+     * 가져간 인사는 지우므로 같은 completion으로 다시 부르면 empty (live로 새 인사)
+     * DB 조회는 boundedElastic에서, 생성 대기는 스레드를 잡지 않고 future 완료를 구독한다.
+     */
+    public Mono<ChatGreeting> findPrecomputed(Long completionId) {
+        return Mono.fromCallable(() -> chatGreetingRepository.findByStoryCompletionId(completionId).filter(this::take).orElse(null))
+            .subscribeOn(Schedulers.boundedElastic())
+            .doOnNext(greeting -> precomputedCounter.increment())
+            .switchIfEmpty(Mono.defer(() -> awaitPending(completionId)));
+    }
+
+    private Mono<ChatGreeting> awaitPending(Long completionId) {
+        CompletableFuture<ChatGreeting> future = pending.get(completionId);
+        if (future == null) return Mono.empty();
+        // 시간 초과로 취소돼도 공유 future는 그대로 둠 (선행 생성은 끝까지 저장)
+        return Mono.fromFuture(future, true)
+            .timeout(awaitTimeout)
+            .publishOn(Schedulers.boundedElastic())
+            .filter(this::take)
+            .doOnNext(greeting -> awaitedCounter.increment())
+            .onErrorResume(e -> {
+                log.warn("챗봇 첫 인사 대기 실패, 직접 생성으로 전환: completionId={}, error={}", completionId, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * 미리 생성한 인사로 시작한 세션의 AI 서버 문맥 만들기 (응답을 기다리지 않음)
+     * 선행 생성은 session_id 없이 했으므로, 새 세션 id + 보여준 인사로 init-from-story를 다시 보낸다.
+     */
+    public void seedSession(Long sessionId, Long completionId, String greeting) {
+        CompletableFuture<Void> seeded = new CompletableFuture<>();
+        seeding.put(sessionId, seeded);
+
+        Mono.fromCallable(() -> storyService.getStoryCompletionSummary(completionId))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(summary -> aiServerClient.chatInitFromStory(buildRequest(sessionId, summary, greeting)))
+            .doFinally(signal -> {
+                seeded.complete(null);
+                seeding.remove(sessionId, seeded);
+            })
+            .subscribe(
+                reply -> { },
+                e -> {
+                    seedFailedCounter.increment();
+                    log.warn("챗봇 세션 문맥 생성 실패: sessionId={}, completionId={}, error={}", sessionId, completionId, e.getMessage());
+                });
+    }
+
+    /** seedSession이 진행 중이면 끝날 때까지(최대 await-timeout) 기다림 - 첫 대화 턴이 문맥 없이 가지 않도록 */
+    public Mono<Void> awaitSeeded(Long sessionId) {
+        CompletableFuture<Void> seeded = seeding.get(sessionId);
+        if (seeded == null) return Mono.empty();
+        return Mono.fromFuture(seeded, true)
+            .timeout(awaitTimeout)
+            .onErrorResume(e -> {
+                log.warn("챗봇 세션 문맥 대기 초과, 그대로 진행: sessionId={}", sessionId);
+                return Mono.empty();
+            });
+    }
+
+    /** 선행 생성이 없을 때 AI 서버 직접 호출 (실패 시 기본 인사) */
+    public Mono<String> generateLive(Long sessionId, StoryCompletionSummaryDto summary) {
+        return Mono.defer(() -> {
+            liveCounter.increment();
+            StoryChatInitRequest requestBody = buildRequest(sessionId, summary, null);
+
+            log.info("Requesting first AI message from story: {}", requestBody);
+
+            return aiServerClient.chatInitFromStory(requestBody)
+                .mapNotNull(ChatReply::aiResponse)
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    log.warn("No AI response received, using fallback");
+                    return String.format("%s야, 동화 어땠어? 재미있었니? 지금 기분이 어때?", summary.getChildName());
+                }));
+        }).onErrorResume(e -> {
+            log.error("Failed to get first AI message from story: ", e);
+            // AI 서버 실패 시 기본 메시지 반환
+            return Mono.just(String.format("%s야, 동화 '%s' 어땠어? 이야기 들으면서 어떤 생각이 들었어?",
+                               summary.getChildName(), summary.getStoryTitle()));
+        });
+    }
+
+    private ChatGreeting save(Long completionId, Long childId, String message) {
+        try {
+            return chatGreetingRepository.save(ChatGreeting.builder()
+                .storyCompletionId(completionId)
+                .childId(childId)
+                .message(message)
+                .build());
+        } catch (DataIntegrityViolationException e) {
+            // 같은 completion으로 두 번 완료 요청 - 먼저 저장된 것을 사용
+            return chatGreetingRepository.findByStoryCompletionId(completionId).orElseThrow(() -> e);
+        }
+    }
+
+    /** 한 세션에만 쓰도록 지움 - 동시에 같은 인사를 가져가려는 다른 요청은 false */
+    private boolean take(ChatGreeting greeting) {
+        return chatGreetingRepository.deleteUsed(greeting.getId()) == 1;
+    }
+
+    private StoryChatInitRequest buildRequest(Long sessionId, StoryCompletionSummaryDto summary, String firstMessage) {
+        // 능력치 정보
+        Map<String, Integer> abilities = new HashMap<>();
+        abilities.put("courage", summary.getTotalCourage());
+        abilities.put("empathy", summary.getTotalEmpathy());
+        abilities.put("creativity", summary.getTotalCreativity());
+        abilities.put("responsibility", summary.getTotalResponsibility());
+        abilities.put("friendship", summary.getTotalFriendship());
+
+        // 선택 정보 포함
+        return new StoryChatInitRequest(
+            sessionId,
+            summary.getChildId(),
+            summary.getChildName(),
+            summary.getStoryId(),
+            summary.getStoryTitle(),
+            summary.getTotalTime(),
+            abilities,
+            summary.getChoices(),
+            firstMessage);
+    }
+}
@@ -0,0 +1,45 @@
+package com.sstt.dinory.domain.chat.service;
+
+import java.time.Instant;
+
+/**
+ * chat_message id 발급기 (시간 순 64bit: 41bit 밀리초 | 10bit 노드 | 12bit 순번)
+ *
+ * write-behind로 INSERT하기 전에 응답/커서에 id가 필요하므로 DB AUTO_INCREMENT 대신 앱에서 발급한다.
+ * 값이 기존 AUTO_INCREMENT id보다 항상 크고 시간 순으로 증가하므로
+ * (created_at, id) keyset 정렬과 "MAX(id) = 마지막 메시지" 가정이 그대로 성립한다.
+ * 노드가 여러 대면 chat.message.node-id를 노드마다 다르게 설정해야 한다.
+ */
+public class ChatMessageIdGenerator {
+
+    private static final long EPOCH = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private long lastMillis = -1;
+    private long sequence;
+
+    public ChatMessageIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId >= (1L << NODE_BITS)) {
+            throw new IllegalArgumentException("node-id는 0~1023 사이여야 합니다: " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    public synchronized long nextId() {
+        // 시계가 뒤로 가면 마지막 시각을 그대로 사용 (id 역전 방지)
+        long now = Math.max(System.currentTimeMillis(), lastMillis);
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & MAX_SEQUENCE;
+            if (sequence == 0) {
+                now = lastMillis + 1;   // 같은 밀리초에 4096개 초과 - 다음 밀리초를 앞당겨 사용
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+        return ((now - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+}
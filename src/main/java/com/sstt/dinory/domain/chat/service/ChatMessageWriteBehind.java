@@ -0,0 +1,328 @@
+package com.sstt.dinory.domain.chat.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.sstt.dinory.domain.chat.dto.ChatResponseDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ChatMessage write-behind 배처
+ *
+ * 채팅 한 턴마다 INSERT를 바로 하지 않고 메모리 큐에 넣은 뒤, flush-interval마다 JDBC batch로 한 번에 저장한다.
+ * id와 created_at은 큐에 넣을 때 정해지므로 응답/커서는 저장 전에도 바로 쓸 수 있다.
+ *
+ * 내구성 한계 (crash-consistency)
+ * - 정상 종료: @PreDestroy에서 큐를 모두 비운 뒤 종료하므로 유실 없음. 이후 들어오는 메시지는 바로 저장.
+ * - 프로세스 강제 종료: 마지막 flush 이후 최대 flush-interval + batch 1회 저장 시간 동안 받은 메시지가 유실될 수 있음.
+ *   (chat.message.write-behind.oldest.age 게이지로 감시)
+ * - DB 오류: 배치를 큐 앞에 되돌려 다음 주기에 재시도. 배치는 한 트랜잭션이라 일부만 저장된 채로 다시 보내지 않음.
+ * - 데이터 오류(중복 id, 길이 초과, FK): 배치를 한 건씩 다시 저장해 문제 행만 버리고 error 로그 + dropped 카운터로 남긴다.
+ *   (INSERT IGNORE처럼 조용히 버리지 않음 - 노드 id 충돌로 다른 메시지와 id가 겹치면 여기서 드러난다)
+ * - 큐가 max-pending에 닿으면 호출 스레드에서 먼저 flush를 시도하고, 그래도(DB 장애 등) 자리가 없으면
+ *   큐에 넣지 않고 503으로 거절한다. 큐 크기는 max-pending을 넘지 않고(메모리 상한),
+ *   받아들인 메시지에 대해서는 호출자에게 예외를 던지지 않는다 (재시도로 인한 중복 방지).
+ *
+ * MySQL에서는 rewriteBatchedStatements=true 여야 batch가 multi-row INSERT 한 번으로 나간다.
+ *
+ * 메시지 id는 노드 번호(chat.message.node-id)를 넣어 발급하므로 노드마다 달라야 한다.
+ * 설정이 없으면 단일 노드 프로필(chat.message.single-node-profiles)에서만 0을 쓰고, 그 밖에서는 기동을 실패시킨다.
+ */
+@Component
+@Slf4j
+public class ChatMessageWriteBehind {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO chat_message (id, session_id, sender, message, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChatMessageIdGenerator idGenerator;
+    private final int batchSize;
+    private final int maxPending;
+
+    private final Deque<PendingMessage> queue = new ArrayDeque<>();   // queue 자체로 동기화
+    private final ReentrantLock flushLock = new ReentrantLock();       // 동시에 하나의 flush만 (배치 순서 보장)
+    private final ScheduledExecutorService flusher;
+    private volatile boolean closed;
+
+    private final Counter flushedCounter;
+    private final Counter failureCounter;
+    private final Counter rejectedCounter;
+    private final Counter droppedCounter;
+    private final Timer batchTimer;
+
+    public ChatMessageWriteBehind(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            Environment environment,
+            @Value("${chat.message.node-id:#{null}}") Long nodeId,
+            @Value("${chat.message.single-node-profiles:default,local}") String[] singleNodeProfiles,
+            @Value("${chat.message.write-behind.flush-interval:200ms}") Duration flushInterval,
+            @Value("${chat.message.write-behind.batch-size:500}") int batchSize,
+            @Value("${chat.message.write-behind.max-pending:10000}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idGenerator = new ChatMessageIdGenerator(resolveNodeId(nodeId, environment, singleNodeProfiles));
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+
+        this.flushedCounter = Counter.builder("chat.message.write-behind.flushed").register(meterRegistry);
+        this.failureCounter = Counter.builder("chat.message.write-behind.failures").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("chat.message.write-behind.rejected").register(meterRegistry);
+        this.droppedCounter = Counter.builder("chat.message.write-behind.dropped").register(meterRegistry);
+        this.batchTimer = Timer.builder("chat.message.write-behind.batch").register(meterRegistry);
+        meterRegistry.gauge("chat.message.write-behind.pending", this, ChatMessageWriteBehind::pendingCount);
+        meterRegistry.gauge("chat.message.write-behind.oldest.age", this, ChatMessageWriteBehind::oldestPendingAgeMillis);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("chat-write-behind")
+            .daemon(true)
+            .factory());
+        long intervalMs = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** 노드 번호 - 설정이 없으면 단일 노드 프로필에서만 0 (여러 노드가 같은 번호로 id를 발급하면 메시지가 충돌) */
+    static long resolveNodeId(Long configured, Environment environment, String[] singleNodeProfiles) {
+        if (configured != null) return configured;
+        if (environment.matchesProfiles(singleNodeProfiles)) {
+            log.warn("chat.message.node-id 미설정 - 단일 노드 프로필이라 0 사용 (노드가 여러 대면 노드마다 설정 필요)");
+            return 0L;
+        }
+        throw new IllegalStateException("chat.message.node-id가 설정되지 않았습니다. 노드마다 다른 값(0~1023)을 설정하세요.");
+    }
+
+    /**
+     * 메시지 저장 예약 - id/createdAt을 정해 바로 돌려줌
+     * 큐가 가득 찼고 flush로도 비우지 못하면 받아들이지 않고 503 (이 경우 메시지는 저장되지 않음)
+     */
+    public ChatResponseDto.ChatMessageDto enqueue(Long sessionId, String sender, String message) {
+        PendingMessage pending = new PendingMessage(idGenerator.nextId(), sessionId, sender, message,
+            LocalDateTime.now().truncatedTo(ChronoUnit.MICROS), System.nanoTime());   // DATETIME(6) 정밀도에 맞춤
+
+        if (closed) {
+            // 종료 후에는 flusher가 없으므로 바로 저장 (실패하면 받아들이지 않은 것)
+            flushLock.lock();
+            try {
+                write(new ArrayList<>(List.of(pending)));
+            } finally {
+                flushLock.unlock();
+            }
+            return pending.toDto();
+        }
+
+        if (pendingCount() >= maxPending) {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                // 저장 실패 - 아래에서 자리가 없으면 거절
+            }
+        }
+        synchronized (queue) {
+            if (queue.size() >= maxPending) {
+                rejectedCounter.increment();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "메시지를 저장할 수 없습니다. 잠시 후 다시 시도해주세요.");
+            }
+            queue.addLast(pending);
+        }
+        return pending.toDto();
+    }
+
+    /**
+     * 저장 예약 취소 (AI 과부하로 턴이 거절된 경우)
+     * 아직 큐에 있으면 빼고, 이미 저장됐으면 삭제한다. flush 중인 배치와 겹치지 않도록 flushLock 안에서 처리.
+     */
+    public void discard(long messageId) {
+        flushLock.lock();
+        try {
+            boolean removed;
+            synchronized (queue) {
+                removed = queue.removeIf(p -> p.id() == messageId);
+            }
+            if (!removed) {
+                jdbcTemplate.update("DELETE FROM chat_message WHERE id = ?", messageId);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /** 큐에 있는 메시지를 모두 저장 (조회 전 read-your-writes, 종료 시). 저장한 개수 반환 */
+    public int flush() {
+        flushLock.lock();
+        try {
+            int written = 0;
+            while (true) {
+                List<PendingMessage> batch = drain();
+                if (batch.isEmpty()) return written;
+                try {
+                    written += write(batch);
+                } catch (RuntimeException e) {
+                    requeue(batch);
+                    failureCounter.increment();
+                    log.warn("채팅 메시지 배치 저장 실패, 다음 주기에 재시도: size={}, error={}", batch.size(), e.getMessage());
+                    throw e;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int pendingCount() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    /** 아직 저장되지 않은 가장 오래된 메시지의 대기 시간 (강제 종료 시 유실 가능 구간) */
+    public long oldestPendingAgeMillis() {
+        synchronized (queue) {
+            PendingMessage oldest = queue.peekFirst();
+            return oldest == null ? 0L : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.enqueuedAtNanos());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int written = flush();
+        log.info("채팅 메시지 write-behind 종료: 남은 메시지 {}건 저장", written);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // flush()에서 로그/재시도 처리 - 스케줄이 멈추지 않도록 삼킴
+        }
+    }
+
+    private List<PendingMessage> drain() {
+        synchronized (queue) {
+            int n = Math.min(batchSize, queue.size());
+            List<PendingMessage> batch = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                batch.add(queue.pollFirst());
+            }
+            return batch;
+        }
+    }
+
+    private void requeue(List<PendingMessage> batch) {
+        synchronized (queue) {
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                queue.addFirst(batch.get(i));
+            }
+        }
+    }
+
+    /**
+     * 배치 저장 (한 트랜잭션) - 저장한 개수 반환
+     * 데이터 오류면 한 건씩 다시 저장해 문제 행만 버린다. 처리한 행은 batch에서 빠지므로
+     * 도중에 DB 오류가 나면 남은 행만 재시도된다.
+     */
+    private int write(List<PendingMessage> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (PendingMessage p : batch) {
+            rows.add(p.toRow());
+        }
+        int[] counts;
+        try {
+            counts = batchTimer.record(() -> transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows)));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("채팅 메시지 배치에 저장할 수 없는 행이 있어 한 건씩 저장: size={}, error={}", batch.size(), e.getMessage());
+            return writeOneByOne(batch);
+        }
+
+        int written = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            // rewriteBatchedStatements면 행별 개수 대신 SUCCESS_NO_INFO(-2) - 0일 때만 저장되지 않은 행
+            if (counts != null && i < counts.length && counts[i] == 0) {
+                dropped(batch.get(i), "INSERT 결과 0행");
+            } else {
+                written++;
+            }
+        }
+        batch.clear();
+        flushedCounter.increment(written);
+        return written;
+    }
+
+    private int writeOneByOne(List<PendingMessage> batch) {
+        int written = 0;
+        for (Iterator<PendingMessage> it = batch.iterator(); it.hasNext(); ) {
+            PendingMessage p = it.next();
+            try {
+                if (jdbcTemplate.update(INSERT_SQL, p.toRow()) == 0) {
+                    dropped(p, "INSERT 결과 0행");
+                } else {
+                    written++;
+                    flushedCounter.increment();
+                }
+            } catch (DataIntegrityViolationException e) {
+                dropped(p, e.getMessage());
+            }
+            it.remove();
+        }
+        return written;
+    }
+
+    /** 저장할 수 없는 메시지 - 재시도해도 같으므로 버리고 남긴다 */
+    private void dropped(PendingMessage p, String reason) {
+        droppedCounter.increment();
+        log.error("채팅 메시지 저장 실패로 버림: id={}, sessionId={}, sender={}, reason={}", p.id(), p.sessionId(), p.sender(), reason);
+    }
+
+    private record PendingMessage(long id, Long sessionId, String sender, String message,
+                                  LocalDateTime createdAt, long enqueuedAtNanos) {
+
+        Object[] toRow() {
+            return new Object[] { id, sessionId, sender, message, Timestamp.valueOf(createdAt) };
+        }
+
+        ChatResponseDto.ChatMessageDto toDto() {
+            return ChatResponseDto.ChatMessageDto.builder()
+                .id(id)
+                .sender(sender)
+                .message(message)
+                .createdAt(createdAt)
+                .build();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.sstt.dinory.domain.chat.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.sstt.dinory.domain.chat.dto.ChatResponseDto;
+import com.sstt.dinory.domain.chat.dto.ChatTurnContext;
+import com.sstt.dinory.domain.chat.entity.ChatSession;
+import com.sstt.dinory.domain.chat.repository.ChatSessionRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 채팅 파이프라인의 DB 단계 전담 서비스
+ *
+ * ChatService가 AI 서버를 기다리는 동안 커넥션을 잡고 있지 않도록
+ * (1) 사용자 메시지 저장 → (2) 커넥션 없이 AI 응답 대기 → (3) AI 메시지 저장 으로 나눈다.
+ * 이 클래스는 (1)과 (3)만 담당한다.
+ *
+ * 진행 중인 세션은 ChatSessionWindow에 올라와 있어 턴마다 세션을 다시 조회하지 않고,
+ * 메시지 INSERT는 ChatMessageWriteBehind가 모아서 JDBC batch로 저장한다.
+ * 따라서 창에 있는 세션의 한 턴은 동기 DB 호출이 없다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChatPersistenceService {
+
+    private final ChatSessionRepository chatSessionRepository;
+    private final ChatSessionWindow chatSessionWindow;
+    private final ChatMessageWriteBehind chatMessageWriteBehind;
+
+    /** (1) 사용자 메시지 저장 후 스냅샷 반환 */
+    public ChatTurnContext saveUserMessage(Long sessionId, String message) {
+        ChatSessionWindow.ActiveSession session = activeSession(sessionId);
+
+        ChatResponseDto.ChatMessageDto userMessage = chatMessageWriteBehind.enqueue(sessionId, "USER", message);
+
+        return toContext(session, userMessage);
+    }
+
+    /** (1) 새 세션 생성 (동화 기반 챗봇) 후 스냅샷 반환 - 세션 행은 메시지보다 먼저 있어야 하므로 바로 저장 */
+    public ChatTurnContext createSession(Long childId, Long storyCompletionId) {
+        ChatSession session = chatSessionRepository.save(ChatSession.builder()
+                .childId(childId)
+                .storyCompletionId(storyCompletionId)
+                .build());
+
+        return toContext(chatSessionWindow.load(session), null);
+    }
+
+    /**
+     * (3) AI 메시지 저장 후 응답 생성
+     * 전체 대화를 다시 읽지 않고 이번 턴의 메시지(사용자 + AI)와 커서만 돌려준다.
+     */
+    public ChatResponseDto saveAiMessage(ChatTurnContext context, String aiResponse) {
+        ChatResponseDto.ChatMessageDto aiMessage = chatMessageWriteBehind.enqueue(context.getSessionId(), "AI", aiResponse);
+
+        List<ChatResponseDto.ChatMessageDto> newMessages = new ArrayList<>(2);
+        if (context.getUserMessage() != null) {
+            newMessages.add(context.getUserMessage());
+        }
+        newMessages.add(aiMessage);
+
+        return ChatResponseDto.builder()
+                .sessionId(context.getSessionId())
+                .childId(context.getChildId())
+                .aiResponse(aiResponse)
+                .messages(newMessages)
+                .cursor(aiMessage.getId())
+                .startedAt(context.getStartedAt())
+                .endedAt(context.getEndedAt())
+                .build();
+    }
+
+    /** AI 호출이 과부하로 거절된 경우 (1)에서 저장한 사용자 메시지 취소 - 재전송 시 중복 방지 */
+    public void discardUserMessage(ChatTurnContext context) {
+        if (context.getUserMessageId() != null) {
+            chatMessageWriteBehind.discard(context.getUserMessageId());
+        }
+    }
+
+    /** 창에 있으면 그대로, 없으면 세션을 DB에서 읽어 창에 올림 */
+    private ChatSessionWindow.ActiveSession activeSession(Long sessionId) {
+        return chatSessionWindow.get(sessionId).orElseGet(() -> {
+            ChatSession session = chatSessionRepository.findById(sessionId)
+                    .orElseThrow(() -> new RuntimeException("Chat session not found: " + sessionId));
+            if (session.getArchivedAt() != null) {
+                throw new IllegalArgumentException("보관된 채팅 세션에는 메시지를 보낼 수 없습니다: " + sessionId);
+            }
+            return chatSessionWindow.load(session);
+        });
+    }
+
+    private ChatTurnContext toContext(ChatSessionWindow.ActiveSession session, ChatResponseDto.ChatMessageDto userMessage) {
+        return ChatTurnContext.builder()
+                .sessionId(session.getSessionId())
+                .childId(session.getChildId())
+                .storyCompletionId(session.getStoryCompletionId())
+                .userMessageId(userMessage != null ? userMessage.getId() : null)
+                .userMessage(userMessage)
+                .startedAt(session.getStartedAt())
+                .endedAt(session.getEndedAt())
+                .build();
+    }
+}
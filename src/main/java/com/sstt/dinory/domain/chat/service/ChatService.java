@@ -1,30 +1,42 @@
 package com.sstt.dinory.domain.chat.service;
 
+import com.sstt.dinory.common.ai.AiServerBusyException;
+import com.sstt.dinory.common.ai.AiServerClient;
+import com.sstt.dinory.common.ai.dto.ChatReply;
+import com.sstt.dinory.common.ai.dto.ChatRequest;
+import com.sstt.dinory.domain.chat.dto.ChatArchiveSummary;
 import com.sstt.dinory.domain.chat.dto.ChatInitFromStoryRequest;
 import com.sstt.dinory.domain.chat.dto.ChatInitRequest;
+import com.sstt.dinory.domain.chat.dto.ChatMessagePageDto;
+import com.sstt.dinory.domain.chat.dto.ChatMessagePreview;
 import com.sstt.dinory.domain.chat.dto.ChatMessageRequest;
 import com.sstt.dinory.domain.chat.dto.ChatResponseDto;
+import com.sstt.dinory.domain.chat.dto.ChatSessionPageDto;
+import com.sstt.dinory.domain.chat.dto.ChatSessionSummaryDto;
+import com.sstt.dinory.domain.chat.dto.ChatTurnContext;
+import com.sstt.dinory.domain.chat.entity.ChatGreeting;
 import com.sstt.dinory.domain.chat.entity.ChatMessage;
 import com.sstt.dinory.domain.chat.entity.ChatSession;
 import com.sstt.dinory.domain.chat.repository.ChatMessageRepository;
 import com.sstt.dinory.domain.chat.repository.ChatSessionRepository;
-import com.sstt.dinory.domain.story.dto.StoryCompletionSummaryDto;
-import com.sstt.dinory.domain.story.entity.StoryCompletion;
-import com.sstt.dinory.domain.story.repository.StoryCompletionRepository;
+import com.sstt.dinory.domain.story.service.StoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,118 +44,95 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ChatService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ChatSessionRepository chatSessionRepository;
     private final ChatMessageRepository chatMessageRepository;
-    private final StoryCompletionRepository storyCompletionRepository;
-    private final RestTemplate restTemplate = new RestTemplate();
-
-    @Value("${ai.server.url:http://localhost:8000}")
-    private String aiServerUrl;
+    private final ChatPersistenceService chatPersistenceService;
+    private final ChatGreetingService chatGreetingService;
+    private final ChatSessionWindow chatSessionWindow;
+    private final ChatMessageWriteBehind chatMessageWriteBehind;
+    private final ChatArchiveService chatArchiveService;
+    private final StoryService storyService;
+    private final AiServerClient aiServerClient;
 
-    @Transactional
     public ChatResponseDto initChatSession(ChatInitRequest request) {
-        // 새로운 채팅 세션 생성
-        ChatSession session = ChatSession.builder()
-                .childId(request.getChildId())
-                .build();
-
-        session = chatSessionRepository.save(session);
+        // 새로운 채팅 세션 생성 (바로 세션 창에 올림)
+        ChatTurnContext context = chatPersistenceService.createSession(request.getChildId(), null);
 
-        log.info("Chat session created: {}", session.getId());
+        log.info("Chat session created: {}", context.getSessionId());
 
         return ChatResponseDto.builder()
-                .sessionId(session.getId())
-                .childId(session.getChildId())
-                .startedAt(session.getStartedAt())
+                .sessionId(context.getSessionId())
+                .childId(context.getChildId())
+                .startedAt(context.getStartedAt())
                 .messages(List.of())
                 .build();
     }
 
-    @Transactional
-    public ChatResponseDto initChatSessionFromStory(ChatInitFromStoryRequest request) {
+    /**
+     * 동화 기반 챗봇 세션 시작
+     *
+     * 동화 완료 시 미리 생성해 둔 첫 인사가 있으면 AI 응답을 기다리지 않고 세션 생성 + 메시지 저장만 한다.
+     * (AI 서버의 세션 문맥은 백그라운드로 만들고, 첫 대화 턴이 그것을 기다림)
+     * 없으면 트랜잭션 없이 (1) 동화 요약 조회 + 세션 생성 (각각 짧은 트랜잭션) →
+     * (2) 커넥션 없이 AI 첫 인사 생성 → (3) AI 메시지 저장
+     */
+    public Mono<ChatResponseDto> initChatSessionFromStory(ChatInitFromStoryRequest request) {
         log.info("=== 동화 기반 챗봇 세션 시작 ===");
         log.info("completionId: {}", request.getCompletionId());
 
-        // StoryCompletion 조회
-        StoryCompletion completion = storyCompletionRepository.findById(request.getCompletionId())
-                .orElseThrow(() -> new RuntimeException("StoryCompletion을 찾을 수 없습니다: " + request.getCompletionId()));
-
-        // StoryCompletion 요약 정보 생성
-        StoryCompletionSummaryDto summary = StoryCompletionSummaryDto.from(completion);
-
-        // 새로운 채팅 세션 생성 (동화와 연결)
-        ChatSession session = ChatSession.builder()
-                .childId(summary.getChildId())
-                .storyCompletionId(request.getCompletionId())
-                .build();
-
-        session = chatSessionRepository.save(session);
-
-        log.info("Chat session created from story: sessionId={}, storyId={}",
-                 session.getId(), summary.getStoryId());
-
-        // AI에게 동화 기반 첫 인사 메시지 생성 요청
-        String firstAiMessage = generateFirstMessageFromStory(session.getId(), summary);
-
-        // AI의 첫 메시지 저장
-        ChatMessage aiMessage = ChatMessage.builder()
-                .chatSession(session)
-                .sender("AI")
-                .message(firstAiMessage)
-                .build();
-
-        chatMessageRepository.save(aiMessage);
-
-        // 전체 메시지 조회
-        List<ChatMessage> allMessages = chatMessageRepository.findByChatSessionIdOrderByCreatedAtAsc(session.getId());
-
-        return ChatResponseDto.builder()
-                .sessionId(session.getId())
-                .childId(session.getChildId())
-                .aiResponse(firstAiMessage)
-                .messages(convertToMessageDtos(allMessages))
-                .startedAt(session.getStartedAt())
-                .build();
+        Long completionId = request.getCompletionId();
+        return chatGreetingService.findPrecomputed(completionId)
+                .publishOn(Schedulers.boundedElastic())
+                .map(greeting -> startFromPrecomputed(completionId, greeting))
+                .switchIfEmpty(Mono.defer(() -> startLive(completionId)));
     }
 
-    @Transactional
-    public ChatResponseDto sendMessage(ChatMessageRequest request) {
-        // 세션 조회
-        ChatSession session = chatSessionRepository.findById(request.getSessionId())
-                .orElseThrow(() -> new RuntimeException("Chat session not found: " + request.getSessionId()));
-
-        // 사용자 메시지 저장
-        ChatMessage userMessage = ChatMessage.builder()
-                .chatSession(session)
-                .sender("USER")
-                .message(request.getMessage())
-                .build();
-
-        chatMessageRepository.save(userMessage);
-
-        // AI 응답 생성
-        String aiResponse = generateAIResponse(request.getSessionId(), request.getMessage(), session.getChildId());
-
-        // AI 메시지 저장
-        ChatMessage aiMessage = ChatMessage.builder()
-                .chatSession(session)
-                .sender("AI")
-                .message(aiResponse)
-                .build();
-
-        chatMessageRepository.save(aiMessage);
+    private ChatResponseDto startFromPrecomputed(Long completionId, ChatGreeting greeting) {
+        ChatTurnContext context = chatPersistenceService.createSession(greeting.getChildId(), completionId);
+        log.info("Chat session created from precomputed greeting: sessionId={}", context.getSessionId());
+        ChatResponseDto response = chatPersistenceService.saveAiMessage(context, greeting.getMessage());
+        // 인사는 session_id 없이 미리 만들었으므로 AI 서버에 이 세션의 동화 문맥을 만들어 둠
+        chatGreetingService.seedSession(context.getSessionId(), completionId, greeting.getMessage());
+        return response;
+    }
 
-        // 전체 메시지 조회
-        List<ChatMessage> allMessages = chatMessageRepository.findByChatSessionIdOrderByCreatedAtAsc(session.getId());
+    private Mono<ChatResponseDto> startLive(Long completionId) {
+        // (1) StoryCompletion 요약 정보 + 새로운 채팅 세션 생성 (동화와 연결)
+        return Mono.fromCallable(() -> storyService.getStoryCompletionSummary(completionId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(summary -> {
+                    ChatTurnContext context = chatPersistenceService.createSession(summary.getChildId(), completionId);
+
+                    log.info("Chat session created from story: sessionId={}, storyId={}",
+                             context.getSessionId(), summary.getStoryId());
+
+                    // (2) AI에게 동화 기반 첫 인사 메시지 생성 요청 → (3) AI의 첫 메시지 저장
+                    return chatGreetingService.generateLive(context.getSessionId(), summary)
+                            .publishOn(Schedulers.boundedElastic())
+                            .map(firstAiMessage -> chatPersistenceService.saveAiMessage(context, firstAiMessage));
+                });
+    }
 
-        return ChatResponseDto.builder()
-                .sessionId(session.getId())
-                .childId(session.getChildId())
-                .aiResponse(aiResponse)
-                .messages(convertToMessageDtos(allMessages))
-                .startedAt(session.getStartedAt())
-                .endedAt(session.getEndedAt())
-                .build();
+    /**
+     * 메시지 전송
+     *
+     * (1) 사용자 메시지 저장 (짧은 트랜잭션) → (2) AI 응답 대기 (스레드/커넥션 점유 없음) → (3) AI 메시지 저장
+     * DB 단계는 boundedElastic에서 실행하고, AI 응답은 Netty 이벤트 루프에서 기다린다.
+     */
+    public Mono<ChatResponseDto> sendMessage(ChatMessageRequest request) {
+        return Mono.fromCallable(() -> chatPersistenceService.saveUserMessage(request.getSessionId(), request.getMessage()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(context -> chatGreetingService.awaitSeeded(context.getSessionId())
+                        .then(Mono.defer(() -> generateAIResponse(context, request.getMessage())))
+                        .publishOn(Schedulers.boundedElastic())
+                        .map(aiResponse -> chatPersistenceService.saveAiMessage(context, aiResponse))
+                        .onErrorResume(AiServerBusyException.class, e ->
+                                // 과부하로 거절 - 사용자 메시지를 되돌리고 503으로 응답 (재전송 시 중복 방지)
+                                Mono.fromRunnable(() -> chatPersistenceService.discardUserMessage(context))
+                                        .subscribeOn(Schedulers.boundedElastic())
+                                        .then(Mono.error(e))));
     }
 
     @Transactional
@@ -153,131 +142,190 @@ public class ChatService {
 
         session.setEndedAt(LocalDateTime.now());
         chatSessionRepository.save(session);
+        chatSessionWindow.evict(sessionId);
 
         log.info("Chat session ended: {}", sessionId);
     }
 
+    /** 세션 전체 대화 - 보관된 세션이면 보관 세그먼트를 풀어서 같은 형태로 돌려준다 */
     public ChatResponseDto getChatSession(Long sessionId) {
         ChatSession session = chatSessionRepository.findById(sessionId)
                 .orElseThrow(() -> new RuntimeException("Chat session not found: " + sessionId));
 
-        List<ChatMessage> messages = chatMessageRepository.findByChatSessionIdOrderByCreatedAtAsc(sessionId);
+        List<ChatResponseDto.ChatMessageDto> messages;
+        if (session.getArchivedAt() != null) {
+            messages = chatArchiveService.rehydrate(sessionId);
+        } else {
+            chatMessageWriteBehind.flush();     // 저장 대기 중인 메시지까지 보이도록
+            messages = convertToMessageDtos(chatMessageRepository.findByChatSessionIdOrderByCreatedAtAsc(sessionId));
+        }
 
         return ChatResponseDto.builder()
                 .sessionId(session.getId())
                 .childId(session.getChildId())
-                .messages(convertToMessageDtos(messages))
+                .messages(messages)
                 .startedAt(session.getStartedAt())
                 .endedAt(session.getEndedAt())
                 .build();
     }
 
-    public List<ChatResponseDto> getChatSessionsByChild(Long childId) {
-        List<ChatSession> sessions = chatSessionRepository.findByChildIdOrderByStartedAtDesc(childId);
-
-        return sessions.stream()
-                .map(session -> {
-                    List<ChatMessage> messages = chatMessageRepository.findByChatSessionIdOrderByCreatedAtAsc(session.getId());
-                    return ChatResponseDto.builder()
-                            .sessionId(session.getId())
-                            .childId(session.getChildId())
-                            .messages(convertToMessageDtos(messages))
-                            .startedAt(session.getStartedAt())
-                            .endedAt(session.getEndedAt())
-                            .build();
-                })
-                .collect(Collectors.toList());
-    }
-
-    private String generateAIResponse(Long sessionId, String userMessage, Long childId) {
-        try {
-            // AI 서버에 요청 전송
-            String url = aiServerUrl + "/api/chat";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("session_id", sessionId.intValue());
-            requestBody.put("message", userMessage);
-            if (childId != null) {
-                requestBody.put("child_id", childId.intValue());
-            }
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-
-            Map<String, Object> response = restTemplate.postForObject(url, entity, Map.class);
-
-            if (response != null && response.containsKey("ai_response")) {
-                return (String) response.get("ai_response");
-            }
-
-            log.warn("No AI response received, using fallback");
-            return "죄송해요, 지금은 대답하기 어려워요. 다시 말씀해주시겠어요?";
-
-        } catch (Exception e) {
-            log.error("Failed to get AI response: ", e);
-            return "죄송해요, 잠시 후에 다시 이야기해요!";
+    /**
+     * 대화 기록 keyset 페이지 조회
+     * - 커서 없음: 가장 최근 limit개
+     * - beforeId: 그 이전 limit개 (위로 스크롤)
+     * - afterId: 그 이후 limit개 (새 메시지 따라잡기)
+     * limit+1개를 읽어 다음 페이지 존재 여부를 판단한다.
+     * 보관된 세션은 보관 세그먼트에서 자른다. 세션 창은 노드별이라 다른 노드에서 쓴 메시지를 모르므로 쓰지 않고 항상 DB에서 읽는다.
+     * (이 노드의 저장 대기 메시지는 flush 후 읽음 - 다른 노드의 대기 메시지는 그 노드의 flush-interval 뒤에 보임)
+     * (write-behind flush가 읽기 전용 트랜잭션 안에서 실행되지 않도록 트랜잭션을 걸지 않음)
+     */
+    public ChatMessagePageDto getMessages(Long sessionId, Long afterId, Long beforeId, int limit) {
+        if (afterId != null && beforeId != null) {
+            throw new IllegalArgumentException("afterId와 beforeId는 함께 사용할 수 없습니다.");
         }
-    }
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
 
-    private String generateFirstMessageFromStory(Long sessionId, StoryCompletionSummaryDto summary) {
-        try {
-            // AI 서버에 동화 기반 첫 메시지 요청
-            String url = aiServerUrl + "/api/chat/init-from-story";
+        ChatSession session = chatSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Chat session not found: " + sessionId));
+        if (session.getArchivedAt() != null) {
+            return chatArchiveService.page(sessionId, afterId, beforeId, size);
+        }
+        chatMessageWriteBehind.flush();
+
+        Pageable page = PageRequest.of(0, size + 1);
+        Long cursorId = afterId != null ? afterId : beforeId;
+
+        List<ChatMessage> rows;
+        if (cursorId == null) {
+            rows = chatMessageRepository.findLatest(sessionId, page);
+        } else {
+            LocalDateTime cursorAt = chatMessageRepository.findCreatedAt(sessionId, cursorId)
+                    .orElseThrow(() -> new IllegalArgumentException("잘못된 커서입니다: " + cursorId));
+            rows = afterId != null
+                    ? chatMessageRepository.findAfter(sessionId, cursorAt, cursorId, page)
+                    : chatMessageRepository.findBefore(sessionId, cursorAt, cursorId, page);
+        }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+        boolean hasMore = rows.size() > size;
+        List<ChatMessage> messages = new ArrayList<>(hasMore ? rows.subList(0, size) : rows);
+        if (afterId == null) {
+            Collections.reverse(messages);  // 최신순으로 읽었으므로 오래된 순으로 뒤집음
+        }
 
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("session_id", sessionId.intValue());
-            requestBody.put("child_id", summary.getChildId().intValue());
-            requestBody.put("child_name", summary.getChildName());
-            requestBody.put("story_id", summary.getStoryId());
-            requestBody.put("story_title", summary.getStoryTitle());
-            requestBody.put("total_time", summary.getTotalTime());
+        return ChatMessagePageDto.builder()
+                .sessionId(sessionId)
+                .messages(convertToMessageDtos(messages))
+                .hasMore(hasMore)
+                .oldestId(messages.isEmpty() ? null : messages.get(0).getId())
+                .newestId(messages.isEmpty() ? null : messages.get(messages.size() - 1).getId())
+                .build();
+    }
 
-            // 능력치 정보 추가
-            Map<String, Integer> abilities = new HashMap<>();
-            abilities.put("courage", summary.getTotalCourage());
-            abilities.put("empathy", summary.getTotalEmpathy());
-            abilities.put("creativity", summary.getTotalCreativity());
-            abilities.put("responsibility", summary.getTotalResponsibility());
-            abilities.put("friendship", summary.getTotalFriendship());
-            requestBody.put("abilities", abilities);
+    /**
+     * 자녀의 전체 세션 + 전체 메시지 (기존 API 호환)
+     * 메시지는 세션별로 조회하지 않고 한 번에 읽어 세션별로 나눈다. 목록 화면은 getChatSessionSummaries 사용.
+     * 보관된 세션이 있으면 그 세그먼트도 한 번에 읽어 푼다.
+     */
+    public List<ChatResponseDto> getChatSessionsByChild(Long childId) {
+        chatMessageWriteBehind.flush();
+        List<ChatSession> sessions = chatSessionRepository.findByChildIdOrderByStartedAtDesc(childId);
+        if (sessions.isEmpty()) {
+            return List.of();
+        }
 
-            // 선택 정보 추가
-            requestBody.put("choices", summary.getChoices());
+        Map<Long, List<ChatMessage>> messagesBySession = chatMessageRepository
+                .findBySessionIds(sessions.stream().map(ChatSession::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(m -> m.getChatSession().getId()));
 
-            log.info("Requesting first AI message from story: {}", requestBody);
+        List<Long> archivedIds = sessions.stream()
+                .filter(session -> session.getArchivedAt() != null)
+                .map(ChatSession::getId)
+                .toList();
+        Map<Long, List<ChatResponseDto.ChatMessageDto>> archived = archivedIds.isEmpty()
+                ? Map.of()
+                : chatArchiveService.rehydrateAll(archivedIds);
 
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+        return sessions.stream()
+                .map(session -> ChatResponseDto.builder()
+                        .sessionId(session.getId())
+                        .childId(session.getChildId())
+                        .messages(session.getArchivedAt() != null
+                                ? archived.getOrDefault(session.getId(), List.of())
+                                : convertToMessageDtos(messagesBySession.getOrDefault(session.getId(), List.of())))
+                        .startedAt(session.getStartedAt())
+                        .endedAt(session.getEndedAt())
+                        .build())
+                .collect(Collectors.toList());
+    }
 
-            Map<String, Object> response = restTemplate.postForObject(url, entity, Map.class);
+    /**
+     * 자녀의 세션 요약 목록 (페이지네이션)
+     * 세션 수와 상관없이 쿼리 3번: 요약(GROUP BY) + 카운트 + 마지막 메시지 미리보기
+     * 보관된 세션이 페이지에 있으면 보관 요약(payload 제외) 조회 1번이 더해진다.
+     */
+    public ChatSessionPageDto getChatSessionSummaries(Long childId, Pageable pageable) {
+        chatMessageWriteBehind.flush();
+        Page<ChatSessionSummaryDto> page = chatSessionRepository.findSummariesByChildId(childId, pageable);
+
+        List<Long> lastMessageIds = page.getContent().stream()
+                .map(ChatSessionSummaryDto::getLastMessageId)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!lastMessageIds.isEmpty()) {
+            Map<Long, ChatMessagePreview> previews = chatMessageRepository.findPreviews(lastMessageIds).stream()
+                    .collect(Collectors.toMap(ChatMessagePreview::id, Function.identity()));
+            for (ChatSessionSummaryDto summary : page.getContent()) {
+                ChatMessagePreview preview = previews.get(summary.getLastMessageId());
+                if (preview != null) {
+                    summary.setLastSender(preview.sender());
+                    summary.setLastMessagePreview(preview.preview());
+                }
+            }
+        }
 
-            if (response != null && response.containsKey("ai_response")) {
-                return (String) response.get("ai_response");
+        List<Long> archivedIds = page.getContent().stream()
+                .filter(summary -> summary.getArchivedAt() != null)
+                .map(ChatSessionSummaryDto::getSessionId)
+                .toList();
+        if (!archivedIds.isEmpty()) {
+            Map<Long, ChatArchiveSummary> archived = chatArchiveService.summaries(archivedIds);
+            for (ChatSessionSummaryDto summary : page.getContent()) {
+                ChatArchiveSummary segment = archived.get(summary.getSessionId());
+                if (segment != null) {
+                    summary.setMessageCount(segment.messageCount());
+                    summary.setLastMessageAt(segment.lastMessageAt());
+                    summary.setLastSender(segment.lastSender());
+                    summary.setLastMessagePreview(segment.lastMessagePreview());
+                }
             }
+        }
 
-            log.warn("No AI response received, using fallback");
-            return String.format("%s야, 동화 어땠어? 재미있었니? 지금 기분이 어때?", summary.getChildName());
+        return ChatSessionPageDto.builder()
+                .sessions(page.getContent())
+                .currentPage(page.getNumber())
+                .totalPages(page.getTotalPages())
+                .totalElements(page.getTotalElements())
+                .build();
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to get first AI message from story: ", e);
-            // AI 서버 실패 시 기본 메시지 반환
-            return String.format("%s야, 동화 '%s' 어땠어? 이야기 들으면서 어떤 생각이 들었어?",
-                               summary.getChildName(), summary.getStoryTitle());
-        }
+    /** AI 응답 (실패 시 대체 문구, 과부하 거절은 그대로 에러) */
+    private Mono<String> generateAIResponse(ChatTurnContext context, String userMessage) {
+        return aiServerClient.chat(new ChatRequest(context.getSessionId(), userMessage, context.getChildId()))
+                .mapNotNull(ChatReply::aiResponse)
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    log.warn("No AI response received, using fallback");
+                    return "죄송해요, 지금은 대답하기 어려워요. 다시 말씀해주시겠어요?";
+                }))
+                .onErrorResume(e -> !(e instanceof AiServerBusyException), e -> {
+                    log.error("Failed to get AI response: ", e);
+                    return Mono.just("죄송해요, 잠시 후에 다시 이야기해요!");
+                });
     }
 
     private List<ChatResponseDto.ChatMessageDto> convertToMessageDtos(List<ChatMessage> messages) {
         return messages.stream()
-                .map(msg -> ChatResponseDto.ChatMessageDto.builder()
-                        .id(msg.getId())
-                        .sender(msg.getSender())
-                        .message(msg.getMessage())
-                        .createdAt(msg.getCreatedAt())
-                        .build())
+                .map(ChatResponseDto.ChatMessageDto::from)
                 .collect(Collectors.toList());
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.sstt.dinory.domain.chat.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.sstt.dinory.domain.chat.entity.ChatSession;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * 진행 중인 채팅 세션 정보의 노드 메모리 창 (hot window)
+ *
+ * 세션 정보(childId, storyCompletionId, 시작 시각)를 들고 있어 대화 중에는 턴마다 chat_session을 다시 조회하지 않는다.
+ * - endChatSession 또는 idle-timeout 동안 사용이 없으면 제거
+ * - max-sessions 초과 시 가장 오래 안 쓴 세션부터 제거 (access-order LRU)
+ *
+ * 노드마다 따로 들고 있으므로(노드 여러 대 = chat.message.node-id가 다름) 바뀌지 않는 값만 둔다.
+ * 메시지 목록은 다른 노드에서 쓴 메시지를 볼 수 없어 두지 않고, 대화 기록 조회는 항상 DB에서 한다.
+ * endedAt은 다른 노드에서 세션을 끝내도 이 노드의 창에는 반영되지 않는다 (턴 응답에 그대로 실어 보내는 값일 뿐,
+ * 메시지 저장 가부에는 쓰지 않음 - 창에서 제거되면 다음 턴에 DB 값으로 다시 올라옴).
+ *
+ * 메트릭: chat.session.window.requests{result=hit|miss}, chat.session.window.size
+ */
+@Component
+public class ChatSessionWindow {
+
+    private final Duration idleTimeout;
+    private final Map<Long, ActiveSession> sessions;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public ChatSessionWindow(
+            MeterRegistry meterRegistry,
+            @Value("${chat.session-window.max-sessions:5000}") int maxSessions,
+            @Value("${chat.session-window.idle-timeout:30m}") Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+
+        // access-order LinkedHashMap = LRU
+        this.sessions = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ActiveSession> eldest) {
+                return size() > maxSessions;
+            }
+        };
+
+        this.hitCounter = Counter.builder("chat.session.window.requests").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("chat.session.window.requests").tag("result", "miss").register(meterRegistry);
+        meterRegistry.gauge("chat.session.window.size", this, ChatSessionWindow::size);
+    }
+
+    /** 창에 올라온 세션 (idle-timeout이 지났으면 제거 후 empty) */
+    public Optional<ActiveSession> get(Long sessionId) {
+        long now = System.currentTimeMillis();
+        synchronized (sessions) {
+            evictIdle(now);
+            ActiveSession session = sessions.get(sessionId);
+            if (session == null) {
+                missCounter.increment();
+                return Optional.empty();
+            }
+            session.lastAccess = now;
+            hitCounter.increment();
+            return Optional.of(session);
+        }
+    }
+
+    /** DB에서 읽은(또는 방금 만든) 세션을 창에 올림 (동시에 올린 세션이 있으면 그것을 사용) */
+    public ActiveSession load(ChatSession session) {
+        ActiveSession loaded = new ActiveSession(session);
+        synchronized (sessions) {
+            return sessions.merge(session.getId(), loaded, (existing, ignored) -> existing);
+        }
+    }
+
+    public void evict(Long sessionId) {
+        synchronized (sessions) {
+            sessions.remove(sessionId);
+        }
+    }
+
+    public int size() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    private void evictIdle(long now) {
+        long idleMs = idleTimeout.toMillis();
+        // access-order이므로 앞쪽이 가장 오래 안 쓴 세션
+        Iterator<ActiveSession> it = sessions.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().lastAccess <= idleMs) break;
+            it.remove();
+        }
+    }
+
+    /** 창에 올라온 세션 하나 (올린 시점의 값) */
+    @Getter
+    public static class ActiveSession {
+
+        private final Long sessionId;
+        private final Long childId;
+        private final Long storyCompletionId;
+        private final LocalDateTime startedAt;
+        private final LocalDateTime endedAt;
+        @Getter(AccessLevel.NONE)
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private ActiveSession(ChatSession session) {
+            this.sessionId = session.getId();
+            this.childId = session.getChildId();
+            this.storyCompletionId = session.getStoryCompletionId();
+            this.startedAt = session.getStartedAt();
+            this.endedAt = session.getEndedAt();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.sstt.dinory.domain.chat.service;
+
+import java.util.Map;
+
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sstt.dinory.common.ai.AiServerBusyException;
+import com.sstt.dinory.common.ai.AiServerClient;
+import com.sstt.dinory.common.ai.dto.ChatReply;
+import com.sstt.dinory.common.ai.dto.ChatRequest;
+import com.sstt.dinory.domain.chat.dto.ChatMessageRequest;
+import com.sstt.dinory.domain.chat.dto.ChatTurnContext;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 챗봇 응답 SSE 스트리밍
+ *
+ * AI 서버의 /api/chat/stream 이 보내는 토큰을 그대로 클라이언트에 SSE로 중계하고,
+ * 응답이 끝나면 전체 문장을 ChatMessage로 한 번만 저장한다.
+ * 연결마다 스레드를 잡지 않으므로(Netty 이벤트 루프 + 짧은 DB 단계만 boundedElastic)
+ * 한 노드에서 많은 세션을 동시에 처리할 수 있다.
+ *
+ * AI 서버 → 백엔드 이벤트
+ * - event: token  data: 텍스트 조각
+ * - event: done   data: /api/chat 과 같은 형식의 전체 응답 JSON ({"ai_response": "..."}), 생략 가능
+ * - event: error  data: 오류 메시지
+ *
+ * 백엔드 → 클라이언트 이벤트
+ * - event: token    data: {"text": "..."}
+ * - event: message  data: 동기 API(/api/chat/message)와 같은 응답 (AI 메시지 저장 후 전송)
+ * - event: error    data: {"message": "..."}  (과부하 거절이면 retryAfterSeconds 포함, 사용자 메시지는 취소됨)
+ *
+ * AI 서버에 스트리밍 엔드포인트가 없으면(404) 일반 엔드포인트로 받아 message 이벤트로 보낸다.
+ * 스트림이 중간에 끊기면 아이가 본 데까지(없으면 대체 문구)를 저장한다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChatStreamService {
+
+    private static final String FALLBACK_RESPONSE = "죄송해요, 잠시 후에 다시 이야기해요!";
+
+    private final ChatPersistenceService chatPersistenceService;
+    private final AiServerClient aiServerClient;
+    private final ChatGreetingService chatGreetingService;
+    private final ObjectMapper objectMapper;
+
+    /** 메시지 전송 (스트리밍) */
+    public Flux<ServerSentEvent<Object>> streamMessage(ChatMessageRequest request) {
+        // (1) 사용자 메시지 저장 (짧은 트랜잭션, boundedElastic)
+        return Mono.fromCallable(() -> chatPersistenceService.saveUserMessage(request.getSessionId(), request.getMessage()))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMapMany(context -> chatGreetingService.awaitSeeded(context.getSessionId())
+                .thenMany(Flux.defer(() -> streamReply(context, request.getMessage()))));
+    }
+
+    private Flux<ServerSentEvent<Object>> streamReply(ChatTurnContext context, String userMessage) {
+        ChatRequest aiRequest = new ChatRequest(context.getSessionId(), userMessage, context.getChildId());
+        StringBuilder streamed = new StringBuilder();
+        StringBuilder completed = new StringBuilder();
+
+        // (2) 토큰 중계 - 연결 하나에 이벤트가 순서대로 오므로 StringBuilder 누적으로 충분
+        Flux<ServerSentEvent<Object>> tokens = aiServerClient.streamChat(aiRequest)
+            .concatMap(event -> {
+                String type = event.event() != null ? event.event() : "token";
+                switch (type) {
+                    case "done":
+                        completed.append(parseReply(event.data()));
+                        return Flux.empty();
+                    case "error":
+                        return Flux.error(new RuntimeException("AI 서버 스트리밍 오류: " + event.data()));
+                    default:
+                        if (event.data() == null || event.data().isEmpty()) return Flux.empty();
+                        streamed.append(event.data());
+                        return Flux.just(ServerSentEvent.<Object>builder(Map.of("text", event.data()))
+                            .event("token")
+                            .build());
+                }
+            })
+            .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                // 스트리밍 엔드포인트가 없는 AI 서버 - 일반 엔드포인트로 한 번에 받음
+                log.warn("AI 서버 채팅 스트리밍 엔드포인트 없음, 일반 응답으로 전환: sessionId={}", context.getSessionId());
+                return aiServerClient.chat(aiRequest)
+                    .mapNotNull(ChatReply::aiResponse)
+                    .doOnNext(completed::append)
+                    .thenMany(Flux.empty());
+            })
+            .onErrorResume(e -> !(e instanceof AiServerBusyException), e -> {
+                log.error("채팅 스트리밍 실패: sessionId={}, error={}", context.getSessionId(), e.getMessage(), e);
+                return Flux.empty();
+            });
+
+        // (3) AI 메시지 저장 (짧은 트랜잭션, boundedElastic)
+        Mono<ServerSentEvent<Object>> message = Mono.fromCallable(() -> {
+                String aiResponse = !completed.isEmpty() ? completed.toString()
+                    : !streamed.isEmpty() ? streamed.toString()
+                    : FALLBACK_RESPONSE;
+                return chatPersistenceService.saveAiMessage(context, aiResponse);
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .map(response -> ServerSentEvent.<Object>builder(response).event("message").build());
+
+        return tokens
+            .concatWith(message)
+            .onErrorResume(AiServerBusyException.class, e ->
+                // 과부하로 거절 - 사용자 메시지를 되돌리고 재시도 시간을 알려줌
+                Mono.fromRunnable(() -> chatPersistenceService.discardUserMessage(context))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .thenMany(Flux.just(ServerSentEvent.<Object>builder(Map.of(
+                            "message", "AI 서버가 바쁩니다. 잠시 후 다시 시도해주세요.",
+                            "retryAfterSeconds", e.getRetryAfterSeconds()))
+                        .event("error")
+                        .build())))
+            .onErrorResume(e -> !(e instanceof AiServerBusyException), e -> {
+                log.error("채팅 응답 저장 실패: sessionId={}, error={}", context.getSessionId(), e.getMessage(), e);
+                return Flux.just(ServerSentEvent.<Object>builder(Map.of("message", String.valueOf(e.getMessage())))
+                    .event("error")
+                    .build());
+            });
+    }
+
+    /** done 이벤트의 전체 응답 JSON → 응답 문장 (형식이 다르면 data 그대로 사용) */
+    private String parseReply(String data) {
+        if (data == null || data.isBlank()) return "";
+        try {
+            ChatReply reply = objectMapper.readValue(data, ChatReply.class);
+            return reply.aiResponse() != null ? reply.aiResponse() : "";
+        } catch (Exception e) {
+            return data;
+        }
+    }
+}
@@ -1,39 +1,137 @@
 package com.sstt.dinory.domain.image.controller;
 
+import com.sstt.dinory.common.security.service.CustomUserDetails;
+import com.sstt.dinory.domain.image.dto.ImageBatchStatusRequest;
+import com.sstt.dinory.domain.image.dto.ImageBatchStatusResponse;
 import com.sstt.dinory.domain.image.dto.ImageGenerationRequest;
 import com.sstt.dinory.domain.image.dto.ImageGenerationResponse;
+import com.sstt.dinory.domain.image.dto.ImageProviderStatus;
+import com.sstt.dinory.domain.image.service.ImageBatchStatusService;
 import com.sstt.dinory.domain.image.service.ImageService;
+import com.sstt.dinory.domain.image.service.ImageUrlSigner;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
-@RequestMapping("/api/image")
+@RequestMapping({"/api/image", "/api/images"})
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*")
 public class ImageController {
 
     private final ImageService imageService;
+    private final ImageBatchStatusService imageBatchStatusService;
+    private final ImageUrlSigner imageUrlSigner;
 
-    @PostMapping("/generate")
+    /**
+     * 이미지 생성 요청 - 접수만 하고 202 + id 반환
+     * 생성 결과는 Location(GET /api/images/{id})의 status가 completed/failed가 될 때까지 조회
+     */
+    @PostMapping
     public ResponseEntity<ImageGenerationResponse> generateImage(
+            @AuthenticationPrincipal(expression = "member.id") Long memberId,
             @RequestBody ImageGenerationRequest request) {
-        ImageGenerationResponse response = imageService.generateImage(request);
-        return ResponseEntity.ok(response);
+        return accepted(imageService.generateImage(request, memberId));
+    }
+
+    /**
+     * 이미지 생성 요청 (기존 동기 계약) - 완료/실패까지 기다렸다가 200 + 결과
+     * image.legacy-sync.wait(MVC async 제한 시간보다 짧게) 안에 끝나지 않으면 202 + Location으로 넘김
+     */
+    @PostMapping("/generate")
+    public Mono<ResponseEntity<ImageGenerationResponse>> generateImageAndWait(
+            @AuthenticationPrincipal(expression = "member.id") Long memberId,
+            @RequestBody ImageGenerationRequest request) {
+        return imageService.generateImageAndWait(request, memberId)
+                .map(response -> ImageService.isFinished(response) ? ResponseEntity.ok(response) : accepted(response));
+    }
+
+    private static ResponseEntity<ImageGenerationResponse> accepted(ImageGenerationResponse response) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/images/" + response.getId()))
+                .body(response);
+    }
+
+    /**
+     * 여러 씬의 최신 이미지 상태 한 번에 조회
+     * since(직전 응답의 version)를 주면 하나라도 바뀔 때까지(최대 waitSeconds) 기다렸다가 응답 - 기다리는 동안 Tomcat 스레드는 반환
+     */
+    @PostMapping("/batch-status")
+    public Mono<ResponseEntity<ImageBatchStatusResponse>> getBatchStatus(
+            @AuthenticationPrincipal(expression = "member.id") Long memberId,
+            @RequestBody ImageBatchStatusRequest request) {
+        return imageBatchStatusService.getBatchStatus(request, memberId).map(ResponseEntity::ok);
+    }
+
+    /** 이미지 제공자 라우팅 상태 (사용 가능 여부, EWMA 지연/오류율, cool-down 사유) */
+    @GetMapping("/providers")
+    public ResponseEntity<List<ImageProviderStatus>> getProviderStatus() {
+        return ResponseEntity.ok(imageService.getProviderStatus());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ImageGenerationResponse> getImageById(@PathVariable Long id) {
-        ImageGenerationResponse response = imageService.getImageById(id);
+    public ResponseEntity<ImageGenerationResponse> getImageById(
+            @AuthenticationPrincipal(expression = "member.id") Long memberId,
+            @PathVariable Long id) {
+        ImageGenerationResponse response = imageService.getImageById(id, memberId);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * 이미지 바이트 (ImageStore 파일을 Resource로 스트리밍)
+     * - 키가 내용 해시라 변하지 않으므로 강한 ETag + 1년 immutable 캐시, If-None-Match면 304
+     * - Range 요청은 Spring이 Resource 응답에 대해 206으로 처리
+     * - 원격 URL 결과(Pollinations)는 처음 조회 때 서버가 한 번 가져와 저장한 뒤 같은 방식으로 응답
+     *   (동시에 들어온 첫 조회는 한 번만 가져옴), 가져올 수 없으면 302로 넘김
+     * - ?w=표시 너비(px)면 그 너비를 덮는 가장 작은 JPEG 변형(thumb 128 / card 512 / full 1024)을 응답
+     *   (목록 화면은 w=128 등으로 원본 PNG 대신 수 KB짜리 썸네일을 받음)
+     * - <img>는 헤더를 보낼 수 없으므로 조회 응답의 서명 URL(expires, signature)이면 인증 없이 응답,
+     *   서명이 없으면 Bearer 인증 + 소유 확인 (SecurityConfig는 이 경로만 permitAll)
+     */
+    @GetMapping("/{id}/content")
+    public ResponseEntity<Resource> getImageContent(
+            @PathVariable Long id,
+            @RequestParam(name = "w", required = false) Integer width,
+            @RequestParam(name = "expires", required = false) Long expires,
+            @RequestParam(name = "signature", required = false) String signature,
+            @AuthenticationPrincipal CustomUserDetails user) {
+        if (!imageUrlSigner.verify(id, expires, signature)) {
+            if (user == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            if (!imageService.canRead(id, user.getMemberId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+        }
+        return imageService.getImageContent(id, width)
+                .map(content -> content.path() == null
+                        ? ResponseEntity.status(HttpStatus.FOUND).location(URI.create(content.remoteUrl())).<Resource>build()
+                        : ResponseEntity.ok()
+                                .eTag(content.key())
+                                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                                .contentType(content.contentType() != null
+                                        ? MediaType.parseMediaType(content.contentType())
+                                        : MediaType.APPLICATION_OCTET_STREAM)
+                                .<Resource>body(new FileSystemResource(content.path())))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/scene/{sceneId}")
     public ResponseEntity<List<ImageGenerationResponse>> getImagesBySceneId(
+            @AuthenticationPrincipal(expression = "member.id") Long memberId,
             @PathVariable Long sceneId) {
-        List<ImageGenerationResponse> responses = imageService.getImagesBySceneId(sceneId);
+        List<ImageGenerationResponse> responses = imageService.getImagesBySceneId(sceneId, memberId);
         return ResponseEntity.ok(responses);
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.sstt.dinory.domain.image.dto;
+
+/**
+ * 제공자가 만든 이미지 - 바이트(Stability) 또는 원격 URL(Pollinations) 중 하나
+ */
+public record GeneratedImage(byte[] content, String contentType, String url) {
+
+    public static GeneratedImage ofContent(byte[] content, String contentType) {
+        return new GeneratedImage(content, contentType, null);
+    }
+
+    public static GeneratedImage ofUrl(String url) {
+        return new GeneratedImage(null, null, url);
+    }
+}
@@ -0,0 +1,23 @@
+package com.sstt.dinory.domain.image.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * POST /api/images/batch-status 요청
+ *
+ * since에 직전 응답의 version을 넣으면, 상태가 바뀌거나 waitSeconds가 지날 때까지 응답을 미룬다 (롱폴링).
+ * since가 없으면 바로 응답한다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImageBatchStatusRequest {
+
+    private List<Long> sceneIds;
+    private String since;
+    private Integer waitSeconds;
+}
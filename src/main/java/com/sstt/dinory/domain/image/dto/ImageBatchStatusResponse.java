@@ -0,0 +1,23 @@
+package com.sstt.dinory.domain.image.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 씬별 최신 이미지 생성 상태
+ *
+ * images는 요청한 sceneIds 순서이고, 이미지 요청이 없는 씬은 빠진다.
+ * version은 (씬, 최신 요청 id, status, imageUrl) 전체의 해시로, 다음 요청의 since로 그대로 넘긴다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImageBatchStatusResponse {
+
+    private List<ImageGenerationResponse> images;
+    private String version;
+    private boolean changed;    // since와 version이 다른지 (false면 대기 시간이 지나 그대로 응답)
+}
@@ -0,0 +1,10 @@
+package com.sstt.dinory.domain.image.dto;
+
+import java.nio.file.Path;
+
+/**
+ * GET /api/images/{id}/content 응답 대상 - 로컬 파일(path) 또는 원격 URL(remoteUrl) 중 하나
+ * key는 내용 해시이므로 그대로 강한 ETag로 쓴다.
+ */
+public record ImageContent(String key, Path path, String contentType, String remoteUrl) {
+}
@@ -0,0 +1,5 @@
+package com.sstt.dinory.domain.image.dto;
+
+/** 워커가 가져간 이미지 생성 작업 스냅샷 (트랜잭션 밖에서 사용) */
+public record ImageJob(Long id, String prompt, String style, int attempts) {
+}
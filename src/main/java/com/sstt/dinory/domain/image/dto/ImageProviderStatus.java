@@ -0,0 +1,8 @@
+package com.sstt.dinory.domain.image.dto;
+
+import java.time.Instant;
+
+/** 제공자 라우팅 상태 (GET /api/images/providers) */
+public record ImageProviderStatus(String provider, boolean available, Double ewmaLatencyMs, double errorRate,
+                                  long samples, Instant cooldownUntil, String cooldownReason) {
+}
@@ -7,7 +7,12 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "image_generation")
+@Table(name = "image_generation",
+        indexes = {
+                @Index(name = "idx_image_generation_status", columnList = "status, next_attempt_at"),
+                @Index(name = "idx_image_generation_prompt_hash", columnList = "prompt_hash, status"),
+                @Index(name = "idx_image_generation_scene", columnList = "scene_id, id")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -28,11 +33,26 @@ public class ImageGeneration {
     @Column(length = 255)
     private String style;
 
+    @Column(name = "prompt_hash", length = 64)
+    private String promptHash;          // 정규화한 (prompt, style)의 SHA-256 - 같은 요청 재사용 키
+
+    @Column(name = "dedup_of")
+    private Long dedupOf;               // 같은 요청이 생성 중일 때 그 작업(leader) id - 직접 생성하지 않고 결과를 받음
+
+    @Column(name = "member_id")
+    private Long memberId;              // 요청한 회원 - 조회 권한 확인 (씬 삽화 등 백그라운드 요청은 null, 씬의 동화를 읽는 회원이 조회)
+
     @Column(length = 50)
-    private String status; // pending, completed, failed
+    private String status; // pending, processing, completed, failed
 
     @Column(name = "image_url", length = 500)
-    private String imageUrl;
+    private String imageUrl;            // 저장된 이미지면 /api/images/{id}/content, 아니면 원격 URL
+
+    @Column(name = "image_key", length = 64)
+    private String imageKey;            // ImageStore 키 (SHA-256)
+
+    @Column(name = "content_type", length = 50)
+    private String contentType;
 
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
@@ -43,4 +63,21 @@ public class ImageGeneration {
 
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
+
+    // ===== 작업 큐 (ImageGenerationWorker) =====
+
+    @Column(nullable = false)
+    private int priority;               // 클수록 먼저 가져감 (사용자 요청 > 씬 삽화)
+
+    @Column(nullable = false)
+    private int attempts;               // 지금까지 시도한 횟수
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt; // 재시도 대기 중이면 이 시각 이후에 다시 가져감
+
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;            // 처리 중인 워커 (processing 상태)
+
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
 }
\ No newline at end of file
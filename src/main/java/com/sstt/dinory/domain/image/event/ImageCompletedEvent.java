@@ -0,0 +1,9 @@
+package com.sstt.dinory.domain.image.event;
+
+/**
+ * 이미지 생성 완료 이벤트 (완료 트랜잭션 커밋 후 처리)
+ *
+ * 이미지 도메인이 결과를 쓰는 쪽(씬 삽화 등)을 직접 알지 않도록 이벤트로 알린다.
+ */
+public record ImageCompletedEvent(Long imageGenerationId, Long sceneId, String imageUrl) {
+}
@@ -0,0 +1,9 @@
+package com.sstt.dinory.domain.image.event;
+
+/**
+ * 씬에 연결된 이미지 생성 상태 변경 이벤트 (커밋 후 처리)
+ *
+ * 요청 접수, 작업 시작, 완료/실패, 로컬 저장 전환 때 발행되며 batch-status 롱폴링을 깨운다.
+ */
+public record ImageStatusChangedEvent(Long imageGenerationId, Long sceneId, String status) {
+}
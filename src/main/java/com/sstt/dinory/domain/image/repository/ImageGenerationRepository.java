@@ -2,8 +2,15 @@ package com.sstt.dinory.domain.image.repository;
 
 import com.sstt.dinory.domain.image.entity.ImageGeneration;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,5 +21,59 @@ public interface ImageGenerationRepository extends JpaRepository<ImageGeneration
 
     List<ImageGeneration> findByStatus(String status);
 
+    /** 결과 기록 전 행 잠금 - 멈춘 작업 복구/재claim과 같은 행을 동시에 바꾸지 않도록 (트랜잭션 안에서 호출) */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT g FROM ImageGeneration g WHERE g.id = :id")
+    Optional<ImageGeneration> findByIdForUpdate(@Param("id") Long id);
+
     Optional<ImageGeneration> findTopBySceneIdOrderByRequestedAtDesc(Long sceneId);
+
+    /**
+     * 씬별 가장 최근 요청 (findTopBySceneIdOrderByRequestedAtDesc를 여러 씬에 한 번에)
+     * id는 접수 순서대로 증가하므로 requestedAt 대신 MAX(id) - (scene_id, id) 인덱스만으로 씬별 한 행을 찾는다.
+     */
+    @Query("SELECT g FROM ImageGeneration g WHERE g.id IN " +
+           "(SELECT MAX(g2.id) FROM ImageGeneration g2 WHERE g2.sceneId IN :sceneIds GROUP BY g2.sceneId)")
+    List<ImageGeneration> findLatestBySceneIds(@Param("sceneIds") Collection<Long> sceneIds);
+
+    /** 이 회원의 아이가 읽는(완료 기록이 있는) 동화의 씬만 - 씬은 동화별로 공유되므로 씬 이미지 조회 권한 */
+    @Query("SELECT DISTINCT s.id FROM Scene s, StoryCompletion c " +
+           "WHERE s.id IN :sceneIds AND c.story = s.story AND c.child.member.id = :memberId")
+    List<Long> findSceneIdsReadableBy(@Param("sceneIds") Collection<Long> sceneIds, @Param("memberId") Long memberId);
+
+    // ===== (prompt, style) 중복 제거 =====
+
+    /** 같은 요청의 가장 최근 완료 결과 */
+    Optional<ImageGeneration> findTopByPromptHashAndStatusOrderByIdDesc(String promptHash, String status);
+
+    /** 같은 요청을 지금 생성 중인 작업 (leader) */
+    Optional<ImageGeneration> findTopByPromptHashAndStatusInAndDedupOfIsNullOrderByIdAsc(String promptHash, Collection<String> statuses);
+
+    /** leader 결과를 기다리는 요청들 */
+    List<ImageGeneration> findByDedupOf(Long leaderId);
+
+    /** 아직 원격 URL만 가진 같은 요청의 완료 결과들 (원격 이미지를 로컬로 옮길 때) */
+    List<ImageGeneration> findByPromptHashAndStatusAndImageKeyIsNull(String promptHash, String status);
+
+    /**
+     * 처리할 pending 작업을 잠그고 가져옴 (트랜잭션 안에서 호출)
+     * SKIP LOCKED라 여러 노드의 워커가 동시에 가져가도 서로 기다리지 않고 다른 행을 가져간다.
+     * priority가 높은 작업부터, 같으면 먼저 들어온 작업부터.
+     */
+    @Query(value = "SELECT * FROM image_generation " +
+                   "WHERE status = 'pending' AND dedup_of IS NULL " +
+                   "AND (next_attempt_at IS NULL OR next_attempt_at <= :now) " +
+                   "ORDER BY priority DESC, id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<ImageGeneration> claimPending(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * lockedBefore 이전부터 processing인 작업을 잠그고 가져옴 (멈춘 작업 복구, 트랜잭션 안에서 호출)
+     * 잠금 읽기라 그 사이 완료된 행은 빠지고, 지금 결과를 기록 중인 행(findByIdForUpdate)은 SKIP LOCKED로 건너뛴다.
+     */
+    @Query(value = "SELECT * FROM image_generation " +
+                   "WHERE status = 'processing' AND (locked_at IS NULL OR locked_at < :lockedBefore) " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<ImageGeneration> lockStuck(@Param("lockedBefore") LocalDateTime lockedBefore);
 }
\ No newline at end of file
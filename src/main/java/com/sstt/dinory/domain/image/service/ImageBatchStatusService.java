@@ -0,0 +1,161 @@
+package com.sstt.dinory.domain.image.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sstt.dinory.domain.image.dto.ImageBatchStatusRequest;
+import com.sstt.dinory.domain.image.dto.ImageBatchStatusResponse;
+import com.sstt.dinory.domain.image.dto.ImageGenerationResponse;
+import com.sstt.dinory.domain.image.entity.ImageGeneration;
+import com.sstt.dinory.domain.image.repository.ImageGenerationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 여러 씬의 최신 이미지 상태 일괄 조회 + 롱폴링
+ *
+ * 8개 씬짜리 동화를 그리는 클라이언트가 씬마다 GET /scene/{id}를 반복 폴링하던 것을 요청 하나로 바꾼다.
+ * - 조회는 씬별 MAX(id) 한 쿼리 ((scene_id, id) 인덱스)
+ * - since(직전 version)가 있으면 상태가 바뀔 때까지 응답을 미룬다. 요청 스레드는 기다리는 동안 반환(Mono)
+ *   이 노드에서 커밋된 변경은 ImageStatusNotifier가 바로 깨우고, 다른 노드/새 요청 접수는 recheck-interval 재조회로 잡는다.
+ * - 대기는 max-wait까지 (MVC async 제한 시간보다 짧게)
+ * - 요청한 회원이 볼 수 없는 씬(다른 아이의 동화)은 빠진다
+ *
+ * 메트릭: image.batch-status{result=immediate|changed|timeout}
+ */
+@Service
+public class ImageBatchStatusService {
+
+    private final ImageGenerationRepository imageGenerationRepository;
+    private final ImageService imageService;
+    private final ImageStatusNotifier imageStatusNotifier;
+    private final int maxScenes;
+    private final Duration maxWait;
+    private final Duration recheckInterval;
+
+    private final Counter immediateCounter;
+    private final Counter changedCounter;
+    private final Counter timeoutCounter;
+
+    public ImageBatchStatusService(
+            ImageGenerationRepository imageGenerationRepository,
+            ImageService imageService,
+            ImageStatusNotifier imageStatusNotifier,
+            MeterRegistry meterRegistry,
+            @Value("${image.batch-status.max-scenes:100}") int maxScenes,
+            @Value("${image.batch-status.max-wait:25s}") Duration maxWait,
+            @Value("${image.batch-status.recheck-interval:2s}") Duration recheckInterval) {
+        this.imageGenerationRepository = imageGenerationRepository;
+        this.imageService = imageService;
+        this.imageStatusNotifier = imageStatusNotifier;
+        this.maxScenes = maxScenes;
+        this.maxWait = maxWait;
+        this.recheckInterval = recheckInterval;
+
+        this.immediateCounter = Counter.builder("image.batch-status").tag("result", "immediate").register(meterRegistry);
+        this.changedCounter = Counter.builder("image.batch-status").tag("result", "changed").register(meterRegistry);
+        this.timeoutCounter = Counter.builder("image.batch-status").tag("result", "timeout").register(meterRegistry);
+    }
+
+    /** 이 회원이 볼 수 있는 씬만 조회 (다른 아이의 동화 씬은 응답에서 빠짐) */
+    public Mono<ImageBatchStatusResponse> getBatchStatus(ImageBatchStatusRequest request, Long memberId) {
+        List<Long> requested = validSceneIds(request.getSceneIds());
+        return Mono.fromCallable(() -> imageService.readableSceneIds(requested, memberId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(sceneIds -> getBatchStatus(sceneIds, request));
+    }
+
+    Mono<ImageBatchStatusResponse> getBatchStatus(ImageBatchStatusRequest request) {
+        return getBatchStatus(validSceneIds(request.getSceneIds()), request);
+    }
+
+    private Mono<ImageBatchStatusResponse> getBatchStatus(List<Long> sceneIds, ImageBatchStatusRequest request) {
+        String since = request.getSince();
+        Duration wait = request.getWaitSeconds() == null
+                ? maxWait
+                : Duration.ofSeconds(Math.max(0, Math.min(request.getWaitSeconds(), maxWait.toSeconds())));
+
+        Mono<ImageBatchStatusResponse> load = Mono.fromCallable(() -> load(sceneIds, since))
+                .subscribeOn(Schedulers.boundedElastic());
+
+        return load.flatMap(first -> {
+            if (since == null || first.isChanged() || wait.isZero()) {
+                immediateCounter.increment();
+                return Mono.just(first);
+            }
+            Set<Long> watched = Set.copyOf(sceneIds);
+            // 재조회 중에 온 깨우기는 마지막 하나만 남김 (느린 조회 동안 interval이 쌓여 OverflowException 나지 않도록,
+            // 조회 도중 커밋된 변경은 남은 하나로 다시 조회)
+            Flux<Long> wakeUps = Flux.merge(
+                    imageStatusNotifier.changes().filter(watched::contains),
+                    Flux.interval(recheckInterval).onBackpressureDrop())
+                    .onBackpressureLatest();
+            return wakeUps
+                    .concatMap(wakeUp -> load, 1)
+                    .filter(ImageBatchStatusResponse::isChanged)
+                    .next()
+                    .doOnNext(changed -> changedCounter.increment())
+                    .timeout(wait, Mono.defer(() -> {
+                        timeoutCounter.increment();
+                        return load;
+                    }));
+        });
+    }
+
+    /** 씬별 최신 요청 한 번 조회 → 응답 (since와 version 비교) */
+    ImageBatchStatusResponse load(List<Long> sceneIds, String since) {
+        List<ImageGeneration> rows = sceneIds.isEmpty() ? List.of() : imageGenerationRepository.findLatestBySceneIds(sceneIds);
+        Map<Long, ImageGeneration> latest = rows.stream()
+                .collect(Collectors.toMap(ImageGeneration::getSceneId, Function.identity()));
+        List<ImageGenerationResponse> images = sceneIds.stream()
+                .map(latest::get)
+                .filter(Objects::nonNull)
+                .map(imageService::convertToResponse)
+                .toList();
+        String version = version(images);
+        return ImageBatchStatusResponse.builder()
+                .images(images)
+                .version(version)
+                .changed(!version.equals(since))
+                .build();
+    }
+
+    private List<Long> validSceneIds(List<Long> sceneIds) {
+        if (sceneIds == null || sceneIds.isEmpty()) {
+            throw new IllegalArgumentException("sceneIds가 비어 있습니다");
+        }
+        List<Long> distinct = sceneIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new))
+                .stream()
+                .toList();
+        if (distinct.size() > maxScenes) {
+            throw new IllegalArgumentException("sceneIds는 최대 " + maxScenes + "개까지 조회할 수 있습니다: " + distinct.size());
+        }
+        return distinct;
+    }
+
+    /** 클라이언트가 보는 값(씬, 요청 id, status, imageUrl)이 같으면 같은 version */
+    static String version(List<ImageGenerationResponse> images) {
+        String state = images.stream()
+                .sorted(Comparator.comparing(ImageGenerationResponse::getSceneId))
+                .map(image -> image.getSceneId() + ":" + image.getId() + ":" + image.getStatus() + ":" + image.getImageUrl())
+                .collect(Collectors.joining("\n"));
+        return ImageStore.sha256(state.getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+    }
+}
@@ -0,0 +1,215 @@
+package com.sstt.dinory.domain.image.service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.sstt.dinory.domain.image.dto.GeneratedImage;
+import com.sstt.dinory.domain.image.dto.ImageJob;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 이미지 생성 작업 워커 (노드마다 하나)
+ *
+ * poll-interval마다(또는 새 작업이 들어오면 바로) 빈 슬롯 수만큼 pending 작업을
+ * SELECT ... FOR UPDATE SKIP LOCKED로 가져와 가상 스레드에서 처리한다.
+ * - 동시 처리 수는 max-concurrency로 제한 (제공자 호출량 = 노드 수 × max-concurrency)
+ * - 실패하면 backoff × 2^(시도-1) (최대 max-backoff, ±20% jitter) 뒤 재시도, max-attempts를 넘으면 failed
+ * - stuck-timeout 넘게 processing인 작업은 워커가 죽은 것으로 보고 pending으로 되돌림
+ *   (되돌린 뒤 늦게 끝난 워커의 결과는 claim 토큰(workerId + attempts)이 달라 기록되지 않음)
+ * - 원격 URL 결과(Pollinations)는 완료 후 RemoteImageCache가 백그라운드로 가져와 저장
+ *
+ * 메트릭: image.job{result=completed|retried|failed}, image.job.in-flight,
+ *        image.generation.latency (제공자 호출 시간 - 중복 제거 hit 1건당 절약되는 시간)
+ */
+@Component
+@Slf4j
+public class ImageGenerationWorker {
+
+    private final ImageJobPersistenceService imageJobPersistenceService;
+    private final ImageProviderClient imageProviderClient;
+    private final ImageStore imageStore;
+    private final RemoteImageCache remoteImageCache;
+    private final String workerId;
+    private final int maxConcurrency;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+    private final Duration stuckTimeout;
+
+    private final Semaphore slots;
+    private final ScheduledExecutorService poller;
+    private final ExecutorService jobs = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("image-job-", 0).factory());
+
+    private final Counter completedCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Timer generationTimer;
+
+    public ImageGenerationWorker(
+            ImageJobPersistenceService imageJobPersistenceService,
+            ImageProviderClient imageProviderClient,
+            ImageStore imageStore,
+            RemoteImageCache remoteImageCache,
+            MeterRegistry meterRegistry,
+            @Value("${image.job.enabled:true}") boolean enabled,
+            @Value("${image.job.max-concurrency:4}") int maxConcurrency,
+            @Value("${image.job.poll-interval:2s}") Duration pollInterval,
+            @Value("${image.job.max-attempts:3}") int maxAttempts,
+            @Value("${image.job.backoff:5s}") Duration backoff,
+            @Value("${image.job.max-backoff:5m}") Duration maxBackoff,
+            @Value("${image.job.stuck-timeout:10m}") Duration stuckTimeout) {
+        this.imageJobPersistenceService = imageJobPersistenceService;
+        this.imageProviderClient = imageProviderClient;
+        this.imageStore = imageStore;
+        this.remoteImageCache = remoteImageCache;
+        this.workerId = ManagementFactory.getRuntimeMXBean().getName();   // pid@hostname
+        this.maxConcurrency = maxConcurrency;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+        this.stuckTimeout = stuckTimeout;
+        this.slots = new Semaphore(maxConcurrency);
+
+        this.completedCounter = Counter.builder("image.job").tag("result", "completed").register(meterRegistry);
+        this.retriedCounter = Counter.builder("image.job").tag("result", "retried").register(meterRegistry);
+        this.failedCounter = Counter.builder("image.job").tag("result", "failed").register(meterRegistry);
+        this.generationTimer = Timer.builder("image.generation.latency").register(meterRegistry);
+        meterRegistry.gauge("image.job.in-flight", this, ImageGenerationWorker::inFlight);
+
+        this.poller = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("image-job-poller")
+            .daemon(true)
+            .factory());
+        if (enabled) {
+            long pollMs = pollInterval.toMillis();
+            poller.scheduleWithFixedDelay(this::pollQuietly, pollMs, pollMs, TimeUnit.MILLISECONDS);
+            long recoverMs = Math.max(pollMs, stuckTimeout.toMillis() / 2);
+            poller.scheduleWithFixedDelay(this::recoverQuietly, recoverMs, recoverMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** 새 작업이 커밋됐음을 알림 - 다음 poll 주기를 기다리지 않고 바로 가져감 */
+    public void wakeUp() {
+        if (!poller.isShutdown()) {
+            poller.execute(this::pollQuietly);
+        }
+    }
+
+    public int inFlight() {
+        return maxConcurrency - slots.availablePermits();
+    }
+
+    /** 빈 슬롯만큼 작업을 가져와 시작. 가져간 작업 수 반환 */
+    int poll() {
+        int started = 0;
+        while (true) {
+            int free = slots.availablePermits();
+            if (free == 0) return started;
+
+            List<ImageJob> claimed = imageJobPersistenceService.claim(workerId, free);
+            for (ImageJob job : claimed) {
+                slots.acquireUninterruptibly();     // poller 스레드만 acquire하므로 바로 얻음
+                jobs.execute(() -> {
+                    try {
+                        process(job);
+                    } finally {
+                        slots.release();
+                    }
+                });
+                started++;
+            }
+            if (claimed.size() < free) return started;   // 큐가 비었음
+        }
+    }
+
+    private void process(ImageJob job) {
+        GeneratedImage image;
+        String imageKey = null;
+        try {
+            image = generationTimer.recordCallable(() -> imageProviderClient.generate(job.prompt(), job.style()));
+            if (image.content() != null) {
+                imageKey = imageStore.put(image.content());
+            }
+        } catch (Exception e) {
+            if (job.attempts() < maxAttempts) {
+                LocalDateTime retryAt = LocalDateTime.now().plus(backoffFor(job.attempts()));
+                log.warn("이미지 생성 실패, 재시도 예약: id={}, attempt={}/{}, retryAt={}", job.id(), job.attempts(), maxAttempts, retryAt);
+                if (imageJobPersistenceService.fail(job, workerId, e.getMessage(), retryAt)) {
+                    retriedCounter.increment();
+                }
+            } else {
+                log.error("이미지 생성 최종 실패: id={}, attempts={}", job.id(), job.attempts());
+                if (imageJobPersistenceService.fail(job, workerId, e.getMessage(), null)) {
+                    failedCounter.increment();
+                }
+            }
+            return;
+        }
+        boolean recorded;
+        if (imageKey != null) {
+            recorded = imageJobPersistenceService.completeStored(job, workerId, imageKey, image.contentType());
+        } else {
+            recorded = imageJobPersistenceService.complete(job, workerId, image.url());
+            if (recorded) {
+                // 원격 URL 결과는 슬롯을 잡지 않고 백그라운드로 미리 가져와 저장 (첫 조회도 로컬에서)
+                remoteImageCache.prefetch(job.id(), image.url());
+            }
+        }
+        if (recorded) {
+            completedCounter.increment();
+        }
+    }
+
+    Duration backoffFor(int attempt) {
+        long base = backoff.toMillis() << Math.min(attempt - 1, 20);
+        long capped = Math.min(base, maxBackoff.toMillis());
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (capped * jitter));
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("이미지 생성 작업 가져오기 실패: {}", e.getMessage());
+        }
+    }
+
+    private void recoverQuietly() {
+        try {
+            imageJobPersistenceService.recoverStuck(LocalDateTime.now().minus(stuckTimeout));
+        } catch (RuntimeException e) {
+            log.warn("멈춘 이미지 생성 작업 복구 실패: {}", e.getMessage());
+        }
+    }
+
+    /** 새 작업은 더 가져가지 않고, 처리 중인 작업은 잠시 기다림 (못 끝낸 작업은 다른 노드가 stuck-timeout 후 복구) */
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        jobs.shutdown();
+        try {
+            if (!jobs.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("이미지 생성 작업 {}건이 끝나지 않은 채 종료", inFlight());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
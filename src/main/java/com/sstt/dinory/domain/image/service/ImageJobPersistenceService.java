@@ -0,0 +1,205 @@
+package com.sstt.dinory.domain.image.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sstt.dinory.domain.image.dto.ImageJob;
+import com.sstt.dinory.domain.image.entity.ImageGeneration;
+import com.sstt.dinory.domain.image.event.ImageCompletedEvent;
+import com.sstt.dinory.domain.image.event.ImageStatusChangedEvent;
+import com.sstt.dinory.domain.image.repository.ImageGenerationRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 이미지 생성 작업 큐의 DB 단계 전담 서비스
+ *
+ * image_generation 테이블 자체가 작업 큐다. 상태 전이:
+ * pending → (claim) processing → completed / failed, 또는 재시도 시 pending(next_attempt_at)
+ * 각 단계는 짧은 트랜잭션이고, 제공자 호출은 트랜잭션 밖(ImageGenerationWorker)에서 한다.
+ *
+ * 결과 기록(complete/completeStored/fail)은 claim 토큰(lockedBy + attempts)이 그대로일 때만 반영한다.
+ * 멈춘 작업으로 복구되어 다른 워커가 다시 가져간 뒤 늦게 끝난 이전 워커가 새 결과를 덮어쓰지 않도록.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageJobPersistenceService {
+
+    private final ImageGenerationRepository imageGenerationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** 실행 가능한 pending 작업을 최대 limit개 가져와 processing으로 표시 */
+    @Transactional
+    public List<ImageJob> claim(String workerId, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ImageGeneration> rows = imageGenerationRepository.claimPending(now, limit);
+        for (ImageGeneration row : rows) {
+            row.setStatus("processing");
+            row.setAttempts(row.getAttempts() + 1);
+            row.setLockedBy(workerId);
+            row.setLockedAt(now);
+            statusChanged(row);
+        }
+        return rows.stream()
+                .map(row -> new ImageJob(row.getId(), row.getPrompt(), row.getStyle(), row.getAttempts()))
+                .toList();
+    }
+
+    /**
+     * 원격 URL 결과로 완료 (기다리던 같은 요청들도 함께)
+     * @return false면 claim이 이미 넘어간 작업이라 기록하지 않음
+     */
+    @Transactional
+    public boolean complete(ImageJob job, String workerId, String imageUrl) {
+        return claimed(job, workerId).map(row -> {
+            markCompleted(row, imageUrl, null, null);
+            imageGenerationRepository.findByDedupOf(row.getId())
+                    .forEach(follower -> markCompleted(follower, imageUrl, null, null));
+            return true;
+        }).orElse(false);
+    }
+
+    /**
+     * ImageStore에 저장한 결과로 완료 - DB에는 키만 두고 URL은 content 엔드포인트
+     * @return false면 claim이 이미 넘어간 작업이라 기록하지 않음
+     */
+    @Transactional
+    public boolean completeStored(ImageJob job, String workerId, String imageKey, String contentType) {
+        return claimed(job, workerId).map(row -> {
+            markCompleted(row, ImageService.contentUrl(row.getId()), imageKey, contentType);
+            imageGenerationRepository.findByDedupOf(row.getId()).forEach(follower ->
+                    markCompleted(follower, ImageService.contentUrl(follower.getId()), imageKey, contentType));
+            return true;
+        }).orElse(false);
+    }
+
+    /**
+     * 원격 URL 결과를 가져와 ImageStore에 저장했음을 기록 (RemoteImageCache)
+     * 같은 URL을 쓰는 행(중복 제거로 복사된 행 포함)을 모두 로컬 키 + content 엔드포인트로 바꾼다.
+     * completedAt은 그대로 둔다.
+     */
+    @Transactional
+    public void attachStoredContent(Long id, String remoteUrl, String imageKey, String contentType) {
+        imageGenerationRepository.findById(id).ifPresent(row -> {
+            List<ImageGeneration> targets = row.getPromptHash() != null
+                    ? imageGenerationRepository.findByPromptHashAndStatusAndImageKeyIsNull(row.getPromptHash(), "completed")
+                    : List.of(row);
+            for (ImageGeneration target : targets) {
+                if (target.getImageKey() != null || !remoteUrl.equals(target.getImageUrl())) continue;
+                target.setImageUrl(ImageService.contentUrl(target.getId()));
+                target.setImageKey(imageKey);
+                target.setContentType(contentType);
+                statusChanged(target);
+            }
+        });
+    }
+
+    /** 같은 요청의 완료 결과를 복사한 새 행 (생성 호출 없음) */
+    @Transactional
+    public ImageGeneration saveCopyOf(ImageGeneration source, Long sceneId, Long memberId, int priority) {
+        ImageGeneration copy = imageGenerationRepository.save(ImageGeneration.builder()
+                .sceneId(sceneId)
+                .memberId(memberId)
+                .priority(priority)
+                .prompt(source.getPrompt())
+                .style(source.getStyle())
+                .promptHash(source.getPromptHash())
+                .status("pending")
+                .build());
+        markCompleted(copy,
+                source.getImageKey() != null ? ImageService.contentUrl(copy.getId()) : source.getImageUrl(),
+                source.getImageKey(), source.getContentType());
+        return copy;
+    }
+
+    /**
+     * 실패 기록 - retryAt이 있으면 그 시각 이후 다시 가져가도록 pending으로, 없으면 최종 실패
+     * 최종 실패면 기다리던 같은 요청들도 실패 처리 (다시 요청하면 새로 생성)
+     * @return false면 claim이 이미 넘어간 작업이라 기록하지 않음
+     */
+    @Transactional
+    public boolean fail(ImageJob job, String workerId, String errorMessage, LocalDateTime retryAt) {
+        return claimed(job, workerId).map(row -> {
+            row.setErrorMessage(errorMessage);
+            if (retryAt != null) {
+                row.setStatus("pending");
+                row.setNextAttemptAt(retryAt);
+            } else {
+                row.setStatus("failed");
+                row.setCompletedAt(LocalDateTime.now());
+                for (ImageGeneration follower : imageGenerationRepository.findByDedupOf(row.getId())) {
+                    follower.setStatus("failed");
+                    follower.setErrorMessage(errorMessage);
+                    follower.setCompletedAt(LocalDateTime.now());
+                    statusChanged(follower);
+                }
+            }
+            statusChanged(row);
+            release(row);
+            return true;
+        }).orElse(false);
+    }
+
+    /**
+     * 멈춘 작업 복구 - lockedBefore 이전부터 processing인 작업(워커 노드가 죽은 경우)을 pending으로 되돌림
+     * 대상 행을 잠그고 읽으므로, 늦게 끝난 워커의 완료 기록과 엇갈려 완료 결과를 pending으로 덮어쓰지 않는다.
+     * @return 되돌린 작업 수
+     */
+    @Transactional
+    public int recoverStuck(LocalDateTime lockedBefore) {
+        List<ImageGeneration> stuck = imageGenerationRepository.lockStuck(lockedBefore);
+        for (ImageGeneration row : stuck) {
+            log.warn("멈춘 이미지 생성 작업 복구: id={}, lockedBy={}, lockedAt={}", row.getId(), row.getLockedBy(), row.getLockedAt());
+            row.setStatus("pending");
+            row.setNextAttemptAt(null);
+            release(row);
+            statusChanged(row);
+        }
+        return stuck.size();
+    }
+
+    /** 이 워커가 이 시도로 claim한 그대로인 행 (잠금) - 아니면 empty */
+    private Optional<ImageGeneration> claimed(ImageJob job, String workerId) {
+        Optional<ImageGeneration> row = imageGenerationRepository.findByIdForUpdate(job.id())
+                .filter(r -> "processing".equals(r.getStatus())
+                        && workerId.equals(r.getLockedBy())
+                        && r.getAttempts() == job.attempts());
+        if (row.isEmpty()) {
+            log.warn("claim이 넘어간 이미지 생성 작업 결과 무시: id={}, workerId={}, attempt={}", job.id(), workerId, job.attempts());
+        }
+        return row;
+    }
+
+    private void markCompleted(ImageGeneration row, String imageUrl, String imageKey, String contentType) {
+        row.setStatus("completed");
+        row.setImageUrl(imageUrl);
+        row.setImageKey(imageKey);
+        row.setContentType(contentType);
+        row.setErrorMessage(null);
+        row.setCompletedAt(LocalDateTime.now());
+        release(row);
+
+        // 커밋 후 씬 삽화 등에 결과 반영
+        eventPublisher.publishEvent(new ImageCompletedEvent(row.getId(), row.getSceneId(), imageUrl));
+        statusChanged(row);
+    }
+
+    /** batch-status 롱폴링 깨우기 (씬에 연결된 행만) */
+    private void statusChanged(ImageGeneration row) {
+        if (row.getSceneId() != null) {
+            eventPublisher.publishEvent(new ImageStatusChangedEvent(row.getId(), row.getSceneId(), row.getStatus()));
+        }
+    }
+
+    private void release(ImageGeneration row) {
+        row.setLockedBy(null);
+        row.setLockedAt(null);
+    }
+}
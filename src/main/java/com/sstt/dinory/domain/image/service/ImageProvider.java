@@ -0,0 +1,23 @@
+package com.sstt.dinory.domain.image.service;
+
+/** 이미지 생성 제공자 (선언 순서 = 기본 선호 순서) */
+public enum ImageProvider {
+    STABILITY("stability", "Stability AI"),
+    POLLINATIONS("pollinations", "Pollinations AI");
+
+    private final String id;
+    private final String displayName;
+
+    ImageProvider(String id, String displayName) {
+        this.id = id;
+        this.displayName = displayName;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String displayName() {
+        return displayName;
+    }
+}
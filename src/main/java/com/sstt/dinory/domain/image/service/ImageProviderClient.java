@@ -0,0 +1,181 @@
+package com.sstt.dinory.domain.image.service;
+
+import com.sstt.dinory.common.concurrent.ExternalCallExecutor;
+import com.sstt.dinory.domain.image.dto.GeneratedImage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 이미지 생성 제공자 호출 (Stability AI, Pollinations AI)
+ *
+ * 블로킹 HTTP 호출이므로 트랜잭션 밖(ImageGenerationWorker)에서만 호출한다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ImageProviderClient {
+
+    private final ExternalCallExecutor externalCallExecutor;
+    private final ImageProviderRouter imageProviderRouter;
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    @Value("${stability.api.key:}")
+    private String stabilityApiKey;
+
+    @Value("${stability.api.url:https://api.stability.ai/v2beta/stable-image/generate/ultra}")
+    private String stabilityApiUrl;
+
+    /**
+     * 이미지 생성
+     * ImageProviderRouter가 정한 순서로 primary와 fallback을 동시에 시작해 primary가 제한 시간 안에 성공하면 primary,
+     * 실패하면 fallback 결과를 사용한다. (크레딧 소진 등으로 제외된 제공자는 호출하지 않음)
+     * 모두 실패하면 오류를 합친 메시지로 예외.
+     */
+    public GeneratedImage generate(String prompt, String style) {
+        List<ImageProvider> route = imageProviderRouter.route();
+        ImageProvider primary = route.get(0);
+        try {
+            if (route.size() == 1) {
+                return externalCallExecutor.withDeadline(imageProviderRouter.deadline(primary),
+                        () -> measured(primary, prompt, style));
+            }
+            ImageProvider fallback = route.get(1);
+            try {
+                return externalCallExecutor.primaryOrFallback(
+                        () -> measured(primary, prompt, style), imageProviderRouter.deadline(primary),
+                        () -> measured(fallback, prompt, style), imageProviderRouter.deadline(fallback));
+            } catch (RuntimeException e) {
+                Throwable[] errors = e.getSuppressed();
+                if (errors.length == 2) {
+                    throw new RuntimeException(primary.displayName() + ": " + errors[0].getMessage()
+                            + " | " + fallback.displayName() + ": " + errors[1].getMessage(), e);
+                }
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            log.error("Image generation failed on all routed providers {}", route, e);
+            throw e;
+        }
+    }
+
+    /** 제공자 호출 + 지연/오류 기록 (다른 제공자가 먼저 성공해 취소된 호출은 기록하지 않음) */
+    private GeneratedImage measured(ImageProvider provider, String prompt, String style) {
+        long startedAt = System.nanoTime();
+        try {
+            GeneratedImage image = switch (provider) {
+                case STABILITY -> callStabilityAI(prompt, style);
+                case POLLINATIONS -> callPollinationsAI(prompt, style);
+            };
+            imageProviderRouter.recordSuccess(provider, System.nanoTime() - startedAt);
+            return image;
+        } catch (RuntimeException e) {
+            long elapsed = System.nanoTime() - startedAt;
+            boolean cancelled = Thread.currentThread().isInterrupted()
+                    && elapsed < imageProviderRouter.deadline(provider).toNanos();
+            if (!cancelled) {
+                imageProviderRouter.recordFailure(provider, elapsed, e);
+            }
+            throw e;
+        }
+    }
+
+    private GeneratedImage callPollinationsAI(String prompt, String style) {
+        try {
+            // Pollinations AI는 URL 기반으로 이미지 생성
+            // 스타일을 프롬프트에 포함시킴
+            String fullPrompt = prompt;
+
+            if (style != null && !style.isEmpty() && !style.equals("default")) {
+                // 스타일을 자연어로 변환
+                String styleDescription = convertStyleToDescription(style);
+                fullPrompt = prompt + ", " + styleDescription;
+            }
+
+            String encodedPrompt = java.net.URLEncoder.encode(fullPrompt, "UTF-8");
+            String imageUrl = "https://image.pollinations.ai/prompt/" + encodedPrompt +
+                "?width=1024&height=1024&nologo=true&enhance=true";
+
+            log.info("Pollinations AI 프롬프트: {}", fullPrompt);
+            return GeneratedImage.ofUrl(imageUrl);
+
+        } catch (Exception e) {
+            log.error("Pollinations AI URL generation failed", e);
+            throw new RuntimeException("Failed to generate Pollinations AI URL: " + e.getMessage(), e);
+        }
+    }
+
+    private String convertStyleToDescription(String style) {
+        return switch (style.toLowerCase()) {
+            case "anime" -> "anime style, manga art";
+            case "photographic" -> "photorealistic, highly detailed photograph";
+            case "digital-art" -> "digital art, concept art";
+            case "cinematic" -> "cinematic lighting, movie scene";
+            case "fantasy-art" -> "fantasy art, magical atmosphere";
+            default -> "";
+        };
+    }
+
+    private GeneratedImage callStabilityAI(String prompt, String style) {
+        try {
+            // HTTP 헤더 설정
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+            headers.set("Authorization", "Bearer " + stabilityApiKey);
+            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+
+            // MultiValueMap으로 form-data 구성
+            MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+            body.add("prompt", prompt);
+            body.add("output_format", "png");
+
+            if (style != null && !style.isEmpty() && !style.equals("default")) {
+                body.add("style_preset", style);
+            }
+
+            HttpEntity<MultiValueMap<String, Object>> entity = new HttpEntity<>(body, headers);
+
+            // API 호출
+            ResponseEntity<Map> response = restTemplate.exchange(
+                    stabilityApiUrl,
+                    HttpMethod.POST,
+                    entity,
+                    Map.class
+            );
+
+            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+                Map<String, Object> responseBody = response.getBody();
+
+                // Stability AI 응답의 base64 PNG를 바이트로 (data URL로 DB에 넣지 않고 ImageStore에 저장)
+                if (responseBody.containsKey("image")) {
+                    return GeneratedImage.ofContent(Base64.getDecoder().decode((String) responseBody.get("image")), "image/png");
+                } else if (responseBody.containsKey("artifacts")) {
+                    List<Map<String, Object>> artifacts = (List<Map<String, Object>>) responseBody.get("artifacts");
+                    if (!artifacts.isEmpty()) {
+                        return GeneratedImage.ofContent(Base64.getDecoder().decode((String) artifacts.get(0).get("base64")), "image/png");
+                    }
+                }
+            }
+
+            throw new RuntimeException("Failed to generate image: Invalid response from Stability AI");
+
+        } catch (Exception e) {
+            // 402 Payment Required는 예상된 에러이므로 warn 레벨로 처리
+            if (e.getMessage() != null && e.getMessage().contains("402")) {
+                log.warn("Stability AI API: Insufficient credits (expected, will use fallback)");
+            } else {
+                log.error("Stability AI API call failed", e);
+            }
+            throw new RuntimeException("Failed to call Stability AI API: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.sstt.dinory.domain.image.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import com.sstt.dinory.domain.image.dto.ImageProviderStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 이미지 제공자 라우터
+ *
+ * 제공자별로 EWMA 지연 시간 / EWMA 오류율을 기록하고, 문제가 있는 제공자는 일정 시간 건너뛴다(cool-down).
+ * - 402 (크레딧 소진): credit-cooldown 동안 제외 → 요청마다 실패 왕복을 치르지 않음
+ * - 오류율이 error-rate-threshold 초과 (최근 min-samples 이상): error-cooldown 동안 제외
+ * - EWMA 지연이 제공자 deadline × slow-threshold 초과: slow-cooldown 동안 제외
+ *   deadline을 넘은 호출은 ExternalCallExecutor가 끊어 실패로 기록되므로 기준은 deadline보다 낮아야 하고,
+ *   실패(타임아웃 포함)의 경과 시간도 같은 지연 EWMA에 들어가 판정한다.
+ * cool-down이 끝나면 통계를 비우고 다시 시도한다 (첫 호출이 probe).
+ *
+ * 경로: 사용 가능한 제공자를 strategy 순서로 정렬해 첫 번째를 primary, 두 번째를 동시에 시작하는 fallback으로 쓴다.
+ * - preference(기본): 선언 순서(품질 우선 - Stability → Pollinations)
+ * - fastest: EWMA 지연이 짧은 순 (기록이 없으면 가장 앞 - 한 번은 측정되도록)
+ * 모두 cool-down 중이면 가장 먼저 풀리는 제공자부터 시도한다.
+ *
+ * 메트릭: image.provider.latency{provider,outcome} (histogram), image.provider.route{provider},
+ *        image.provider.available{provider}, image.provider.latency.ewma{provider}
+ */
+@Component
+@Slf4j
+public class ImageProviderRouter {
+
+    private final double alpha;
+    private final int minSamples;
+    private final double errorRateThreshold;
+    private final Duration creditCooldown;
+    private final Duration errorCooldown;
+    private final Duration slowCooldown;
+    private final double slowThreshold;
+    private final boolean fastest;
+    private final Map<ImageProvider, Duration> deadlines = new EnumMap<>(ImageProvider.class);
+    private final Map<ImageProvider, Stats> stats = new EnumMap<>(ImageProvider.class);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<ImageProvider, Counter> routeCounters = new EnumMap<>(ImageProvider.class);
+
+    public ImageProviderRouter(
+            MeterRegistry meterRegistry,
+            @Value("${image.provider.stability-deadline:30s}") Duration stabilityDeadline,
+            @Value("${image.provider.pollinations-deadline:5s}") Duration pollinationsDeadline,
+            @Value("${image.router.strategy:preference}") String strategy,
+            @Value("${image.router.ewma-alpha:0.2}") double alpha,
+            @Value("${image.router.min-samples:5}") int minSamples,
+            @Value("${image.router.error-rate-threshold:0.5}") double errorRateThreshold,
+            @Value("${image.router.credit-cooldown:30m}") Duration creditCooldown,
+            @Value("${image.router.error-cooldown:1m}") Duration errorCooldown,
+            @Value("${image.router.slow-cooldown:5m}") Duration slowCooldown,
+            @Value("${image.router.slow-threshold:0.8}") double slowThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.fastest = "fastest".equalsIgnoreCase(strategy);
+        this.alpha = alpha;
+        this.minSamples = minSamples;
+        this.errorRateThreshold = errorRateThreshold;
+        this.creditCooldown = creditCooldown;
+        this.errorCooldown = errorCooldown;
+        this.slowCooldown = slowCooldown;
+        this.slowThreshold = slowThreshold;
+        deadlines.put(ImageProvider.STABILITY, stabilityDeadline);
+        deadlines.put(ImageProvider.POLLINATIONS, pollinationsDeadline);
+
+        for (ImageProvider provider : ImageProvider.values()) {
+            Stats s = new Stats();
+            stats.put(provider, s);
+            routeCounters.put(provider, Counter.builder("image.provider.route").tag("provider", provider.id()).register(meterRegistry));
+            meterRegistry.gauge("image.provider.available", List.of(Tag.of("provider", provider.id())),
+                s, st -> st.coolingDown(System.currentTimeMillis()) ? 0 : 1);
+            meterRegistry.gauge("image.provider.latency.ewma", List.of(Tag.of("provider", provider.id())),
+                s, Stats::snapshotLatency);
+        }
+    }
+
+    public Duration deadline(ImageProvider provider) {
+        return deadlines.get(provider);
+    }
+
+    /** 이번 요청의 제공자 순서 (첫 번째 = primary, 두 번째 = fallback) */
+    public List<ImageProvider> route() {
+        long now = System.currentTimeMillis();
+        List<ImageProvider> available = new ArrayList<>();
+        for (ImageProvider provider : ImageProvider.values()) {
+            if (!stats.get(provider).coolingDown(now)) {
+                available.add(provider);
+            }
+        }
+
+        if (available.isEmpty()) {
+            available.addAll(List.of(ImageProvider.values()));
+            available.sort(Comparator.comparingLong(p -> stats.get(p).cooldownUntil()));
+        } else if (fastest) {
+            available.sort(Comparator.comparingDouble(p -> {
+                double latency = stats.get(p).snapshotLatency();
+                return Double.isNaN(latency) ? -1 : latency;
+            }));
+        }
+
+        routeCounters.get(available.get(0)).increment();
+        log.debug("이미지 제공자 경로: {}", available);
+        return available;
+    }
+
+    public void recordSuccess(ImageProvider provider, long elapsedNanos) {
+        timer(provider, "success").record(Duration.ofNanos(elapsedNanos));
+        Stats s = stats.get(provider);
+        synchronized (s) {
+            s.update(elapsedNanos / 1_000_000.0, false, alpha);
+            if (isSlow(provider, s)) {
+                startCooldown(provider, s, slowCooldown, "slow");
+            }
+        }
+    }
+
+    public void recordFailure(ImageProvider provider, long elapsedNanos, Throwable error) {
+        timer(provider, "failure").record(Duration.ofNanos(elapsedNanos));
+        Stats s = stats.get(provider);
+        synchronized (s) {
+            s.update(elapsedNanos / 1_000_000.0, true, alpha);
+            if (isOutOfCredits(error)) {
+                startCooldown(provider, s, creditCooldown, "out-of-credits");
+            } else if (s.samples >= minSamples && s.ewmaErrorRate > errorRateThreshold) {
+                startCooldown(provider, s, errorCooldown, "error-rate");
+            } else if (isSlow(provider, s)) {
+                startCooldown(provider, s, slowCooldown, "slow");
+            }
+        }
+    }
+
+    /** 지연 EWMA가 deadline × slow-threshold를 넘음 (타임아웃 직전까지 끌다 성공하거나 간간이 타임아웃 나는 제공자) */
+    private boolean isSlow(ImageProvider provider, Stats s) {
+        return s.samples >= minSamples && s.ewmaLatencyMs > deadlines.get(provider).toMillis() * slowThreshold;
+    }
+
+    public List<ImageProviderStatus> snapshot() {
+        long now = System.currentTimeMillis();
+        List<ImageProviderStatus> result = new ArrayList<>();
+        for (ImageProvider provider : ImageProvider.values()) {
+            Stats s = stats.get(provider);
+            synchronized (s) {
+                boolean cooling = s.coolingDown(now);
+                double latency = s.ewmaLatencyMs;
+                result.add(new ImageProviderStatus(provider.id(), !cooling, Double.isNaN(latency) ? null : latency,
+                    s.ewmaErrorRate, s.samples, cooling ? Instant.ofEpochMilli(s.cooldownUntil) : null,
+                    cooling ? s.cooldownReason : null));
+            }
+        }
+        return result;
+    }
+
+    private void startCooldown(ImageProvider provider, Stats s, Duration cooldown, String reason) {
+        log.warn("이미지 제공자 일시 제외: provider={}, reason={}, for={}, ewmaLatencyMs={}, errorRate={}",
+            provider.id(), reason, cooldown, s.ewmaLatencyMs, s.ewmaErrorRate);
+        s.cooldownUntil = System.currentTimeMillis() + cooldown.toMillis();
+        s.cooldownReason = reason;
+        s.reset();
+    }
+
+    private Timer timer(ImageProvider provider, String outcome) {
+        return Timer.builder("image.provider.latency")
+            .tag("provider", provider.id())
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    static boolean isOutOfCredits(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof HttpStatusCodeException http && http.getStatusCode().value() == HttpStatus.PAYMENT_REQUIRED.value()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** 제공자 하나의 통계 - 자기 자신으로 동기화 */
+    private static final class Stats {
+        private double ewmaLatencyMs = Double.NaN;
+        private double ewmaErrorRate;
+        private long samples;
+        private volatile long cooldownUntil;
+        private String cooldownReason;
+
+        synchronized void update(double latencyMs, boolean failed, double alpha) {
+            ewmaLatencyMs = Double.isNaN(ewmaLatencyMs) ? latencyMs : alpha * latencyMs + (1 - alpha) * ewmaLatencyMs;
+            ewmaErrorRate = alpha * (failed ? 1 : 0) + (1 - alpha) * ewmaErrorRate;
+            samples++;
+        }
+
+        void reset() {
+            ewmaLatencyMs = Double.NaN;
+            ewmaErrorRate = 0;
+            samples = 0;
+        }
+
+        boolean coolingDown(long now) {
+            return now < cooldownUntil;
+        }
+
+        long cooldownUntil() {
+            return cooldownUntil;
+        }
+
+        synchronized double snapshotLatency() {
+            return ewmaLatencyMs;
+        }
+    }
+}
@@ -1,200 +1,311 @@
 package com.sstt.dinory.domain.image.service;
 
+import com.sstt.dinory.domain.image.dto.ImageContent;
 import com.sstt.dinory.domain.image.dto.ImageGenerationRequest;
 import com.sstt.dinory.domain.image.dto.ImageGenerationResponse;
+import com.sstt.dinory.domain.image.dto.ImageProviderStatus;
 import com.sstt.dinory.domain.image.entity.ImageGeneration;
 import com.sstt.dinory.domain.image.repository.ImageGenerationRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
-
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 이미지 생성 요청 접수 / 조회
+ *
+ * 같은 (prompt, style) 요청은 정규화한 해시(prompt_hash)로 묶는다.
+ * - 완료된 결과가 있으면: 생성 호출 없이 결과를 복사한 새 행을 바로 completed로 반환 (hit)
+ * - 같은 요청이 생성 중이면: dedup_of=leader인 행만 만들고, leader가 끝날 때 같은 결과로 완료 (coalesced)
+ * - 없으면: 새 작업(leader)으로 큐에 넣음 (miss)
+ * 조회와 leader 생성 사이 경합은 해시별 stripe 잠금으로 막는다 (노드 간에는 드물게 중복 생성될 수 있음).
+ *
+ * 조회는 요청한 회원 본인, 또는 씬 이미지면 그 씬의 동화를 읽는(완료 기록이 있는) 아이의 회원만 할 수 있다.
+ * 응답의 content URL에는 서명을 붙여 <img>가 헤더 없이 불러올 수 있게 한다 (ImageUrlSigner).
+ *
+ * 메트릭: image.dedup.requests{result=hit|coalesced|miss} (hit + coalesced = 절약한 생성 호출)
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ImageService {
 
-    private final ImageGenerationRepository imageGenerationRepository;
-    private final RestTemplate restTemplate = new RestTemplate();
+    /** 사용자가 직접 요청한 이미지 (가장 먼저 처리) */
+    public static final int PRIORITY_INTERACTIVE = 10;
+    /** 백그라운드 요청이 쓸 수 있는 가장 높은 priority - 사용자 요청보다 앞서지 못함 */
+    public static final int PRIORITY_BACKGROUND_MAX = PRIORITY_INTERACTIVE - 1;
 
-    @Value("${stability.api.key:}")
-    private String stabilityApiKey;
+    private static final List<String> IN_FLIGHT = List.of("pending", "processing");
+    private static final int LOCK_STRIPES = 64;
 
-    @Value("${stability.api.url:https://api.stability.ai/v2beta/stable-image/generate/ultra}")
-    private String stabilityApiUrl;
+    private final ImageGenerationRepository imageGenerationRepository;
+    private final ImageJobPersistenceService imageJobPersistenceService;
+    private final ImageGenerationWorker imageGenerationWorker;
+    private final ImageStore imageStore;
+    private final ImageProviderRouter imageProviderRouter;
+    private final RemoteImageCache remoteImageCache;
+    private final ImageVariantService imageVariantService;
+    private final ImageUrlSigner imageUrlSigner;
+    private final boolean dedupEnabled;
+    private final Duration legacyWait;
+    private final Duration legacyPollInterval;
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final Counter hitCounter;
+    private final Counter coalescedCounter;
+    private final Counter missCounter;
+
+    public ImageService(
+            ImageGenerationRepository imageGenerationRepository,
+            ImageJobPersistenceService imageJobPersistenceService,
+            ImageGenerationWorker imageGenerationWorker,
+            ImageStore imageStore,
+            ImageProviderRouter imageProviderRouter,
+            RemoteImageCache remoteImageCache,
+            ImageVariantService imageVariantService,
+            ImageUrlSigner imageUrlSigner,
+            MeterRegistry meterRegistry,
+            @Value("${image.dedup.enabled:true}") boolean dedupEnabled,
+            @Value("${image.legacy-sync.wait:25s}") Duration legacyWait,
+            @Value("${image.legacy-sync.poll-interval:1s}") Duration legacyPollInterval) {
+        this.imageGenerationRepository = imageGenerationRepository;
+        this.imageJobPersistenceService = imageJobPersistenceService;
+        this.imageGenerationWorker = imageGenerationWorker;
+        this.imageStore = imageStore;
+        this.imageProviderRouter = imageProviderRouter;
+        this.remoteImageCache = remoteImageCache;
+        this.imageVariantService = imageVariantService;
+        this.imageUrlSigner = imageUrlSigner;
+        this.dedupEnabled = dedupEnabled;
+        this.legacyWait = legacyWait;
+        this.legacyPollInterval = legacyPollInterval;
+
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.hitCounter = Counter.builder("image.dedup.requests").tag("result", "hit").register(meterRegistry);
+        this.coalescedCounter = Counter.builder("image.dedup.requests").tag("result", "coalesced").register(meterRegistry);
+        this.missCounter = Counter.builder("image.dedup.requests").tag("result", "miss").register(meterRegistry);
+    }
 
-    @Transactional
-    public ImageGenerationResponse generateImage(ImageGenerationRequest request) {
-        // 1. DB에 pending 상태로 저장
-        ImageGeneration imageGeneration = ImageGeneration.builder()
-                .sceneId(request.getSceneId())
-                .prompt(request.getPrompt())
-                .style(request.getStyle() != null ? request.getStyle() : "default")
-                .status("pending")
-                .build();
+    /** 저장된 이미지의 content 엔드포인트 경로 */
+    public static String contentUrl(Long id) {
+        return "/api/images/" + id + "/content";
+    }
 
-        imageGeneration = imageGenerationRepository.save(imageGeneration);
+    /**
+     * 이미지 생성 요청 접수
+     * pending 상태로 저장만 하고 바로 반환한다 (202). 실제 생성은 ImageGenerationWorker가 하고,
+     * 클라이언트는 GET /api/images/{id}로 상태를 확인한다. 같은 요청의 결과가 이미 있으면 바로 completed.
+     */
+    public ImageGenerationResponse generateImage(ImageGenerationRequest request, Long memberId) {
+        return enqueue(request, memberId, PRIORITY_INTERACTIVE);
+    }
 
-        try {
-            // 2. Stability AI API 호출 시도
-            String imageUrl = callStabilityAI(request.getPrompt(), request.getStyle());
-
-            // 3. 성공 시 completed 상태로 업데이트
-            imageGeneration.setStatus("completed");
-            imageGeneration.setImageUrl(imageUrl);
-            imageGeneration.setCompletedAt(LocalDateTime.now());
-
-        } catch (Exception e) {
-            // 402 에러는 조용히 처리
-            if (e.getMessage() != null && e.getMessage().contains("402")) {
-                log.info("Stability AI 크레딧 부족, Pollinations AI로 전환합니다.");
-            } else {
-                log.warn("Stability AI 실패, Pollinations AI로 전환합니다: {}", e.getMessage());
-            }
+    /**
+     * 이미지 생성 요청 후 결과까지 기다림 (POST /api/image/generate의 기존 동기 계약)
+     * 접수는 generateImage와 같고, completed/failed가 될 때까지 poll-interval마다 다시 조회한다.
+     * wait 안에 끝나지 않으면 그 시점의 상태(pending/processing)로 반환 - 호출한 쪽이 202로 넘긴다.
+     * 기다리는 동안 요청 스레드는 잡지 않는다.
+     */
+    public Mono<ImageGenerationResponse> generateImageAndWait(ImageGenerationRequest request, Long memberId) {
+        return Mono.fromCallable(() -> generateImage(request, memberId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(accepted -> isFinished(accepted)
+                        ? Mono.just(accepted)
+                        : Flux.interval(legacyPollInterval)
+                                .onBackpressureDrop()
+                                .concatMap(tick -> reload(accepted.getId()), 1)
+                                .filter(ImageService::isFinished)
+                                .next()
+                                .timeout(legacyWait, reload(accepted.getId())));
+    }
 
-            try {
-                // 4. Pollinations AI 폴백 시도 (스타일 포함)
-                String imageUrl = callPollinationsAI(request.getPrompt(), request.getStyle());
-
-                imageGeneration.setStatus("completed");
-                imageGeneration.setImageUrl(imageUrl);
-                imageGeneration.setCompletedAt(LocalDateTime.now());
-
-            } catch (Exception pollinationsError) {
-                // 5. 모두 실패 시 failed 상태로 업데이트
-                log.error("Both Stability AI and Pollinations AI failed", pollinationsError);
-                imageGeneration.setStatus("failed");
-                imageGeneration.setErrorMessage("Stability AI: " + e.getMessage() +
-                    " | Pollinations AI: " + pollinationsError.getMessage());
-                imageGeneration.setCompletedAt(LocalDateTime.now());
-            }
-        }
+    /** 생성이 끝났는지 (completed / failed) */
+    public static boolean isFinished(ImageGenerationResponse response) {
+        return "completed".equals(response.getStatus()) || "failed".equals(response.getStatus());
+    }
 
-        imageGeneration = imageGenerationRepository.save(imageGeneration);
+    private Mono<ImageGenerationResponse> reload(Long id) {
+        return Mono.fromCallable(() -> convertToResponse(find(id))).subscribeOn(Schedulers.boundedElastic());
+    }
 
-        // 5. Response 반환
-        return convertToResponse(imageGeneration);
+    /**
+     * 백그라운드 이미지 생성 요청 (씬 삽화 등)
+     * priority는 0 ~ PRIORITY_BACKGROUND_MAX로 제한되어 사용자 요청보다 먼저 처리되지 않는다.
+     */
+    public ImageGenerationResponse generateImageInBackground(ImageGenerationRequest request, int priority) {
+        return enqueue(request, null, Math.max(0, Math.min(priority, PRIORITY_BACKGROUND_MAX)));
     }
 
-    private String callPollinationsAI(String prompt, String style) {
+    private ImageGenerationResponse enqueue(ImageGenerationRequest request, Long memberId, int priority) {
+        String style = request.getStyle() != null ? request.getStyle() : "default";
+        String promptHash = promptHash(request.getPrompt(), style);
+
+        ReentrantLock lock = locks[Math.floorMod(promptHash.hashCode(), LOCK_STRIPES)];
+        lock.lock();
         try {
-            // Pollinations AI는 URL 기반으로 이미지 생성
-            // 스타일을 프롬프트에 포함시킴
-            String fullPrompt = prompt;
-
-            if (style != null && !style.isEmpty() && !style.equals("default")) {
-                // 스타일을 자연어로 변환
-                String styleDescription = convertStyleToDescription(style);
-                fullPrompt = prompt + ", " + styleDescription;
+            if (dedupEnabled) {
+                Optional<ImageGeneration> completed =
+                        imageGenerationRepository.findTopByPromptHashAndStatusOrderByIdDesc(promptHash, "completed");
+                if (completed.isPresent()) {
+                    hitCounter.increment();
+                    return convertToResponse(imageJobPersistenceService.saveCopyOf(completed.get(), request.getSceneId(), memberId, priority));
+                }
+
+                Optional<ImageGeneration> leader = imageGenerationRepository
+                        .findTopByPromptHashAndStatusInAndDedupOfIsNullOrderByIdAsc(promptHash, IN_FLIGHT);
+                if (leader.isPresent()) {
+                    coalescedCounter.increment();
+                    return convertToResponse(imageGenerationRepository.save(newRequest(request, style, promptHash, memberId, priority)
+                            .dedupOf(leader.get().getId())
+                            .build()));
+                }
             }
 
-            String encodedPrompt = java.net.URLEncoder.encode(fullPrompt, "UTF-8");
-            String imageUrl = "https://image.pollinations.ai/prompt/" + encodedPrompt +
-                "?width=1024&height=1024&nologo=true&enhance=true";
+            missCounter.increment();
+            ImageGeneration imageGeneration = imageGenerationRepository.save(newRequest(request, style, promptHash, memberId, priority).build());
 
-            log.info("Pollinations AI 프롬프트: {}", fullPrompt);
-            return imageUrl;
+            // 저장(커밋) 후 워커를 깨움 - 다른 노드의 워커는 다음 poll 주기에 가져감
+            imageGenerationWorker.wakeUp();
 
-        } catch (Exception e) {
-            log.error("Pollinations AI URL generation failed", e);
-            throw new RuntimeException("Failed to generate Pollinations AI URL: " + e.getMessage(), e);
+            return convertToResponse(imageGeneration);
+        } finally {
+            lock.unlock();
         }
     }
 
-    private String convertStyleToDescription(String style) {
-        return switch (style.toLowerCase()) {
-            case "anime" -> "anime style, manga art";
-            case "photographic" -> "photorealistic, highly detailed photograph";
-            case "digital-art" -> "digital art, concept art";
-            case "cinematic" -> "cinematic lighting, movie scene";
-            case "fantasy-art" -> "fantasy art, magical atmosphere";
-            default -> "";
-        };
+    public ImageGenerationResponse getImageById(Long id, Long memberId) {
+        ImageGeneration imageGeneration = find(id);
+        if (!canRead(imageGeneration, memberId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "접근 권한이 없습니다.");
+        }
+        return convertToResponse(imageGeneration);
     }
 
-    private String callStabilityAI(String prompt, String style) {
-        try {
-            // HTTP 헤더 설정
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
-            headers.set("Authorization", "Bearer " + stabilityApiKey);
-            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-
-            // MultiValueMap으로 form-data 구성
-            MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-            body.add("prompt", prompt);
-            body.add("output_format", "png");
-
-            if (style != null && !style.isEmpty() && !style.equals("default")) {
-                body.add("style_preset", style);
-            }
-
-            HttpEntity<MultiValueMap<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            // API 호출
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    stabilityApiUrl,
-                    HttpMethod.POST,
-                    entity,
-                    Map.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Map<String, Object> responseBody = response.getBody();
-
-                // Stability AI 응답에서 이미지 URL 또는 base64 데이터 추출
-                if (responseBody.containsKey("image")) {
-                    return (String) responseBody.get("image");
-                } else if (responseBody.containsKey("artifacts")) {
-                    List<Map<String, Object>> artifacts = (List<Map<String, Object>>) responseBody.get("artifacts");
-                    if (!artifacts.isEmpty()) {
-                        return "data:image/png;base64," + artifacts.get(0).get("base64");
-                    }
-                }
-            }
+    /** 이 회원이 이미지를 볼 수 있는지 (서명 없이 content를 요청한 경우) */
+    public boolean canRead(Long id, Long memberId) {
+        return canRead(find(id), memberId);
+    }
 
-            throw new RuntimeException("Failed to generate image: Invalid response from Stability AI");
+    /** sceneIds 중 이 회원이 이미지를 볼 수 있는 씬만 (순서 유지) */
+    public List<Long> readableSceneIds(List<Long> sceneIds, Long memberId) {
+        if (memberId == null || sceneIds.isEmpty()) return List.of();
+        List<Long> readable = imageGenerationRepository.findSceneIdsReadableBy(sceneIds, memberId);
+        return sceneIds.stream().filter(readable::contains).toList();
+    }
 
-        } catch (Exception e) {
-            // 402 Payment Required는 예상된 에러이므로 warn 레벨로 처리
-            if (e.getMessage() != null && e.getMessage().contains("402")) {
-                log.warn("Stability AI API: Insufficient credits (expected, will use fallback)");
-            } else {
-                log.error("Stability AI API call failed", e);
-            }
-            throw new RuntimeException("Failed to call Stability AI API: " + e.getMessage(), e);
+    private boolean canRead(ImageGeneration imageGeneration, Long memberId) {
+        if (memberId == null) return false;
+        if (memberId.equals(imageGeneration.getMemberId())) return true;
+        if (imageGeneration.getSceneId() != null) {
+            return !readableSceneIds(List.of(imageGeneration.getSceneId()), memberId).isEmpty();
         }
+        // 요청자를 기록하기 전에 만든 씬 없는 행 - 예전처럼 로그인한 회원이면 조회 가능
+        return imageGeneration.getMemberId() == null;
     }
 
-    public ImageGenerationResponse getImageById(Long id) {
-        ImageGeneration imageGeneration = imageGenerationRepository.findById(id)
+    private ImageGeneration find(Long id) {
+        return imageGenerationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Image generation not found with id: " + id));
-        return convertToResponse(imageGeneration);
     }
 
-    public List<ImageGenerationResponse> getImagesBySceneId(Long sceneId) {
+    /**
+     * 이미지 바이트 위치 (완료 전이거나 파일이 없으면 empty)
+     * 원격 URL만 있으면(Pollinations) 처음 한 번 서버가 가져와 저장한 뒤 로컬 파일로 돌려준다.
+     * 가져올 수 없는 URL이거나, 가져오기에 실패했거나, request-wait 안에 끝나지 않으면 remoteUrl로 돌려주고
+     * 컨트롤러가 리다이렉트한다 (가져오기는 백그라운드로 계속).
+     */
+    public Optional<ImageContent> getImageContent(Long id) {
+        ImageGeneration imageGeneration = find(id);
+        if (!"completed".equals(imageGeneration.getStatus())) {
+            return Optional.empty();
+        }
+        if (imageGeneration.getImageKey() != null) {
+            return imageStore.find(imageGeneration.getImageKey())
+                    .map(path -> new ImageContent(imageGeneration.getImageKey(), path, imageGeneration.getContentType(), null));
+        }
+        String url = imageGeneration.getImageUrl();
+        if (url == null || !url.startsWith("http")) {
+            return Optional.empty();
+        }
+        return remoteImageCache.fetchForRequest(id, url)
+                .or(() -> Optional.of(new ImageContent(null, null, null, url)));
+    }
+
+    /**
+     * 표시 너비(width)에 맞는 크기 변형 (width가 없으면 원본)
+     * width를 덮는 가장 작은 변형(thumb 128 / card 512 / full 1024)을 처음 요청 때 만들어 저장해 둔다.
+     * 원격 URL로 넘기는 경우는 변형 없이 그대로.
+     */
+    public Optional<ImageContent> getImageContent(Long id, Integer width) {
+        if (width != null && width <= 0) {
+            throw new IllegalArgumentException("w는 1 이상이어야 합니다: " + width);
+        }
+        Optional<ImageContent> original = getImageContent(id);
+        if (width == null) {
+            return original;
+        }
+        ImageVariant variant = ImageVariant.forWidth(width);
+        return original.map(content -> imageVariantService.resolve(content, variant));
+    }
+
+    /** 제공자별 라우팅 상태 (EWMA 지연/오류율, cool-down) */
+    public List<ImageProviderStatus> getProviderStatus() {
+        return imageProviderRouter.snapshot();
+    }
+
+    public List<ImageGenerationResponse> getImagesBySceneId(Long sceneId, Long memberId) {
+        if (readableSceneIds(List.of(sceneId), memberId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "접근 권한이 없습니다.");
+        }
         return imageGenerationRepository.findBySceneId(sceneId).stream()
                 .map(this::convertToResponse)
                 .toList();
     }
 
-    private ImageGenerationResponse convertToResponse(ImageGeneration imageGeneration) {
+    /** 대소문자/앞뒤 공백/연속 공백 차이는 같은 요청으로 봄 */
+    static String promptHash(String prompt, String style) {
+        String normalized = normalize(prompt) + "\n" + normalize(style);
+        return ImageStore.sha256(normalized.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static ImageGeneration.ImageGenerationBuilder newRequest(ImageGenerationRequest request, String style,
+                                                                     String promptHash, Long memberId, int priority) {
+        return ImageGeneration.builder()
+                .sceneId(request.getSceneId())
+                .memberId(memberId)
+                .priority(priority)
+                .prompt(request.getPrompt())
+                .style(style)
+                .promptHash(promptHash)
+                .status("pending");
+    }
+
+    ImageGenerationResponse convertToResponse(ImageGeneration imageGeneration) {
         return ImageGenerationResponse.builder()
                 .id(imageGeneration.getId())
                 .sceneId(imageGeneration.getSceneId())
                 .prompt(imageGeneration.getPrompt())
                 .style(imageGeneration.getStyle())
                 .status(imageGeneration.getStatus())
-                .imageUrl(imageGeneration.getImageUrl())
+                .imageUrl(imageUrlSigner.sign(imageGeneration.getId(), imageGeneration.getImageUrl()))
                 .errorMessage(imageGeneration.getErrorMessage())
                 .requestedAt(imageGeneration.getRequestedAt())
                 .completedAt(imageGeneration.getCompletedAt())
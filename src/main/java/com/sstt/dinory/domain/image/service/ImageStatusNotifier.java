@@ -0,0 +1,37 @@
+package com.sstt.dinory.domain.image.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.sstt.dinory.domain.image.event.ImageStatusChangedEvent;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * 이 노드에서 커밋된 씬 이미지 상태 변경을 sceneId 스트림으로 중계 (batch-status 롱폴링용)
+ *
+ * 다른 노드의 워커가 바꾼 상태와 새 요청 접수(pending 행 추가)는 여기로 오지 않으므로,
+ * 기다리는 쪽은 주기적인 재조회와 함께 쓴다.
+ * 구독자가 없으면 버린다 (best effort - 놓쳐도 재조회가 잡음).
+ */
+@Component
+public class ImageStatusNotifier {
+
+    private final Sinks.Many<Long> changes = Sinks.many().multicast().directBestEffort();
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(ImageStatusChangedEvent event) {
+        if (event.sceneId() == null) return;
+        // 여러 스레드에서 커밋되므로 emit을 직렬화
+        synchronized (changes) {
+            changes.tryEmitNext(event.sceneId());
+        }
+    }
+
+    /** 상태가 바뀐 sceneId 스트림 */
+    public Flux<Long> changes() {
+        return changes.asFlux();
+    }
+}
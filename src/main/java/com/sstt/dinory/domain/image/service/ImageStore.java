@@ -0,0 +1,134 @@
+package com.sstt.dinory.domain.image.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 로컬 디스크 content-addressed 이미지 저장소
+ *
+ * 키는 이미지 바이트의 SHA-256(hex 64자)이고, 파일은 root/ab/cd/abcd... 처럼 앞 4자로 두 단계 샤딩한다.
+ * 같은 내용은 한 번만 저장되고 내용이 바뀌지 않으므로 키를 그대로 강한 ETag로 쓸 수 있다.
+ * 쓰기는 같은 디렉터리의 임시 파일에 쓴 뒤 rename하므로 읽는 쪽이 쓰다 만 파일을 보지 않는다.
+ * 축소본 같은 파생 파일은 원본 옆에 abcd....thumb.jpg 처럼 둔다 (ImageVariantService).
+ */
+@Component
+@Slf4j
+public class ImageStore {
+
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern VARIANT = Pattern.compile("[a-z0-9]{1,16}(\\.[a-z0-9]{1,8})?");
+
+    private final Path root;
+
+    public ImageStore(@Value("${image.store.root:data/images}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    /** 저장 후 키 반환 (이미 있으면 쓰지 않음) */
+    public String put(byte[] content) {
+        String key = sha256(content);
+        Path target = resolve(key);
+        if (Files.exists(target)) {
+            return key;
+        }
+        write(target, key, content);
+        log.debug("이미지 저장: key={}, size={}", key, content.length);
+        return key;
+    }
+
+    /**
+     * 원본 키에서 파생된 변형(축소본 등) 저장 - 원본 옆에 key.variant 파일로 둔다
+     * 원본이 바뀌지 않으므로 같은 (key, variant)는 항상 같은 내용이다.
+     */
+    public Path putVariant(String key, String variant, byte[] content) {
+        Path target = resolveVariant(key, variant);
+        if (!Files.exists(target)) {
+            write(target, key, content);
+            log.debug("이미지 변형 저장: key={}, variant={}, size={}", key, variant, content.length);
+        }
+        return target;
+    }
+
+    /** 아직 만들지 않았거나 잘못된 키/변형이면 empty */
+    public Optional<Path> findVariant(String key, String variant) {
+        if (key == null || !KEY.matcher(key).matches() || !VARIANT.matcher(variant).matches()) {
+            return Optional.empty();
+        }
+        Path path = resolveVariant(key, variant);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /** 키에 해당하는 파일 (없거나 잘못된 키면 empty) */
+    public Optional<Path> find(String key) {
+        if (key == null || !KEY.matcher(key).matches()) {
+            return Optional.empty();
+        }
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private Path resolve(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private Path resolveVariant(String key, String variant) {
+        if (!KEY.matcher(key).matches() || !VARIANT.matcher(variant).matches()) {
+            throw new IllegalArgumentException("잘못된 이미지 변형: " + key + "." + variant);
+        }
+        return resolve(key).resolveSibling(key + "." + variant);
+    }
+
+    /** 같은 디렉터리의 임시 파일에 쓴 뒤 rename */
+    private static void write(Path target, String key, byte[] content) {
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), key, ".tmp");
+            try {
+                Files.write(temp, content);
+                moveIntoPlace(temp, target);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("이미지 저장 실패: " + target.getFileName(), e);
+        }
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // 같은 내용을 동시에 저장함 - 먼저 저장된 파일 사용
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(temp, target);
+            } catch (FileAlreadyExistsException ignored) {
+                // 위와 동일
+            }
+        }
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
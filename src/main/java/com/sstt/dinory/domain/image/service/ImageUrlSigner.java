@@ -0,0 +1,80 @@
+package com.sstt.dinory.domain.image.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * content 엔드포인트 서명 URL
+ *
+ * GET /api/images/{id}/content는 <img src>로 바로 쓰이므로 Authorization 헤더를 보낼 수 없다.
+ * 응답에 담는 content URL에 만료 시각과 HMAC 서명(id + 만료)을 붙여, 서명이 맞으면 헤더 없이 내준다.
+ * 서명 URL은 소유 확인을 거친 조회 응답(ImageService.convertToResponse)과
+ * 그 씬을 방금 받은 사용자에게 보내는 씬 응답(StoryService)에서만 만들어진다.
+ * - 만료는 ttl 단위로 올림해 ttl ~ 2×ttl 사이 - 같은 구간에서는 URL이 같아 브라우저 캐시와 batch-status version이 유지됨
+ * - 원격 URL(Pollinations)은 그대로 둔다
+ */
+@Component
+public class ImageUrlSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Pattern CONTENT_PATH = Pattern.compile("^/api/images/(\\d+)/content$");
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+
+    public ImageUrlSigner(
+            @Value("${image.signed-url.secret:${jwt.secret}}") String secret,
+            @Value("${image.signed-url.ttl:1h}") Duration ttl) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.ttlSeconds = Math.max(1, ttl.toSeconds());
+    }
+
+    /** 이 이미지의 content 경로면 서명을 붙이고, 아니면(원격 URL, null) 그대로 */
+    public String sign(Long id, String imageUrl) {
+        if (id == null || imageUrl == null || !imageUrl.equals(ImageService.contentUrl(id))) {
+            return imageUrl;
+        }
+        long now = System.currentTimeMillis() / 1000;
+        long expires = (now / ttlSeconds + 2) * ttlSeconds;
+        return imageUrl + "?expires=" + expires + "&signature=" + signature(id, expires);
+    }
+
+    /** id를 모를 때(Scene.imageUrl) - content 경로에서 id를 꺼내 서명, 아니면 그대로 */
+    public String sign(String imageUrl) {
+        if (imageUrl == null) return null;
+        Matcher matcher = CONTENT_PATH.matcher(imageUrl);
+        if (!matcher.matches()) return imageUrl;
+        return sign(Long.valueOf(matcher.group(1)), imageUrl);
+    }
+
+    /** 서명이 맞고 아직 만료 전인지 */
+    public boolean verify(Long id, Long expires, String signature) {
+        if (id == null || expires == null || signature == null) return false;
+        if (expires < System.currentTimeMillis() / 1000) return false;
+        return MessageDigest.isEqual(
+                signature(id, expires).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String signature(Long id, long expires) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] digest = mac.doFinal((id + ":" + expires).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("이미지 URL 서명 실패", e);
+        }
+    }
+}
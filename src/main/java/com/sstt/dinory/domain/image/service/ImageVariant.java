@@ -0,0 +1,34 @@
+package com.sstt.dinory.domain.image.service;
+
+/** 이미지 크기 변형 (선언 순서 = 작은 것부터) */
+public enum ImageVariant {
+    THUMB("thumb", 128),        // 부모 기록 목록, 추천 카드 썸네일
+    CARD("card", 512),          // 카드/미리보기
+    FULL("full", 1024);         // 씬 화면 (원본 크기, 압축만)
+
+    private final String id;
+    private final int width;
+
+    ImageVariant(String id, int width) {
+        this.id = id;
+        this.width = width;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    /** 요청한 표시 너비(?w=)를 덮는 가장 작은 변형 - 더 크면 FULL */
+    public static ImageVariant forWidth(int requestedWidth) {
+        for (ImageVariant variant : values()) {
+            if (requestedWidth <= variant.width) {
+                return variant;
+            }
+        }
+        return FULL;
+    }
+}
@@ -0,0 +1,159 @@
+package com.sstt.dinory.domain.image.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.sstt.dinory.common.concurrent.SingleFlight;
+import com.sstt.dinory.domain.image.dto.ImageContent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 저장된 이미지의 크기 변형(thumb / card / full) 생성 및 캐시
+ *
+ * 원본은 1024×1024 PNG라 목록 화면의 128px 썸네일에도 수 MB를 내려보냈다.
+ * 변형은 처음 요청될 때 원본을 축소해 JPEG(quality)로 인코딩하고 ImageStore에 원본 옆 파일로 저장한다.
+ * 원본이 내용 해시로 고정이므로 변형도 다시 만들 일이 없고, ETag는 "원본키-변형"으로 고정된다.
+ * - 같은 변형을 동시에 처음 요청하면 SingleFlight로 한 번만 생성
+ * - 원본보다 큰 변형은 확대하지 않고 원본 크기로 압축만 함
+ * - 디코딩할 수 없는 원본이면 원본을 그대로 반환
+ *
+ * 메트릭: image.variant{result=hit|generated|fallback}, image.variant.encode.latency
+ */
+@Component
+@Slf4j
+public class ImageVariantService {
+
+    private static final String FORMAT = "jpg";
+    private static final String CONTENT_TYPE = "image/jpeg";
+
+    private final ImageStore imageStore;
+    private final boolean enabled;
+    private final float quality;
+
+    private final SingleFlight<String, Path> inFlight = new SingleFlight<>();
+
+    private final Counter hitCounter;
+    private final Counter generatedCounter;
+    private final Counter fallbackCounter;
+    private final Timer encodeTimer;
+
+    public ImageVariantService(
+            ImageStore imageStore,
+            MeterRegistry meterRegistry,
+            @Value("${image.variant.enabled:true}") boolean enabled,
+            @Value("${image.variant.quality:0.82}") float quality) {
+        this.imageStore = imageStore;
+        this.enabled = enabled;
+        this.quality = quality;
+
+        this.hitCounter = Counter.builder("image.variant").tag("result", "hit").register(meterRegistry);
+        this.generatedCounter = Counter.builder("image.variant").tag("result", "generated").register(meterRegistry);
+        this.fallbackCounter = Counter.builder("image.variant").tag("result", "fallback").register(meterRegistry);
+        this.encodeTimer = Timer.builder("image.variant.encode.latency").register(meterRegistry);
+    }
+
+    /** 로컬 원본(original)의 variant 크기 파일 (없으면 만들어 저장). 만들 수 없으면 원본 그대로 */
+    public ImageContent resolve(ImageContent original, ImageVariant variant) {
+        if (!enabled || original.path() == null) {
+            return original;
+        }
+        String name = variant.id() + "." + FORMAT;
+        Optional<Path> cached = imageStore.findVariant(original.key(), name);
+        if (cached.isPresent()) {
+            hitCounter.increment();
+            return variantContent(original, variant, cached.get());
+        }
+        try {
+            Path path = inFlight.execute(original.key() + "." + name, () -> imageStore.findVariant(original.key(), name)
+                    .orElseGet(() -> imageStore.putVariant(original.key(), name,
+                            encodeTimer.record(() -> encode(original.path(), variant.width())))));
+            generatedCounter.increment();
+            return variantContent(original, variant, path);
+        } catch (RuntimeException e) {
+            fallbackCounter.increment();
+            log.warn("이미지 변형 생성 실패, 원본 사용: key={}, variant={}, error={}", original.key(), variant.id(), e.getMessage());
+            return original;
+        }
+    }
+
+    private static ImageContent variantContent(ImageContent original, ImageVariant variant, Path path) {
+        return new ImageContent(original.key() + "-" + variant.id(), path, CONTENT_TYPE, null);
+    }
+
+    /** 너비 maxWidth 이하로 축소(비율 유지)한 JPEG 바이트 */
+    byte[] encode(Path source, int maxWidth) {
+        try {
+            BufferedImage image = ImageIO.read(source.toFile());
+            if (image == null) {
+                throw new IllegalStateException("디코딩할 수 없는 이미지 형식입니다");
+            }
+            return toJpeg(scale(image, maxWidth));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 비율 유지 축소 - 한 번에 크게 줄이면 계단 현상이 생기므로 절반씩 여러 번 줄인다
+     * JPEG에는 알파가 없으므로 흰 배경 RGB로 옮긴다.
+     */
+    private static BufferedImage scale(BufferedImage source, int maxWidth) {
+        int targetWidth = Math.min(maxWidth, source.getWidth());
+        int targetHeight = Math.max(1, Math.round(source.getHeight() * (targetWidth / (float) source.getWidth())));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, Color.WHITE, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private byte[] toJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+        try (MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(buffer)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return buffer.toByteArray();
+    }
+}
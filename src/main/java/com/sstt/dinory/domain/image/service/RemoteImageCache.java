@@ -0,0 +1,219 @@
+package com.sstt.dinory.domain.image.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.sstt.dinory.common.concurrent.SingleFlight;
+import com.sstt.dinory.domain.image.dto.ImageContent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 원격 URL 결과(Pollinations) 가져와 저장하는 프록시 캐시
+ *
+ * Pollinations는 URL만 만들어 주고, 그 URL을 열 때마다 원격에서 (enhance=true로) 몇 초씩 다시 그린다.
+ * 처음 한 번만 서버가 받아 ImageStore에 저장하고, 같은 URL을 쓰는 행들에 키를 기록해
+ * 이후에는 GET /api/images/{id}/content가 로컬 파일을 (Range/ETag 지원으로) 바로 내준다.
+ * - 같은 URL을 동시에 처음 요청하면 SingleFlight로 한 번만 가져옴 (노드 간에는 드물게 중복, 내용 해시가 같아 파일은 하나)
+ * - prefetch가 켜져 있으면 작업 완료 직후 백그라운드로 미리 가져옴
+ * - allowed-hosts 호스트의 http(s) URL만 가져옴 (DB에 저장된 임의 URL로 서버가 요청하지 않도록)
+ *   리다이렉트는 따라가지 않는다 (허용된 호스트가 다른 호스트로 넘기면 실패로 보고 원격 URL로 넘김)
+ * - 조회 요청 중에는 request-wait까지만 기다리고, 그 안에 못 가져오면 원격 URL로 넘긴다 (fetchForRequest).
+ *   가져오기는 백그라운드에서 계속되어 다음 조회부터 로컬 파일 - Tomcat 스레드가 원격 렌더링(read-timeout)만큼 잡히지 않음
+ *
+ * 메트릭: image.proxy.fetch{result=stored|failed|deferred}, image.proxy.fetch.latency
+ */
+@Component
+@Slf4j
+public class RemoteImageCache {
+
+    private final ImageStore imageStore;
+    private final ImageJobPersistenceService imageJobPersistenceService;
+    private final boolean enabled;
+    private final boolean prefetchEnabled;
+    private final List<String> allowedHosts;
+    private final long maxBytes;
+    private final Duration requestWait;
+    private final RestTemplate restTemplate;
+
+    private final SingleFlight<String, ImageContent> inFlight = new SingleFlight<>();
+    private final ExecutorService prefetcher = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("image-prefetch-", 0).factory());
+
+    private final Counter storedCounter;
+    private final Counter failedCounter;
+    private final Counter deferredCounter;
+    private final Timer fetchTimer;
+
+    public RemoteImageCache(
+            ImageStore imageStore,
+            ImageJobPersistenceService imageJobPersistenceService,
+            MeterRegistry meterRegistry,
+            @Value("${image.proxy.enabled:true}") boolean enabled,
+            @Value("${image.proxy.prefetch:true}") boolean prefetchEnabled,
+            @Value("${image.proxy.allowed-hosts:image.pollinations.ai}") List<String> allowedHosts,
+            @Value("${image.proxy.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${image.proxy.read-timeout:90s}") Duration readTimeout,
+            @Value("${image.proxy.max-bytes:20971520}") long maxBytes,
+            @Value("${image.proxy.request-wait:3s}") Duration requestWait) {
+        this.imageStore = imageStore;
+        this.imageJobPersistenceService = imageJobPersistenceService;
+        this.enabled = enabled;
+        this.prefetchEnabled = prefetchEnabled;
+        this.allowedHosts = allowedHosts.stream().map(host -> host.strip().toLowerCase(Locale.ROOT)).toList();
+        this.maxBytes = maxBytes;
+        this.requestWait = requestWait;
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory() {
+            @Override
+            protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+                super.prepareConnection(connection, httpMethod);
+                // 호스트 확인은 처음 URL에만 하므로 리다이렉트로 다른 호스트(내부망 등)에 가지 않도록
+                connection.setInstanceFollowRedirects(false);
+            }
+        };
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+        this.restTemplate = new RestTemplate(requestFactory);
+
+        this.storedCounter = Counter.builder("image.proxy.fetch").tag("result", "stored").register(meterRegistry);
+        this.failedCounter = Counter.builder("image.proxy.fetch").tag("result", "failed").register(meterRegistry);
+        this.deferredCounter = Counter.builder("image.proxy.fetch").tag("result", "deferred").register(meterRegistry);
+        this.fetchTimer = Timer.builder("image.proxy.fetch.latency").register(meterRegistry);
+    }
+
+    /** 이 URL을 가져와 저장할 수 있는지 (프록시 켜짐 + 허용된 호스트) */
+    public boolean supports(String url) {
+        if (!enabled || url == null) return false;
+        try {
+            URI uri = URI.create(url);
+            return ("https".equalsIgnoreCase(uri.getScheme()) || "http".equalsIgnoreCase(uri.getScheme()))
+                && uri.getHost() != null
+                && allowedHosts.contains(uri.getHost().toLowerCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 원격 이미지를 가져와 저장하고 같은 URL을 쓰는 행들에 키를 기록 (블로킹 - 원격 렌더링 시간만큼 걸릴 수 있음)
+     * 실패하면 empty - 호출한 쪽은 원격 URL로 넘기면 된다.
+     */
+    public Optional<ImageContent> fetch(Long imageGenerationId, String url) {
+        if (!supports(url)) return Optional.empty();
+        try {
+            return Optional.of(inFlight.execute(url, () -> fetchAndStore(imageGenerationId, url)));
+        } catch (RuntimeException e) {
+            failedCounter.increment();
+            log.warn("원격 이미지 가져오기 실패: id={}, url={}, error={}", imageGenerationId, url, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 조회 요청 중 가져오기 - request-wait 안에 끝나지 않으면 empty (호출한 쪽은 원격 URL로 넘김)
+     * 가져오기는 백그라운드에서 계속되고, 같은 URL의 동시 조회는 SingleFlight로 한 번만 가져온다.
+     */
+    public Optional<ImageContent> fetchForRequest(Long imageGenerationId, String url) {
+        if (!supports(url)) return Optional.empty();
+        CompletableFuture<Optional<ImageContent>> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> fetch(imageGenerationId, url), prefetcher);
+        } catch (RejectedExecutionException e) {
+            return Optional.empty();
+        }
+        try {
+            return future.get(requestWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            deferredCounter.increment();
+            log.debug("원격 이미지 가져오는 중 - 원격 URL로 넘김: id={}, url={}", imageGenerationId, url);
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            return Optional.empty();
+        }
+    }
+
+    /** 작업 완료 직후 백그라운드로 미리 가져옴 (첫 조회도 로컬에서) */
+    public void prefetch(Long imageGenerationId, String url) {
+        if (!prefetchEnabled || !supports(url) || prefetcher.isShutdown()) return;
+        prefetcher.execute(() -> fetch(imageGenerationId, url));
+    }
+
+    private ImageContent fetchAndStore(Long imageGenerationId, String url) {
+        Downloaded downloaded = fetchTimer.record(() -> download(url));
+        String key = imageStore.put(downloaded.content());
+        imageJobPersistenceService.attachStoredContent(imageGenerationId, url, key, downloaded.contentType());
+        storedCounter.increment();
+        log.info("원격 이미지 저장: id={}, key={}, size={}", imageGenerationId, key, downloaded.content().length);
+        return new ImageContent(key, imageStore.find(key).orElseThrow(), downloaded.contentType(), null);
+    }
+
+    private Downloaded download(String url) {
+        // URL은 ImageProviderClient가 이미 인코딩해 만든 것이므로 다시 인코딩하지 않도록 URI로 넘김
+        return restTemplate.execute(URI.create(url), HttpMethod.GET,
+            request -> request.getHeaders().setAccept(List.of(MediaType.parseMediaType("image/*"))),
+            response -> {
+                if (response.getStatusCode().is3xxRedirection()) {
+                    throw new IllegalStateException("원격 이미지가 리다이렉트를 반환했습니다: " + response.getHeaders().getLocation());
+                }
+                MediaType contentType = response.getHeaders().getContentType();
+                if (contentType == null || !"image".equals(contentType.getType())) {
+                    throw new IllegalStateException("이미지가 아닌 응답입니다: " + contentType);
+                }
+                return new Downloaded(readLimited(response.getBody()), contentType.getType() + "/" + contentType.getSubtype());
+            });
+    }
+
+    private byte[] readLimited(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256 * 1024);
+        byte[] chunk = new byte[16 * 1024];
+        long total = 0;
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new IllegalStateException("원격 이미지가 너무 큽니다: > " + maxBytes + " bytes");
+            }
+            buffer.write(chunk, 0, read);
+        }
+        if (total == 0) {
+            throw new IllegalStateException("원격 이미지 응답이 비어 있습니다");
+        }
+        return buffer.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetcher.shutdownNow();
+    }
+
+    private record Downloaded(byte[] content, String contentType) {
+    }
+}
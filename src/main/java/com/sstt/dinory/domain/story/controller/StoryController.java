@@ -5,20 +5,27 @@ import java.util.List;
 import java.util.Map;
 
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 
+import com.sstt.dinory.common.ai.AiServerBusyException;
 import com.sstt.dinory.domain.story.dto.RecommendedStoryDto;
 import com.sstt.dinory.domain.story.dto.StoryChoiceRequest;
 import com.sstt.dinory.domain.story.dto.StoryCompleteRequest;
 import com.sstt.dinory.domain.story.dto.StoryCompletionSummaryDto;
 import com.sstt.dinory.domain.story.dto.StoryGenerateRequest;
 import com.sstt.dinory.domain.story.service.StoryRecommendationService;
+import com.sstt.dinory.domain.story.service.StorySceneStreamService;
 import com.sstt.dinory.domain.story.service.StoryService;
 
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 
 @RestController
 @RequestMapping("/api/story")
@@ -29,6 +36,7 @@ public class StoryController {
     
     private final StoryRecommendationService recommendationService;
     private final StoryService storyService;
+    private final StorySceneStreamService storySceneStreamService;
 
     // 동화추천
     @PostMapping("/recommended")
@@ -95,12 +103,48 @@ public class StoryController {
         // 선택 저장
         storyService.saveChoice(completionId, request);
 
-        // 다음 씬 생성 (AI 서버에 이전 선택 히스토리 전달)
-        Map<String, Object> nextScene = storyService.generateNextScene(completionId, request.getSceneNumber() + 1);
+        // 다음 씬 생성 (AI 서버에 이전 선택 히스토리 전달, 미리 생성된 분기가 있으면 재사용)
+        Map<String, Object> nextScene = storyService.generateNextScene(completionId, request.getSceneNumber() + 1, request);
 
         return ResponseEntity.ok(nextScene);
     }
 
+    /**
+     * 동화 생성 - SSE 스트리밍 버전
+     *
+     * AI 서버가 생성하는 문장을 token 이벤트로 바로 전달하고,
+     * Scene 저장이 끝나면 동기 API와 같은 응답을 scene 이벤트로 보낸다.
+     */
+    @PostMapping(value = "/{storyId}/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> generateStoryStream(
+        @PathVariable String storyId,
+        @RequestBody StoryGenerateRequest request
+    ) {
+        log.info("=== 동화 생성 요청 (스트리밍) ===");
+        log.info("storyId: {}, childId: {}", storyId, request.getChildId());
+
+        request.setStoryId(storyId);
+        return storySceneStreamService.streamFirstScene(request);
+    }
+
+    /**
+     * 다음 씬 생성 - SSE 스트리밍 버전
+     *
+     * 선택 저장은 next-scene과 동일하게 먼저 처리한다.
+     */
+    @PostMapping(value = "/completion/{completionId}/next-scene/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> getNextSceneStream(
+        @PathVariable Long completionId,
+        @RequestBody StoryChoiceRequest request
+    ) {
+        log.info("=== 다음 씬 요청 (스트리밍) ===");
+        log.info("completionId: {}, sceneNumber: {}, choiceId: {}",
+            completionId, request.getSceneNumber(), request.getChoiceId());
+
+        storyService.saveChoice(completionId, request);
+        return storySceneStreamService.streamNextScene(completionId, request.getSceneNumber() + 1, request);
+    }
+
     // 선택지 저장하기 (기존 API - 호환성 유지)
     @PostMapping("/completion/{completionId}/choice")
     public ResponseEntity<Map<String, Object>> saveChoice(
@@ -203,6 +247,14 @@ public class StoryController {
             log.info("AI 분석 결과: {}", analysisResult);
             return ResponseEntity.ok(analysisResult);
                 
+        } catch (AiServerBusyException e) {
+            log.warn("커스텀 선택지 분석 거절 (AI 서버 과부하): {}", e.getReason());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of(
+                    "error", "AI 서버 과부하",
+                    "message", e.getReason()
+                ));
         } catch (Exception e) {
             log.error("커스텀 선택지 분석 실패: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of(
@@ -0,0 +1,21 @@
+package com.sstt.dinory.domain.story.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 씬 저장 결과 - 클라이언트 응답에 씬 id와 (이미 있으면) 삽화 URL을 싣기 위한 값
+ *
+ * 씬은 동화별로 한 번만 저장되므로 이미 있는 씬이면 그 씬의 id/imageUrl이다.
+ * 저장에 실패하면 sceneId가 null.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class SavedScene {
+
+    private Long completionId;
+    private Long sceneId;
+    private String imageUrl;            // 저장된 그대로 (content 경로면 응답 전에 서명)
+}
@@ -45,6 +45,10 @@ public class StoryCompletionSummaryDto {
     }
 
     public static StoryCompletionSummaryDto from(StoryCompletion completion) {
+        return from(completion, completion.getChoicesJson());
+    }
+
+    public static StoryCompletionSummaryDto from(StoryCompletion completion, List<StoryCompletion.ChoiceRecord> choices) {
         // 능력치별 합계 계산
         int totalCourage = 0;
         int totalEmpathy = 0;
@@ -52,7 +56,7 @@ public class StoryCompletionSummaryDto {
         int totalResponsibility = 0;
         int totalFriendship = 0;
 
-        List<ChoiceRecordDto> choiceDtos = completion.getChoicesJson().stream()
+        List<ChoiceRecordDto> choiceDtos = choices.stream()
             .map(choice -> {
                 return ChoiceRecordDto.builder()
                     .sceneNumber(choice.getSceneNumber())
@@ -63,7 +67,7 @@ public class StoryCompletionSummaryDto {
             })
             .toList();
 
-        for (StoryCompletion.ChoiceRecord choice : completion.getChoicesJson()) {
+        for (StoryCompletion.ChoiceRecord choice : choices) {
             if (choice.getAbilityType() != null && choice.getAbilityPoints() != null) {
                 switch (choice.getAbilityType()) {
                     case "용기", "courage" -> totalCourage += choice.getAbilityPoints();
@@ -0,0 +1,36 @@
+package com.sstt.dinory.domain.story.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sstt.dinory.domain.story.entity.StoryCompletion;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 씬 생성에 필요한 값만 담은 스냅샷
+ *
+ * 짧은 읽기 트랜잭션에서 엔티티를 꺼내 값만 복사해 두고,
+ * AI 서버 호출 동안에는 DB 커넥션/영속성 컨텍스트 없이 이 객체만 사용한다.
+ */
+@Getter
+@Builder(toBuilder = true)
+@AllArgsConstructor
+public class StorySceneContext {
+
+    private Long storyId;               // story.id (DB PK)
+    private String pineconeId;          // story.pinecone_id
+    private String storyTitle;
+    private String storyDescription;
+    private Long childId;
+    private Long completionId;          // 첫 씬 생성 시에는 null
+    private String emotion;
+
+    @Builder.Default
+    private List<String> interests = new ArrayList<>();
+
+    @Builder.Default
+    private List<StoryCompletion.ChoiceRecord> previousChoices = new ArrayList<>();
+}
@@ -39,7 +39,7 @@ public class Scene {
     private String content;  // 씬 내용 텍스트
 
     @Column(name = "image_url", length = 500)
-    private String imageUrl;  // 생성된 이미지 URL
+    private String imageUrl;  // 생성된 이미지 URL (저장된 이미지면 /api/images/{id}/content - 씬 응답에 sceneImageUrl로 내보낼 때 ImageUrlSigner로 서명)
 
     @Column(name = "image_prompt", columnDefinition = "TEXT")
     private String imagePrompt;  // DALL-E 이미지 생성용 프롬프트
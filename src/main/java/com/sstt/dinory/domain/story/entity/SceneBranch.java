@@ -0,0 +1,63 @@
+package com.sstt.dinory.domain.story.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 씬 분기 저장소
+ *
+ * scene 테이블은 (story, sceneNumber)당 하나만 저장하므로 다른 분기는 버려진다.
+ * 이 테이블은 (pineconeId, emotion, 선택 경로) 해시를 키로 AI 응답 전체를 보관해
+ * 같은 경로를 다시 밟는 아이에게 AI 호출 없이 씬을 제공한다.
+ * db-ttl이 지난 행은 SceneBranchCache가 주기적으로 지운다.
+ */
+@Entity
+@Table(name = "scene_branch",
+    indexes = @Index(name = "idx_scene_branch_created", columnList = "created_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SceneBranch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "branch_key", length = 64, nullable = false, unique = true)
+    private String branchKey;  // SHA-256 hex
+
+    @Column(name = "pinecone_id", length = 50)
+    private String pineconeId;
+
+    @Column(name = "scene_number", nullable = false)
+    private Integer sceneNumber;
+
+    @Column(name = "response_json", columnDefinition = "MEDIUMTEXT", nullable = false)
+    private String responseJson;  // /ai/generate-next-scene 응답 원문
+
+    @Column(name = "generation_ms")
+    private Long generationMs;  // 최초 생성에 걸린 AI 응답 시간
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
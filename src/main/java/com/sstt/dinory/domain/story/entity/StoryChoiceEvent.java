@@ -0,0 +1,80 @@
+package com.sstt.dinory.domain.story.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 선택 이벤트 로그 (append-only)
+ *
+ * 선택할 때마다 story_completion.choices_json 전체를 다시 직렬화하지 않고 한 줄씩 INSERT만 한다.
+ * (completion_id, scene_number, choice_hash) UNIQUE 키로 같은 선택의 중복 요청은 request_count만 올라간다.
+ * choices_json은 completeStory 시점에 이 로그를 모아 한 번만 기록한다.
+ */
+@Entity
+@Table(name = "story_choice_event",
+    uniqueConstraints = @UniqueConstraint(name = "uk_choice_event",
+        columnNames = {"completion_id", "scene_number", "choice_hash"}),
+    indexes = @Index(name = "idx_choice_event_completion", columnList = "completion_id, id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoryChoiceEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "completion_id", nullable = false)
+    private Long completionId;
+
+    @Column(name = "scene_number", nullable = false)
+    private Integer sceneNumber;
+
+    @Column(name = "choice_hash", length = 64, nullable = false)
+    private String choiceHash;  // SHA-256(choiceText) hex
+
+    @Column(name = "choice_id", length = 50)
+    private String choiceId;
+
+    @Column(name = "choice_text", columnDefinition = "TEXT", nullable = false)
+    private String choiceText;
+
+    @Column(name = "ability_type", length = 50)
+    private String abilityType;
+
+    @Column(name = "ability_points")
+    private Integer abilityPoints;
+
+    // 같은 선택 요청 횟수 (중복 요청 시 +1)
+    @Column(name = "request_count", columnDefinition = "INT NOT NULL DEFAULT 1")
+    @Builder.Default
+    private Integer requestCount = 1;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public StoryCompletion.ChoiceRecord toRecord() {
+        return new StoryCompletion.ChoiceRecord(sceneNumber, choiceId, choiceText, abilityType, abilityPoints);
+    }
+}
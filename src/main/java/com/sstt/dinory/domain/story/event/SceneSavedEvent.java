@@ -0,0 +1,9 @@
+package com.sstt.dinory.domain.story.event;
+
+/**
+ * 새 씬 저장 이벤트 (씬 저장 커밋 후 처리)
+ *
+ * 씬 삽화 생성(SceneIllustrationService)처럼 씬 저장 후 작업을 씬 생성 경로와 분리한다.
+ */
+public record SceneSavedEvent(Long sceneId, Long storyId, int sceneNumber, String imagePrompt) {
+}
@@ -0,0 +1,9 @@
+package com.sstt.dinory.domain.story.event;
+
+/**
+ * 동화 완료 이벤트 (completeStory 커밋 후 처리)
+ *
+ * 동화 도메인이 완료 후 작업(챗봇 첫 인사 선행 생성 등)을 직접 알지 않도록 이벤트로 알린다.
+ */
+public record StoryCompletedEvent(Long completionId, Long childId) {
+}
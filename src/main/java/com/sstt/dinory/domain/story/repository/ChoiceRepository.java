@@ -4,6 +4,9 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.sstt.dinory.domain.story.entity.Choice;
@@ -34,4 +37,22 @@ public interface ChoiceRepository extends JpaRepository<Choice, Long> {
      * @return Choice 엔티티 (있으면 반환, 없으면 empty)
      */
     Optional<Choice> findBySceneAndChoiceText(Scene scene, String choiceText);
+
+    /**
+     * completion의 sceneNumber 씬에 선택지 기록 (Scene 조회 + 중복 체크 + 저장을 한 문장으로)
+     * 씬이 없거나 같은 choiceText가 이미 있으면 아무 것도 넣지 않는다.
+     * @return 저장된 행 수 (0 또는 1)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO choice (scene_id, choice_text, ability_type, ability_points) "
+            + "SELECT s.id, :choiceText, :abilityType, :abilityPoints "
+            + "FROM scene s JOIN story_completion sc ON sc.story_id = s.story_id "
+            + "WHERE sc.id = :completionId AND s.scene_number = :sceneNumber "
+            + "AND NOT EXISTS (SELECT 1 FROM choice c WHERE c.scene_id = s.id AND c.choice_text = :choiceText)",
+            nativeQuery = true)
+    int insertForCompletionScene(@Param("completionId") Long completionId,
+                                 @Param("sceneNumber") Integer sceneNumber,
+                                 @Param("choiceText") String choiceText,
+                                 @Param("abilityType") String abilityType,
+                                 @Param("abilityPoints") Integer abilityPoints);
 }
@@ -0,0 +1,39 @@
+package com.sstt.dinory.domain.story.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sstt.dinory.domain.story.entity.SceneBranch;
+
+@Repository
+public interface SceneBranchRepository extends JpaRepository<SceneBranch, Long> {
+
+    Optional<SceneBranch> findByBranchKey(String branchKey);
+
+    // branch_key UNIQUE 키 기준 upsert - 이미 있으면 (만료된 행 포함) 응답/생성 시각을 새 값으로 덮어씀
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO scene_branch (branch_key, pinecone_id, scene_number, response_json, generation_ms, created_at) "
+            + "VALUES (:branchKey, :pineconeId, :sceneNumber, :responseJson, :generationMs, NOW()) "
+            + "ON DUPLICATE KEY UPDATE response_json = VALUES(response_json), generation_ms = VALUES(generation_ms), "
+            + "created_at = NOW()",
+            nativeQuery = true)
+    int upsert(@Param("branchKey") String branchKey,
+               @Param("pineconeId") String pineconeId,
+               @Param("sceneNumber") Integer sceneNumber,
+               @Param("responseJson") String responseJson,
+               @Param("generationMs") Long generationMs);
+
+    // before 이전에 저장된 분기 삭제 (한 번에 limit개씩 - 긴 잠금 방지)
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM scene_branch WHERE created_at < :before LIMIT :limit", nativeQuery = true)
+    int deleteCreatedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
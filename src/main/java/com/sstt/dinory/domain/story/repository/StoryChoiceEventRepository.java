@@ -0,0 +1,38 @@
+package com.sstt.dinory.domain.story.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.sstt.dinory.domain.story.entity.StoryChoiceEvent;
+
+@Repository
+public interface StoryChoiceEventRepository extends JpaRepository<StoryChoiceEvent, Long> {
+
+    // 선택 순서대로 조회 (choicesJson 대신 사용)
+    List<StoryChoiceEvent> findByCompletionIdOrderByIdAsc(Long completionId);
+
+    /**
+     * 선택 이벤트 기록 - 같은 (completion, scene, choiceText)가 이미 있으면 request_count만 올림
+     * INSERT IGNORE와 달리 중복 키 외의 오류(NOT NULL, 길이 초과 등)는 그대로 예외로 올라온다.
+     * 중복이면 값이 실제로 바뀌므로 드라이버의 found/affected rows 설정과 관계없이 2가 반환된다.
+     * @return 1: 새로 기록, 2: 중복 요청
+     */
+    @Modifying
+    @Query(value = "INSERT INTO story_choice_event "
+            + "(completion_id, scene_number, choice_hash, choice_id, choice_text, ability_type, ability_points, request_count, created_at) "
+            + "VALUES (:completionId, :sceneNumber, :choiceHash, :choiceId, :choiceText, :abilityType, :abilityPoints, 1, NOW()) "
+            + "ON DUPLICATE KEY UPDATE request_count = request_count + 1",
+            nativeQuery = true)
+    int insertOrCountDuplicate(@Param("completionId") Long completionId,
+                               @Param("sceneNumber") Integer sceneNumber,
+                               @Param("choiceHash") String choiceHash,
+                               @Param("choiceId") String choiceId,
+                               @Param("choiceText") String choiceText,
+                               @Param("abilityType") String abilityType,
+                               @Param("abilityPoints") Integer abilityPoints);
+}
@@ -9,6 +9,9 @@ import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.sstt.dinory.domain.story.entity.StoryCompletion;
@@ -37,4 +40,9 @@ public interface StoryCompletionRepository extends JpaRepository<StoryCompletion
             LocalDateTime startDate,
             LocalDateTime endDate
     );
+
+    // 능력치 누적 - 엔티티를 읽지 않고 한 문장으로 더함
+    @Modifying
+    @Query("UPDATE StoryCompletion sc SET sc.abilityScore = COALESCE(sc.abilityScore, 0) + :points WHERE sc.id = :id")
+    int addAbilityScore(@Param("id") Long id, @Param("points") int points);
 }
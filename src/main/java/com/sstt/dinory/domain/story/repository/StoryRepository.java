@@ -4,26 +4,36 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.sstt.dinory.domain.story.entity.Story;
 
-import jakarta.persistence.LockModeType;
-
 @Repository
 public interface StoryRepository extends JpaRepository<Story, Long>{
 
     // [2025-10-29 김광현] 추가
     Optional<Story> findByPineconeId(String pineconeId);
 
-    // [2025-10-30] 락을 사용한 조회 메서드 추가
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT s FROM Story s WHERE s.pineconeId = :pineconeId")
-    Optional<Story> findByPineconeIdWithLock(@Param("pineconeId") String pineconeId);
-    
+    // id만 조회 (Story 생성 여부 확인용)
+    @Query("SELECT s.id FROM Story s WHERE s.pineconeId = :pineconeId")
+    Optional<Long> findIdByPineconeId(@Param("pineconeId") String pineconeId);
+
+    // pinecone_id UNIQUE 키 기준 upsert - 이미 있으면 아무 것도 바꾸지 않음 (예외/재시도 없음)
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO story (pinecone_id, title, category, description, created_at) "
+            + "VALUES (:pineconeId, :title, :category, :description, NOW()) "
+            + "ON DUPLICATE KEY UPDATE pinecone_id = pinecone_id",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("pineconeId") String pineconeId,
+                       @Param("title") String title,
+                       @Param("category") String category,
+                       @Param("description") String description);
+
     // 카테고리로 동화 찾기
     List<Story> findByCategory(String category);
 
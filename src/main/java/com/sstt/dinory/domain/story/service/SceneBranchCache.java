@@ -0,0 +1,228 @@
+package com.sstt.dinory.domain.story.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sstt.dinory.domain.story.dto.StorySceneContext;
+import com.sstt.dinory.domain.story.entity.SceneBranch;
+import com.sstt.dinory.domain.story.entity.StoryCompletion;
+import com.sstt.dinory.domain.story.repository.SceneBranchRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 씬 분기 캐시 (선택 경로 기반 content-addressed 저장소)
+ *
+ * 키: SHA-256(pineconeId, emotion, sceneNumber, 정규화된 previousChoices)
+ * - 1단계: 노드 메모리 LRU (TTL 적용)
+ * - 2단계: scene_branch 테이블 (branch_key 기준 upsert, db-ttl이 지난 행은 purge-cron마다 삭제)
+ * 같은 동화를 같은 감정/같은 선택 순서로 진행하는 아이에게는 AI 호출 없이 씬을 돌려준다.
+ *
+ * 메트릭: story.branch.cache.requests{tier=memory|db|miss}, story.branch.cache.hit.ratio,
+ *        story.branch.cache.latency.saved (히트 시 절약된 AI 생성 시간)
+ */
+@Service
+@Slf4j
+public class SceneBranchCache {
+
+    private final SceneBranchRepository sceneBranchRepository;
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final Duration memoryTtl;
+    private final Duration dbTtl;
+    private final int purgeBatchSize;
+    private final Map<String, CachedBranch> memory;
+
+    private final Counter memoryHitCounter;
+    private final Counter dbHitCounter;
+    private final Counter missCounter;
+    private final Timer latencySaved;
+
+    public SceneBranchCache(
+            SceneBranchRepository sceneBranchRepository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${story.branch-cache.enabled:true}") boolean enabled,
+            @Value("${story.branch-cache.memory-max-entries:2000}") int memoryMaxEntries,
+            @Value("${story.branch-cache.memory-ttl:1h}") Duration memoryTtl,
+            @Value("${story.branch-cache.db-ttl:30d}") Duration dbTtl,
+            @Value("${story.branch-cache.purge-batch-size:1000}") int purgeBatchSize) {
+        this.sceneBranchRepository = sceneBranchRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.memoryTtl = memoryTtl;
+        this.dbTtl = dbTtl;
+        this.purgeBatchSize = purgeBatchSize;
+
+        // access-order LinkedHashMap = LRU
+        this.memory = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedBranch> eldest) {
+                return size() > memoryMaxEntries;
+            }
+        };
+
+        this.memoryHitCounter = Counter.builder("story.branch.cache.requests").tag("tier", "memory").register(meterRegistry);
+        this.dbHitCounter = Counter.builder("story.branch.cache.requests").tag("tier", "db").register(meterRegistry);
+        this.missCounter = Counter.builder("story.branch.cache.requests").tag("tier", "miss").register(meterRegistry);
+        this.latencySaved = Timer.builder("story.branch.cache.latency.saved").register(meterRegistry);
+        meterRegistry.gauge("story.branch.cache.hit.ratio", this, SceneBranchCache::hitRatio);
+        meterRegistry.gauge("story.branch.cache.memory.size", this, SceneBranchCache::memorySize);
+    }
+
+    /** 씬 생성 스냅샷 + 선택 경로 → 분기 키 */
+    public String keyFor(StorySceneContext context, int sceneNumber,
+                         List<StoryCompletion.ChoiceRecord> previousChoices) {
+        return keyFor(context.getPineconeId(), context.getEmotion(), sceneNumber, previousChoices);
+    }
+
+    /** (pineconeId, emotion, sceneNumber, previousChoices) → 분기 키 */
+    public String keyFor(String pineconeId, String emotion, int sceneNumber,
+                         List<StoryCompletion.ChoiceRecord> previousChoices) {
+        StringBuilder sb = new StringBuilder()
+            .append(pineconeId).append('\u001f')
+            .append(normalize(emotion)).append('\u001f')
+            .append(sceneNumber);
+        for (StoryCompletion.ChoiceRecord c : previousChoices) {
+            sb.append('\u001e')
+                .append(c.getSceneNumber()).append('\u001f')
+                .append(normalize(c.getChoiceId())).append('\u001f')
+                .append(normalize(c.getChoiceText()));
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** 메모리 → DB 순으로 조회 */
+    public Optional<Map<String, Object>> get(String branchKey) {
+        if (!enabled) return Optional.empty();
+
+        CachedBranch cached;
+        synchronized (memory) {
+            cached = memory.get(branchKey);
+            if (cached != null && cached.expiresAt < System.currentTimeMillis()) {
+                memory.remove(branchKey);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            memoryHitCounter.increment();
+            recordSaved(cached.generationMs);
+            return Optional.of(parse(cached.json));
+        }
+
+        Optional<SceneBranch> stored = sceneBranchRepository.findByBranchKey(branchKey)
+            .filter(b -> b.getCreatedAt() == null || b.getCreatedAt().isAfter(LocalDateTime.now().minus(dbTtl)));
+        if (stored.isPresent()) {
+            SceneBranch branch = stored.get();
+            remember(branchKey, branch.getResponseJson(), branch.getGenerationMs());
+            dbHitCounter.increment();
+            recordSaved(branch.getGenerationMs());
+            return Optional.of(parse(branch.getResponseJson()));
+        }
+
+        missCounter.increment();
+        return Optional.empty();
+    }
+
+    /** 새로 생성된 씬 저장 (메모리 + DB) */
+    public void put(String branchKey, String pineconeId, int sceneNumber,
+                    Map<String, Object> aiResponse, long generationMs) {
+        if (!enabled || aiResponse == null || aiResponse.get("scene") == null) return;
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(aiResponse);
+        } catch (Exception e) {
+            log.warn("씬 분기 직렬화 실패: key={}, error={}", branchKey, e.getMessage());
+            return;
+        }
+        remember(branchKey, json, generationMs);
+
+        try {
+            // 만료되어 읽히지 않는 행이 남아 있어도 UNIQUE 위반 없이 새 응답으로 갱신
+            sceneBranchRepository.upsert(branchKey, pineconeId, sceneNumber, json, generationMs);
+        } catch (Exception e) {
+            log.warn("씬 분기 DB 저장 실패: key={}, error={}", branchKey, e.getMessage());
+        }
+    }
+
+    /** db-ttl이 지난 분기 삭제 (여러 노드가 동시에 돌아도 같은 행을 지울 뿐) */
+    @Scheduled(cron = "${story.branch-cache.purge-cron:0 0 5 * * *}")
+    public void purgeExpired() {
+        if (!enabled) return;
+        LocalDateTime before = LocalDateTime.now().minus(dbTtl);
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = sceneBranchRepository.deleteCreatedBefore(before, purgeBatchSize);
+            purged += deleted;
+        } while (deleted == purgeBatchSize);
+        log.info("만료된 씬 분기 삭제: {}건 (db-ttl={})", purged, dbTtl);
+    }
+
+    private void remember(String branchKey, String json, Long generationMs) {
+        long expiresAt = System.currentTimeMillis() + memoryTtl.toMillis();
+        synchronized (memory) {
+            memory.put(branchKey, new CachedBranch(json, generationMs != null ? generationMs : 0L, expiresAt));
+        }
+    }
+
+    private void recordSaved(Long generationMs) {
+        if (generationMs != null && generationMs > 0) {
+            latencySaved.record(generationMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Map<String, Object> parse(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+        } catch (Exception e) {
+            throw new IllegalStateException("씬 분기 역직렬화 실패", e);
+        }
+    }
+
+    private String normalize(String value) {
+        if (value == null) return "";
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private double hitRatio() {
+        double hits = memoryHitCounter.count() + dbHitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    private int memorySize() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    private record CachedBranch(String json, long generationMs, long expiresAt) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.sstt.dinory.domain.story.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.sstt.dinory.domain.image.dto.ImageGenerationRequest;
+import com.sstt.dinory.domain.image.event.ImageCompletedEvent;
+import com.sstt.dinory.domain.image.service.ImageService;
+import com.sstt.dinory.domain.story.event.SceneSavedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 씬 자동 삽화
+ *
+ * 새 씬이 저장(커밋)되면 그 씬의 imagePrompt로 이미지 생성 작업을 큐에 넣고,
+ * 이미지가 완성되면 Scene.imageUrl을 채운다. 아이가 씬 텍스트를 읽는 동안 이미지가 만들어지므로
+ * 프론트엔드가 씬마다 따로 이미지를 요청할 필요가 없다.
+ * - priority는 사용자 요청보다 낮게 제한 (ImageService.PRIORITY_BACKGROUND_MAX)
+ * - 씬은 동화(Story)별로 한 번만 저장되므로 같은 씬을 여러 아이가 읽어도 한 번만 생성
+ * - 원격 URL 결과(Pollinations)는 나중에 서버가 로컬 저장소로 옮겨도 Scene.imageUrl은 원격 URL 그대로 둔다
+ *   (헤더 없이 바로 열리는 URL - content 엔드포인트는 서명 URL로만 열리므로)
+ * - 이벤트 처리는 커밋된 트랜잭션에 참여하지 않도록 boundedElastic에서 실행
+ *
+ * 메트릭: story.scene.illustration{result=enqueued|attached|failed}
+ */
+@Service
+@Slf4j
+public class SceneIllustrationService {
+
+    private final ImageService imageService;
+    private final StoryPersistenceService storyPersistenceService;
+    private final boolean enabled;
+    private final int priority;
+    private final String style;
+
+    private final Counter enqueuedCounter;
+    private final Counter attachedCounter;
+    private final Counter failedCounter;
+
+    public SceneIllustrationService(
+            ImageService imageService,
+            StoryPersistenceService storyPersistenceService,
+            MeterRegistry meterRegistry,
+            @Value("${story.illustration.enabled:true}") boolean enabled,
+            @Value("${story.illustration.priority:5}") int priority,
+            @Value("${story.illustration.style:fantasy-art}") String style) {
+        this.imageService = imageService;
+        this.storyPersistenceService = storyPersistenceService;
+        this.enabled = enabled;
+        this.priority = priority;
+        this.style = style;
+
+        this.enqueuedCounter = Counter.builder("story.scene.illustration").tag("result", "enqueued").register(meterRegistry);
+        this.attachedCounter = Counter.builder("story.scene.illustration").tag("result", "attached").register(meterRegistry);
+        this.failedCounter = Counter.builder("story.scene.illustration").tag("result", "failed").register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSceneSaved(SceneSavedEvent event) {
+        if (!enabled || event.imagePrompt() == null) return;
+
+        Schedulers.boundedElastic().schedule(() -> {
+            try {
+                imageService.generateImageInBackground(
+                    new ImageGenerationRequest(event.sceneId(), event.imagePrompt(), style), priority);
+                enqueuedCounter.increment();
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                log.warn("씬 삽화 요청 실패: sceneId={}, error={}", event.sceneId(), e.getMessage());
+            }
+        });
+    }
+
+    /** 씬에 연결된 이미지가 완성되면 Scene.imageUrl 채움 (사용자가 직접 요청한 씬 이미지 포함) */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onImageCompleted(ImageCompletedEvent event) {
+        if (event.sceneId() == null || event.imageUrl() == null) return;
+
+        Schedulers.boundedElastic().schedule(() -> {
+            try {
+                storyPersistenceService.attachSceneImage(event.sceneId(), event.imageUrl());
+                attachedCounter.increment();
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                log.warn("씬 삽화 연결 실패: sceneId={}, error={}", event.sceneId(), e.getMessage());
+            }
+        });
+    }
+}
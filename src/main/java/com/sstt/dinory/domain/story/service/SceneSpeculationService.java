@@ -0,0 +1,321 @@
+package com.sstt.dinory.domain.story.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sstt.dinory.common.ai.AiServerClient;
+import com.sstt.dinory.common.ai.dto.SceneGenerationRequest;
+import com.sstt.dinory.domain.story.dto.StoryChoiceRequest;
+import com.sstt.dinory.domain.story.dto.StorySceneContext;
+import com.sstt.dinory.domain.story.entity.StoryCompletion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 다음 씬 선행(speculative) 생성
+ *
+ * 씬이 화면에 나간 뒤 아이가 선택지를 읽는 20~60초 동안, 제시된 각 선택지에 대한 다음 씬을
+ * 백그라운드에서 미리 생성해 둔다. 아이가 선택하면 일치하는 분기를 바로 돌려주고
+ * 나머지 분기는 즉시 취소한다.
+ *
+ * - AI 호출은 AiServerClient의 Mono를 구독만 하고 block 하지 않으므로 스레드를 점유하지 않는다.
+ *   claim도 Mono를 돌려주므로 생성 중인 분기를 기다리는 동안 요청 스레드를 잡지 않는다.
+ * - completion당 분기 수(max-branches)와 노드 전체 동시 실행 수(max-in-flight)로 AI 비용을 제한한다.
+ * - 사용자 요청과 같은 씬 limiter를 쓰되 limit의 background-share까지만 차지하고, 여유가 없으면 분기를 건너뛴다.
+ *   (AiServerClient.generateSceneInBackground - 선행 생성 때문에 사용자 요청이 503을 받지 않도록)
+ * - story.speculation.enabled=false(기본값)이면 아무 것도 하지 않는다.
+ */
+@Service
+@Slf4j
+public class SceneSpeculationService {
+
+    private final AiServerClient aiServerClient;
+    private final SceneBranchCache sceneBranchCache;
+
+    private final boolean enabled;
+    private final int maxBranches;
+    private final Duration claimTimeout;
+    private final Duration ttl;
+    private final Semaphore inFlight;
+
+    // completionId -> 현재 씬에서 미리 생성 중인 분기들
+    private final Map<Long, Speculation> speculations = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter usedBranchCounter;
+    private final Counter wastedBranchCounter;
+    private final Counter cancelledBranchCounter;
+    private final Counter skippedBranchCounter;
+
+    public SceneSpeculationService(
+            AiServerClient aiServerClient,
+            SceneBranchCache sceneBranchCache,
+            MeterRegistry meterRegistry,
+            @Value("${story.speculation.enabled:false}") boolean enabled,
+            @Value("${story.speculation.max-branches:3}") int maxBranches,
+            @Value("${story.speculation.max-in-flight:10}") int maxInFlight,
+            @Value("${story.speculation.claim-timeout:30s}") Duration claimTimeout,
+            @Value("${story.speculation.ttl:10m}") Duration ttl) {
+        this.aiServerClient = aiServerClient;
+        this.sceneBranchCache = sceneBranchCache;
+        this.enabled = enabled;
+        this.maxBranches = maxBranches;
+        this.claimTimeout = claimTimeout;
+        this.ttl = ttl;
+        this.inFlight = new Semaphore(maxInFlight);
+
+        this.hitCounter = Counter.builder("story.speculation.requests").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("story.speculation.requests").tag("result", "miss").register(meterRegistry);
+        this.usedBranchCounter = Counter.builder("story.speculation.branches").tag("outcome", "used").register(meterRegistry);
+        this.wastedBranchCounter = Counter.builder("story.speculation.branches").tag("outcome", "wasted").register(meterRegistry);
+        this.cancelledBranchCounter = Counter.builder("story.speculation.branches").tag("outcome", "cancelled").register(meterRegistry);
+        this.skippedBranchCounter = Counter.builder("story.speculation.branches").tag("outcome", "skipped").register(meterRegistry);
+        meterRegistry.gauge("story.speculation.active", speculations, Map::size);
+    }
+
+    /**
+     * 방금 생성된 씬의 선택지마다 다음 씬을 미리 생성 시작
+     * @param context 방금 씬을 생성할 때 사용한 스냅샷 (completionId 필수)
+     * @param sceneNumber 방금 생성된 씬 번호
+     * @param sceneResponse 방금 생성된 씬의 AI 응답
+     */
+    public void speculate(StorySceneContext context, int sceneNumber, Map<String, Object> sceneResponse) {
+        if (!enabled || context.getCompletionId() == null || sceneResponse == null) return;
+        if (Boolean.TRUE.equals(sceneResponse.get("isEnding"))) return;
+
+        evictExpired();
+
+        List<StoryCompletion.ChoiceRecord> offered = extractChoices(sceneResponse, sceneNumber);
+        if (offered.isEmpty()) return;
+
+        Speculation speculation = new Speculation(context.getPineconeId(), sceneNumber + 1);
+        for (StoryCompletion.ChoiceRecord choice : offered.subList(0, Math.min(maxBranches, offered.size()))) {
+            List<StoryCompletion.ChoiceRecord> path = new ArrayList<>(context.getPreviousChoices());
+            path.add(choice);
+            String branchKey = sceneBranchCache.keyFor(context, sceneNumber + 1, path);
+
+            // 같은 선택 경로가 이미 분기 캐시에 있으면 AI 호출 없이 완료된 분기로 등록
+            Optional<Map<String, Object>> cached = sceneBranchCache.get(branchKey);
+            if (cached.isPresent()) {
+                speculation.branches.add(new Branch(choice, branchKey, 0L,
+                    CompletableFuture.completedFuture(cached.get()), null));
+                continue;
+            }
+
+            if (!inFlight.tryAcquire()) {
+                skippedBranchCounter.increment();
+                continue;
+            }
+
+            SceneGenerationRequest aiRequest = StoryService.buildSceneRequest(context, sceneNumber + 1, path);
+            long startedAt = System.currentTimeMillis();
+
+            CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+            Disposable subscription = aiServerClient.generateSceneInBackground(aiRequest)
+                .doFinally(signal -> inFlight.release())
+                .subscribe(future::complete, future::completeExceptionally, () -> future.complete(null));
+            if (future.isDone() && !future.isCompletedExceptionally() && future.getNow(null) == null) {
+                // 씬 limit에 사용자 요청 몫만큼 여유가 없어 호출하지 않음
+                skippedBranchCounter.increment();
+                continue;
+            }
+
+            speculation.branches.add(new Branch(choice, branchKey, startedAt, future, subscription));
+        }
+
+        Speculation previous = speculations.put(context.getCompletionId(), speculation);
+        if (previous != null) {
+            cancelAll(previous);
+        }
+
+        log.info("다음 씬 선행 생성 시작: completionId={}, nextSceneNumber={}, branches={}",
+            context.getCompletionId(), sceneNumber + 1, speculation.branches.size());
+    }
+
+    /**
+     * 아이가 고른 선택지와 일치하는 미리 생성된 씬을 꺼냄. 나머지 분기는 즉시 취소한다.
+     * 일치하는 분기가 아직 생성 중이면 완료를 기다리는 Mono를 돌려준다. (스레드를 잡고 기다리지 않음)
+     * @return 일치하는 분기가 성공적으로 생성되면 AI 응답, 없거나 실패/claim-timeout이면 empty (호출자가 직접 생성)
+     */
+    public Mono<Map<String, Object>> claim(Long completionId, int nextSceneNumber, StoryChoiceRequest choice) {
+        if (!enabled) return Mono.empty();
+
+        Speculation speculation = speculations.remove(completionId);
+        if (speculation == null) {
+            missCounter.increment();
+            return Mono.empty();
+        }
+
+        Branch matched = null;
+        for (Branch branch : speculation.branches) {
+            if (matched == null && speculation.nextSceneNumber == nextSceneNumber && branch.matches(choice)) {
+                matched = branch;
+            } else {
+                discard(branch);
+            }
+        }
+
+        if (matched == null) {
+            log.info("선행 생성 분기 불일치: completionId={}, sceneNumber={}, choiceId={}",
+                completionId, nextSceneNumber, choice != null ? choice.getChoiceId() : null);
+            missCounter.increment();
+            return Mono.empty();
+        }
+
+        Branch branch = matched;
+        // 아직 생성 중이어도 새로 요청하는 것보다 빠르므로 claim-timeout까지 기다림
+        return Mono.fromFuture(branch.future, true)
+            .timeout(claimTimeout)
+            .publishOn(Schedulers.boundedElastic())     // 분기 캐시 저장은 JDBC
+            .map(prebuilt -> {
+                hitCounter.increment();
+                usedBranchCounter.increment();
+                if (branch.subscription != null) {
+                    // 새로 생성된 분기는 다른 아이도 재사용할 수 있도록 분기 캐시에 저장
+                    sceneBranchCache.put(branch.branchKey, speculation.pineconeId, nextSceneNumber, prebuilt,
+                        System.currentTimeMillis() - branch.startedAt);
+                }
+                log.info("선행 생성 분기 사용: completionId={}, sceneNumber={}", completionId, nextSceneNumber);
+                return prebuilt;
+            })
+            .onErrorResume(e -> {
+                if (e instanceof TimeoutException) {
+                    branch.cancel();
+                    cancelledBranchCounter.increment();
+                } else {
+                    log.warn("선행 생성 분기 실패, 직접 생성으로 전환: completionId={}, error={}", completionId, e.getMessage());
+                }
+                return Mono.empty();
+            })
+            .switchIfEmpty(Mono.fromRunnable(missCounter::increment))
+            .doOnCancel(branch::cancel);
+    }
+
+    /** 동화 완료/중단 시 남은 분기 정리 */
+    public void discard(Long completionId) {
+        Speculation speculation = speculations.remove(completionId);
+        if (speculation != null) {
+            cancelAll(speculation);
+        }
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        speculations.entrySet().removeIf(entry -> {
+            if (now - entry.getValue().createdAt > ttl.toMillis()) {
+                cancelAll(entry.getValue());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void cancelAll(Speculation speculation) {
+        for (Branch branch : speculation.branches) {
+            discard(branch);
+        }
+    }
+
+    private void discard(Branch branch) {
+        if (branch.subscription == null) {
+            // 분기 캐시에서 가져온 분기 - 비용 없음
+            return;
+        }
+        if (branch.future.isDone()) {
+            // 이미 비용을 치르고 생성 완료된 분기
+            if (!branch.future.isCompletedExceptionally()) {
+                wastedBranchCounter.increment();
+            }
+        } else {
+            branch.cancel();
+            cancelledBranchCounter.increment();
+        }
+    }
+
+    /** 씬 응답의 scene.choices를 ChoiceRecord로 변환 (AI 서버 키 이름 차이 허용) */
+    @SuppressWarnings("unchecked")
+    private List<StoryCompletion.ChoiceRecord> extractChoices(Map<String, Object> sceneResponse, int sceneNumber) {
+        List<StoryCompletion.ChoiceRecord> result = new ArrayList<>();
+        Object sceneObj = sceneResponse.get("scene");
+        if (!(sceneObj instanceof Map)) return result;
+
+        Object choicesObj = ((Map<String, Object>) sceneObj).get("choices");
+        if (!(choicesObj instanceof List)) return result;
+
+        for (Object item : (List<Object>) choicesObj) {
+            if (!(item instanceof Map)) continue;
+            Map<String, Object> c = (Map<String, Object>) item;
+
+            String choiceId = firstString(c, "choiceId", "id");
+            String choiceText = firstString(c, "choiceText", "text", "content");
+            if (choiceId == null && choiceText == null) continue;
+
+            Object points = c.containsKey("abilityPoints") ? c.get("abilityPoints") : c.get("abilityScore");
+            result.add(new StoryCompletion.ChoiceRecord(
+                sceneNumber,
+                choiceId,
+                choiceText,
+                firstString(c, "abilityType", "ability"),
+                points instanceof Number ? ((Number) points).intValue() : null
+            ));
+        }
+        return result;
+    }
+
+    private String firstString(Map<String, Object> map, String... keys) {
+        for (String key : keys) {
+            Object value = map.get(key);
+            if (value != null) return value.toString();
+        }
+        return null;
+    }
+
+    private static class Speculation {
+        private final String pineconeId;
+        private final int nextSceneNumber;
+        private final long createdAt = System.currentTimeMillis();
+        private final List<Branch> branches = new CopyOnWriteArrayList<>();
+
+        private Speculation(String pineconeId, int nextSceneNumber) {
+            this.pineconeId = pineconeId;
+            this.nextSceneNumber = nextSceneNumber;
+        }
+    }
+
+    private record Branch(StoryCompletion.ChoiceRecord choice,
+                          String branchKey,
+                          long startedAt,
+                          CompletableFuture<Map<String, Object>> future,
+                          Disposable subscription) {
+
+        void cancel() {
+            if (subscription != null) {
+                subscription.dispose();
+            }
+            future.cancel(false);
+        }
+
+        boolean matches(StoryChoiceRequest request) {
+            if (request == null) return false;
+            if (choice.getChoiceId() != null && choice.getChoiceId().equals(request.getChoiceId())) return true;
+            return choice.getChoiceText() != null && choice.getChoiceText().equals(request.getChoiceText());
+        }
+    }
+}
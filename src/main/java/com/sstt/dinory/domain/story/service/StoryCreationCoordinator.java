@@ -0,0 +1,119 @@
+package com.sstt.dinory.domain.story.service;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sstt.dinory.common.concurrent.SingleFlight;
+import com.sstt.dinory.domain.story.repository.StoryRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * pineconeId → story.id 확보 (조회 또는 생성)
+ *
+ * 같은 동화로 동시에 몰린 첫 씬 요청이 각자 Story INSERT를 시도하다 UNIQUE 위반 →
+ * sleep 재조회를 반복하던 문제를 없앤다.
+ * - 이미 아는 pineconeId: 메모리 맵에서 잠금 없이 바로 반환 (DB 접근 없음)
+ *   max-known-ids를 넘으면 먼저 들어온 id부터 뺀다 (FIFO - 조회가 맵을 바꾸지 않도록 LRU 대신).
+ *   빠진 id가 다시 필요하면 SingleFlight로 한 번 다시 읽을 뿐이다.
+ *   그 사이 Story가 삭제되었으면 호출한 쪽이 evict 후 다시 확보한다. (StoryService.prepareFirstScene)
+ * - 같은 노드의 동시 요청: SingleFlight로 한 번만 DB 작업, 나머지는 결과 공유
+ * - 다른 노드와의 경합: INSERT ... ON DUPLICATE KEY UPDATE 로 DB가 해결 (예외/재시도 없음)
+ *
+ * 트랜잭션 밖에서 호출해야 한다. (생성 커밋 전에 대기 중인 요청이 조회하지 않도록)
+ *
+ * 메트릭: story.creation.requests{result=cached|coalesced|loaded}
+ */
+@Service
+@Slf4j
+public class StoryCreationCoordinator {
+
+    private static final String PLACEHOLDER_TITLE = "동화 생성중...";
+    private static final String PLACEHOLDER_CATEGORY = "미분류";
+    private static final String PLACEHOLDER_DESCRIPTION = "AI가 동화를 생성중입니다.";
+
+    private final StoryRepository storyRepository;
+
+    private final Map<String, Long> knownIds = new ConcurrentHashMap<>();
+    private final Queue<Map.Entry<String, Long>> insertionOrder = new ConcurrentLinkedQueue<>();   // 제거 순서
+    private final int maxKnownIds;
+    private final SingleFlight<String, Long> singleFlight = new SingleFlight<>();
+
+    private final Counter cachedCounter;
+    private final Counter coalescedCounter;
+    private final Counter loadedCounter;
+
+    public StoryCreationCoordinator(
+            StoryRepository storyRepository,
+            MeterRegistry meterRegistry,
+            @Value("${story.creation.max-known-ids:10000}") int maxKnownIds) {
+        this.storyRepository = storyRepository;
+        this.maxKnownIds = maxKnownIds;
+
+        this.cachedCounter = Counter.builder("story.creation.requests").tag("result", "cached").register(meterRegistry);
+        this.coalescedCounter = Counter.builder("story.creation.requests").tag("result", "coalesced").register(meterRegistry);
+        this.loadedCounter = Counter.builder("story.creation.requests").tag("result", "loaded").register(meterRegistry);
+    }
+
+    /** @return pineconeId에 해당하는 story.id (없으면 placeholder Story를 만들고 그 id) */
+    public Long getOrCreateStoryId(String pineconeId) {
+        if (pineconeId == null || pineconeId.isBlank()) {
+            throw new RuntimeException("storyId(pineconeId)가 비어 있습니다.");
+        }
+
+        Long known = knownIds.get(pineconeId);
+        if (known != null) {
+            cachedCounter.increment();
+            return known;
+        }
+
+        boolean[] loaded = new boolean[1];
+        Long storyId = singleFlight.execute(pineconeId, () -> {
+            loaded[0] = true;
+            return load(pineconeId);
+        });
+        (loaded[0] ? loadedCounter : coalescedCounter).increment();
+        return storyId;
+    }
+
+    private Long load(String pineconeId) {
+        Long storyId = storyRepository.findIdByPineconeId(pineconeId).orElse(null);
+        if (storyId == null) {
+            int inserted = storyRepository.insertIfAbsent(pineconeId,
+                PLACEHOLDER_TITLE, PLACEHOLDER_CATEGORY, PLACEHOLDER_DESCRIPTION);
+            storyId = storyRepository.findIdByPineconeId(pineconeId)
+                .orElseThrow(() -> new RuntimeException("Story 생성 실패: " + pineconeId));
+            log.info("{} Story: pineconeId={}, id={}", inserted > 0 ? "새로운" : "다른 노드가 생성한", pineconeId, storyId);
+        } else {
+            log.info("기존 Story 재사용: pineconeId={}", pineconeId);
+        }
+        remember(pineconeId, storyId);
+        return storyId;
+    }
+
+    /** 맵에 넣고 max-known-ids를 넘은 만큼 먼저 들어온 것부터 제거 (load는 SingleFlight 안이라 키별로 한 번) */
+    private void remember(String pineconeId, Long storyId) {
+        if (!storyId.equals(knownIds.put(pineconeId, storyId))) {
+            insertionOrder.add(Map.entry(pineconeId, storyId));
+        }
+        while (knownIds.size() > maxKnownIds) {
+            Map.Entry<String, Long> eldest = insertionOrder.poll();
+            if (eldest == null) break;
+            // evict 후 다시 넣은 키의 예전 항목이면 값이 달라 지워지지 않음
+            knownIds.remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    /** 캐시된 id의 Story가 없을 때 (삭제됨) - 다음 getOrCreateStoryId가 DB에서 다시 확보하도록 제거 */
+    public void evict(String pineconeId, Long storyId) {
+        knownIds.remove(pineconeId, storyId);
+        log.info("삭제된 Story id 캐시 제거: pineconeId={}, id={}", pineconeId, storyId);
+    }
+}
@@ -0,0 +1,235 @@
+package com.sstt.dinory.domain.story.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sstt.dinory.domain.child.entity.Child;
+import com.sstt.dinory.domain.child.repository.ChildRepository;
+import com.sstt.dinory.domain.story.dto.StoryGenerateRequest;
+import com.sstt.dinory.domain.story.dto.SavedScene;
+import com.sstt.dinory.domain.story.dto.StorySceneContext;
+import com.sstt.dinory.domain.story.entity.Scene;
+import com.sstt.dinory.domain.story.entity.Story;
+import com.sstt.dinory.domain.story.entity.StoryChoiceEvent;
+import com.sstt.dinory.domain.story.entity.StoryCompletion;
+import com.sstt.dinory.domain.story.event.SceneSavedEvent;
+import com.sstt.dinory.domain.story.repository.SceneRepository;
+import com.sstt.dinory.domain.story.repository.StoryChoiceEventRepository;
+import com.sstt.dinory.domain.story.repository.StoryCompletionRepository;
+import com.sstt.dinory.domain.story.repository.StoryRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 씬 생성 파이프라인의 DB 단계 전담 서비스
+ *
+ * StoryService가 AI 서버를 기다리는 동안 커넥션을 잡고 있지 않도록
+ * 씬 생성을 (1) 짧은 읽기 트랜잭션 → (2) 커넥션 없이 AI 호출 → (3) 짧은 쓰기 트랜잭션으로 나눈다.
+ * 이 클래스는 (1)과 (3)만 담당하며, 각 메서드가 하나의 독립된 트랜잭션이다.
+ * (같은 빈 안에서 호출하면 프록시를 거치지 않으므로 StoryService와 분리해 둠)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StoryPersistenceService {
+
+    private static final int SCENE_PROMPT_EXCERPT = 300;
+
+    private final StoryRepository storyRepository;
+    private final StoryCompletionRepository storyCompletionRepository;
+    private final ChildRepository childRepository;
+    private final SceneRepository sceneRepository;
+    private final StoryChoiceEventRepository storyChoiceEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * (1) 첫 씬: Child 확인 + Story 조회 후 스냅샷 반환
+     * Story는 StoryCreationCoordinator가 트랜잭션 밖에서 미리 확보한 id로 읽기만 한다.
+     * @return 그 id의 Story가 없으면 (캐시된 뒤 삭제됨) empty
+     */
+    @Transactional(readOnly = true)
+    public Optional<StorySceneContext> prepareFirstScene(StoryGenerateRequest request, Long storyId) {
+        Child child = childRepository.findById(request.getChildId())
+            .orElseThrow(() -> new RuntimeException("Child 못 찾음: " + request.getChildId()));
+
+        Story story = storyRepository.findById(storyId).orElse(null);
+        if (story == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(StorySceneContext.builder()
+            .storyId(story.getId())
+            .pineconeId(story.getPineconeId())
+            .storyTitle(story.getTitle())
+            .storyDescription(story.getDescription())
+            .childId(child.getId())
+            .emotion(request.getEmotion())
+            .interests(request.getInterests() != null ? new ArrayList<>(request.getInterests()) : new ArrayList<>())
+            .build());
+    }
+
+    /** (1) 다음 씬: completion / story / child / 선택 경로를 한 번에 읽어 스냅샷 반환 */
+    @Transactional(readOnly = true)
+    public StorySceneContext prepareNextScene(Long completionId) {
+        StoryCompletion completion = storyCompletionRepository.findById(completionId)
+            .orElseThrow(() -> new RuntimeException("StoryCompletion 없음: " + completionId));
+
+        Child child = completion.getChild();
+        Story story = completion.getStory();
+
+        return StorySceneContext.builder()
+            .storyId(story.getId())
+            .pineconeId(story.getPineconeId())
+            .storyTitle(story.getTitle())
+            .storyDescription(story.getDescription())
+            .childId(child.getId())
+            .completionId(completion.getId())
+            .emotion(completion.getEmotion() != null ? completion.getEmotion() : "중립")
+            .interests(child.getInterests() != null ? new ArrayList<>(child.getInterests()) : new ArrayList<>())
+            .previousChoices(choicePath(completion))
+            .build();
+    }
+
+    /**
+     * (3) 첫 씬 저장: Story 제목/카테고리 갱신 + StoryCompletion 생성 + Scene 저장
+     * AI 응답이 성공한 경우에만 호출된다.
+     * @return 생성된 StoryCompletion ID + 첫 씬
+     */
+    @Transactional
+    public SavedScene saveFirstScene(StorySceneContext context, String title, String category,
+                               Map<String, Object> aiResponse) {
+        Story story = storyRepository.findById(context.getStoryId())
+            .orElseThrow(() -> new RuntimeException("Story 없음: " + context.getStoryId()));
+        Child child = childRepository.getReferenceById(context.getChildId());
+
+        story.setTitle(title);
+        story.setCategory(category);
+        storyRepository.save(story);
+        log.info("Story 업데이트 완료 - title: {}, category: {}", story.getTitle(), category);
+
+        StoryCompletion completion = StoryCompletion.builder()
+            .child(child)
+            .story(story)
+            .emotion(context.getEmotion())
+            .interests(context.getInterests())
+            .storyTitle(story.getTitle())
+            .choicesJson(new ArrayList<>())
+            .build();
+
+        storyCompletionRepository.save(completion);
+        log.info("[StoryCompletion] AI 응답성공 후 저장완료 : completionId={}, completionTitle={}",
+            completion.getId(), completion.getStoryTitle());
+
+        Scene scene = saveSceneOnly(story, aiResponse, 1);
+        return savedScene(completion.getId(), scene);
+    }
+
+    /** (3) 다음 씬 저장 */
+    @Transactional
+    public SavedScene saveNextScene(StorySceneContext context, Map<String, Object> aiResponse, int sceneNumber) {
+        Story story = storyRepository.getReferenceById(context.getStoryId());
+        return savedScene(context.getCompletionId(), saveSceneOnly(story, aiResponse, sceneNumber));
+    }
+
+    private static SavedScene savedScene(Long completionId, Scene scene) {
+        return SavedScene.builder()
+            .completionId(completionId)
+            .sceneId(scene != null ? scene.getId() : null)
+            .imageUrl(scene != null ? scene.getImageUrl() : null)
+            .build();
+    }
+
+    /**
+     * 선택 경로 (선택 순서대로)
+     * choices_json(압축 완료/이벤트 로그 도입 전 데이터)에 선택 이벤트 로그를 이어 붙인다.
+     * 로그 도입 전에 시작해 진행 중인 동화도 앞쪽 선택을 잃지 않도록, 이미 choices_json에 있는 선택은 건너뛴다.
+     * 호출하는 쪽의 트랜잭션 안에서 사용한다.
+     */
+    public List<StoryCompletion.ChoiceRecord> choicePath(StoryCompletion completion) {
+        List<StoryCompletion.ChoiceRecord> path = new ArrayList<>(completion.getChoicesJson());
+        List<StoryChoiceEvent> events = storyChoiceEventRepository.findByCompletionIdOrderByIdAsc(completion.getId());
+        if (events.isEmpty()) {
+            return path;
+        }
+
+        Set<String> recorded = path.stream()
+            .map(choice -> choiceKey(choice.getSceneNumber(), choice.getChoiceText()))
+            .collect(Collectors.toCollection(HashSet::new));
+        for (StoryChoiceEvent event : events) {
+            if (recorded.add(choiceKey(event.getSceneNumber(), event.getChoiceText()))) {
+                path.add(event.toRecord());
+            }
+        }
+        return path;
+    }
+
+    private static String choiceKey(Integer sceneNumber, String choiceText) {
+        return sceneNumber + "\u001f" + choiceText;
+    }
+
+    /** 삽화가 완성된 씬에 이미지 연결 (이미 이미지가 있으면 유지) */
+    @Transactional
+    public void attachSceneImage(Long sceneId, String imageUrl) {
+        sceneRepository.findById(sceneId)
+            .filter(scene -> scene.getImageUrl() == null)
+            .ifPresent(scene -> scene.setImageUrl(imageUrl));
+    }
+
+    /**
+     * AI 응답으로 Scene만 저장 (새 씬이면 커밋 후 삽화 생성 이벤트)
+     * @return 저장한 씬, 이미 있으면 그 씬, 씬이 없거나 저장 실패면 null
+     */
+    private Scene saveSceneOnly(Story story, Map<String, Object> aiResponse, int sceneNumber) {
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> sceneData = (Map<String, Object>) aiResponse.get("scene");
+            if (sceneData == null) return null;
+
+            Optional<Scene> existing = sceneRepository.findByStoryAndSceneNumber(story, sceneNumber);
+            if (existing.isPresent()) return existing.get();
+
+            String content = (String) sceneData.get("text");
+            if (content == null) content = (String) sceneData.get("content");
+            if (content == null) content = "";
+
+            Scene scene = Scene.builder()
+                .story(story)
+                .sceneNumber(sceneNumber)
+                .content(content)
+                .imageUrl(null)
+                .imagePrompt(imagePrompt(story, sceneData, content))
+                .build();
+            sceneRepository.save(scene);
+
+            eventPublisher.publishEvent(new SceneSavedEvent(scene.getId(), story.getId(), sceneNumber, scene.getImagePrompt()));
+            return scene;
+        } catch (Exception e) {
+            log.error("Scene 저장 오류: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /** AI가 삽화 프롬프트를 주면 그대로, 아니면 동화 제목 + 씬 내용 앞부분으로 만든다 */
+    private String imagePrompt(Story story, Map<String, Object> sceneData, String content) {
+        Object fromAi = sceneData.get("image_prompt");
+        if (fromAi instanceof String prompt && !prompt.isBlank()) {
+            return prompt;
+        }
+        if (content.isBlank()) {
+            return null;
+        }
+        String excerpt = content.length() > SCENE_PROMPT_EXCERPT ? content.substring(0, SCENE_PROMPT_EXCERPT) : content;
+        String title = story.getTitle() != null ? story.getTitle() + " - " : "";
+        return "children's storybook illustration, soft colors, " + title + excerpt;
+    }
+}
@@ -0,0 +1,195 @@
+package com.sstt.dinory.domain.story.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sstt.dinory.common.concurrent.SingleFlight;
+import com.sstt.dinory.domain.story.dto.RecommendedStoryDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 동화 추천 결과 캐시 (stale-while-revalidate)
+ *
+ * 키: (emotion, 정렬된 interests, limit, per-child이면 childId)
+ * - per-child(기본)는 아이별 개인화 추천이 다른 아이에게 새지 않도록 childId별로 캐시한다.
+ *   false로 공유하면 호출하는 쪽도 childId 없이 추천을 받아야 한다 (isPerChild 참고).
+ * - fresh-ttl 이내: 캐시 그대로 반환
+ * - fresh-ttl ~ max-stale: 캐시를 바로 반환하고 백그라운드에서 한 번만 갱신
+ * - 그 이후/없음: AI 서버 호출 (같은 키 동시 요청은 SingleFlight로 한 번만 호출)
+ * 메모리는 access-order LinkedHashMap LRU로 max-entries까지만 유지한다.
+ *
+ * 메트릭: story.recommendation.cache.requests{result=fresh|stale|miss},
+ *        story.recommendation.cache.hit.ratio,
+ *        story.recommendation.cache.refresh{mode=sync|background} (AI 서버 갱신 소요 시간)
+ */
+@Service
+@Slf4j
+public class StoryRecommendationCache {
+
+    private final boolean enabled;
+    private final boolean perChild;
+    private final Duration freshTtl;
+    private final Duration maxStale;
+    private final Map<String, CachedRecommendations> entries;
+    private final SingleFlight<String, List<RecommendedStoryDto>> singleFlight = new SingleFlight<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("recommend-refresh-", 0).factory());
+
+    private final Counter freshCounter;
+    private final Counter staleCounter;
+    private final Counter missCounter;
+    private final Timer syncRefreshTimer;
+    private final Timer backgroundRefreshTimer;
+
+    public StoryRecommendationCache(
+            MeterRegistry meterRegistry,
+            @Value("${story.recommendation-cache.enabled:true}") boolean enabled,
+            @Value("${story.recommendation-cache.per-child:true}") boolean perChild,
+            @Value("${story.recommendation-cache.max-entries:500}") int maxEntries,
+            @Value("${story.recommendation-cache.fresh-ttl:5m}") Duration freshTtl,
+            @Value("${story.recommendation-cache.max-stale:1h}") Duration maxStale) {
+        this.enabled = enabled;
+        this.perChild = perChild;
+        this.freshTtl = freshTtl;
+        this.maxStale = maxStale;
+
+        // access-order LinkedHashMap = LRU
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedRecommendations> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        this.freshCounter = Counter.builder("story.recommendation.cache.requests").tag("result", "fresh").register(meterRegistry);
+        this.staleCounter = Counter.builder("story.recommendation.cache.requests").tag("result", "stale").register(meterRegistry);
+        this.missCounter = Counter.builder("story.recommendation.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.syncRefreshTimer = Timer.builder("story.recommendation.cache.refresh").tag("mode", "sync").register(meterRegistry);
+        this.backgroundRefreshTimer = Timer.builder("story.recommendation.cache.refresh").tag("mode", "background").register(meterRegistry);
+        meterRegistry.gauge("story.recommendation.cache.hit.ratio", this, StoryRecommendationCache::hitRatio);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /** false면 키에 childId가 없으므로 loader도 childId 없이(개인화 없이) 추천을 받아와야 함 */
+    public boolean isPerChild() {
+        return perChild;
+    }
+
+    /**
+     * @param loader 캐시에 없거나 오래되었을 때 AI 서버에서 추천을 받아오는 함수
+     */
+    public List<RecommendedStoryDto> get(String emotion, List<String> interests, Long childId, int limit,
+                                         Supplier<List<RecommendedStoryDto>> loader) {
+        if (!enabled) return loader.get();
+
+        String key = keyFor(emotion, interests, childId, limit);
+        long now = System.currentTimeMillis();
+
+        CachedRecommendations cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+
+        if (cached != null) {
+            long age = now - cached.loadedAt;
+            if (age <= freshTtl.toMillis()) {
+                freshCounter.increment();
+                return cached.recommendations;
+            }
+            if (age <= maxStale.toMillis()) {
+                staleCounter.increment();
+                refreshInBackground(key, loader);
+                return cached.recommendations;
+            }
+        }
+
+        missCounter.increment();
+        return singleFlight.execute(key, () -> load(key, loader, syncRefreshTimer));
+    }
+
+    private void refreshInBackground(String key, Supplier<List<RecommendedStoryDto>> loader) {
+        // 이미 갱신이 예약된 키는 다시 예약하지 않음
+        if (!refreshing.add(key)) return;
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    singleFlight.execute(key, () -> load(key, loader, backgroundRefreshTimer));
+                } catch (Exception e) {
+                    // 갱신 실패 시 기존 캐시를 max-stale까지 계속 사용
+                    log.warn("추천 캐시 백그라운드 갱신 실패: key={}, error={}", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            log.debug("추천 캐시 갱신 생략 (종료 중): key={}", key);
+        }
+    }
+
+    private List<RecommendedStoryDto> load(String key, Supplier<List<RecommendedStoryDto>> loader, Timer timer) {
+        long startedAt = System.nanoTime();
+        List<RecommendedStoryDto> recommendations = List.copyOf(loader.get());
+        timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+
+        synchronized (entries) {
+            entries.put(key, new CachedRecommendations(recommendations, System.currentTimeMillis()));
+        }
+        return recommendations;
+    }
+
+    private String keyFor(String emotion, List<String> interests, Long childId, int limit) {
+        StringBuilder sb = new StringBuilder()
+            .append(normalize(emotion)).append('\u001f');
+        if (interests != null) {
+            interests.stream()
+                .map(this::normalize)
+                .filter(s -> !s.isEmpty())
+                .sorted()
+                .distinct()
+                .forEach(s -> sb.append(s).append(','));
+        }
+        sb.append('\u001f').append(limit);
+        if (perChild) {
+            sb.append('\u001f').append(childId);
+        }
+        return sb.toString();
+    }
+
+    private String normalize(String value) {
+        if (value == null) return "";
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private double hitRatio() {
+        double hits = freshCounter.count() + staleCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    private record CachedRecommendations(List<RecommendedStoryDto> recommendations, long loadedAt) {
+    }
+}
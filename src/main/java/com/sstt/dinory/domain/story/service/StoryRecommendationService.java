@@ -1,15 +1,15 @@
 package com.sstt.dinory.domain.story.service;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 
+import com.sstt.dinory.common.ai.AiServerBusyException;
+import com.sstt.dinory.common.ai.AiServerClient;
+import com.sstt.dinory.common.ai.dto.RecommendedStoryItem;
+import com.sstt.dinory.common.ai.dto.StoryRecommendationRequest;
 import com.sstt.dinory.domain.story.dto.RecommendedStoryDto;
 
 import lombok.RequiredArgsConstructor;
@@ -20,47 +20,50 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class StoryRecommendationService {
     
-    private final WebClient.Builder webClientBuilder;
-
-    @Value("${ai.server.url:http://localhost:8000}")
-    private String aiServerUrl;
+    private final AiServerClient aiServerClient;
+    private final StoryRecommendationCache recommendationCache;
 
+    /** 추천 조회 - 같은 감정/관심사 조합은 캐시에서 반환 (오래된 캐시는 백그라운드 갱신) */
     public List<RecommendedStoryDto> getRecommendations(
         String emotion,
         List<String> interests,
         Long childId,
         Integer limit) {
 
+            int size = limit != null ? limit : 5;
+            // 아이 간에 캐시를 공유하면 개인화 결과가 다른 아이에게 가지 않도록 childId 없이 요청
+            Long requestChildId = recommendationCache.isPerChild() ? childId : null;
+            return recommendationCache.get(emotion, interests, requestChildId, size,
+                () -> fetchRecommendations(emotion, interests, requestChildId, size));
+    }
+
+    private List<RecommendedStoryDto> fetchRecommendations(
+        String emotion,
+        List<String> interests,
+        Long childId,
+        int limit) {
+
             log.info("AI 서버에서 동화 추천 요청 -emotion: {}, interests:{}", emotion, interests);
 
             try {
                 // AI 서버로 보낼 요청
-                Map<String, Object> requestBody = new HashMap<>();
-                requestBody.put("emotion", emotion);
-                requestBody.put("interests", interests);
-                requestBody.put("childId", childId);
-                requestBody.put("limit", limit != null ? limit : 5);
+                StoryRecommendationRequest request = new StoryRecommendationRequest(
+                    emotion, interests, childId, limit);
 
                 // AI 서버 응답 받기
-                List<Map<String, Object>> aiResponse = webClientBuilder.build()
-                    .post()
-                    .uri(aiServerUrl + "/ai/recommend-stories")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(new ParameterizedTypeReference<List<Map<String, Object>>>() {})
-                    .block();
+                List<RecommendedStoryItem> aiResponse = aiServerClient.recommendStories(request).block();
 
                 // DTO 변환
                 List<RecommendedStoryDto> recommendations = new ArrayList<>();
-                for (Map<String, Object> item : aiResponse) {
-                    Map<String, Object> metadata = (Map<String, Object>) item.get("metadata");
+                for (RecommendedStoryItem item : aiResponse) {
+                    Map<String, Object> metadata = item.metadata();
 
                     log.info("metadata 내용: {}", metadata);
                     
                     RecommendedStoryDto dto = RecommendedStoryDto.builder()
-                            .storyId((String) item.get("storyId"))
-                            .title((String) item.get("title"))
-                            .matchingScore((Integer) item.get("matchingScore"))
+                            .storyId(item.storyId())
+                            .title(item.title())
+                            .matchingScore(item.matchingScore())
                             .coverImageUrl(metadata != null ? (String) metadata.get("coverImageUrl") : null)
                             .themes(metadata != null ? parseThemes(metadata) : List.of())
                             .estimatedTime(metadata != null ? parseEstimatedTime(metadata) : 10)
@@ -73,6 +76,9 @@ public class StoryRecommendationService {
                 log.info("AI 서버에서 {}개의 추천 동화를 받았습니다.", recommendations != null ? recommendations.size() : 0);
                 return recommendations;
 
+            } catch (AiServerBusyException e) {
+                // 과부하로 거절된 호출은 503 + Retry-After 그대로 전달
+                throw e;
             } catch(Exception e) {
                 log.error("AI 서버 호출 실패: {}", e.getMessage(), e);
                 throw new RuntimeException("동화 추천 중 오류가 발생했습니다: " + e.getMessage());
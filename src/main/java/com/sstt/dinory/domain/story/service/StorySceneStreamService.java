@@ -0,0 +1,161 @@
+package com.sstt.dinory.domain.story.service;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sstt.dinory.common.ai.AiServerClient;
+import com.sstt.dinory.common.ai.dto.SceneGenerationRequest;
+import com.sstt.dinory.domain.story.dto.StoryChoiceRequest;
+import com.sstt.dinory.domain.story.dto.StoryGenerateRequest;
+import com.sstt.dinory.domain.story.dto.StorySceneContext;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 씬 생성 SSE 스트리밍
+ *
+ * AI 서버의 /ai/generate-next-scene/stream 이 보내는 토큰을 그대로 클라이언트에 SSE로 중계한다.
+ * 씬 전체가 완성될 때까지 Map으로 버퍼링하지 않으므로 첫 문장이 바로 화면에 나간다.
+ *
+ * AI 서버 → 백엔드 이벤트
+ * - event: token  data: 텍스트 조각
+ * - event: done   data: /ai/generate-next-scene 과 같은 형식의 전체 응답 JSON
+ * - event: error  data: 오류 메시지
+ *
+ * 백엔드 → 클라이언트 이벤트
+ * - event: token  data: {"text": "..."}
+ * - event: scene  data: 동기 API와 같은 응답 (Scene 저장 후 전송, 첫 씬이면 completionId 포함)
+ * - event: error  data: {"message": "..."}
+ *
+ * 선행 생성 분기나 분기 캐시에 이미 씬이 있으면 token 없이 scene 이벤트 하나만 보낸다.
+ * AI 서버에 스트리밍 엔드포인트가 없으면(404) 일반 엔드포인트로 생성해 scene 이벤트로 보낸다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StorySceneStreamService {
+
+    private final StoryService storyService;
+    private final StoryPersistenceService storyPersistenceService;
+    private final SceneSpeculationService sceneSpeculationService;
+    private final SceneBranchCache sceneBranchCache;
+    private final AiServerClient aiServerClient;
+    private final ObjectMapper objectMapper;
+
+    /** 첫 번째 씬 스트리밍 생성 */
+    public Flux<ServerSentEvent<Object>> streamFirstScene(StoryGenerateRequest request) {
+        // (0) Story id 확보 + (1) 읽기 단계는 요청 스레드에서 바로 수행 (짧은 트랜잭션)
+        StorySceneContext context = storyService.prepareFirstScene(request);
+
+        return streamScene(context, 1, Mono.empty(),
+            aiResponse -> storyService.completeFirstScene(context, aiResponse));
+    }
+
+    /**
+     * 다음 씬 스트리밍 생성
+     * 선택한 분기가 아직 선행 생성 중이면 요청 스레드를 잡지 않고 스트림 안에서 완료를 기다린다.
+     */
+    public Flux<ServerSentEvent<Object>> streamNextScene(Long completionId, int nextSceneNumber, StoryChoiceRequest choice) {
+        StorySceneContext context = storyPersistenceService.prepareNextScene(completionId);
+        Mono<Map<String, Object>> prebuilt = sceneSpeculationService.claim(completionId, nextSceneNumber, choice);
+
+        return streamScene(context, nextSceneNumber, prebuilt,
+            aiResponse -> storyService.completeNextScene(context, nextSceneNumber, aiResponse));
+    }
+
+    /** 미리 생성된 분기 → 분기 캐시 → AI 스트리밍 순으로 씬을 구함 */
+    private Flux<ServerSentEvent<Object>> streamScene(StorySceneContext context, int sceneNumber,
+                                                      Mono<Map<String, Object>> prebuilt,
+                                                      UnaryOperator<Map<String, Object>> complete) {
+        String branchKey = sceneBranchCache.keyFor(context, sceneNumber, context.getPreviousChoices());
+
+        Mono<Map<String, Object>> cached = Mono.fromCallable(() -> sceneBranchCache.get(branchKey))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(Mono::justOrEmpty);
+
+        return prebuilt
+            .switchIfEmpty(cached)
+            .flatMapMany(ready -> persist(ready, complete).flux())
+            .switchIfEmpty(Flux.defer(() -> generate(context, sceneNumber, branchKey, complete)))
+            .onErrorResume(e -> {
+                log.error("씬 스트리밍 실패: pineconeId={}, sceneNumber={}, error={}",
+                    context.getPineconeId(), sceneNumber, e.getMessage(), e);
+                return Flux.just(ServerSentEvent.<Object>builder(Map.of("message", String.valueOf(e.getMessage())))
+                    .event("error")
+                    .build());
+            });
+    }
+
+    /** AI 서버 스트리밍으로 생성 - token 이벤트를 흘려보내고 완료되면 저장 후 scene 이벤트 */
+    private Flux<ServerSentEvent<Object>> generate(StorySceneContext context, int sceneNumber, String branchKey,
+                                                   UnaryOperator<Map<String, Object>> complete) {
+        long startedAt = System.currentTimeMillis();
+        AtomicReference<Map<String, Object>> finalScene = new AtomicReference<>();
+        SceneGenerationRequest aiRequest = StoryService.buildSceneRequest(context, sceneNumber, context.getPreviousChoices());
+
+        Flux<ServerSentEvent<Object>> tokens = aiServerClient.streamScene(aiRequest)
+            .concatMap(event -> {
+                String type = event.event() != null ? event.event() : "token";
+                switch (type) {
+                    case "done":
+                        finalScene.set(parse(event.data()));
+                        return Flux.empty();
+                    case "error":
+                        return Flux.error(new RuntimeException("AI 서버 스트리밍 오류: " + event.data()));
+                    default:
+                        if (event.data() == null || event.data().isEmpty()) return Flux.empty();
+                        return Flux.just(ServerSentEvent.<Object>builder(Map.of("text", event.data()))
+                            .event("token")
+                            .build());
+                }
+            })
+            .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                // 스트리밍 엔드포인트가 없는 AI 서버 - 일반 엔드포인트로 한 번에 생성
+                log.warn("AI 서버 스트리밍 엔드포인트 없음, 일반 생성으로 전환: sceneNumber={}", sceneNumber);
+                return aiServerClient.generateScene(aiRequest)
+                    .doOnNext(finalScene::set)
+                    .thenMany(Flux.empty());
+            });
+
+        Mono<ServerSentEvent<Object>> scene = Mono.defer(() -> {
+            Map<String, Object> aiResponse = finalScene.get();
+            if (aiResponse == null) {
+                return Mono.error(new RuntimeException("AI 서버 스트림이 완료 이벤트 없이 종료되었습니다."));
+            }
+            long generationMs = System.currentTimeMillis() - startedAt;
+            return persist(aiResponse, response -> {
+                sceneBranchCache.put(branchKey, context.getPineconeId(), sceneNumber, response, generationMs);
+                return complete.apply(response);
+            });
+        });
+
+        return tokens.concatWith(scene);
+    }
+
+    /** (3) 쓰기 단계는 JDBC 블로킹 호출이므로 Netty 이벤트 루프가 아닌 boundedElastic에서 실행 */
+    private Mono<ServerSentEvent<Object>> persist(Map<String, Object> aiResponse,
+                                                  UnaryOperator<Map<String, Object>> complete) {
+        return Mono.fromCallable(() -> complete.apply(aiResponse))
+            .subscribeOn(Schedulers.boundedElastic())
+            .map(response -> ServerSentEvent.<Object>builder(response).event("scene").build());
+    }
+
+    private Map<String, Object> parse(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+        } catch (Exception e) {
+            throw new IllegalArgumentException("AI 서버 완료 이벤트 파싱 실패", e);
+        }
+    }
+}
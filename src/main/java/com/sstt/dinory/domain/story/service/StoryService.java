@@ -1,37 +1,37 @@
 package com.sstt.dinory.domain.story.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
-import com.sstt.dinory.domain.child.entity.Child;
-import com.sstt.dinory.domain.child.repository.ChildRepository;
+import com.sstt.dinory.common.ai.AiServerClient;
+import com.sstt.dinory.common.ai.dto.CustomChoiceAnalysisRequest;
+import com.sstt.dinory.common.ai.dto.SceneGenerationRequest;
+import com.sstt.dinory.domain.image.service.ImageUrlSigner;
+import com.sstt.dinory.domain.story.dto.SavedScene;
 import com.sstt.dinory.domain.story.dto.StoryChoiceRequest;
 import com.sstt.dinory.domain.story.dto.StoryCompleteRequest;
 import com.sstt.dinory.domain.story.dto.StoryCompletionSummaryDto;
 import com.sstt.dinory.domain.story.dto.StoryGenerateRequest;
-import com.sstt.dinory.domain.story.entity.Choice;
-import com.sstt.dinory.domain.story.entity.Scene;
-import com.sstt.dinory.domain.story.entity.Story;
+import com.sstt.dinory.domain.story.dto.StorySceneContext;
 import com.sstt.dinory.domain.story.entity.StoryCompletion;
+import com.sstt.dinory.domain.story.event.StoryCompletedEvent;
 import com.sstt.dinory.domain.story.repository.ChoiceRepository;
-import com.sstt.dinory.domain.story.repository.SceneRepository;
+import com.sstt.dinory.domain.story.repository.StoryChoiceEventRepository;
 import com.sstt.dinory.domain.story.repository.StoryCompletionRepository;
-import com.sstt.dinory.domain.story.repository.StoryRepository;
 
-import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -40,56 +40,66 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class StoryService {
 
-    private final StoryRepository storyRepository;
     private final StoryCompletionRepository storyCompletionRepository;
-    private final ChildRepository childRepository;
-    private final WebClient.Builder webClientBuilder;
-    private final SceneRepository sceneRepository;
+    private final StoryPersistenceService storyPersistenceService;
+    private final StoryCreationCoordinator storyCreationCoordinator;
+    private final SceneSpeculationService sceneSpeculationService;
+    private final SceneBranchCache sceneBranchCache;
+    private final AiServerClient aiServerClient;
     private final ChoiceRepository choiceRepository;
-    private final EntityManager entityManager;
-
-
-    @Value("${ai.server.url:http://localhost:8000}")
-    private String aiServerUrl;
-
-    /** 첫 번째 씬 생성 */
-    @Transactional
+    private final StoryChoiceEventRepository storyChoiceEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageUrlSigner imageUrlSigner;
+
+    /**
+     * 첫 번째 씬 생성
+     *
+     * 트랜잭션을 걸지 않는다. (0) Story id 확보(single-flight + upsert) →
+     * (1) 짧은 읽기 트랜잭션으로 Story/Child 스냅샷 →
+     * (2) 커넥션 없이 AI 호출 → (3) 짧은 쓰기 트랜잭션으로 Story/StoryCompletion/Scene 저장
+     */
     public Map<String, Object> generateStory(StoryGenerateRequest request) {
-        Child child = childRepository.findById(request.getChildId())
-            .orElseThrow(() -> new RuntimeException("Child 못 찾음: " + request.getChildId()));
-        
-        // Pinecone ID로 story 조회/생성
-        Story story = getOrCreateStory(request.getStoryId());
-
-        // [2025-10-28 김민중 수정] Story의 title과 description을 AI 서버로 전송
-        // childName은 동화 주인공 이름이 아닌, 개인화를 위한 참고용으로만 사용
-        Map<String, Object> aiRequest = new HashMap<>();
-        aiRequest.put("storyId", request.getStoryId());
-        aiRequest.put("storyTitle", story.getTitle());
-        aiRequest.put("storyDescription", story.getDescription());
-        aiRequest.put("childId", request.getChildId());
-        aiRequest.put("emotion", request.getEmotion());
-        aiRequest.put("interests", request.getInterests() != null ? request.getInterests() : new ArrayList<>());
-        aiRequest.put("sceneNumber", 1);
-        aiRequest.put("previousChoices", new ArrayList<>());
+        // (0) Pinecone ID로 story 조회/생성 + (1) 읽기 단계
+        StorySceneContext context = prepareFirstScene(request);
 
+        // (2) AI 호출 - DB 커넥션을 잡고 있지 않음 (같은 동화/감정의 첫 씬이 분기 캐시에 있으면 생략)
         Map<String, Object> firstSceneResponse;
         try {
-            firstSceneResponse = webClientBuilder.build()
-                .post()
-                .uri(aiServerUrl + "/ai/generate-next-scene")
-                .bodyValue(aiRequest)
-                .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                .block();
+            firstSceneResponse = loadOrGenerateScene(context, 1);
         } catch (WebClientResponseException.NotFound nf) {
-            firstSceneResponse = webClientBuilder.build()
-                .post()
-                .uri(aiServerUrl + "/ai/generate-next-scene")
-                .bodyValue(aiRequest)
-                .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                .block();
+            firstSceneResponse = loadOrGenerateScene(context, 1);
+        }
+
+        return completeFirstScene(context, firstSceneResponse);
+    }
+
+    /**
+     * (0) Story id 확보 (트랜잭션 밖, 동시 요청은 한 번만 생성) + (1) 읽기 단계
+     * 캐시된 id의 Story가 그 사이 삭제되었으면 캐시에서 빼고 한 번 다시 확보한다.
+     */
+    public StorySceneContext prepareFirstScene(StoryGenerateRequest request) {
+        String pineconeId = request.getStoryId();
+        Long storyId = storyCreationCoordinator.getOrCreateStoryId(pineconeId);
+        Optional<StorySceneContext> context = storyPersistenceService.prepareFirstScene(request, storyId);
+        if (context.isPresent()) {
+            return context.get();
+        }
+
+        storyCreationCoordinator.evict(pineconeId, storyId);
+        Long reloadedId = storyCreationCoordinator.getOrCreateStoryId(pineconeId);
+        return storyPersistenceService.prepareFirstScene(request, reloadedId)
+            .orElseThrow(() -> new RuntimeException("Story 없음: " + reloadedId));
+    }
+
+    /**
+     * 첫 씬 AI 응답을 받은 뒤 처리: 제목/카테고리 결정 → (3) 쓰기 단계 → 다음 분기 선행 생성
+     * 동기 생성(generateStory)과 스트리밍 생성(StorySceneStreamService)이 함께 사용한다.
+     * @return 클라이언트로 보낼 응답 (AI 응답 + completionId, storyId, pineconeId, sceneId, sceneImageUrl)
+     */
+    public Map<String, Object> completeFirstScene(StorySceneContext context, Map<String, Object> firstSceneResponse) {
+        // AI 응답 검증
+        if (firstSceneResponse == null) {
+            throw new RuntimeException("AI 서버로부터 응답을 받지 못했습니다.");
         }
 
         // AI 응답 전체 로그 추가
@@ -99,16 +109,44 @@ public class StoryService {
         log.info("scene in response: {}", firstSceneResponse.get("scene"));
         log.info("======================");
 
-        // AI 응답 검증
-        if (firstSceneResponse == null) {
-            throw new RuntimeException("AI 서버로부터 응답을 받지 못했습니다.");
-        }
+        String finalTitle = resolveStoryTitle(firstSceneResponse);
 
-        // [2025-10-30 김광현] 동화 제목 생성 로직
+        // 감정 기반 카테고리 설정
+        String category = mapEmotionToCategory(context.getEmotion());
+
+        // (3) 쓰기 단계 - [2025-10-29 김광현] AI응답성공해야만 DB에 저장
+        SavedScene saved = storyPersistenceService.saveFirstScene(context, finalTitle, category, firstSceneResponse);
+        Long completionId = saved.getCompletionId();
+
+        // 아이가 첫 씬을 읽는 동안 선택지별 2번째 씬 선행 생성
+        sceneSpeculationService.speculate(context.toBuilder().completionId(completionId).build(), 1, firstSceneResponse);
+
+        Map<String, Object> response = withScene(firstSceneResponse, saved);
+        response.put("completionId", completionId);
+        response.put("storyId", context.getStoryId());  // [2025-10-29 김광현] 변경
+        response.put("pineconeId", context.getPineconeId());  // [2025-10-29 김광현] 추가
+        return response;
+    }
+
+    /**
+     * AI 응답 복사본에 씬 id와 삽화 URL을 붙인다 (원본은 분기 캐시와 공유될 수 있어 건드리지 않음)
+     * - sceneId: 클라이언트는 이 id로 batch-status를 조회해 서버가 만드는 삽화를 받는다 (따로 이미지 생성 요청 불필요)
+     * - sceneImageUrl: 이미 삽화가 붙은 씬(다른 아이가 먼저 본 씬)이면 바로 표시할 URL, 아니면 null
+     */
+    private Map<String, Object> withScene(Map<String, Object> aiResponse, SavedScene saved) {
+        Map<String, Object> response = new HashMap<>(aiResponse);
+        response.put("sceneId", saved.getSceneId());
+        response.put("sceneImageUrl", imageUrlSigner.sign(saved.getImageUrl()));
+        return response;
+    }
+
+    // [2025-10-30 김광현] 동화 제목 생성 로직
+    @SuppressWarnings("unchecked")
+    private String resolveStoryTitle(Map<String, Object> firstSceneResponse) {
         String finalTitle = "동화 생성중..."; // 기본값
         if(firstSceneResponse.containsKey("storyTitle")) {
             String aiGeneratedTitle = (String) firstSceneResponse.get("storyTitle");
-            
+
             if(aiGeneratedTitle != null && !aiGeneratedTitle.isBlank()) {
                 finalTitle = aiGeneratedTitle;
                 log.info("AI가 생성한 동화 제목 업데이트 : {}", aiGeneratedTitle);
@@ -128,43 +166,13 @@ public class StoryService {
 
             // 첫 30자를 제목으로 사용
             if(sceneContent != null && !sceneContent.isBlank()) {
-                finalTitle = sceneContent.length() > 30 
-                    ? sceneContent.substring(0, 30) + "..." 
+                finalTitle = sceneContent.length() > 30
+                    ? sceneContent.substring(0, 30) + "..."
                     : sceneContent;
                 log.info("첫 번째 씬 내용 기반 제목 생성: {}", finalTitle);
             }
-
         }
-        story.setTitle(finalTitle);
-
-        // 감정 기반 카테고리 설정
-        String category = mapEmotionToCategory(request.getEmotion());
-        story.setCategory(category);
-        storyRepository.save(story);
-        log.info("Story 업데이트 완료 - title: {}, category: {}", story.getTitle(), category);
-
-        // [2025-10-28 김민중 수정] emotion 저장 -> [2025-10-29 김광현] 위치 변경 AI응답성공해야만 DB에 저장
-        StoryCompletion completion = StoryCompletion.builder()
-            .child(child)
-            .story(story)
-            .emotion(request.getEmotion())
-            .interests(request.getInterests())  // [2025-10-28 김광현] 추가
-            .storyTitle(story.getTitle())       // [2025-10-29 김광현] 제목 저장 추가
-            .choicesJson(new ArrayList<>())
-            .build();
-
-        storyCompletionRepository.save(completion);
-        log.info("[StoryCompletion] AI 응답성공 후 저장완료 : completionId={}, completionTitle={}", completion.getId(), completion.getStoryTitle());
-
-
-
-        saveSceneOnly(story, firstSceneResponse, 1);
-
-        Map<String, Object> response = new HashMap<>(firstSceneResponse);
-        response.put("completionId", completion.getId());
-        response.put("storyId", story.getId());  // [2025-10-29 김광현] 변경
-        response.put("pineconeId", story.getPineconeId());  // [2025-10-29 김광현] 추가
-        return response;
+        return finalTitle;
     }
 
     // 감정을 카테고리로 저장
@@ -185,7 +193,7 @@ public class StoryService {
         };
     }
 
-    /** 사용자가 고른 선택 저장: StoryCompletion + choice 테이블 */
+    /** 사용자가 고른 선택 저장: 선택 이벤트 로그 + 능력치 + choice 테이블 (각각 INSERT/UPDATE 한 번) */
     @Transactional
     public void saveChoice(Long completionId, StoryChoiceRequest request) {
         // [2025-10-28 김민중 수정] choiceText 필수 검증 추가
@@ -193,68 +201,44 @@ public class StoryService {
             throw new IllegalArgumentException("choiceText는 필수입니다. 프론트에서 선택지 텍스트를 전송해주세요.");
         }
 
-        StoryCompletion completion = storyCompletionRepository.findById(completionId)
-            .orElseThrow(() -> new RuntimeException("StoryCompletion 없음: " + completionId));
-
-        // [2025-10-28 김민중 추가] 중복 요청 방지: choicesJson에서 이미 동일한 sceneNumber + choiceText가 있는지 체크
-        boolean isDuplicate = completion.getChoicesJson().stream()
-            .anyMatch(c -> c.getSceneNumber().equals(request.getSceneNumber())
-                && c.getChoiceText().equals(request.getChoiceText()));
-
-        if (isDuplicate) {
-            log.warn("중복된 선택 요청 무시: completionId={}, sceneNumber={}, choiceText={}",
-                completionId, request.getSceneNumber(), request.getChoiceText());
-            return;
-        }
-
-        // 1) 진행 경로 누적(JSON)
-        StoryCompletion.ChoiceRecord rec = new StoryCompletion.ChoiceRecord(
+        // [2025-10-28 김민중 추가] 중복 요청 방지
+        // 1) 선택 이벤트 INSERT - 같은 sceneNumber + choiceText는 UNIQUE 키로 중복 판정 (1: 새 선택, 2: 중복)
+        int inserted = storyChoiceEventRepository.insertOrCountDuplicate(
+            completionId,
             request.getSceneNumber(),
+            choiceHash(request.getChoiceText()),
             request.getChoiceId(),
             request.getChoiceText(),
             request.getAbilityType(),
             request.getAbilityPoints()
         );
 
-        // [2025-10-28 김광현]능력치 합산 
-        int points = (request.getAbilityPoints() == null) ? 0 : request.getAbilityPoints();
-        int currentScore = completion.getAbilityScore() != null ? completion.getAbilityScore() : 0;
-        int newScore = currentScore + points;
-        completion.setAbilityScore(newScore);
-        log.info("능력치 업데이트: {} -> {} ({}점 추가)", currentScore, newScore, points);
-
-        completion.getChoicesJson().add(rec);
-        storyCompletionRepository.save(completion);
-
-        // 2) choice 테이블에 단일 선택 기록
-        Story story = completion.getStory();
-        Scene scene = sceneRepository.findByStoryAndSceneNumber(story, request.getSceneNumber())
-            .orElseThrow(() -> new RuntimeException("Scene 없음: story=" + story.getId()
-                + ", sceneNumber=" + request.getSceneNumber()));
-
-        // [2025-10-28 김민중 수정] 중복 저장 방지
-        Optional<Choice> existingChoice = choiceRepository.findBySceneAndChoiceText(scene, request.getChoiceText());
-        if (existingChoice.isPresent()) {
-            log.warn("중복된 선택지 저장 시도 방지: completionId={}, sceneNumber={}, choiceText={}",
+        if (inserted != 1) {
+            log.warn("중복된 선택 요청 무시: completionId={}, sceneNumber={}, choiceText={}",
                 completionId, request.getSceneNumber(), request.getChoiceText());
             return;
         }
 
+        // [2025-10-28 김광현]능력치 합산 (엔티티 로드 없이 UPDATE 한 번)
+        int points = (request.getAbilityPoints() == null) ? 0 : request.getAbilityPoints();
+        if (storyCompletionRepository.addAbilityScore(completionId, points) == 0) {
+            throw new RuntimeException("StoryCompletion 없음: " + completionId);
+        }
+        log.info("능력치 업데이트: completionId={} ({}점 추가)", completionId, points);
+
+        // 2) choice 테이블에 단일 선택 기록 - [2025-10-28 김민중 수정] 중복 저장 방지 (쿼리 안에서 체크)
         String abilityType = (request.getAbilityType() == null || request.getAbilityType().isBlank())
             ? "기타" : request.getAbilityType();
-        Integer abilityPoints = (request.getAbilityPoints() == null) ? 0 : request.getAbilityPoints();
-
-        Choice choice = Choice.builder()
-            .scene(scene)
-            .choiceText(request.getChoiceText())
-            .abilityType(abilityType)
-            .abilityPoints(abilityPoints)
-            .nextScene(null)             // 분기 연결 필요 시 추후 업데이트
-            .build();
-
-        choiceRepository.save(choice);
-        log.info("선택지 저장 완료: completionId={}, sceneNumber={}, choiceText={}",
-            completionId, request.getSceneNumber(), request.getChoiceText());
+        int saved = choiceRepository.insertForCompletionScene(
+            completionId, request.getSceneNumber(), request.getChoiceText(), abilityType, points);
+
+        if (saved == 0) {
+            log.warn("선택지 저장 생략 (Scene 없음 또는 중복): completionId={}, sceneNumber={}, choiceText={}",
+                completionId, request.getSceneNumber(), request.getChoiceText());
+        } else {
+            log.info("선택지 저장 완료: completionId={}, sceneNumber={}, choiceText={}",
+                completionId, request.getSceneNumber(), request.getChoiceText());
+        }
     }
 
     @Transactional
@@ -263,226 +247,132 @@ public class StoryService {
             .orElseThrow(() -> new RuntimeException("StoryCompletion 없음: " + completionId));
         completion.setTotalTime(request.getTotalTime());
         completion.setCompletedAt(LocalDateTime.now());
+        // 선택 이벤트 로그를 choices_json으로 한 번만 압축 기록 (부모 리포트 등은 choices_json을 읽음)
+        completion.setChoicesJson(storyPersistenceService.choicePath(completion));
         storyCompletionRepository.save(completion);
-    }
 
-    // @Transactional(propagation = Propagation.REQUIRES_NEW)
-    // public Story getOrCreateStory(String pineconeId) {
-    //     return storyRepository.findByPineconeId(pineconeId).orElseGet(() -> {
-
-    //         // [2025-10-29 김광현] sql 에러 방지
-    //         Optional<Story> existing = storyRepository.findByPineconeId(pineconeId);
-    //         if(existing.isPresent()) {
-    //             log.info("기존 Story 재사용: pineconeId={}, storyId={}\", pineconeId, existing.get().getId()");
-    //             return existing.get();
-    //         }
-
-    //         // 없으면 생성
-    //         Story newStory = Story.builder()
-    //             .pineconeId(pineconeId)
-    //             .title("동화 생성중...")
-    //             .category("미분류")
-    //             .description("AI가 동화를 생성중입니다.")
-    //             .build();
-
-    //         try {
-    //             Story saved = storyRepository.save(newStory);
-    //             log.info("새로운 story 생성: pineconeId={}, storyId={}", pineconeId, saved.getId()); 
-    //             return saved;
-
-    //         } catch (Exception e) {
-    //             // [2025-10-29 김광현] 동시성 문제에서 insert시 다시 조회
-    //             // UNIQUE 제약조건 위반 (동시성 문제로 다른 트랜잭션에서 이미 생성)
-    //             log.warn("동시성 문제로 Story 중복 생성 시도 감지: pineconeId={}", pineconeId);
-
-    //             // 실패한 엔티티 세션 제거(Hibernate 세션 정리)
-    //             entityManager.clear();
-
-    //             // 대기 후 재시도하기
-    //             try {
-    //                 Thread.sleep(100);
-    //             } catch (InterruptedException ie) {
-    //                 Thread.currentThread().interrupt();
-    //             }
-
-    //             // 다시 시도 (3번시도)
-    //             for (int i = 0; i < 3; i++) {
-    //                 Optional<Story> retryResult = storyRepository.findByPineconeId(pineconeId);
-    //                 if(retryResult.isPresent()) {
-    //                     log.info("재시도 {}번째 성공 : pineconeId={}", i + 1, pineconeId );
-    //                     return retryResult.get();
-    //                 }
-
-    //                 // 재시도 대기
-    //                 try {
-    //                     Thread.sleep(50 * (i +1));
-    //                 } catch (InterruptedException ie) {
-    //                     Thread.currentThread().interrupt();
-    //                 }
-    //             }
-                
-    //             throw new RuntimeException("Story 조회 실패(재시도 3번 실패):" + pineconeId);
-    //             // 다시 조회 (다른 트랜잭션에서 생성된 것 사용)
-    //             // return storyRepository.findByPineconeId(pineconeId)
-    //             //     .orElseThrow(() -> new RuntimeException("Story 조회 실패: " + pineconeId));
-    //         }
-    //     });
-    // }
-    @Transactional(propagation = Propagation.REQUIRES_NEW,
-                    isolation = Isolation.READ_COMMITTED)
-    public Story getOrCreateStory(String pineconeId) {
-        Optional<Story> existing = storyRepository.findByPineconeIdWithLock(pineconeId);
-
-        if (existing.isPresent()) {
-            log.info("기존 Story 재사용: pineconeId={}", pineconeId);
-            return existing.get();
-        }
-        
-        Story newStory = Story.builder()
-            .pineconeId(pineconeId)
-            .title("동화 생성중...")
-            .category("미분류")
-            .description("AI가 동화를 생성중입니다.")
-            .build();
-
-        try {
-            Story saved = storyRepository.save(newStory);
-            log.info("새로운 Story 생성: pineconeId={}, id={}", pineconeId, saved.getId());
-            return saved;
-        } catch (DataIntegrityViolationException e) {
-            // UNIQUE 제약조건 위반 - 동시 요청으로 다른 트랜잭션에서 이미 생성됨
-            log.warn("동시성 문제 감지, Story 재조회 시도 시작: pineconeId={}", pineconeId);
-
-            entityManager.clear();
-            
-            // 재시도 로직 (최대 5번)
-            for (int i = 0; i < 5; i++) {
-                // 점진적으로 대기 시간 증가 (100ms, 200ms, 300ms, 400ms, 500ms)
-                try {
-                    Thread.sleep(200 * (i + 1));
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    log.error("재조회 대기 중 인터럽트 발생", ie);
-                }
-
-                entityManager.flush();
-                entityManager.clear();
-                
-                // 재조회 시도
-                Optional<Story> retryStory = storyRepository.findByPineconeId(pineconeId);
-
-                if (retryStory.isPresent()) {
-                    log.info("✓ 재조회 성공 ({}번째 시도, {}ms 대기): pineconeId={}", 
-                        i + 1, 200 * (i + 1), pineconeId);
-                    return retryStory.get();
-                }
-                
-                log.warn("✗ 재조회 실패 ({}번째 시도): pineconeId={}, 다음 시도 대기중...", 
-                    i + 1, pineconeId);
-            }
-            
-            // 5번 재시도 후에도 실패
-            log.error("Story 조회 최종 실패 (5번 재시도 완료): pineconeId={}", pineconeId);
-            throw new RuntimeException("Story 조회 실패 (5번 재시도 후): " + pineconeId);
-        }
+        // 남아 있는 선행 생성 분기 정리
+        sceneSpeculationService.discard(completionId);
 
+        // 커밋 후 챗봇 첫 인사 선행 생성 (ChatGreetingService)
+        eventPublisher.publishEvent(new StoryCompletedEvent(completionId, completion.getChild().getId()));
     }
 
     @Transactional(readOnly = true)
     public StoryCompletionSummaryDto getStoryCompletionSummary(Long completionId) {
         StoryCompletion completion = storyCompletionRepository.findById(completionId)
             .orElseThrow(() -> new RuntimeException("StoryCompletion 없음: " + completionId));
-        return StoryCompletionSummaryDto.from(completion);
+        // 완료 전이면 choices_json이 아직 비어 있으므로 이벤트 로그에서 읽음
+        return StoryCompletionSummaryDto.from(completion, storyPersistenceService.choicePath(completion));
     }
 
-    /** 다음 씬 생성 */
-    @Transactional
+    /**
+     * 다음 씬 생성
+     *
+     * generateStory와 동일하게 읽기 → AI 호출(커넥션 없음) → 쓰기 3단계로 처리한다.
+     */
     public Map<String, Object> generateNextScene(Long completionId, int nextSceneNumber) {
-        StoryCompletion completion = storyCompletionRepository.findById(completionId)
-            .orElseThrow(() -> new RuntimeException("StoryCompletion 없음: " + completionId));
+        return generateNextScene(completionId, nextSceneNumber, null);
+    }
 
-        Child child = completion.getChild();
-        Story story = completion.getStory();
+    /**
+     * 다음 씬 생성 (선택한 선택지 전달)
+     *
+     * 선행 생성이 켜져 있고 choice와 일치하는 분기가 미리 만들어져 있으면 AI 호출 없이 바로 사용한다.
+     */
+    public Map<String, Object> generateNextScene(Long completionId, int nextSceneNumber, StoryChoiceRequest choice) {
+        // (1) 읽기 단계 - [2025-10-28 김민중 수정] emotion을 completion에서 가져옴
+        StorySceneContext context = storyPersistenceService.prepareNextScene(completionId);
+
+        // (2) AI 호출 - 미리 생성된 분기나 같은 선택 경로의 캐시가 있으면 생략
+        // 동기 API이므로 생성 중인 분기는 여기서 기다림 (claim-timeout까지, 새로 생성하는 것보다 빠름)
+        Map<String, Object> aiResponse = sceneSpeculationService.claim(completionId, nextSceneNumber, choice)
+            .blockOptional()
+            .orElseGet(() -> loadOrGenerateScene(context, nextSceneNumber));
+
+        return completeNextScene(context, nextSceneNumber, aiResponse);
+    }
 
-        // [2025-10-28 김민중 수정] Story의 title과 description을 AI 서버로 전송
-        // emotion을 completion에서 가져옴
-        Map<String, Object> aiRequest = new HashMap<>();
-        aiRequest.put("storyId", story.getPineconeId());
-        aiRequest.put("storyTitle", story.getTitle());
-        aiRequest.put("storyDescription", story.getDescription());
-        aiRequest.put("childId", child.getId());
-        aiRequest.put("emotion", completion.getEmotion() != null ? completion.getEmotion() : "중립");
-        aiRequest.put("interests", child.getInterests() != null ? child.getInterests() : new ArrayList<>());
-        aiRequest.put("sceneNumber", nextSceneNumber);
-
-        java.util.List<Map<String, Object>> prev = new java.util.ArrayList<>();
-        for (StoryCompletion.ChoiceRecord c : completion.getChoicesJson()) {
-            Map<String, Object> m = new HashMap<>();
-            m.put("sceneNumber", c.getSceneNumber());
-            m.put("choiceId", c.getChoiceId());
-            m.put("choiceText", c.getChoiceText());
-            m.put("abilityType", c.getAbilityType());
-            m.put("abilityScore", c.getAbilityPoints());
-            prev.add(m);
+    /**
+     * 다음 씬 AI 응답을 받은 뒤 처리: (3) 쓰기 단계 → 다음 분기 선행 생성
+     * 동기 생성과 스트리밍 생성이 함께 사용한다.
+     * @return 클라이언트로 보낼 응답 (AI 응답 + sceneId, sceneImageUrl)
+     */
+    public Map<String, Object> completeNextScene(StorySceneContext context, int nextSceneNumber,
+                                                 Map<String, Object> aiResponse) {
+        // (3) 쓰기 단계
+        SavedScene saved = storyPersistenceService.saveNextScene(context, aiResponse, nextSceneNumber);
+
+        // 아이가 이 씬을 읽는 동안 다음 분기 선행 생성
+        sceneSpeculationService.speculate(context, nextSceneNumber, aiResponse);
+        return withScene(aiResponse, saved);
+    }
+
+    /**
+     * 분기 캐시 조회 후 없으면 AI 서버에 생성 요청하고 캐시에 저장
+     * (pineconeId + emotion + 선택 경로가 같으면 같은 씬을 재사용)
+     */
+    private Map<String, Object> loadOrGenerateScene(StorySceneContext context, int sceneNumber) {
+        String branchKey = sceneBranchCache.keyFor(context, sceneNumber, context.getPreviousChoices());
+        Optional<Map<String, Object>> cached = sceneBranchCache.get(branchKey);
+        if (cached.isPresent()) {
+            log.info("씬 분기 캐시 사용: pineconeId={}, sceneNumber={}", context.getPineconeId(), sceneNumber);
+            return cached.get();
         }
-        aiRequest.put("previousChoices", prev);
-
-        Map<String, Object> aiResponse = webClientBuilder.build()
-            .post()
-            .uri(aiServerUrl + "/ai/generate-next-scene")
-            .bodyValue(aiRequest)
-            .retrieve()
-            .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-            .block();
 
-        saveSceneOnly(story, aiResponse, nextSceneNumber);
+        // [2025-10-28 김민중 수정] Story의 title과 description을 AI 서버로 전송
+        // childName은 동화 주인공 이름이 아닌, 개인화를 위한 참고용으로만 사용
+        long startedAt = System.currentTimeMillis();
+        Map<String, Object> aiResponse = aiServerClient
+            .generateScene(buildSceneRequest(context, sceneNumber, context.getPreviousChoices()))
+            .block();
+        sceneBranchCache.put(branchKey, context.getPineconeId(), sceneNumber, aiResponse,
+            System.currentTimeMillis() - startedAt);
         return aiResponse;
     }
 
-    /** AI 응답으로 Scene만 저장 */
-    private void saveSceneOnly(Story story, Map<String, Object> aiResponse, int sceneNumber) {
+    private static String choiceHash(String choiceText) {
         try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> sceneData = (Map<String, Object>) aiResponse.get("scene");
-            if (sceneData == null) return;
-
-            if (sceneRepository.findByStoryAndSceneNumber(story, sceneNumber).isPresent()) return;
-
-            String content = (String) sceneData.get("text");
-            if (content == null) content = (String) sceneData.get("content");
-            if (content == null) content = "";
-
-            Scene scene = Scene.builder()
-                .story(story)
-                .sceneNumber(sceneNumber)
-                .content(content)
-                .imageUrl(null)
-                .imagePrompt(null)
-                .build();
-            sceneRepository.save(scene);
-        } catch (Exception e) {
-            log.error("Scene 저장 오류: {}", e.getMessage(), e);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(choiceText.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 
+    /** /ai/generate-next-scene 요청 바디 생성 (Story의 title과 description 포함) */
+    static SceneGenerationRequest buildSceneRequest(StorySceneContext context, int sceneNumber,
+                                                    List<StoryCompletion.ChoiceRecord> previousChoices) {
+        List<SceneGenerationRequest.PreviousChoice> prev = new ArrayList<>();
+        for (StoryCompletion.ChoiceRecord c : previousChoices) {
+            prev.add(new SceneGenerationRequest.PreviousChoice(
+                c.getSceneNumber(),
+                c.getChoiceId(),
+                c.getChoiceText(),
+                c.getAbilityType(),
+                c.getAbilityPoints()
+            ));
+        }
+        return new SceneGenerationRequest(
+            context.getPineconeId(),
+            context.getStoryTitle(),
+            context.getStoryDescription(),
+            context.getChildId(),
+            context.getEmotion(),
+            context.getInterests(),
+            sceneNumber,
+            prev
+        );
+    }
+
     /** 커스텀 선택지 분석 */
     public Map<String, Object> analyzeCustomChoice(Long completionId, Integer sceneNumber, String text) {
         log.info("커스텀 선택지 AI 분석 요청: completionId={}, sceneNumber={}, text={}", 
             completionId, sceneNumber, text);
 
-        // FastAPI로 전달할 요청 생성
-        Map<String, Object> aiRequest = new HashMap<>();
-        aiRequest.put("completionId", completionId);
-        aiRequest.put("sceneNumber", sceneNumber);
-        aiRequest.put("text", text);
-
         // FastAPI 호출
-        Map<String, Object> aiResponse = webClientBuilder.build()
-            .post()
-            .uri(aiServerUrl + "/ai/analyze-custom-choice")
-            .bodyValue(aiRequest)
-            .retrieve()
-            .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+        Map<String, Object> aiResponse = aiServerClient
+            .analyzeCustomChoice(new CustomChoiceAnalysisRequest(completionId, sceneNumber, text))
             .block();
 
         log.info("AI 분석 응답: {}", aiResponse);
@@ -0,0 +1,86 @@
+package com.sstt.dinory.common.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final int INITIAL_LIMIT = 20;
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(INITIAL_LIMIT, 2, 200, 2.0, 0.9);
+    private final Random random = new Random(42);
+
+    @Test
+    void widelyVaryingHealthyRttsDoNotCollapseTheLimit() {
+        // 출력 길이에 따라 5~30초로 흩어지는 정상 응답 (과부하 없음)
+        int lowest = run(3000, () -> seconds(5 + random.nextDouble() * 25));
+
+        assertThat(lowest).as("lowest limit while healthy").isGreaterThanOrEqualTo(INITIAL_LIMIT);
+        assertThat(limiter.getLimit()).isGreaterThan(INITIAL_LIMIT);
+    }
+
+    @Test
+    void sustainedSlowdownReducesTheLimit() {
+        run(1000, () -> seconds(5 + random.nextDouble() * 25));
+        int healthy = limiter.getLimit();
+
+        // 서버가 밀려 모든 응답이 평소의 3~4배로 느려짐
+        run(200, () -> seconds(60 + random.nextDouble() * 30));
+
+        assertThat(limiter.getLimit()).as("limit after slowdown (healthy=%d)", healthy).isLessThan(healthy / 2);
+    }
+
+    @Test
+    void oneFastCallDoesNotMakeNormalCallsLookSlow() {
+        run(500, () -> seconds(20));
+        int before = limiter.getLimit();
+
+        run(1, () -> Duration.ofMillis(200).toNanos());
+        int lowest = run(500, () -> seconds(20));
+
+        assertThat(lowest).isGreaterThanOrEqualTo(before);
+    }
+
+    @Test
+    void backgroundCallsLeaveTheRestOfTheLimitToInteractiveCalls() {
+        int background = 0;
+        while (limiter.tryAcquire(0.5)) {
+            background++;
+        }
+        int interactive = 0;
+        while (limiter.tryAcquire()) {
+            interactive++;
+        }
+
+        assertThat(background).isEqualTo(INITIAL_LIMIT / 2);
+        assertThat(interactive).isEqualTo(INITIAL_LIMIT - background);
+        assertThat(limiter.hasRoom(0.5)).isFalse();
+    }
+
+    /** limit까지 채워 보낸 뒤 모두 완료시키는 라운드를 반복 - 관측한 가장 낮은 limit 반환 */
+    private int run(int calls, LongSupplier rttNanos) {
+        int lowest = limiter.getLimit();
+        int done = 0;
+        while (done < calls) {
+            int acquired = 0;
+            while (acquired < calls - done && limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.onSuccess(rttNanos.getAsLong());
+                lowest = Math.min(lowest, limiter.getLimit());
+            }
+            done += acquired;
+        }
+        return lowest;
+    }
+
+    private static long seconds(double seconds) {
+        return (long) (seconds * 1_000_000_000L);
+    }
+}
@@ -0,0 +1,180 @@
+package com.sstt.dinory.domain.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.sstt.dinory.domain.chat.dto.ChatMessagePageDto;
+import com.sstt.dinory.domain.chat.dto.ChatResponseDto;
+import com.sstt.dinory.domain.chat.entity.ChatMessage;
+import com.sstt.dinory.domain.chat.entity.ChatSession;
+import com.sstt.dinory.domain.chat.repository.ChatArchiveSegmentRepository;
+import com.sstt.dinory.domain.chat.repository.ChatMessageRepository;
+import com.sstt.dinory.domain.chat.repository.ChatSessionRepository;
+
+/**
+ * 종료 세션 보관 전/후 비교
+ *
+ * - 저장 공간: 세션들의 chat_message 행/바이트 vs 보관 세그먼트 payload 바이트
+ * - 조회 지연: getChatSession / getMessages 평균 시간
+ * - 정합성: 보관 후 조회 결과가 보관 전과 완전히 같은지
+ */
+@SpringBootTest(properties = "chat.archive.enabled=false")
+class ChatArchiveBenchmarkTest {
+
+    private static final int SESSIONS = 20;
+    private static final int MESSAGES_PER_SESSION = 40;
+    private static final int READS = 5;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatArchiveService chatArchiveService;
+
+    @Autowired
+    private ChatSessionRepository chatSessionRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ChatArchiveSegmentRepository chatArchiveSegmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ChatMessageIdGenerator messageIds = new ChatMessageIdGenerator(1023);   // 앱 노드와 겹치지 않는 번호
+    private Long childId;
+    private List<Long> sessionIds;
+
+    @BeforeEach
+    void setUp() {
+        // ChatSession.childId는 FK가 아니므로 다른 데이터와 겹치지 않는 임의 id 사용
+        childId = -ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        sessionIds = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            ChatSession session = chatSessionRepository.save(ChatSession.builder()
+                .childId(childId)
+                .endedAt(LocalDateTime.now().minusDays(30))
+                .build());
+            for (int j = 0; j < MESSAGES_PER_SESSION; j++) {
+                chatMessageRepository.save(ChatMessage.builder()
+                    .id(messageIds.nextId())
+                    .chatSession(session)
+                    .sender(j % 2 == 0 ? "USER" : "AI")
+                    .message(j % 2 == 0
+                        ? "디노야, 오늘 동화에서 " + j + "번째로 궁금한 게 있어!"
+                        : "좋은 질문이야! 용감한 디노는 친구를 도와주면서 마음이 따뜻해졌대. 너라면 어떻게 했을 것 같아? (" + j + ")")
+                    .build());
+            }
+            sessionIds.add(session.getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        chatArchiveSegmentRepository.deleteAll(chatArchiveSegmentRepository.findBySessionIdIn(sessionIds));
+        chatSessionRepository.deleteAll(chatSessionRepository.findByChildIdOrderByStartedAtDesc(childId));
+    }
+
+    @Test
+    void archivingShrinksStorageAndReadsStayIdentical() {
+        Map<Long, List<ChatResponseDto.ChatMessageDto>> before = new HashMap<>();
+        sessionIds.forEach(id -> before.put(id, chatService.getChatSession(id).getMessages()));
+        ChatMessagePageDto pageBefore = chatService.getMessages(sessionIds.get(0), null, null, 10);
+        ChatMessagePageDto olderBefore = chatService.getMessages(sessionIds.get(0), null, pageBefore.getOldestId(), 10);
+
+        long rowsBefore = messageRows();
+        long bytesBefore = messageBytes();
+        double readMsBefore = averageReadMillis();
+
+        // 같은 DB의 다른 세션을 건드리지 않도록 전역 sweep(ChatArchiver) 대신 이 테스트의 세션만 보관
+        int archived = archiveFixtureSessions();
+
+        long rowsAfter = messageRows();
+        long payloadBytes = payloadBytes();
+        double readMsAfter = averageReadMillis();
+
+        String stats = String.format("chat archive: %d sessions, chat_message rows %d -> %d, message bytes %d -> payload %d (%.1f%%), "
+                + "getChatSession avg %.2fms -> %.2fms",
+            archived, rowsBefore, rowsAfter, bytesBefore, payloadBytes, payloadBytes * 100.0 / bytesBefore,
+            readMsBefore, readMsAfter);
+
+        assertThat(archived).as(stats).isEqualTo(SESSIONS);
+        assertThat(rowsBefore).as(stats).isEqualTo((long) SESSIONS * MESSAGES_PER_SESSION);
+        assertThat(rowsAfter).as(stats).isZero();
+        assertThat(payloadBytes).as(stats).isLessThan(bytesBefore);
+
+        // 보관 후에도 같은 대화/같은 페이지
+        for (Long id : sessionIds) {
+            assertThat(chatService.getChatSession(id).getMessages())
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(before.get(id));
+        }
+        ChatMessagePageDto pageAfter = chatService.getMessages(sessionIds.get(0), null, null, 10);
+        ChatMessagePageDto olderAfter = chatService.getMessages(sessionIds.get(0), null, pageAfter.getOldestId(), 10);
+        assertThat(pageAfter).usingRecursiveComparison().isEqualTo(pageBefore);
+        assertThat(olderAfter).usingRecursiveComparison().isEqualTo(olderBefore);
+
+        // 목록 요약도 보관 세그먼트 값으로 유지
+        assertThat(chatService.getChatSessionSummaries(childId, PageRequest.of(0, 5))
+                .getSessions())
+            .allSatisfy(summary -> assertThat(summary.getMessageCount()).isEqualTo(MESSAGES_PER_SESSION));
+
+        // 다시 돌려도 이미 보관된 세션은 건너뜀
+        assertThat(archiveFixtureSessions()).isZero();
+    }
+
+    private int archiveFixtureSessions() {
+        int archived = 0;
+        for (Long id : sessionIds) {
+            if (chatArchiveService.archiveSession(id)) {
+                archived++;
+            }
+        }
+        return archived;
+    }
+
+    private double averageReadMillis() {
+        long started = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            sessionIds.forEach(chatService::getChatSession);
+        }
+        return (System.nanoTime() - started) / 1_000_000.0 / (READS * SESSIONS);
+    }
+
+    private long messageRows() {
+        return queryForLong("SELECT COUNT(*) FROM chat_message WHERE session_id IN (:ids)");
+    }
+
+    private long messageBytes() {
+        // 행당 고정 컬럼(id, session_id, created_at = 8 + 8 + 8) + sender + message
+        return queryForLong("SELECT COALESCE(SUM(24 + LENGTH(sender) + LENGTH(message)), 0) FROM chat_message WHERE session_id IN (:ids)");
+    }
+
+    private long payloadBytes() {
+        return queryForLong("SELECT COALESCE(SUM(LENGTH(payload)), 0) FROM chat_archive_segment WHERE session_id IN (:ids)");
+    }
+
+    private long queryForLong(String sql) {
+        Long value = new NamedParameterJdbcTemplate(jdbcTemplate)
+            .queryForObject(sql, new MapSqlParameterSource("ids", sessionIds), Long.class);
+        return value != null ? value : 0L;
+    }
+}
@@ -0,0 +1,107 @@
+package com.sstt.dinory.domain.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sstt.dinory.common.ai.AiServerClient;
+import com.sstt.dinory.common.ai.dto.ChatReply;
+import com.sstt.dinory.domain.chat.entity.ChatGreeting;
+import com.sstt.dinory.domain.chat.repository.ChatGreetingRepository;
+import com.sstt.dinory.domain.story.dto.StoryCompletionSummaryDto;
+import com.sstt.dinory.domain.story.event.StoryCompletedEvent;
+import com.sstt.dinory.domain.story.service.StoryService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class ChatGreetingServiceTest {
+
+    private StoryService storyService;
+    private ChatGreetingRepository chatGreetingRepository;
+    private AiServerClient aiServerClient;
+    private ChatGreetingService greetingService;
+
+    @BeforeEach
+    void setUp() {
+        storyService = mock(StoryService.class);
+        chatGreetingRepository = mock(ChatGreetingRepository.class);
+        aiServerClient = mock(AiServerClient.class);
+
+        when(storyService.getStoryCompletionSummary(42L)).thenReturn(StoryCompletionSummaryDto.builder()
+            .completionId(42L)
+            .childId(7L)
+            .childName("디노")
+            .storyTitle("용감한 디노")
+            .choices(List.of())
+            .build());
+        when(chatGreetingRepository.findByStoryCompletionId(42L)).thenReturn(Optional.empty());
+        when(chatGreetingRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(chatGreetingRepository.deleteUsed(any())).thenReturn(1);
+        // AI 서버가 첫 인사를 만드는 데 300ms 걸림
+        when(aiServerClient.chatInitFromStory(any())).thenReturn(
+            Mono.delay(Duration.ofMillis(300)).map(tick -> new ChatReply("디노야, 동화 어땠어?")));
+
+        greetingService = new ChatGreetingService(storyService, chatGreetingRepository, aiServerClient,
+            new SimpleMeterRegistry(), true, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void openingChatWhileGreetingIsGeneratingWaitsInsteadOfCallingAiAgain() {
+        greetingService.onStoryCompleted(new StoryCompletedEvent(42L, 7L));
+
+        Optional<ChatGreeting> greeting = greetingService.findPrecomputed(42L).blockOptional(Duration.ofSeconds(5));
+
+        assertThat(greeting).map(ChatGreeting::getMessage).contains("디노야, 동화 어땠어?");
+        assertThat(greeting).map(ChatGreeting::getChildId).contains(7L);
+        verify(aiServerClient, times(1)).chatInitFromStory(any());
+        verify(chatGreetingRepository).save(any());
+    }
+
+    @Test
+    void precomputedGreetingIsUsedByOneSessionOnly() {
+        ChatGreeting stored = ChatGreeting.builder().id(3L).storyCompletionId(42L).childId(7L).message("디노야, 동화 어땠어?").build();
+        when(chatGreetingRepository.findByStoryCompletionId(42L)).thenReturn(Optional.of(stored));
+        when(chatGreetingRepository.deleteUsed(3L)).thenReturn(1, 0);
+
+        assertThat(greetingService.findPrecomputed(42L).blockOptional()).contains(stored);
+        // 같은 동화로 다시 열면 같은 인사 대신 live로 새로 생성
+        assertThat(greetingService.findPrecomputed(42L).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void sessionStartedFromPrecomputedGreetingSendsItsSessionIdToAiServer() {
+        greetingService.seedSession(99L, 42L, "디노야, 동화 어땠어?");
+
+        // 첫 대화 턴은 세션 문맥이 만들어질 때까지 기다림
+        greetingService.awaitSeeded(99L).block(Duration.ofSeconds(5));
+
+        verify(aiServerClient).chatInitFromStory(argThat(request ->
+            Long.valueOf(99L).equals(request.sessionId()) && "디노야, 동화 어땠어?".equals(request.firstMessage())));
+    }
+
+    @Test
+    void noPrecomputedGreetingFallsBackToLiveCall() {
+        assertThat(greetingService.findPrecomputed(42L).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void liveGreetingFallsBackWhenAiServerFails() {
+        when(aiServerClient.chatInitFromStory(any())).thenReturn(Mono.error(new RuntimeException("down")));
+
+        String message = greetingService.generateLive(99L, storyService.getStoryCompletionSummary(42L)).block(Duration.ofSeconds(5));
+
+        assertThat(message).contains("디노야");
+    }
+}
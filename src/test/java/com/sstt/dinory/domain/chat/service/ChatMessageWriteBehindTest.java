@@ -0,0 +1,211 @@
+package com.sstt.dinory.domain.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * write-behind 내구성 한계 확인
+ *
+ * 실제 DB 대신 batchUpdate를 가로채 "저장된 행"을 기록한다.
+ * - 강제 종료 시 유실 가능 구간(큐에 남은 가장 오래된 메시지의 나이)이 flush-interval 수준으로 유지되는지
+ * - 정상 종료 시 남은 메시지가 모두 저장되는지
+ * - DB 오류 후 재시도로 유실/중복 없이 저장되는지
+ * - 저장할 수 없는 행은 그 행만 버리고 dropped로 드러나는지
+ */
+class ChatMessageWriteBehindTest {
+
+    private static final Duration FLUSH_INTERVAL = Duration.ofMillis(50);
+
+    private final List<Long> storedIds = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicBoolean dbDown = new AtomicBoolean();
+    private final AtomicInteger batches = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ChatMessageWriteBehind writeBehind;
+
+    private ChatMessageWriteBehind newWriteBehind(int batchSize, int maxPending) {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            if (dbDown.get()) {
+                throw new DataAccessResourceFailureException("db down");
+            }
+            List<Object[]> rows = invocation.getArgument(1);
+            if (rows.stream().anyMatch(row -> "bad".equals(row[3]))) {
+                throw new DataIntegrityViolationException("Data too long for column 'message'");   // 배치 전체 롤백
+            }
+            Thread.sleep(5);   // 배치 1회 저장 시간
+            rows.forEach(row -> storedIds.add((Long) row[0]));
+            batches.incrementAndGet();
+            int[] counts = new int[rows.size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            if ("bad".equals(invocation.getArgument(4))) {
+                throw new DataIntegrityViolationException("Data too long for column 'message'");
+            }
+            storedIds.add(invocation.getArgument(1));
+            return 1;
+        });
+        writeBehind = new ChatMessageWriteBehind(jdbcTemplate, mock(PlatformTransactionManager.class), meterRegistry,
+            new MockEnvironment(), 1L, new String[] { "default" }, FLUSH_INTERVAL, batchSize, maxPending);
+        return writeBehind;
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbDown.set(false);
+        writeBehind.shutdown();
+    }
+
+    @Test
+    void unflushedWindowStaysWithinFlushInterval() throws Exception {
+        ChatMessageWriteBehind writer = newWriteBehind(500, 100_000);
+
+        // 약 1초 동안 초당 ~2000건 속도로 메시지를 넣으면서, 강제 종료 시 잃을 수 있는 구간을 샘플링
+        long maxAgeMs = 0;
+        int maxPending = 0;
+        long deadline = System.currentTimeMillis() + 1000;
+        int sent = 0;
+        while (System.currentTimeMillis() < deadline) {
+            for (int i = 0; i < 10; i++) {
+                writer.enqueue(1L, "USER", "message " + sent++);
+            }
+            maxAgeMs = Math.max(maxAgeMs, writer.oldestPendingAgeMillis());
+            maxPending = Math.max(maxPending, writer.pendingCount());
+            Thread.sleep(5);
+        }
+        String stats = String.format("write-behind: sent=%d, batches=%d, max unflushed age=%dms, max unflushed=%d",
+            sent, batches.get(), maxAgeMs, maxPending);
+
+        // 유실 가능 구간 = flush-interval + 배치 저장 시간 (스케줄링 지연 여유 포함)
+        assertThat(maxAgeMs).as(stats).isLessThan(FLUSH_INTERVAL.toMillis() * 3);
+        // 한 번도 저장하지 않고 계속 쌓이는 일이 없어야 함
+        assertThat(batches.get()).as(stats).isGreaterThan(5);
+    }
+
+    @Test
+    void gracefulShutdownFlushesEverything() {
+        ChatMessageWriteBehind writer = newWriteBehind(100, 100_000);
+
+        List<Long> acknowledged = new ArrayList<>();
+        for (int i = 0; i < 1234; i++) {
+            acknowledged.add(writer.enqueue(1L, i % 2 == 0 ? "USER" : "AI", "message " + i).getId());
+        }
+        writer.shutdown();
+
+        assertThat(writer.pendingCount()).isZero();
+        assertThat(storedIds).containsExactlyElementsOf(acknowledged);   // 유실/중복 없음 + 순서 유지
+        assertThat(acknowledged).isSorted().doesNotHaveDuplicates();
+
+        // 종료 후 들어온 메시지는 바로 저장
+        long late = writer.enqueue(1L, "AI", "late").getId();
+        assertThat(storedIds).contains(late);
+    }
+
+    @Test
+    void failedBatchIsRetriedWithoutLoss() throws Exception {
+        ChatMessageWriteBehind writer = newWriteBehind(500, 100_000);
+
+        dbDown.set(true);
+        List<Long> acknowledged = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            acknowledged.add(writer.enqueue(1L, "USER", "message " + i).getId());
+        }
+        Thread.sleep(FLUSH_INTERVAL.toMillis() * 4);
+        assertThat(storedIds).isEmpty();
+        assertThat(writer.pendingCount()).isEqualTo(300);
+
+        dbDown.set(false);
+        long deadline = System.currentTimeMillis() + 2000;
+        while (writer.pendingCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(storedIds).containsExactlyElementsOf(acknowledged);
+    }
+
+    @Test
+    void fullQueueRejectsNewMessagesInsteadOfGrowingWhileDbIsDown() throws Exception {
+        ChatMessageWriteBehind writer = newWriteBehind(500, 100);
+
+        dbDown.set(true);
+        List<Long> acknowledged = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            // 받아들인 메시지는 DB 장애와 상관없이 예외 없이 반환
+            acknowledged.add(writer.enqueue(1L, "USER", "message " + i).getId());
+        }
+        assertThatThrownBy(() -> writer.enqueue(1L, "USER", "overflow"))
+            .isInstanceOf(ResponseStatusException.class)
+            .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode().value()).isEqualTo(503));
+        assertThat(writer.pendingCount()).isEqualTo(100);
+
+        dbDown.set(false);
+        long deadline = System.currentTimeMillis() + 2000;
+        while (writer.pendingCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // 거절된 메시지는 저장되지 않음 (클라이언트 재시도가 중복을 만들지 않음)
+        assertThat(storedIds).containsExactlyElementsOf(acknowledged);
+    }
+
+    @Test
+    void discardRemovesPendingMessage() {
+        ChatMessageWriteBehind writer = newWriteBehind(500, 100_000);
+
+        long kept = writer.enqueue(1L, "USER", "kept").getId();
+        long discarded = writer.enqueue(1L, "USER", "discarded").getId();
+        writer.discard(discarded);
+        writer.flush();
+
+        assertThat(storedIds).containsExactly(kept);
+    }
+
+    @Test
+    void badRowIsDroppedVisiblyWithoutLosingTheRestOfTheBatch() {
+        ChatMessageWriteBehind writer = newWriteBehind(500, 100_000);
+
+        long before = writer.enqueue(1L, "USER", "before").getId();
+        writer.enqueue(1L, "USER", "bad");
+        long after = writer.enqueue(1L, "AI", "after").getId();
+        writer.flush();
+
+        assertThat(storedIds).containsExactly(before, after);
+        assertThat(writer.pendingCount()).isZero();
+        assertThat(meterRegistry.counter("chat.message.write-behind.dropped").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void missingNodeIdFailsOutsideSingleNodeProfiles() {
+        MockEnvironment prod = new MockEnvironment();
+        prod.setActiveProfiles("prod");
+        String[] singleNode = { "default", "local" };
+
+        assertThatThrownBy(() -> ChatMessageWriteBehind.resolveNodeId(null, prod, singleNode))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(ChatMessageWriteBehind.resolveNodeId(7L, prod, singleNode)).isEqualTo(7L);
+        assertThat(ChatMessageWriteBehind.resolveNodeId(null, new MockEnvironment(), singleNode)).isZero();
+    }
+}
@@ -0,0 +1,131 @@
+package com.sstt.dinory.domain.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.sstt.dinory.common.ai.AiClientProperties;
+import com.sstt.dinory.common.ai.AiServerClient;
+import com.sstt.dinory.domain.chat.dto.ChatMessageRequest;
+import com.sstt.dinory.domain.chat.dto.ChatResponseDto;
+import com.sstt.dinory.domain.chat.dto.ChatTurnContext;
+import com.sstt.dinory.domain.story.service.StoryService;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * sendMessage 처리량 측정
+ *
+ * 응답에 100ms 걸리는 로컬 스텁 채팅 서버를 두고 동시에 200개의 메시지를 보낸다.
+ * AI 응답을 기다리는 동안 스레드/커넥션을 잡지 않으므로 직렬 처리(20초)보다 훨씬 빨리 끝나야 한다.
+ */
+class ChatServiceThroughputTest {
+
+    private static final int MESSAGES = 200;
+    private static final Duration AI_DELAY = Duration.ofMillis(100);
+
+    private HttpServer stubServer;
+    private AiServerClient aiServerClient;
+    private ChatPersistenceService chatPersistenceService;
+    private ChatService chatService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stubServer = HttpServer.create(new InetSocketAddress(0), 0);
+        stubServer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stubServer.createContext("/api/chat", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(AI_DELAY.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"ai_response\":\"좋아요!\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stubServer.start();
+
+        // 처리량을 재는 것이므로 적응형 제한이 먼저 막지 않도록 한도를 올림
+        AiClientProperties properties = new Binder(new MapConfigurationPropertySource(Map.of(
+                "ai.client.limiter.initial-limit", "500",
+                "ai.client.limiter.max-limit", "500")))
+            .bindOrCreate("ai.client", AiClientProperties.class);
+        aiServerClient = new AiServerClient(WebClient.builder(), new SimpleMeterRegistry(), properties,
+            "http://localhost:" + stubServer.getAddress().getPort());
+
+        chatPersistenceService = mock(ChatPersistenceService.class);
+        when(chatPersistenceService.saveUserMessage(anyLong(), anyString())).thenAnswer(invocation ->
+            ChatTurnContext.builder()
+                .sessionId(invocation.getArgument(0))
+                .childId(7L)
+                .userMessageId(1L)
+                .build());
+        when(chatPersistenceService.saveAiMessage(any(), anyString())).thenAnswer(invocation ->
+            ChatResponseDto.builder()
+                .sessionId(((ChatTurnContext) invocation.getArgument(0)).getSessionId())
+                .aiResponse(invocation.getArgument(1))
+                .messages(List.of())
+                .build());
+
+        ChatGreetingService chatGreetingService = mock(ChatGreetingService.class);
+        when(chatGreetingService.awaitSeeded(anyLong())).thenReturn(Mono.empty());
+
+        chatService = new ChatService(null, null, chatPersistenceService, chatGreetingService,
+            mock(ChatSessionWindow.class), mock(ChatMessageWriteBehind.class), mock(ChatArchiveService.class),
+            mock(StoryService.class), aiServerClient);
+    }
+
+    @AfterEach
+    void tearDown() {
+        aiServerClient.shutdown();
+        stubServer.stop(0);
+    }
+
+    @Test
+    void concurrentMessagesDoNotQueueBehindAiLatency() {
+        long startedAt = System.nanoTime();
+
+        List<ChatResponseDto> responses = Flux.range(0, MESSAGES)
+            .flatMap(i -> chatService.sendMessage(new ChatMessageRequest((long) i, "안녕 " + i)), MESSAGES)
+            .collectList()
+            .block(Duration.ofSeconds(30));
+
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+        double perSecond = MESSAGES * 1000.0 / Math.max(elapsedMs, 1);
+        String throughput = String.format("chat throughput: %d messages in %d ms (%.1f msg/s, serial would be %.1f msg/s)",
+            MESSAGES, elapsedMs, perSecond, 1000.0 / AI_DELAY.toMillis());
+
+        assertThat(responses).hasSize(MESSAGES).allMatch(r -> "좋아요!".equals(r.getAiResponse()));
+        verify(chatPersistenceService, times(MESSAGES)).saveAiMessage(any(), anyString());
+        // 직렬이면 20초 - 동시 처리라면 몇 초 안에 끝나야 함
+        assertThat(elapsedMs).as(throughput).isLessThan(MESSAGES * AI_DELAY.toMillis() / 4);
+    }
+}
@@ -0,0 +1,110 @@
+package com.sstt.dinory.domain.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import com.sstt.dinory.domain.chat.dto.ChatResponseDto;
+import com.sstt.dinory.domain.chat.dto.ChatSessionPageDto;
+import com.sstt.dinory.domain.chat.dto.ChatSessionSummaryDto;
+import com.sstt.dinory.domain.chat.entity.ChatMessage;
+import com.sstt.dinory.domain.chat.entity.ChatSession;
+import com.sstt.dinory.domain.chat.repository.ChatMessageRepository;
+import com.sstt.dinory.domain.chat.repository.ChatSessionRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * 세션 목록 조회의 쿼리 수가 세션 수와 무관한지 확인 (N+1 회귀 방지)
+ *
+ * Hibernate Statistics의 prepareStatementCount로 실제 실행된 SQL 수를 센다.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ChatSessionSummaryQueryCountTest {
+
+    private static final int SESSIONS = 30;
+    private static final int MESSAGES_PER_SESSION = 4;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatSessionRepository chatSessionRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ChatMessageIdGenerator messageIds = new ChatMessageIdGenerator(1023);   // 앱 노드와 겹치지 않는 번호
+    private Long childId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // ChatSession.childId는 FK가 아니므로 다른 데이터와 겹치지 않는 임의 id 사용
+        childId = -ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        for (int i = 0; i < SESSIONS; i++) {
+            ChatSession session = chatSessionRepository.save(ChatSession.builder().childId(childId).build());
+            for (int j = 0; j < MESSAGES_PER_SESSION; j++) {
+                chatMessageRepository.save(ChatMessage.builder()
+                    .id(messageIds.nextId())
+                    .chatSession(session)
+                    .sender(j % 2 == 0 ? "USER" : "AI")
+                    .message("session " + i + " message " + j)
+                    .build());
+            }
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        chatSessionRepository.deleteAll(chatSessionRepository.findByChildIdOrderByStartedAtDesc(childId));
+    }
+
+    @Test
+    void summaryPageUsesConstantQueries() {
+        statistics.clear();
+
+        ChatSessionPageDto page = chatService.getChatSessionSummaries(childId, PageRequest.of(0, 20));
+
+        long queries = statistics.getPrepareStatementCount();
+        assertThat(page.getTotalElements()).isEqualTo(SESSIONS);
+        assertThat(page.getSessions()).hasSize(20);
+        ChatSessionSummaryDto first = page.getSessions().get(0);
+        assertThat(first.getMessageCount()).isEqualTo(MESSAGES_PER_SESSION);
+        assertThat(first.getLastSender()).isEqualTo("AI");
+        assertThat(first.getLastMessagePreview()).endsWith("message " + (MESSAGES_PER_SESSION - 1));
+        // 요약(GROUP BY) + 카운트 + 미리보기
+        assertThat(queries)
+            .as("session summaries: %d sessions on page, %d queries", page.getSessions().size(), queries)
+            .isEqualTo(3);
+    }
+
+    @Test
+    void fullListingNoLongerQueriesPerSession() {
+        statistics.clear();
+
+        List<ChatResponseDto> sessions = chatService.getChatSessionsByChild(childId);
+
+        long queries = statistics.getPrepareStatementCount();
+        assertThat(sessions).hasSize(SESSIONS)
+            .allSatisfy(s -> assertThat(s.getMessages()).hasSize(MESSAGES_PER_SESSION));
+        // 세션 목록 + 메시지 일괄 조회 (기존: 1 + 세션 수)
+        assertThat(queries)
+            .as("full session listing: %d sessions, %d queries", sessions.size(), queries)
+            .isEqualTo(2);
+    }
+}
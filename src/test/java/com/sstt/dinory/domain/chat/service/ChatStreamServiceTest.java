@@ -0,0 +1,97 @@
+package com.sstt.dinory.domain.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sstt.dinory.common.ai.AiClientProperties;
+import com.sstt.dinory.common.ai.AiServerClient;
+import com.sstt.dinory.domain.chat.dto.ChatMessageRequest;
+import com.sstt.dinory.domain.chat.dto.ChatResponseDto;
+import com.sstt.dinory.domain.chat.dto.ChatTurnContext;
+import com.sstt.dinory.support.StubAiStreamingServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class ChatStreamServiceTest {
+
+    private StubAiStreamingServer stubServer;
+    private ChatPersistenceService chatPersistenceService;
+    private AiServerClient aiServerClient;
+    private ChatStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        stubServer = new StubAiStreamingServer("/api/chat/stream",
+            List.of("우와, ", "디노가 ", "정말 용감했구나!"),
+            "{\"ai_response\":\"우와, 디노가 정말 용감했구나!\"}", Duration.ofMillis(300));
+
+        chatPersistenceService = mock(ChatPersistenceService.class);
+        when(chatPersistenceService.saveUserMessage(anyLong(), anyString())).thenReturn(ChatTurnContext.builder()
+            .sessionId(3L)
+            .childId(7L)
+            .userMessageId(10L)
+            .build());
+        when(chatPersistenceService.saveAiMessage(any(), anyString())).thenAnswer(invocation ->
+            ChatResponseDto.builder()
+                .sessionId(3L)
+                .aiResponse(invocation.getArgument(1))
+                .messages(List.of())
+                .build());
+
+        AiClientProperties properties = new Binder(new MapConfigurationPropertySource(Map.of()))
+            .bindOrCreate("ai.client", AiClientProperties.class);
+        aiServerClient = new AiServerClient(WebClient.builder(), new SimpleMeterRegistry(), properties, stubServer.baseUrl());
+
+        ChatGreetingService chatGreetingService = mock(ChatGreetingService.class);
+        when(chatGreetingService.awaitSeeded(anyLong())).thenReturn(Mono.empty());
+        streamService = new ChatStreamService(chatPersistenceService, aiServerClient, chatGreetingService, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        aiServerClient.shutdown();
+        stubServer.close();
+    }
+
+    @Test
+    void streamsTokensThenPersistsCompleteReply() {
+        long startedAt = System.currentTimeMillis();
+        AtomicLong firstTokenAt = new AtomicLong();
+
+        List<ServerSentEvent<Object>> events = streamService
+            .streamMessage(new ChatMessageRequest(3L, "디노가 친구를 도와줬어"))
+            .doOnNext(event -> firstTokenAt.compareAndSet(0, System.currentTimeMillis()))
+            .collectList()
+            .block(Duration.ofSeconds(10));
+
+        assertThat(events).extracting(ServerSentEvent::event)
+            .containsExactly("token", "token", "token", "message");
+        // 전체 응답(약 900ms)을 기다리지 않고 첫 토큰이 나감
+        assertThat(firstTokenAt.get() - startedAt).isLessThan(600);
+
+        ChatResponseDto message = (ChatResponseDto) events.get(3).data();
+        assertThat(message.getAiResponse()).isEqualTo("우와, 디노가 정말 용감했구나!");
+        verify(chatPersistenceService).saveAiMessage(any(), eq("우와, 디노가 정말 용감했구나!"));
+    }
+}
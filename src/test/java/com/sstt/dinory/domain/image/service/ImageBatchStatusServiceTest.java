@@ -0,0 +1,147 @@
+package com.sstt.dinory.domain.image.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sstt.dinory.domain.image.dto.ImageBatchStatusRequest;
+import com.sstt.dinory.domain.image.dto.ImageBatchStatusResponse;
+import com.sstt.dinory.domain.image.dto.ImageGenerationResponse;
+import com.sstt.dinory.domain.image.entity.ImageGeneration;
+import com.sstt.dinory.domain.image.event.ImageStatusChangedEvent;
+import com.sstt.dinory.domain.image.repository.ImageGenerationRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.scheduler.Schedulers;
+
+class ImageBatchStatusServiceTest {
+
+    private final List<ImageGeneration> rows = new CopyOnWriteArrayList<>();
+    private ImageStatusNotifier notifier;
+    private SimpleMeterRegistry meterRegistry;
+    private ImageBatchStatusService service;
+
+    @BeforeEach
+    void setUp() {
+        ImageGenerationRepository repository = mock(ImageGenerationRepository.class);
+        when(repository.findLatestBySceneIds(anyCollection())).thenAnswer(invocation -> List.copyOf(rows));
+
+        ImageService imageService = mock(ImageService.class);
+        when(imageService.convertToResponse(any())).thenAnswer(invocation -> {
+            ImageGeneration row = invocation.getArgument(0);
+            return ImageGenerationResponse.builder()
+                .id(row.getId())
+                .sceneId(row.getSceneId())
+                .status(row.getStatus())
+                .imageUrl(row.getImageUrl())
+                .build();
+        });
+
+        notifier = new ImageStatusNotifier();
+        meterRegistry = new SimpleMeterRegistry();
+        // 재조회 주기를 길게 - 알림으로 깨어나는지 확인
+        service = new ImageBatchStatusService(repository, imageService, notifier, meterRegistry,
+            100, Duration.ofSeconds(5), Duration.ofMinutes(1));
+
+        rows.add(row(10L, 1L, "completed"));
+        rows.add(row(11L, 2L, "processing"));
+    }
+
+    @Test
+    void returnsLatestPerSceneInRequestOrderImmediatelyWithoutSince() {
+        ImageBatchStatusResponse response = service.getBatchStatus(request(List.of(2L, 3L, 1L), null, null))
+            .block(Duration.ofSeconds(1));
+
+        assertThat(response.getImages()).extracting(ImageGenerationResponse::getSceneId).containsExactly(2L, 1L);
+        assertThat(response.isChanged()).isTrue();
+        assertThat(meterRegistry.counter("image.batch-status", "result", "immediate").count()).isEqualTo(1);
+    }
+
+    @Test
+    void longPollWakesUpWhenAWatchedSceneChanges() {
+        String version = service.getBatchStatus(request(List.of(1L, 2L), null, null)).block().getVersion();
+
+        Schedulers.boundedElastic().schedule(() -> {
+            rows.set(1, row(11L, 2L, "completed"));
+            notifier.onStatusChanged(new ImageStatusChangedEvent(11L, 99L, "completed"));   // 다른 씬 - 무시
+            notifier.onStatusChanged(new ImageStatusChangedEvent(11L, 2L, "completed"));
+        }, 200, java.util.concurrent.TimeUnit.MILLISECONDS);
+
+        long started = System.nanoTime();
+        ImageBatchStatusResponse response = service.getBatchStatus(request(List.of(1L, 2L), version, 5))
+            .block(Duration.ofSeconds(3));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+        assertThat(response.isChanged()).isTrue();
+        assertThat(response.getVersion()).isNotEqualTo(version);
+        assertThat(response.getImages()).extracting(ImageGenerationResponse::getStatus).containsExactly("completed", "completed");
+        assertThat(meterRegistry.counter("image.batch-status", "result", "changed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void longPollReturnsUnchangedStateAfterWait() {
+        String version = service.getBatchStatus(request(List.of(1L, 2L), null, null)).block().getVersion();
+
+        ImageBatchStatusResponse response = service.getBatchStatus(request(List.of(1L, 2L), version, 1))
+            .block(Duration.ofSeconds(3));
+
+        assertThat(response.isChanged()).isFalse();
+        assertThat(response.getVersion()).isEqualTo(version);
+        assertThat(meterRegistry.counter("image.batch-status", "result", "timeout").count()).isEqualTo(1);
+    }
+
+    @Test
+    void slowRecheckDoesNotOverflowTheIntervalWakeUps() {
+        ImageGenerationRepository slowRepository = mock(ImageGenerationRepository.class);
+        when(slowRepository.findLatestBySceneIds(anyCollection())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return List.copyOf(rows);
+        });
+        ImageService imageService = mock(ImageService.class);
+        when(imageService.convertToResponse(any())).thenAnswer(invocation -> ImageGenerationResponse.builder()
+            .id(invocation.<ImageGeneration>getArgument(0).getId())
+            .build());
+        // 조회 한 번(200ms) 동안 재조회 tick이 수백 번 - 쌓이면 OverflowException
+        ImageBatchStatusService slowService = new ImageBatchStatusService(slowRepository, imageService, notifier,
+            meterRegistry, 100, Duration.ofSeconds(5), Duration.ofMillis(1));
+        String version = slowService.getBatchStatus(request(List.of(1L, 2L), null, null)).block().getVersion();
+
+        ImageBatchStatusResponse response = slowService.getBatchStatus(request(List.of(1L, 2L), version, 1))
+            .block(Duration.ofSeconds(5));
+
+        assertThat(response.isChanged()).isFalse();
+        assertThat(meterRegistry.counter("image.batch-status", "result", "timeout").count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsEmptyOrTooManySceneIds() {
+        assertThatThrownBy(() -> service.getBatchStatus(request(List.of(), null, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        List<Long> tooMany = java.util.stream.LongStream.rangeClosed(1, 101).boxed().toList();
+        assertThatThrownBy(() -> service.getBatchStatus(request(tooMany, null, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ImageBatchStatusRequest request(List<Long> sceneIds, String since, Integer waitSeconds) {
+        return new ImageBatchStatusRequest(sceneIds, since, waitSeconds);
+    }
+
+    private static ImageGeneration row(Long id, Long sceneId, String status) {
+        return ImageGeneration.builder()
+            .id(id)
+            .sceneId(sceneId)
+            .status(status)
+            .imageUrl("completed".equals(status) ? ImageService.contentUrl(id) : null)
+            .build();
+    }
+}
@@ -0,0 +1,117 @@
+package com.sstt.dinory.domain.image.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sstt.dinory.domain.image.dto.GeneratedImage;
+import com.sstt.dinory.domain.image.dto.ImageJob;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 이미지 생성 워커 - 동시 처리 상한과 재시도/최종 실패 전이 확인
+ *
+ * 스케줄 poll은 끄고(enabled=false) poll()을 직접 호출한다.
+ */
+class ImageGenerationWorkerTest {
+
+    private static final int MAX_CONCURRENCY = 3;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private ImageJobPersistenceService persistence;
+    private ImageProviderClient provider;
+    private ImageGenerationWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        persistence = mock(ImageJobPersistenceService.class);
+        provider = mock(ImageProviderClient.class);
+        worker = new ImageGenerationWorker(persistence, provider, mock(ImageStore.class), mock(RemoteImageCache.class), new SimpleMeterRegistry(), false,
+            MAX_CONCURRENCY, Duration.ofSeconds(1), MAX_ATTEMPTS, Duration.ofSeconds(5), Duration.ofMinutes(5),
+            Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    @Test
+    void neverRunsMoreJobsThanMaxConcurrency() throws Exception {
+        // 큐에 작업 20개
+        AtomicLong nextId = new AtomicLong();
+        AtomicInteger remaining = new AtomicInteger(20);
+        when(persistence.claim(anyString(), anyInt())).thenAnswer(invocation -> {
+            int limit = invocation.getArgument(1);
+            List<ImageJob> jobs = new ArrayList<>();
+            while (jobs.size() < limit && remaining.getAndDecrement() > 0) {
+                jobs.add(new ImageJob(nextId.incrementAndGet(), "dino", "default", 1));
+            }
+            return jobs;
+        });
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(provider.generate(anyString(), anyString())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            return GeneratedImage.ofUrl("https://example.com/dino.png");
+        });
+
+        int started = 0;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (started < 20 && System.currentTimeMillis() < deadline) {
+            started += worker.poll();
+            Thread.sleep(10);
+        }
+
+        verify(persistence, timeout(2000).times(20)).complete(any(), anyString(), eq("https://example.com/dino.png"));
+        assertThat(started).isEqualTo(20);
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(MAX_CONCURRENCY);
+    }
+
+    @Test
+    void failedJobIsRetriedWithBackoffUntilMaxAttempts() {
+        when(provider.generate(anyString(), anyString())).thenThrow(new RuntimeException("provider down"));
+        when(persistence.claim(anyString(), anyInt()))
+            .thenReturn(List.of(new ImageJob(1L, "dino", "default", 1), new ImageJob(2L, "dino", "default", MAX_ATTEMPTS)))
+            .thenReturn(List.of());
+
+        LocalDateTime before = LocalDateTime.now();
+        worker.poll();
+
+        // 1번째 시도 실패 → 재시도 예약 (backoff 5s ±20%)
+        verify(persistence, timeout(2000)).fail(argThat(job -> job.id() == 1L), anyString(), eq("provider down"),
+            argThat(retryAt -> retryAt != null && retryAt.isAfter(before.plusSeconds(3))));
+        // 마지막 시도 실패 → 최종 실패
+        verify(persistence, timeout(2000)).fail(argThat(job -> job.id() == 2L), anyString(), eq("provider down"), isNull());
+    }
+
+    @Test
+    void backoffGrowsExponentiallyAndIsCapped() {
+        assertThat(worker.backoffFor(1)).isBetween(Duration.ofSeconds(4), Duration.ofSeconds(6));
+        assertThat(worker.backoffFor(3)).isBetween(Duration.ofSeconds(16), Duration.ofSeconds(24));
+        assertThat(worker.backoffFor(30)).isLessThanOrEqualTo(Duration.ofMinutes(6));
+    }
+}
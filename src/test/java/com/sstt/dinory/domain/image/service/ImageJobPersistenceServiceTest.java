@@ -0,0 +1,80 @@
+package com.sstt.dinory.domain.image.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.sstt.dinory.domain.image.dto.ImageJob;
+import com.sstt.dinory.domain.image.entity.ImageGeneration;
+import com.sstt.dinory.domain.image.repository.ImageGenerationRepository;
+
+class ImageJobPersistenceServiceTest {
+
+    private final ImageGenerationRepository repository = mock(ImageGenerationRepository.class);
+    private final ImageJobPersistenceService service = new ImageJobPersistenceService(repository, mock(ApplicationEventPublisher.class));
+
+    @Test
+    void lateResultFromRecoveredWorkerDoesNotOverwriteTheNewClaim() {
+        // worker-a가 1번째 시도 중 멈춤 → 복구 후 worker-b가 2번째 시도로 가져가 완료
+        ImageGeneration row = ImageGeneration.builder()
+            .id(7L)
+            .status("completed")
+            .imageUrl("https://example.com/b.png")
+            .attempts(2)
+            .build();
+        when(repository.findByIdForUpdate(7L)).thenReturn(Optional.of(row));
+
+        boolean recorded = service.fail(new ImageJob(7L, "dino", "default", 1), "worker-a", "timeout", null);
+
+        assertThat(recorded).isFalse();
+        assertThat(row.getStatus()).isEqualTo("completed");
+        assertThat(row.getImageUrl()).isEqualTo("https://example.com/b.png");
+    }
+
+    @Test
+    void resultIsRecordedWhileTheClaimIsStillHeld() {
+        ImageGeneration row = ImageGeneration.builder()
+            .id(8L)
+            .status("processing")
+            .attempts(1)
+            .lockedBy("worker-a")
+            .lockedAt(LocalDateTime.now())
+            .build();
+        when(repository.findByIdForUpdate(8L)).thenReturn(Optional.of(row));
+        when(repository.findByDedupOf(8L)).thenReturn(List.of());
+
+        boolean recorded = service.complete(new ImageJob(8L, "dino", "default", 1), "worker-a", "https://example.com/a.png");
+
+        assertThat(recorded).isTrue();
+        assertThat(row.getStatus()).isEqualTo("completed");
+        assertThat(row.getLockedBy()).isNull();
+    }
+
+    @Test
+    void recoveryOnlyResetsRowsItLockedAsStuck() {
+        LocalDateTime lockedBefore = LocalDateTime.now().minusMinutes(5);
+        ImageGeneration stuck = ImageGeneration.builder()
+            .id(9L)
+            .status("processing")
+            .attempts(1)
+            .lockedBy("worker-a")
+            .lockedAt(lockedBefore.minusMinutes(1))
+            .build();
+        when(repository.lockStuck(lockedBefore)).thenReturn(List.of(stuck));
+
+        int recovered = service.recoverStuck(lockedBefore);
+
+        assertThat(recovered).isEqualTo(1);
+        assertThat(stuck.getStatus()).isEqualTo("pending");
+        assertThat(stuck.getLockedBy()).isNull();
+        verify(repository).lockStuck(lockedBefore);
+    }
+}
@@ -0,0 +1,92 @@
+package com.sstt.dinory.domain.image.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ImageProviderRouterTest {
+
+    private static final long MS = 1_000_000L;
+
+    private ImageProviderRouter router(String strategy) {
+        return new ImageProviderRouter(new SimpleMeterRegistry(), Duration.ofSeconds(30), Duration.ofSeconds(5),
+            strategy, 0.2, 5, 0.5, Duration.ofMinutes(30), Duration.ofMinutes(1), Duration.ofMinutes(5), 0.8);
+    }
+
+    @Test
+    void outOfCreditsProviderIsSkippedAfterOneFailure() {
+        ImageProviderRouter router = router("preference");
+        assertThat(router.route()).containsExactly(ImageProvider.STABILITY, ImageProvider.POLLINATIONS);
+
+        router.recordFailure(ImageProvider.STABILITY, 300 * MS, new RuntimeException("Failed to call Stability AI API",
+            HttpClientErrorException.create(HttpStatus.PAYMENT_REQUIRED, "Payment Required", null, null, null)));
+
+        // 다음 요청부터는 Stability 왕복 없이 Pollinations만
+        assertThat(router.route()).containsExactly(ImageProvider.POLLINATIONS);
+        assertThat(router.snapshot()).filteredOn(s -> s.provider().equals("stability"))
+            .singleElement()
+            .satisfies(s -> {
+                assertThat(s.available()).isFalse();
+                assertThat(s.cooldownReason()).isEqualTo("out-of-credits");
+            });
+    }
+
+    @Test
+    void highErrorRateCoolsProviderDown() {
+        ImageProviderRouter router = router("preference");
+        for (int i = 0; i < 10; i++) {
+            router.recordFailure(ImageProvider.STABILITY, 100 * MS, new RuntimeException("500"));
+        }
+        assertThat(router.route()).first().isEqualTo(ImageProvider.POLLINATIONS);
+    }
+
+    @Test
+    void fastestStrategyPrefersLowerEwmaLatency() {
+        ImageProviderRouter router = router("fastest");
+        for (int i = 0; i < 5; i++) {
+            router.recordSuccess(ImageProvider.STABILITY, 8_000 * MS);
+            router.recordSuccess(ImageProvider.POLLINATIONS, 2_000 * MS);
+        }
+        assertThat(router.route()).containsExactly(ImageProvider.POLLINATIONS, ImageProvider.STABILITY);
+    }
+
+    @Test
+    void whenEveryProviderIsCoolingDownTheOneRecoveringFirstIsTried() {
+        ImageProviderRouter router = router("preference");
+        router.recordFailure(ImageProvider.STABILITY, MS,
+            HttpClientErrorException.create(HttpStatus.PAYMENT_REQUIRED, "Payment Required", null, null, null));
+        for (int i = 0; i < 10; i++) {
+            router.recordFailure(ImageProvider.POLLINATIONS, MS, new RuntimeException("down"));
+        }
+        assertThat(router.route()).containsExactly(ImageProvider.POLLINATIONS, ImageProvider.STABILITY);
+    }
+
+    @Test
+    void providerFinishingJustUnderItsDeadlineCoolsDown() {
+        ImageProviderRouter router = router("preference");
+        // deadline 30s에서 끊기므로 성공 지연은 30s를 넘지 못함 - 28s대로 끌면 느린 제공자
+        for (int i = 0; i < 5; i++) {
+            router.recordSuccess(ImageProvider.STABILITY, 28_000 * MS);
+        }
+        assertThat(router.route()).containsExactly(ImageProvider.POLLINATIONS);
+    }
+
+    @Test
+    void intermittentTimeoutsCountTowardSlowness() {
+        ImageProviderRouter router = router("preference");
+        // 성공 20s와 deadline(30s) 타임아웃이 번갈아 - 오류율은 기준 이하지만 지연 EWMA가 24s를 넘음
+        for (int i = 0; i < 6; i++) {
+            router.recordSuccess(ImageProvider.STABILITY, 20_000 * MS);
+            router.recordFailure(ImageProvider.STABILITY, 30_000 * MS, new RuntimeException("timeout"));
+        }
+        assertThat(router.snapshot()).filteredOn(s -> s.provider().equals("stability"))
+            .singleElement()
+            .satisfies(s -> assertThat(s.cooldownReason()).isEqualTo("slow"));
+    }
+}
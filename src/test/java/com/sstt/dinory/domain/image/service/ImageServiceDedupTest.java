@@ -0,0 +1,96 @@
+package com.sstt.dinory.domain.image.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sstt.dinory.domain.image.dto.ImageGenerationRequest;
+import com.sstt.dinory.domain.image.dto.ImageGenerationResponse;
+import com.sstt.dinory.domain.image.entity.ImageGeneration;
+import com.sstt.dinory.domain.image.repository.ImageGenerationRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ImageServiceDedupTest {
+
+    private ImageGenerationRepository repository;
+    private ImageJobPersistenceService persistence;
+    private ImageGenerationWorker worker;
+    private SimpleMeterRegistry meterRegistry;
+    private ImageService imageService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ImageGenerationRepository.class);
+        persistence = mock(ImageJobPersistenceService.class);
+        worker = mock(ImageGenerationWorker.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        AtomicLong ids = new AtomicLong(100);
+        when(repository.save(any())).thenAnswer(invocation -> {
+            ImageGeneration row = invocation.getArgument(0);
+            row.setId(ids.incrementAndGet());
+            return row;
+        });
+        when(repository.findTopByPromptHashAndStatusOrderByIdDesc(anyString(), eq("completed"))).thenReturn(Optional.empty());
+        when(repository.findTopByPromptHashAndStatusInAndDedupOfIsNullOrderByIdAsc(anyString(), anyCollection()))
+            .thenReturn(Optional.empty());
+
+        imageService = new ImageService(repository, persistence, worker, mock(ImageStore.class), mock(ImageProviderRouter.class),
+            mock(RemoteImageCache.class), mock(ImageVariantService.class), new ImageUrlSigner("test-secret", Duration.ofHours(1)),
+            meterRegistry, true,
+            Duration.ofSeconds(25), Duration.ofSeconds(1));
+    }
+
+    @Test
+    void promptHashIgnoresCaseAndWhitespace() {
+        assertThat(ImageService.promptHash("  A little  DINO\nin the forest ", "Anime"))
+            .isEqualTo(ImageService.promptHash("a little dino in the forest", "anime"))
+            .isNotEqualTo(ImageService.promptHash("a little dino in the forest", "default"));
+    }
+
+    @Test
+    void completedResultIsReusedWithoutNewJob() {
+        ImageGeneration done = ImageGeneration.builder().id(7L).status("completed").imageKey("k").build();
+        when(repository.findTopByPromptHashAndStatusOrderByIdDesc(anyString(), eq("completed"))).thenReturn(Optional.of(done));
+        when(persistence.saveCopyOf(done, 3L, 5L, ImageService.PRIORITY_INTERACTIVE)).thenReturn(ImageGeneration.builder().id(8L).sceneId(3L).status("completed").build());
+
+        ImageGenerationResponse response = imageService.generateImage(new ImageGenerationRequest(3L, "dino", "anime"), 5L);
+
+        assertThat(response.getStatus()).isEqualTo("completed");
+        verify(worker, never()).wakeUp();
+        verify(repository, never()).save(any());
+        assertThat(meterRegistry.counter("image.dedup.requests", "result", "hit").count()).isEqualTo(1);
+    }
+
+    @Test
+    void requestWhileSamePromptIsGeneratingWaitsForLeader() {
+        ImageGeneration leader = ImageGeneration.builder().id(50L).status("processing").build();
+        imageService.generateImage(new ImageGenerationRequest(1L, "dino", "anime"), 5L);   // miss → leader
+        when(repository.findTopByPromptHashAndStatusInAndDedupOfIsNullOrderByIdAsc(anyString(), anyCollection()))
+            .thenReturn(Optional.of(leader));
+
+        ImageGenerationResponse response = imageService.generateImage(new ImageGenerationRequest(2L, " DINO ", "Anime"), 6L);
+
+        assertThat(response.getStatus()).isEqualTo("pending");
+        verify(repository).save(argThat(row -> Long.valueOf(50L).equals(row.getDedupOf()) && row.getSceneId() == 2L));
+        verify(worker, times(1)).wakeUp();   // leader 때만
+        assertThat(meterRegistry.counter("image.dedup.requests", "result", "coalesced").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("image.dedup.requests", "result", "miss").count()).isEqualTo(1);
+    }
+}
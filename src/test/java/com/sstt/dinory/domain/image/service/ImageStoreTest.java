@@ -0,0 +1,43 @@
+package com.sstt.dinory.domain.image.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ImageStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void sameContentIsStoredOnceUnderShardedSha256Key() throws Exception {
+        ImageStore store = new ImageStore(root.toString());
+        byte[] png = "not really a png".getBytes(StandardCharsets.UTF_8);
+
+        String key = store.put(png);
+        String again = store.put(png.clone());
+
+        assertThat(key).hasSize(64).isEqualTo(again).isEqualTo(ImageStore.sha256(png));
+        Path path = store.find(key).orElseThrow();
+        assertThat(root.relativize(path).toString().replace('\\', '/'))
+            .isEqualTo(key.substring(0, 2) + "/" + key.substring(2, 4) + "/" + key);
+        assertThat(Files.readAllBytes(path)).isEqualTo(png);
+        try (var files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile).count()).isEqualTo(1);   // 임시 파일 없음
+        }
+    }
+
+    @Test
+    void invalidOrUnknownKeysAreNotResolved() {
+        ImageStore store = new ImageStore(root.toString());
+
+        assertThat(store.find("../../etc/passwd")).isEmpty();
+        assertThat(store.find("0".repeat(64))).isEmpty();
+        assertThat(store.find(null)).isEmpty();
+    }
+}
@@ -0,0 +1,35 @@
+package com.sstt.dinory.domain.image.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+class ImageUrlSignerTest {
+
+    private final ImageUrlSigner signer = new ImageUrlSigner("test-secret", Duration.ofHours(1));
+
+    @Test
+    void signedContentUrlIsAcceptedOnlyForItsOwnImage() {
+        UriComponents signed = UriComponentsBuilder.fromUriString(signer.sign(7L, ImageService.contentUrl(7L))).build();
+        Long expires = Long.valueOf(signed.getQueryParams().getFirst("expires"));
+        String signature = signed.getQueryParams().getFirst("signature");
+
+        assertThat(signed.getPath()).isEqualTo("/api/images/7/content");
+        assertThat(signer.verify(7L, expires, signature)).isTrue();
+        assertThat(signer.verify(8L, expires, signature)).isFalse();
+        assertThat(signer.verify(7L, expires + 3600, signature)).isFalse();
+        assertThat(signer.verify(7L, null, null)).isFalse();
+    }
+
+    @Test
+    void remoteUrlIsLeftAsIs() {
+        String remote = "https://image.pollinations.ai/prompt/dino";
+
+        assertThat(signer.sign(7L, remote)).isEqualTo(remote);
+        assertThat(signer.sign(7L, null)).isNull();
+    }
+}
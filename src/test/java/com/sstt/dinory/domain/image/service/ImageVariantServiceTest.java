@@ -0,0 +1,109 @@
+package com.sstt.dinory.domain.image.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sstt.dinory.domain.image.dto.ImageContent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ImageVariantServiceTest {
+
+    @TempDir
+    Path root;
+
+    private ImageStore store;
+    private SimpleMeterRegistry meterRegistry;
+    private ImageVariantService variants;
+
+    @BeforeEach
+    void setUp() {
+        store = new ImageStore(root.toString());
+        meterRegistry = new SimpleMeterRegistry();
+        variants = new ImageVariantService(store, meterRegistry, true, 0.82f);
+    }
+
+    @Test
+    void widthSelectsSmallestCoveringVariant() {
+        assertThat(ImageVariant.forWidth(64)).isEqualTo(ImageVariant.THUMB);
+        assertThat(ImageVariant.forWidth(128)).isEqualTo(ImageVariant.THUMB);
+        assertThat(ImageVariant.forWidth(300)).isEqualTo(ImageVariant.CARD);
+        assertThat(ImageVariant.forWidth(2048)).isEqualTo(ImageVariant.FULL);
+    }
+
+    @Test
+    void thumbIsGeneratedOnceAsSmallJpegAndReused() throws Exception {
+        ImageContent original = stored(png(1024, 1024));
+
+        ImageContent thumb = variants.resolve(original, ImageVariant.THUMB);
+        ImageContent again = variants.resolve(original, ImageVariant.THUMB);
+
+        BufferedImage decoded = ImageIO.read(thumb.path().toFile());
+        assertThat(decoded.getWidth()).isEqualTo(128);
+        assertThat(decoded.getHeight()).isEqualTo(128);
+        assertThat(thumb.contentType()).isEqualTo("image/jpeg");
+        assertThat(thumb.key()).isEqualTo(original.key() + "-thumb");
+        assertThat(Files.size(thumb.path())).isLessThan(Files.size(original.path()) / 4);
+        assertThat(again.path()).isEqualTo(thumb.path());
+        assertThat(meterRegistry.counter("image.variant", "result", "generated").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("image.variant", "result", "hit").count()).isEqualTo(1);
+    }
+
+    @Test
+    void smallerOriginalIsNotUpscaled() throws Exception {
+        ImageContent original = stored(png(300, 200));
+
+        BufferedImage full = ImageIO.read(variants.resolve(original, ImageVariant.FULL).path().toFile());
+
+        assertThat(full.getWidth()).isEqualTo(300);
+        assertThat(full.getHeight()).isEqualTo(200);
+    }
+
+    @Test
+    void undecodableOriginalFallsBackToOriginal() {
+        ImageContent original = stored("not an image".getBytes(StandardCharsets.UTF_8), "image/png");
+
+        assertThat(variants.resolve(original, ImageVariant.CARD)).isEqualTo(original);
+        assertThat(meterRegistry.counter("image.variant", "result", "fallback").count()).isEqualTo(1);
+    }
+
+    private ImageContent stored(byte[] png) {
+        return stored(png, "image/png");
+    }
+
+    private ImageContent stored(byte[] content, String contentType) {
+        String key = store.put(content);
+        return new ImageContent(key, store.find(key).orElseThrow(), contentType, null);
+    }
+
+    /** 압축이 잘 안 되는 노이즈 섞인 그라데이션 (생성 이미지와 비슷한 크기가 되도록) */
+    private static byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new java.awt.GradientPaint(0, 0, Color.ORANGE, width, height, Color.BLUE));
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        java.util.Random random = new java.util.Random(42);
+        for (int y = 0; y < height; y += 2) {
+            for (int x = 0; x < width; x += 2) {
+                image.setRGB(x, y, image.getRGB(x, y) ^ (random.nextInt(32) << 8));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
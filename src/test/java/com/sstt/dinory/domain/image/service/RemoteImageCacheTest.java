@@ -0,0 +1,145 @@
+package com.sstt.dinory.domain.image.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sstt.dinory.domain.image.dto.ImageContent;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RemoteImageCacheTest {
+
+    private static final byte[] PNG = "remote rendered png".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path root;
+
+    private HttpServer server;
+    private final AtomicInteger remoteHits = new AtomicInteger();
+    private final AtomicInteger internalHits = new AtomicInteger();
+    private ImageJobPersistenceService persistence;
+    private RemoteImageCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/prompt/", exchange -> {
+            remoteHits.incrementAndGet();
+            try {
+                Thread.sleep(300);      // 원격 렌더링
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "image/jpeg");
+            exchange.sendResponseHeaders(200, PNG.length);
+            exchange.getResponseBody().write(PNG);
+            exchange.close();
+        });
+        // 허용된 호스트가 다른 곳으로 넘기는 경우
+        server.createContext("/redirect/", exchange -> {
+            exchange.getResponseHeaders().add("Location", "http://localhost:" + server.getAddress().getPort() + "/internal/secret");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        server.createContext("/internal/", exchange -> {
+            internalHits.incrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", "image/png");
+            exchange.sendResponseHeaders(200, PNG.length);
+            exchange.getResponseBody().write(PNG);
+            exchange.close();
+        });
+        server.start();
+
+        persistence = mock(ImageJobPersistenceService.class);
+        cache = new RemoteImageCache(new ImageStore(root.toString()), persistence, new SimpleMeterRegistry(),
+            true, false, List.of("localhost"), Duration.ofSeconds(1), Duration.ofSeconds(5), 1024, Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        cache.shutdown();
+    }
+
+    @Test
+    void concurrentFirstViewsFetchTheRemoteImageOnce() throws Exception {
+        String url = "http://localhost:" + server.getAddress().getPort() + "/prompt/a%20dino?width=1024";
+        int viewers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(viewers);
+        List<Future<Optional<ImageContent>>> results = new ArrayList<>();
+        for (int i = 0; i < viewers; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return cache.fetch(1L, url);
+            }));
+        }
+        start.countDown();
+
+        for (Future<Optional<ImageContent>> result : results) {
+            ImageContent content = result.get().orElseThrow();
+            assertThat(content.key()).isEqualTo(ImageStore.sha256(PNG));
+            assertThat(content.contentType()).isEqualTo("image/jpeg");
+            assertThat(Files.readAllBytes(content.path())).isEqualTo(PNG);
+        }
+        pool.shutdown();
+
+        assertThat(remoteHits).hasValue(1);
+        verify(persistence, times(1)).attachStoredContent(1L, url, ImageStore.sha256(PNG), "image/jpeg");
+    }
+
+    @Test
+    void urlsOutsideAllowedHostsAreNotFetched() {
+        assertThat(cache.fetch(1L, "https://internal.example/secret.png")).isEmpty();
+        assertThat(cache.fetch(1L, "file:///etc/passwd")).isEmpty();
+
+        assertThat(remoteHits).hasValue(0);
+        verifyNoInteractions(persistence);
+    }
+
+    @Test
+    void redirectsAreNotFollowed() {
+        String url = "http://localhost:" + server.getAddress().getPort() + "/redirect/dino";
+
+        assertThat(cache.fetch(1L, url)).isEmpty();
+
+        assertThat(internalHits).hasValue(0);
+        verifyNoInteractions(persistence);
+    }
+
+    @Test
+    void slowRemoteRenderingFallsBackToRedirectAndKeepsFetchingInBackground() {
+        String url = "http://localhost:" + server.getAddress().getPort() + "/prompt/slow%20dino";
+
+        // 원격 렌더링(300ms)이 request-wait(50ms)보다 길면 기다리지 않고 empty → 컨트롤러가 원격 URL로 302
+        assertThat(cache.fetchForRequest(1L, url)).isEmpty();
+
+        verify(persistence, timeout(2000)).attachStoredContent(1L, url, ImageStore.sha256(PNG), "image/jpeg");
+        assertThat(remoteHits).hasValue(1);
+    }
+}
@@ -0,0 +1,54 @@
+package com.sstt.dinory.domain.story.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sstt.dinory.domain.story.entity.SceneBranch;
+import com.sstt.dinory.domain.story.repository.SceneBranchRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SceneBranchCacheTest {
+
+    private final SceneBranchRepository repository = mock(SceneBranchRepository.class);
+    private final SceneBranchCache cache = new SceneBranchCache(repository, new ObjectMapper(), new SimpleMeterRegistry(),
+        true, 100, Duration.ZERO, Duration.ofDays(30), 2);
+
+    @Test
+    void expiredRowIsMissedAndThenOverwrittenByUpsert() {
+        when(repository.findByBranchKey("k1")).thenReturn(Optional.of(SceneBranch.builder()
+            .branchKey("k1")
+            .responseJson("{\"scene\":{\"text\":\"옛날 씬\"}}")
+            .createdAt(LocalDateTime.now().minusDays(31))
+            .build()));
+
+        assertThat(cache.get("k1")).isEmpty();
+
+        cache.put("k1", "pc-1", 2, Map.of("scene", Map.of("text", "새 씬")), 1200L);
+
+        verify(repository).upsert(eq("k1"), eq("pc-1"), eq(2), anyString(), eq(1200L));
+    }
+
+    @Test
+    void purgeDeletesInBatchesUntilNothingIsLeft() {
+        when(repository.deleteCreatedBefore(any(), eq(2))).thenReturn(2, 2, 1);
+
+        cache.purgeExpired();
+
+        verify(repository, times(3)).deleteCreatedBefore(any(), eq(2));
+    }
+}
@@ -0,0 +1,111 @@
+package com.sstt.dinory.domain.story.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.sstt.dinory.domain.auth.entity.Member;
+import com.sstt.dinory.domain.auth.entity.OAuthProvider;
+import com.sstt.dinory.domain.auth.entity.Role;
+import com.sstt.dinory.domain.auth.repository.MemberRepository;
+import com.sstt.dinory.domain.child.entity.Child;
+import com.sstt.dinory.domain.child.repository.ChildRepository;
+import com.sstt.dinory.domain.story.dto.StoryGenerateRequest;
+import com.sstt.dinory.domain.story.dto.StorySceneContext;
+import com.sstt.dinory.domain.story.repository.StoryRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 실제 DB로 StoryCreationCoordinator의 노드 간 경합과 삭제된 Story id 처리를 확인
+ *
+ * 노드마다 SingleFlight/메모리 캐시가 따로 있으므로 coordinator 두 개를 노드로 보고,
+ * 같은 pineconeId로 동시에 첫 씬을 요청해 INSERT ... ON DUPLICATE KEY UPDATE가 경합을 푸는지 본다.
+ */
+@SpringBootTest
+class StoryCreationCoordinatorRaceTest {
+
+    private static final int PER_NODE = 50;
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private StoryService storyService;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private ChildRepository childRepository;
+
+    @Test
+    void concurrentFirstRequestsOnTwoNodesResolveToOneStory() throws Exception {
+        StoryCreationCoordinator nodeA = new StoryCreationCoordinator(storyRepository, new SimpleMeterRegistry(), 100);
+        StoryCreationCoordinator nodeB = new StoryCreationCoordinator(storyRepository, new SimpleMeterRegistry(), 100);
+        String pineconeId = "race-" + UUID.randomUUID().toString().substring(0, 8);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < PER_NODE * 2; i++) {
+                StoryCreationCoordinator node = i % 2 == 0 ? nodeA : nodeB;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return node.getOrCreateStoryId(pineconeId);
+                }));
+            }
+            start.countDown();
+        }
+
+        Long storyId = storyRepository.findIdByPineconeId(pineconeId).orElseThrow();
+        for (Future<Long> result : results) {
+            assertThat(result.get()).isEqualTo(storyId);
+        }
+    }
+
+    @Test
+    void deletedStoryIsRecreatedInsteadOfFailingFromTheCachedId() {
+        String pineconeId = "deleted-" + UUID.randomUUID().toString().substring(0, 8);
+        StoryGenerateRequest request = StoryGenerateRequest.builder()
+            .storyId(pineconeId)
+            .childId(createChild().getId())
+            .emotion("기뻐요")
+            .interests(List.of("공룡"))
+            .build();
+
+        StorySceneContext first = storyService.prepareFirstScene(request);
+        storyRepository.deleteById(first.getStoryId());
+
+        StorySceneContext second = storyService.prepareFirstScene(request);
+
+        assertThat(second.getStoryId()).isNotEqualTo(first.getStoryId());
+        assertThat(storyRepository.findIdByPineconeId(pineconeId)).contains(second.getStoryId());
+    }
+
+    private Child createChild() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Member member = memberRepository.save(Member.builder()
+            .email("race-" + suffix + "@test.dinory.com")
+            .name("경합테스트")
+            .provider(OAuthProvider.GOOGLE)
+            .providerId("race-" + suffix)
+            .role(Role.USER)
+            .build());
+
+        return childRepository.save(Child.builder()
+            .member(member)
+            .name("디노")
+            .build());
+    }
+}
@@ -0,0 +1,94 @@
+package com.sstt.dinory.domain.story.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.sstt.dinory.domain.story.repository.StoryRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class StoryCreationCoordinatorTest {
+
+    private static final int PARALLEL = 500;
+
+    @Test
+    void createsStoryOnceForConcurrentFirstSceneRequests() throws Exception {
+        StoryRepository storyRepository = mock(StoryRepository.class);
+        AtomicReference<Long> created = new AtomicReference<>();
+
+        // 생성 전에는 비어 있고, upsert 이후에는 id 77 반환
+        when(storyRepository.findIdByPineconeId("pc-1")).thenAnswer(invocation -> Optional.ofNullable(created.get()));
+        when(storyRepository.insertIfAbsent(eq("pc-1"), anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(50); // DB 왕복 동안 다른 요청이 몰려오도록
+            created.set(77L);
+            return 1;
+        });
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StoryCreationCoordinator coordinator = new StoryCreationCoordinator(storyRepository, meterRegistry, 100);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+        long startedAt;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < PARALLEL; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return coordinator.getOrCreateStoryId("pc-1");
+                }));
+            }
+            startedAt = System.currentTimeMillis();
+            start.countDown();
+        }
+        long elapsedMs = System.currentTimeMillis() - startedAt;
+
+        for (Future<Long> result : results) {
+            assertThat(result.get()).isEqualTo(77L);
+        }
+        verify(storyRepository, times(1)).insertIfAbsent(eq("pc-1"), anyString(), anyString(), anyString());
+        // 기존 방식은 충돌마다 200ms~1s sleep 재조회
+        assertThat(elapsedMs).isLessThan(2000);
+
+        double total = meterRegistry.find("story.creation.requests").counters().stream()
+            .mapToDouble(c -> c.count()).sum();
+        assertThat(total).isEqualTo(PARALLEL);
+    }
+
+    @Test
+    void evictedIdIsLoadedAgainAndCacheStaysBounded() {
+        StoryRepository storyRepository = mock(StoryRepository.class);
+        when(storyRepository.findIdByPineconeId(anyString())).thenReturn(Optional.of(1L));
+        StoryCreationCoordinator coordinator = new StoryCreationCoordinator(storyRepository, new SimpleMeterRegistry(), 2);
+
+        assertThat(coordinator.getOrCreateStoryId("pc-1")).isEqualTo(1L);
+        assertThat(coordinator.getOrCreateStoryId("pc-1")).isEqualTo(1L);
+        verify(storyRepository, times(1)).findIdByPineconeId("pc-1");
+
+        // Story가 삭제되어 다시 만들어진 경우
+        coordinator.evict("pc-1", 1L);
+        when(storyRepository.findIdByPineconeId("pc-1")).thenReturn(Optional.of(2L));
+        assertThat(coordinator.getOrCreateStoryId("pc-1")).isEqualTo(2L);
+
+        // max-known-ids(2)를 넘으면 먼저 들어온 pc-1이 빠짐 (evict 전 예전 항목은 값이 달라 무시)
+        coordinator.getOrCreateStoryId("pc-2");
+        coordinator.getOrCreateStoryId("pc-3");
+        coordinator.getOrCreateStoryId("pc-1");
+        verify(storyRepository, times(3)).findIdByPineconeId("pc-1");
+    }
+}
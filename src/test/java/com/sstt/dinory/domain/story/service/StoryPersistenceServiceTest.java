@@ -0,0 +1,79 @@
+package com.sstt.dinory.domain.story.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.sstt.dinory.domain.child.repository.ChildRepository;
+import com.sstt.dinory.domain.story.dto.SavedScene;
+import com.sstt.dinory.domain.story.dto.StorySceneContext;
+import com.sstt.dinory.domain.story.entity.Scene;
+import com.sstt.dinory.domain.story.entity.Story;
+import com.sstt.dinory.domain.story.entity.StoryChoiceEvent;
+import com.sstt.dinory.domain.story.entity.StoryCompletion;
+import com.sstt.dinory.domain.story.repository.SceneRepository;
+import com.sstt.dinory.domain.story.repository.StoryChoiceEventRepository;
+import com.sstt.dinory.domain.story.repository.StoryCompletionRepository;
+import com.sstt.dinory.domain.story.repository.StoryRepository;
+
+class StoryPersistenceServiceTest {
+
+    private final StoryRepository storyRepository = mock(StoryRepository.class);
+    private final SceneRepository sceneRepository = mock(SceneRepository.class);
+    private final StoryChoiceEventRepository storyChoiceEventRepository = mock(StoryChoiceEventRepository.class);
+    private final StoryPersistenceService service = new StoryPersistenceService(
+        storyRepository, mock(StoryCompletionRepository.class), mock(ChildRepository.class),
+        sceneRepository, storyChoiceEventRepository, mock(ApplicationEventPublisher.class));
+
+    @Test
+    void alreadySavedSceneIsReturnedWithItsIllustration() {
+        // 다른 아이가 먼저 본 씬 - 새로 저장하지 않고 기존 씬 id와 삽화를 돌려준다
+        Story story = Story.builder().id(3L).build();
+        Scene scene = Scene.builder().id(11L).story(story).sceneNumber(2).content("숲").imageUrl("/api/images/9/content").build();
+        when(storyRepository.getReferenceById(3L)).thenReturn(story);
+        when(sceneRepository.findByStoryAndSceneNumber(story, 2)).thenReturn(Optional.of(scene));
+
+        SavedScene saved = service.saveNextScene(
+            StorySceneContext.builder().storyId(3L).completionId(5L).build(),
+            Map.of("scene", Map.of("content", "숲")), 2);
+
+        assertThat(saved.getSceneId()).isEqualTo(11L);
+        assertThat(saved.getImageUrl()).isEqualTo("/api/images/9/content");
+        assertThat(saved.getCompletionId()).isEqualTo(5L);
+    }
+
+    @Test
+    void choicePathKeepsChoicesRecordedBeforeTheEventLog() {
+        // 이벤트 로그 도입 전에 시작한 동화: 1~2번 씬 선택은 choices_json에만 있음
+        StoryCompletion completion = StoryCompletion.builder()
+            .id(5L)
+            .choicesJson(new ArrayList<>(List.of(
+                new StoryCompletion.ChoiceRecord(1, "c11", "숲으로 간다", "용기", 10),
+                new StoryCompletion.ChoiceRecord(2, "c21", "친구를 부른다", "우정", 5))))
+            .build();
+        when(storyChoiceEventRepository.findByCompletionIdOrderByIdAsc(5L)).thenReturn(List.of(
+            event(2, "c21", "친구를 부른다"),   // 압축 후 다시 읽는 경우 - 중복
+            event(3, "c31", "다리를 건넌다")));
+
+        assertThat(service.choicePath(completion))
+            .extracting(StoryCompletion.ChoiceRecord::getSceneNumber)
+            .containsExactly(1, 2, 3);
+    }
+
+    private static StoryChoiceEvent event(int sceneNumber, String choiceId, String choiceText) {
+        return StoryChoiceEvent.builder()
+            .completionId(5L)
+            .sceneNumber(sceneNumber)
+            .choiceId(choiceId)
+            .choiceText(choiceText)
+            .build();
+    }
+}
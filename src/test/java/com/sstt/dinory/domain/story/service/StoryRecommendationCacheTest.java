@@ -0,0 +1,114 @@
+package com.sstt.dinory.domain.story.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sstt.dinory.domain.story.dto.RecommendedStoryDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class StoryRecommendationCacheTest {
+
+    private StoryRecommendationCache cache;
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void coalescesConcurrentMissesAndServesWarmCacheFast() throws Exception {
+        cache = new StoryRecommendationCache(new SimpleMeterRegistry(), true, false, 100,
+            Duration.ofMinutes(5), Duration.ofHours(1));
+        AtomicInteger aiCalls = new AtomicInteger();
+        Supplier<List<RecommendedStoryDto>> loader = slowLoader(aiCalls, 200);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<RecommendedStoryDto>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 50; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get("기뻐요", List.of("공룡", "우주"), 1L, 5, loader);
+                }));
+            }
+            start.countDown();
+        }
+        for (Future<List<RecommendedStoryDto>> result : results) {
+            assertThat(result.get()).hasSize(1);
+        }
+        assertThat(aiCalls).hasValue(1);
+
+        // 관심사 순서/대소문자가 달라도 같은 키, warm 캐시는 10ms 이내 (p99)
+        long[] latencies = new long[1000];
+        for (int i = 0; i < latencies.length; i++) {
+            long startedAt = System.nanoTime();
+            cache.get(" 기뻐요", List.of("우주", "공룡"), 2L, 5, loader);
+            latencies[i] = System.nanoTime() - startedAt;
+        }
+        Arrays.sort(latencies);
+        assertThat(latencies[(int) (latencies.length * 0.99)]).isLessThan(Duration.ofMillis(10).toNanos());
+        assertThat(aiCalls).hasValue(1);
+    }
+
+    @Test
+    void staleReadReturnsImmediatelyAndRefreshesOnceInBackground() throws Exception {
+        cache = new StoryRecommendationCache(new SimpleMeterRegistry(), true, false, 100,
+            Duration.ZERO, Duration.ofHours(1));
+        AtomicInteger aiCalls = new AtomicInteger();
+        Supplier<List<RecommendedStoryDto>> loader = slowLoader(aiCalls, 300);
+
+        cache.get("슬퍼요", List.of(), null, 5, loader);
+        assertThat(aiCalls).hasValue(1);
+
+        Thread.sleep(5);
+        for (int i = 0; i < 20; i++) {
+            long startedAt = System.nanoTime();
+            assertThat(cache.get("슬퍼요", List.of(), null, 5, loader)).hasSize(1);
+            assertThat(System.nanoTime() - startedAt).isLessThan(Duration.ofMillis(100).toNanos());
+        }
+
+        Thread.sleep(500);
+        assertThat(aiCalls).hasValue(2);
+    }
+
+    @Test
+    void perChildCacheDoesNotShareOneChildsRecommendationsWithAnother() {
+        cache = new StoryRecommendationCache(new SimpleMeterRegistry(), true, true, 100,
+            Duration.ofMinutes(5), Duration.ofHours(1));
+        AtomicInteger aiCalls = new AtomicInteger();
+        Supplier<List<RecommendedStoryDto>> loader = slowLoader(aiCalls, 0);
+
+        cache.get("기뻐요", List.of("공룡"), 1L, 5, loader);
+        cache.get("기뻐요", List.of("공룡"), 1L, 5, loader);
+        assertThat(aiCalls).hasValue(1);
+
+        cache.get("기뻐요", List.of("공룡"), 2L, 5, loader);
+        assertThat(aiCalls).hasValue(2);
+    }
+
+    private Supplier<List<RecommendedStoryDto>> slowLoader(AtomicInteger calls, long delayMs) {
+        return () -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(RecommendedStoryDto.builder().storyId("pc-1").title("용감한 디노").build());
+        };
+    }
+}
@@ -0,0 +1,140 @@
+package com.sstt.dinory.domain.story.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sstt.dinory.common.ai.AiClientProperties;
+import com.sstt.dinory.common.ai.AiServerClient;
+import com.sstt.dinory.domain.story.dto.StoryGenerateRequest;
+import com.sstt.dinory.domain.story.dto.StorySceneContext;
+import com.sstt.dinory.support.StubAiStreamingServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class StorySceneStreamServiceTest {
+
+    private static final String DONE_JSON = """
+        {"storyTitle":"용감한 디노","scene":{"sceneNumber":1,"text":"옛날 옛적에 작은 공룡이 살았어요. 디노는 숲으로 갔어요.","choices":[]}}""";
+
+    private StubAiStreamingServer stubServer;
+    private StoryService storyService;
+    private SceneBranchCache sceneBranchCache;
+    private StoryPersistenceService storyPersistenceService;
+    private SceneSpeculationService sceneSpeculationService;
+    private AiServerClient aiServerClient;
+    private StorySceneStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        stubServer = new StubAiStreamingServer("/ai/generate-next-scene/stream",
+            List.of("옛날 옛적에 ", "작은 공룡이 살았어요. ", "디노는 숲으로 갔어요."),
+            DONE_JSON.strip(), Duration.ofMillis(300));
+
+        storyService = mock(StoryService.class);
+        sceneBranchCache = mock(SceneBranchCache.class);
+        storyPersistenceService = mock(StoryPersistenceService.class);
+        sceneSpeculationService = mock(SceneSpeculationService.class);
+
+        when(storyService.prepareFirstScene(any())).thenReturn(StorySceneContext.builder()
+            .storyId(1L)
+            .pineconeId("pc-1")
+            .childId(7L)
+            .emotion("기뻐요")
+            .build());
+        when(sceneBranchCache.keyFor(any(StorySceneContext.class), anyInt(), anyList())).thenReturn("branch-key");
+        when(sceneBranchCache.get(anyString())).thenReturn(Optional.empty());
+        when(storyService.completeFirstScene(any(), any())).thenAnswer(invocation -> {
+            Map<String, Object> response = new HashMap<>(invocation.getArgument(1));
+            response.put("completionId", 42L);
+            return response;
+        });
+
+        // ai.client.* 기본값으로 바인딩
+        AiClientProperties properties = new Binder(new MapConfigurationPropertySource(Map.of()))
+            .bindOrCreate("ai.client", AiClientProperties.class);
+        aiServerClient = new AiServerClient(WebClient.builder(), new SimpleMeterRegistry(), properties, stubServer.baseUrl());
+
+        streamService = new StorySceneStreamService(storyService, storyPersistenceService,
+            sceneSpeculationService, sceneBranchCache, aiServerClient, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        aiServerClient.shutdown();
+        stubServer.close();
+    }
+
+    @Test
+    void streamsTokensBeforeSceneIsComplete() {
+        long startedAt = System.currentTimeMillis();
+        AtomicLong firstTokenAt = new AtomicLong();
+
+        List<ServerSentEvent<Object>> events = streamService
+            .streamFirstScene(StoryGenerateRequest.builder().storyId("pc-1").childId(7L).emotion("기뻐요").build())
+            .doOnNext(event -> firstTokenAt.compareAndSet(0, System.currentTimeMillis()))
+            .collectList()
+            .block(Duration.ofSeconds(10));
+
+        assertThat(events).extracting(ServerSentEvent::event)
+            .containsExactly("token", "token", "token", "scene");
+        assertThat(firstTokenAt.get() - startedAt).isLessThan(1000);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> scene = (Map<String, Object>) events.get(3).data();
+        assertThat(scene).containsEntry("completionId", 42L).containsKey("scene");
+
+        verify(storyService).completeFirstScene(any(), any());
+        verify(sceneBranchCache).put(eq("branch-key"), eq("pc-1"), eq(1), any(), anyLong());
+    }
+
+    @Test
+    void nextSceneWaitsForSpeculatedBranchWithoutBlockingTheCaller() {
+        when(storyPersistenceService.prepareNextScene(42L)).thenReturn(StorySceneContext.builder()
+            .storyId(1L)
+            .pineconeId("pc-1")
+            .completionId(42L)
+            .emotion("기뻐요")
+            .build());
+        Map<String, Object> prebuilt = Map.of("scene", Map.of("sceneNumber", 2, "text", "미리 만든 씬"));
+        when(sceneSpeculationService.claim(eq(42L), eq(2), any()))
+            .thenReturn(Mono.delay(Duration.ofMillis(500)).map(tick -> prebuilt));
+        when(storyService.completeNextScene(any(), eq(2), any())).thenAnswer(invocation -> invocation.getArgument(2));
+
+        long startedAt = System.currentTimeMillis();
+        Flux<ServerSentEvent<Object>> stream = streamService.streamNextScene(42L, 2, null);
+        assertThat(System.currentTimeMillis() - startedAt).isLessThan(200);
+
+        List<ServerSentEvent<Object>> events = stream.collectList().block(Duration.ofSeconds(5));
+
+        assertThat(events).extracting(ServerSentEvent::event).containsExactly("scene");
+        assertThat(events.get(0).data()).isEqualTo(prebuilt);
+        verify(sceneBranchCache, never()).get(anyString());
+    }
+}
@@ -0,0 +1,170 @@
+package com.sstt.dinory.domain.story.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.sstt.dinory.domain.auth.entity.Member;
+import com.sstt.dinory.domain.auth.entity.OAuthProvider;
+import com.sstt.dinory.domain.auth.entity.Role;
+import com.sstt.dinory.domain.auth.repository.MemberRepository;
+import com.sstt.dinory.domain.child.entity.Child;
+import com.sstt.dinory.domain.child.repository.ChildRepository;
+import com.sstt.dinory.domain.story.dto.StoryGenerateRequest;
+import com.sun.net.httpserver.HttpServer;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * 씬 생성 중 AI 서버를 기다리는 동안 Hikari 커넥션을 잡고 있지 않은지 확인하는 부하 테스트
+ *
+ * 로컬 스텁 AI 서버가 응답을 붙잡고 있는 동안 IN_FLIGHT개의 generateStory 요청을 동시에 띄우고,
+ * 모든 요청이 AI 대기 상태에 들어갔을 때의 활성 커넥션 수를 측정한다.
+ * (기존: 요청당 1~2개, 2단계 파이프라인 적용 후: 0개)
+ */
+@SpringBootTest
+class StoryServiceConnectionLoadTest {
+
+    private static final int IN_FLIGHT = 30;
+
+    private static final AtomicInteger parkedRequests = new AtomicInteger();
+    private static final CountDownLatch releaseAi = new CountDownLatch(1);
+    private static final HttpServer stubAiServer = startStubAiServer();
+
+    @Autowired
+    private StoryService storyService;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private ChildRepository childRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @DynamicPropertySource
+    static void aiServerUrl(DynamicPropertyRegistry registry) {
+        registry.add("ai.server.url", () -> "http://localhost:" + stubAiServer.getAddress().getPort());
+        // 커넥션 수를 재는 것이므로 적응형 제한이 IN_FLIGHT보다 먼저 막지 않도록 한도를 올림
+        registry.add("ai.client.limiter.initial-limit", () -> String.valueOf(IN_FLIGHT * 2));
+        registry.add("ai.client.limiter.max-limit", () -> String.valueOf(IN_FLIGHT * 2));
+    }
+
+    @AfterAll
+    static void stopStubAiServer() {
+        releaseAi.countDown();
+        stubAiServer.stop(0);
+    }
+
+    @Test
+    void holdsNoConnectionWhileWaitingOnAiServer() throws Exception {
+        Child child = createChild();
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+
+        ExecutorService clients = Executors.newFixedThreadPool(IN_FLIGHT);
+        List<Future<Map<String, Object>>> results = new ArrayList<>();
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+
+        for (int i = 0; i < IN_FLIGHT; i++) {
+            StoryGenerateRequest request = StoryGenerateRequest.builder()
+                .storyId("load-" + runId + "-" + i)
+                .childId(child.getId())
+                .emotion("기뻐요")
+                .interests(List.of("공룡"))
+                .build();
+            results.add(clients.submit(() -> storyService.generateStory(request)));
+        }
+
+        // 모든 요청이 스텁 AI 서버에서 대기할 때까지 기다림
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (parkedRequests.get() < IN_FLIGHT && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(parkedRequests.get()).isEqualTo(IN_FLIGHT);
+
+        // AI 대기 구간 동안 여러 번 샘플링
+        int maxActive = 0;
+        for (int sample = 0; sample < 20; sample++) {
+            maxActive = Math.max(maxActive, pool.getActiveConnections());
+            Thread.sleep(10);
+        }
+        assertThat(maxActive)
+            .as("in-flight=%d, active connections=%d, per request=%.2f", IN_FLIGHT, maxActive, (double) maxActive / IN_FLIGHT)
+            .isZero();
+
+        releaseAi.countDown();
+        for (Future<Map<String, Object>> result : results) {
+            assertThat(result.get(30, TimeUnit.SECONDS)).containsKey("completionId");
+        }
+        clients.shutdown();
+    }
+
+    private Child createChild() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Member member = memberRepository.save(Member.builder()
+            .email("load-" + suffix + "@test.dinory.com")
+            .name("부하테스트")
+            .provider(OAuthProvider.GOOGLE)
+            .providerId("load-" + suffix)
+            .role(Role.USER)
+            .build());
+
+        return childRepository.save(Child.builder()
+            .member(member)
+            .name("디노")
+            .build());
+    }
+
+    private static HttpServer startStubAiServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/ai/generate-next-scene", exchange -> {
+                parkedRequests.incrementAndGet();
+                try {
+                    releaseAi.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                byte[] body = """
+                    {"storyTitle":"부하 테스트 동화",
+                     "scene":{"sceneNumber":1,"text":"옛날 옛적에 작은 공룡이 살았어요.","choices":[]},
+                     "isEnding":false}
+                    """.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("스텁 AI 서버 시작 실패", e);
+        }
+    }
+}
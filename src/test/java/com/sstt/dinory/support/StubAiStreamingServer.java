@@ -0,0 +1,71 @@
+package com.sstt.dinory.support;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 테스트용 로컬 스텁 AI 서버 (SSE 스트리밍)
+ *
+ * 지정한 경로로 요청이 오면 token 이벤트를 tokenDelay 간격으로 하나씩 흘려보낸 뒤
+ * done 이벤트로 전체 응답 JSON을 보낸다. 실제 FastAPI 서버 없이 스트리밍 경로를 검증할 때 사용한다.
+ */
+public class StubAiStreamingServer implements AutoCloseable {
+
+    private final HttpServer server;
+
+    public StubAiStreamingServer(String path, List<String> tokens, String doneJson, Duration tokenDelay) {
+        try {
+            server = HttpServer.create(new InetSocketAddress(0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("스텁 AI 서버 시작 실패", e);
+        }
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext(path, exchange -> stream(exchange, tokens, doneJson, tokenDelay));
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private void stream(HttpExchange exchange, List<String> tokens, String doneJson, Duration tokenDelay)
+            throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);  // chunked
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (String token : tokens) {
+                write(out, "token", token);
+                sleep(tokenDelay);
+            }
+            write(out, "done", doneJson);
+        }
+    }
+
+    private void write(OutputStream out, String event, String data) throws IOException {
+        out.write(("event: " + event + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}